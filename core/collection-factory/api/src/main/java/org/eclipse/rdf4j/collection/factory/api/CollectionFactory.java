@@ -26,6 +26,8 @@ import java.util.function.Supplier;
 import java.util.function.ToIntBiFunction;
 import java.util.function.ToIntFunction;
 
+import org.eclipse.rdf4j.collection.factory.primitive.LongHashSet;
+import org.eclipse.rdf4j.collection.factory.primitive.LongLongHashMap;
 import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.common.annotation.InternalUseOnly;
 import org.eclipse.rdf4j.common.exception.RDF4JException;
@@ -137,6 +139,22 @@ public interface CollectionFactory extends AutoCloseable {
 		return createBindingSetQueue(MapBindingSet::new, gethas, getget, getSet);
 	}
 
+	/**
+	 * @return a set of primitive long values, such as value IDs, that does not box its elements
+	 */
+	@InternalUseOnly
+	public default LongHashSet createLongSet() {
+		return new LongHashSet();
+	}
+
+	/**
+	 * @return a map from primitive long keys to primitive long values, such as counters per value ID
+	 */
+	@InternalUseOnly
+	public default LongLongHashMap createLongLongMap() {
+		return new LongLongHashMap();
+	}
+
 	@InternalUseOnly
 	public <E> Map<BindingSetKey, E> createGroupByMap();
 
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.collection.factory.primitive;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import org.eclipse.rdf4j.common.annotation.InternalUseOnly;
+
+/**
+ * A growable array of primitive long values that can be sorted and deduplicated in place, for example to turn a batch
+ * of collected value IDs into an ordered set without boxing. This class is not thread-safe.
+ */
+@InternalUseOnly
+public class LongArrayList {
+
+	private static final long[] EMPTY = new long[0];
+
+	private long[] elements;
+
+	private int size;
+
+	public LongArrayList() {
+		elements = EMPTY;
+	}
+
+	/**
+	 * @param initialCapacity the number of elements the list should hold without growing
+	 */
+	public LongArrayList(int initialCapacity) {
+		elements = initialCapacity == 0 ? EMPTY : new long[initialCapacity];
+	}
+
+	public void add(long value) {
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(8, size + (size >> 1)));
+		}
+		elements[size++] = value;
+	}
+
+	public long get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		}
+		return elements[index];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Sorts the elements of this list in ascending order.
+	 */
+	public void sort() {
+		Arrays.sort(elements, 0, size);
+	}
+
+	/**
+	 * Sorts the elements of this list in ascending order and removes duplicate elements.
+	 */
+	public void sortAndDeduplicate() {
+		if (size < 2) {
+			return;
+		}
+		sort();
+		int distinct = 1;
+		for (int i = 1; i < size; i++) {
+			if (elements[i] != elements[distinct - 1]) {
+				elements[distinct++] = elements[i];
+			}
+		}
+		size = distinct;
+	}
+
+	/**
+	 * Searches a value in this list, which must be sorted.
+	 *
+	 * @param value the value to search
+	 * @return <code>true</code> if the list contains the value
+	 */
+	public boolean sortedContains(long value) {
+		return Arrays.binarySearch(elements, 0, size, value) >= 0;
+	}
+
+	/**
+	 * Performs the given action for each element of this list, in list order.
+	 *
+	 * @param action the action to perform
+	 */
+	public void forEach(LongConsumer action) {
+		for (int i = 0; i < size; i++) {
+			action.accept(elements[i]);
+		}
+	}
+
+	/**
+	 * @return a new array containing the elements of this list
+	 */
+	public long[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+}
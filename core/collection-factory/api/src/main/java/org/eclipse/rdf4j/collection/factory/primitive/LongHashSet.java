@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.collection.factory.primitive;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import org.eclipse.rdf4j.common.annotation.InternalUseOnly;
+
+/**
+ * A set of primitive long values, based on open addressing with linear probing. Unlike a {@link java.util.HashSet} of
+ * {@link Long}s it does not allocate an object per element, which makes it suitable for collecting large numbers of
+ * value IDs. This class is not thread-safe.
+ */
+@InternalUseOnly
+public class LongHashSet {
+
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private static final int MIN_CAPACITY = 8;
+
+	/**
+	 * The slots of the table, where 0 marks an empty slot. The value 0 itself is tracked by {@link #containsZero}.
+	 */
+	private long[] keys;
+
+	private int mask;
+
+	private int resizeThreshold;
+
+	private boolean containsZero;
+
+	private int size;
+
+	public LongHashSet() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize the number of elements the set should hold without growing its table
+	 */
+	public LongHashSet(int expectedSize) {
+		allocate(PrimitiveHashing.tableSizeFor(expectedSize, LOAD_FACTOR, MIN_CAPACITY));
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		mask = capacity - 1;
+		resizeThreshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * @param value the value to add
+	 * @return <code>true</code> if the set did not already contain the value
+	 */
+	public boolean add(long value) {
+		if (value == 0) {
+			if (containsZero) {
+				return false;
+			}
+			containsZero = true;
+			size++;
+			return true;
+		}
+
+		int index = PrimitiveHashing.hash(value) & mask;
+		long key;
+		while ((key = keys[index]) != 0) {
+			if (key == value) {
+				return false;
+			}
+			index = (index + 1) & mask;
+		}
+		keys[index] = value;
+		if (++size > resizeThreshold) {
+			rehash(keys.length << 1);
+		}
+		return true;
+	}
+
+	/**
+	 * @param value the value to test
+	 * @return <code>true</code> if the set contains the value
+	 */
+	public boolean contains(long value) {
+		if (value == 0) {
+			return containsZero;
+		}
+
+		int index = PrimitiveHashing.hash(value) & mask;
+		long key;
+		while ((key = keys[index]) != 0) {
+			if (key == value) {
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * @param value the value to remove
+	 * @return <code>true</code> if the set contained the value
+	 */
+	public boolean remove(long value) {
+		if (value == 0) {
+			if (!containsZero) {
+				return false;
+			}
+			containsZero = false;
+			size--;
+			return true;
+		}
+
+		int index = PrimitiveHashing.hash(value) & mask;
+		long key;
+		while ((key = keys[index]) != 0) {
+			if (key == value) {
+				keys[index] = 0;
+				size--;
+				closeGap(index);
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Moves entries that follow a removed entry in its probe sequence back, so that no lookup stops at the gap.
+	 */
+	private void closeGap(int gap) {
+		int index = (gap + 1) & mask;
+		long key;
+		while ((key = keys[index]) != 0) {
+			int home = PrimitiveHashing.hash(key) & mask;
+			// move the key into the gap unless its home slot lies cyclically within (gap, index]
+			if (((index - home) & mask) >= ((index - gap) & mask)) {
+				keys[gap] = key;
+				keys[index] = 0;
+				gap = index;
+			}
+			index = (index + 1) & mask;
+		}
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		allocate(capacity);
+		for (long key : oldKeys) {
+			if (key != 0) {
+				int index = PrimitiveHashing.hash(key) & mask;
+				while (keys[index] != 0) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = key;
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all values from this set, keeping the current table size.
+	 */
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(keys, 0);
+			containsZero = false;
+			size = 0;
+		}
+	}
+
+	/**
+	 * Performs the given action for each value of this set, in no particular order.
+	 *
+	 * @param action the action to perform
+	 */
+	public void forEach(LongConsumer action) {
+		if (containsZero) {
+			action.accept(0);
+		}
+		for (long key : keys) {
+			if (key != 0) {
+				action.accept(key);
+			}
+		}
+	}
+
+	/**
+	 * @return a new array containing the values of this set, in no particular order
+	 */
+	public long[] toArray() {
+		long[] values = new long[size];
+		int i = 0;
+		if (containsZero) {
+			values[i++] = 0;
+		}
+		for (long key : keys) {
+			if (key != 0) {
+				values[i++] = key;
+			}
+		}
+		return values;
+	}
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.collection.factory.primitive;
+
+import java.util.Arrays;
+
+import org.eclipse.rdf4j.common.annotation.InternalUseOnly;
+
+/**
+ * A map from primitive long keys to primitive long values, based on open addressing with linear probing. It is meant
+ * for counters and ID mappings that would otherwise box both keys and values. This class is not thread-safe.
+ */
+@InternalUseOnly
+public class LongLongHashMap {
+
+	/**
+	 * Receives the entries of a {@link LongLongHashMap}.
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer {
+
+		void accept(long key, long value);
+	}
+
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private static final int MIN_CAPACITY = 8;
+
+	/**
+	 * The keys of the table, where 0 marks an empty slot. The entry for key 0 is kept in {@link #zeroValue}.
+	 */
+	private long[] keys;
+
+	private long[] values;
+
+	private int mask;
+
+	private int resizeThreshold;
+
+	private boolean containsZero;
+
+	private long zeroValue;
+
+	private int size;
+
+	public LongLongHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize the number of entries the map should hold without growing its table
+	 */
+	public LongLongHashMap(int expectedSize) {
+		allocate(PrimitiveHashing.tableSizeFor(expectedSize, LOAD_FACTOR, MIN_CAPACITY));
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new long[capacity];
+		mask = capacity - 1;
+		resizeThreshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	private int indexOf(long key) {
+		int index = PrimitiveHashing.hash(key) & mask;
+		long current;
+		while ((current = keys[index]) != 0) {
+			if (current == key) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param key          the key to look up
+	 * @param defaultValue the value to return if the map does not contain the key
+	 * @return the value of the key, or <code>defaultValue</code>
+	 */
+	public long get(long key, long defaultValue) {
+		if (key == 0) {
+			return containsZero ? zeroValue : defaultValue;
+		}
+		int index = indexOf(key);
+		return index < 0 ? defaultValue : values[index];
+	}
+
+	public boolean containsKey(long key) {
+		return key == 0 ? containsZero : indexOf(key) >= 0;
+	}
+
+	/**
+	 * Associates a value with a key, replacing any previous value.
+	 *
+	 * @param key   the key
+	 * @param value the value
+	 */
+	public void put(long key, long value) {
+		int index = slotFor(key);
+		if (index < 0) {
+			zeroValue = value;
+		} else {
+			values[index] = value;
+		}
+	}
+
+	/**
+	 * Adds an amount to the value of a key, treating missing keys as having value 0.
+	 *
+	 * @param key    the key
+	 * @param amount the amount to add
+	 * @return the new value of the key
+	 */
+	public long addTo(long key, long amount) {
+		int index = slotFor(key);
+		if (index < 0) {
+			return zeroValue += amount;
+		}
+		return values[index] += amount;
+	}
+
+	/**
+	 * Finds the slot of a key, creating an entry with value 0 if there is none.
+	 *
+	 * @return the index of the slot, or -1 for key 0
+	 */
+	private int slotFor(long key) {
+		if (key == 0) {
+			if (!containsZero) {
+				containsZero = true;
+				zeroValue = 0;
+				size++;
+			}
+			return -1;
+		}
+
+		int index = PrimitiveHashing.hash(key) & mask;
+		long current;
+		while ((current = keys[index]) != 0) {
+			if (current == key) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		if (size + 1 > resizeThreshold) {
+			rehash(keys.length << 1);
+			return slotFor(key);
+		}
+		keys[index] = key;
+		values[index] = 0;
+		size++;
+		return index;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			long key = oldKeys[i];
+			if (key != 0) {
+				int index = PrimitiveHashing.hash(key) & mask;
+				while (keys[index] != 0) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = key;
+				values[index] = oldValues[i];
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all entries from this map, keeping the current table size.
+	 */
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(keys, 0);
+			containsZero = false;
+			size = 0;
+		}
+	}
+
+	/**
+	 * Performs the given action for each entry of this map, in no particular order.
+	 *
+	 * @param action the action to perform
+	 */
+	public void forEach(EntryConsumer action) {
+		if (containsZero) {
+			action.accept(0, zeroValue);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != 0) {
+				action.accept(keys[i], values[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.collection.factory.primitive;
+
+/**
+ * Hashing helpers shared by the primitive collections.
+ */
+final class PrimitiveHashing {
+
+	private PrimitiveHashing() {
+	}
+
+	/**
+	 * Spreads the bits of a value so that sequential IDs do not end up in adjacent slots.
+	 */
+	static int hash(long value) {
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Computes a power of two table size that holds the expected number of elements at the given load factor.
+	 */
+	static int tableSizeFor(int expectedSize, float loadFactor, int minCapacity) {
+		long required = Math.max(minCapacity, (long) Math.ceil(expectedSize / (double) loadFactor));
+		if (required > 1 << 30) {
+			throw new IllegalArgumentException("Expected size is too large: " + expectedSize);
+		}
+		return Integer.highestOneBit((int) required - 1) << 1;
+	}
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.collection.factory.primitive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LongArrayListTest {
+
+	@Test
+	public void testAddAndGet() {
+		LongArrayList list = new LongArrayList();
+		for (long i = 0; i < 100; i++) {
+			list.add(i * 3);
+		}
+
+		assertEquals(100, list.size());
+		assertEquals(297, list.get(99));
+		assertThrows(IndexOutOfBoundsException.class, () -> list.get(100));
+
+		list.clear();
+		assertTrue(list.isEmpty());
+	}
+
+	@Test
+	public void testSortAndDeduplicate() {
+		LongArrayList list = new LongArrayList(4);
+		for (long value : new long[] { 5, 3, 5, -1, 3, 3, 9, 0, -1 }) {
+			list.add(value);
+		}
+		list.sortAndDeduplicate();
+
+		assertArrayEquals(new long[] { -1, 0, 3, 5, 9 }, list.toArray());
+		assertTrue(list.sortedContains(3));
+		assertFalse(list.sortedContains(4));
+	}
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.collection.factory.primitive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class LongHashSetTest {
+
+	@Test
+	public void testAddContainsRemove() {
+		LongHashSet set = new LongHashSet();
+
+		assertTrue(set.isEmpty());
+		assertTrue(set.add(0));
+		assertTrue(set.add(42));
+		assertTrue(set.add(-1));
+		assertFalse(set.add(42));
+		assertEquals(3, set.size());
+
+		assertTrue(set.contains(0));
+		assertTrue(set.contains(-1));
+		assertFalse(set.contains(1));
+
+		assertTrue(set.remove(0));
+		assertFalse(set.remove(0));
+		assertTrue(set.remove(42));
+		assertEquals(1, set.size());
+		assertFalse(set.contains(42));
+	}
+
+	@Test
+	public void testRandomOperations() {
+		LongHashSet set = new LongHashSet(4);
+		Set<Long> expected = new HashSet<>();
+		Random random = new Random(42);
+
+		for (int i = 0; i < 200_000; i++) {
+			// a small key range makes collisions, removals and re-additions frequent
+			long value = random.nextInt(5000) - 100;
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(value), set.remove(value));
+			} else {
+				assertEquals(expected.add(value), set.add(value));
+			}
+			assertEquals(expected.size(), set.size());
+		}
+
+		for (long value = -100; value < 4900; value++) {
+			assertEquals(expected.contains(value), set.contains(value));
+		}
+
+		long[] values = set.toArray();
+		Arrays.sort(values);
+		assertArrayEquals(expected.stream().mapToLong(Long::longValue).sorted().toArray(), values);
+
+		long[] sum = { 0 };
+		set.forEach(value -> sum[0] += value);
+		assertEquals(expected.stream().mapToLong(Long::longValue).sum(), sum[0]);
+	}
+
+	@Test
+	public void testClear() {
+		LongHashSet set = new LongHashSet();
+		for (long i = 0; i < 100; i++) {
+			set.add(i);
+		}
+		set.clear();
+
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(0));
+		assertFalse(set.contains(50));
+		assertTrue(set.add(50));
+	}
+}
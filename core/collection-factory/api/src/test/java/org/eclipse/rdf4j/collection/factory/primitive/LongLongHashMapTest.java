@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.collection.factory.primitive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LongLongHashMapTest {
+
+	@Test
+	public void testPutAndGet() {
+		LongLongHashMap map = new LongLongHashMap();
+
+		assertEquals(-1, map.get(1, -1));
+		map.put(1, 10);
+		map.put(0, 20);
+		map.put(1, 11);
+
+		assertEquals(2, map.size());
+		assertEquals(11, map.get(1, -1));
+		assertEquals(20, map.get(0, -1));
+		assertTrue(map.containsKey(0));
+		assertFalse(map.containsKey(2));
+	}
+
+	@Test
+	public void testAddTo() {
+		LongLongHashMap map = new LongLongHashMap(2);
+		Map<Long, Long> expected = new HashMap<>();
+		Random random = new Random(42);
+
+		for (int i = 0; i < 100_000; i++) {
+			long key = random.nextInt(1000);
+			long amount = random.nextInt(10);
+			assertEquals((long) expected.merge(key, amount, Long::sum), map.addTo(key, amount));
+		}
+
+		assertEquals(expected.size(), map.size());
+		map.forEach((key, value) -> assertEquals((long) expected.get(key), value));
+	}
+
+	@Test
+	public void testClear() {
+		LongLongHashMap map = new LongLongHashMap();
+		map.put(0, 1);
+		map.put(5, 1);
+		map.clear();
+
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.get(0, 0));
+		assertEquals(3, map.addTo(5, 3));
+	}
+}
@@ -14,20 +14,35 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * File wrapper that protects against concurrent file closing events due to e.g. {@link Thread#interrupt() thread
  * interrupts}. In case the file channel that is used by this class is closed due to such an event, it will try to
  * reopen the channel. The thread that causes the {@link ClosedByInterruptException} is not protected, assuming the
  * interrupt is intended to end the thread's operation.
+ * <p>
+ * Optionally, reads can be served from read-only memory mappings of the file instead of positional channel reads. The
+ * file is mapped in chunks of {@link #MAPPED_CHUNK_SIZE} bytes. A chunk is mapped once the file covers it completely
+ * and is never remapped when the file grows, reads from the last, incomplete chunk use the file channel. This avoids a
+ * system call per read and lets reads use the operating system's page cache directly. Writes still go through the
+ * file channel and are visible through the mappings. Mapped reads do not lock, they only register in a striped counter
+ * for which truncation waits, and reads that start while the file is being truncated use the file channel. Memory
+ * mappings can not be released explicitly and Windows does not allow truncating or deleting a file while it is mapped,
+ * so reads always use the file channel there, see {@link #isMemoryMappedReadsSupported()}.
  *
  * @author Arjohn Kampman
  */
@@ -40,11 +55,48 @@ public final class NioFile implements Closeable {
 			StandardOpenOption.CREATE, StandardOpenOption.SYNC);
 	public static final EnumSet<StandardOpenOption> RWD = EnumSet.of(StandardOpenOption.READ, StandardOpenOption.WRITE,
 			StandardOpenOption.CREATE, StandardOpenOption.DSYNC);
+	/**
+	 * The size of the chunks in which a file is mapped into memory for {@link #isMemoryMappedReads() memory-mapped
+	 * reads}.
+	 */
+	static final int MAPPED_CHUNK_SIZE = 1 << 24;
+
+	/**
+	 * The number of counters of {@link #activeReaders}, each one padded to its own cache line.
+	 */
+	private static final int READER_STRIPES = 32;
+
+	private static final int READER_STRIPE_PADDING = 16;
+
+	private static final boolean MEMORY_MAPPED_READS_SUPPORTED = !System.getProperty("os.name", "")
+			.toLowerCase(Locale.ROOT)
+			.contains("windows");
+
 	private final File file;
 	private final Set<StandardOpenOption> openOptions;
+	private final boolean memoryMappedReads;
+	private final int mappedChunkSize;
 
 	private volatile FileChannel fc;
 
+	/**
+	 * The read-only memory mappings of the complete chunks at the start of the file, one per chunk.
+	 */
+	private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+
+	/**
+	 * Held in write mode while the file is truncated. Mapped reads take an optimistic read stamp and use the file
+	 * channel if it is not valid.
+	 */
+	private final StampedLock truncationLock = new StampedLock();
+
+	/**
+	 * The number of reads that are copying from the {@link #chunks}, striped by thread. Truncation waits until no read
+	 * is copying, as accessing a mapped region beyond the end of the file fails asynchronously, possibly outside of
+	 * the read that caused it.
+	 */
+	private final AtomicLongArray activeReaders = new AtomicLongArray(READER_STRIPES * READER_STRIPE_PADDING);
+
 	private volatile boolean explictlyClosed;
 
 	/**
@@ -69,7 +121,28 @@ public final class NioFile implements Closeable {
 	}
 
 	public NioFile(File file, Set<StandardOpenOption> openOptions) throws IOException {
+		this(file, openOptions, false);
+	}
+
+	/**
+	 * Constructor Opens a file with specific open options, creating a new one if the file doesn't exist and the options
+	 * allow it.
+	 *
+	 * @param file              file
+	 * @param openOptions       options to open the file with
+	 * @param memoryMappedReads whether reads should be served from memory mappings of the file, ignored if
+	 *                          {@link #isMemoryMappedReadsSupported() not supported}
+	 * @throws IOException
+	 */
+	public NioFile(File file, Set<StandardOpenOption> openOptions, boolean memoryMappedReads) throws IOException {
+		this(file, openOptions, memoryMappedReads, MAPPED_CHUNK_SIZE);
+	}
+
+	NioFile(File file, Set<StandardOpenOption> openOptions, boolean memoryMappedReads, int mappedChunkSize)
+			throws IOException {
 		this.openOptions = openOptions;
+		this.memoryMappedReads = memoryMappedReads && MEMORY_MAPPED_READS_SUPPORTED;
+		this.mappedChunkSize = mappedChunkSize;
 		explictlyClosed = false;
 		this.file = file;
 		open();
@@ -104,6 +177,25 @@ public final class NioFile implements Closeable {
 		fc = FileChannel.open(file.toPath(), openOptions);
 	}
 
+	/**
+	 * Check if reads are served from memory mappings of the file.
+	 *
+	 * @return true if reads are memory-mapped
+	 */
+	public boolean isMemoryMappedReads() {
+		return memoryMappedReads;
+	}
+
+	/**
+	 * Check if reads can be served from memory mappings on this platform. This is not the case on Windows, which does
+	 * not allow truncating or deleting files that are mapped.
+	 *
+	 * @return true if memory-mapped reads are supported
+	 */
+	public static boolean isMemoryMappedReadsSupported() {
+		return MEMORY_MAPPED_READS_SUPPORTED;
+	}
+
 	/**
 	 * Reopen a channel closed by an exception, unless it was closed explicitly.
 	 *
@@ -124,6 +216,7 @@ public final class NioFile implements Closeable {
 	@Override
 	public synchronized void close() throws IOException {
 		explictlyClosed = true;
+		chunks = new MappedByteBuffer[0];
 		fc.close();
 	}
 
@@ -178,6 +271,33 @@ public final class NioFile implements Closeable {
 	 * @throws IOException
 	 */
 	public void truncate(long size) throws IOException {
+		if (!memoryMappedReads) {
+			truncateChannel(size);
+			return;
+		}
+		long stamp = truncationLock.writeLock();
+		try {
+			awaitActiveReaders();
+			unmapFrom(size);
+			truncateChannel(size);
+		} finally {
+			truncationLock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Waits until no read is copying from the memory mappings. Must be called while holding the write lock of the
+	 * {@link #truncationLock}, so that no new reads start copying.
+	 */
+	private void awaitActiveReaders() {
+		for (int i = 0; i < READER_STRIPES; i++) {
+			while (activeReaders.get(i * READER_STRIPE_PADDING) != 0) {
+				Thread.yield();
+			}
+		}
+	}
+
+	private void truncateChannel(long size) throws IOException {
 		while (true) {
 			try {
 				fc.truncate(size);
@@ -258,6 +378,12 @@ public final class NioFile implements Closeable {
 	 * @throws IOException
 	 */
 	public int read(ByteBuffer buf, long offset) throws IOException {
+		if (memoryMappedReads) {
+			int length = buf.remaining();
+			if (readMapped(buf, offset)) {
+				return length;
+			}
+		}
 		while (true) {
 			try {
 				return fc.read(buf, offset);
@@ -269,6 +395,111 @@ public final class NioFile implements Closeable {
 		}
 	}
 
+	/**
+	 * Copies the requested bytes from the memory mappings of the file, mapping the chunks that have been completed
+	 * since the last mapped read.
+	 *
+	 * @param buf    buffer to read
+	 * @param offset non-negative offset
+	 * @return <var>true</var> if all bytes have been read, <var>false</var> if the requested range is not covered by
+	 *         complete chunks or the file is being truncated, in which case the bytes should be read from the channel
+	 *         instead
+	 * @throws IOException
+	 */
+	private boolean readMapped(ByteBuffer buf, long offset) throws IOException {
+		int length = buf.remaining();
+		if (length == 0) {
+			return true;
+		}
+		long end = offset + length;
+		int chunkCount = (int) ((end - 1) / mappedChunkSize) + 1;
+
+		long stamp = truncationLock.tryOptimisticRead();
+		if (stamp == 0) {
+			// the file is being truncated
+			return false;
+		}
+		int stripe = (int) (Thread.currentThread().getId() & (READER_STRIPES - 1)) * READER_STRIPE_PADDING;
+		activeReaders.incrementAndGet(stripe);
+		try {
+			if (!truncationLock.validate(stamp)) {
+				// truncation started before this read was registered and may not wait for it
+				return false;
+			}
+			MappedByteBuffer[] mapped = chunks;
+			if (mapped.length < chunkCount) {
+				mapped = map(chunkCount, stamp);
+				if (mapped == null) {
+					return false;
+				}
+			}
+
+			long pos = offset;
+			while (pos < end) {
+				int chunk = (int) (pos / mappedChunkSize);
+				int chunkOffset = (int) (pos - (long) chunk * mappedChunkSize);
+				int count = (int) Math.min(end - pos, mappedChunkSize - chunkOffset);
+				// use a duplicate so that the position of the shared mapping is not modified
+				ByteBuffer src = mapped[chunk].duplicate();
+				src.limit(chunkOffset + count).position(chunkOffset);
+				buf.put(src);
+				pos += count;
+			}
+			return true;
+		} finally {
+			activeReaders.decrementAndGet(stripe);
+		}
+	}
+
+	/**
+	 * Maps all chunks that are completely covered by the file, unless the file is being truncated.
+	 *
+	 * @param chunkCount the number of chunks that must be mapped
+	 * @param stamp      optimistic read stamp of the {@link #truncationLock}
+	 * @return the updated chunk mappings, or <var>null</var> if the file is too small or is being truncated
+	 */
+	private synchronized MappedByteBuffer[] map(int chunkCount, long stamp) throws IOException {
+		if (!truncationLock.validate(stamp)) {
+			// mappings published now could outlive the truncation
+			return null;
+		}
+		MappedByteBuffer[] mapped = chunks;
+		if (mapped.length >= chunkCount) {
+			// already mapped by another thread
+			return mapped;
+		}
+		int completeChunks = (int) Math.min(size() / mappedChunkSize, Integer.MAX_VALUE);
+		if (completeChunks < chunkCount) {
+			return null;
+		}
+		MappedByteBuffer[] updated = Arrays.copyOf(mapped, completeChunks);
+		for (int i = mapped.length; i < completeChunks; i++) {
+			while (true) {
+				try {
+					updated[i] = fc.map(MapMode.READ_ONLY, (long) i * mappedChunkSize, mappedChunkSize);
+					break;
+				} catch (ClosedByInterruptException e) {
+					throw e;
+				} catch (ClosedChannelException e) {
+					reopen(e);
+				}
+			}
+		}
+		chunks = updated;
+		return updated;
+	}
+
+	/**
+	 * Drops the memory mappings of the chunks that are no longer completely covered by the file after truncating it to
+	 * the given size, so that they are no longer used for reads. Must be called while holding the write lock of the
+	 * {@link #truncationLock}.
+	 */
+	private synchronized void unmapFrom(long size) {
+		MappedByteBuffer[] mapped = chunks;
+		int keep = (int) Math.min(size / mappedChunkSize, mapped.length);
+		chunks = Arrays.copyOf(mapped, keep);
+	}
+
 	/**
 	 * Write byte array to channel starting at offset.
 	 *
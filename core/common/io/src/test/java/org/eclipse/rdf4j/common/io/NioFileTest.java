@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.common.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NioFileTest {
+
+	@TempDir
+	File dataDir;
+
+	@BeforeEach
+	public void setUp() {
+		assumeTrue(NioFile.isMemoryMappedReadsSupported());
+	}
+
+	@Test
+	public void testMemoryMappedReadsAcrossChunks() throws Exception {
+		try (NioFile nioFile = new NioFile(new File(dataDir, "test.dat"), NioFile.RW, true, 16)) {
+			assertTrue(nioFile.isMemoryMappedReads());
+
+			byte[] data = new byte[100];
+			for (int i = 0; i < data.length; i++) {
+				data[i] = (byte) i;
+			}
+			nioFile.writeBytes(data, 0);
+
+			assertArrayEquals(data, nioFile.readBytes(0, data.length));
+			// spans three chunks
+			assertArrayEquals(slice(data, 10, 40), nioFile.readBytes(10, 40));
+			assertEquals(0x20212223, nioFile.readInt(32));
+			// the last chunk is incomplete and read from the channel
+			assertArrayEquals(slice(data, 90, 10), nioFile.readBytes(90, 10));
+			assertEquals(99, nioFile.readByte(99));
+		}
+	}
+
+	@Test
+	public void testMemoryMappedReadsSeeWritesAndGrowth() throws Exception {
+		try (NioFile nioFile = new NioFile(new File(dataDir, "test.dat"), NioFile.RW, true, 16)) {
+			nioFile.writeLong(1L, 0);
+			assertEquals(1L, nioFile.readLong(0));
+
+			// overwrite a mapped region
+			nioFile.writeLong(2L, 0);
+			assertEquals(2L, nioFile.readLong(0));
+
+			// complete the first chunk and grow the file into the next chunk
+			nioFile.writeLong(3L, 8);
+			nioFile.writeLong(4L, 16);
+			assertEquals(3L, nioFile.readLong(8));
+			assertEquals(4L, nioFile.readLong(16));
+
+			// complete the second chunk, the first one stays mapped
+			nioFile.writeLong(5L, 24);
+			assertEquals(4, nioFile.readInt(20));
+			assertEquals(5L, nioFile.readLong(24));
+			assertEquals(2L, nioFile.readLong(0));
+
+			// reads beyond the end of the file fall back to the channel
+			ByteBuffer buf = ByteBuffer.allocate(8);
+			assertEquals(-1, nioFile.read(buf, 100));
+		}
+	}
+
+	@Test
+	public void testMemoryMappedReadsAfterTruncate() throws Exception {
+		try (NioFile nioFile = new NioFile(new File(dataDir, "test.dat"), NioFile.RW, true, 16)) {
+			nioFile.writeBytes(new byte[48], 0);
+			assertArrayEquals(new byte[48], nioFile.readBytes(0, 48));
+
+			nioFile.truncate(8);
+			assertEquals(8, nioFile.size());
+
+			nioFile.writeInt(42, 20);
+			assertEquals(42, nioFile.readInt(20));
+		}
+	}
+
+	@Test
+	@Timeout(60)
+	public void testTruncateWhileReadingMemoryMapped() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try (NioFile nioFile = new NioFile(new File(dataDir, "test.dat"), NioFile.RW, true, 16)) {
+			byte[] data = new byte[8192];
+			AtomicBoolean done = new AtomicBoolean();
+			List<Future<?>> readers = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				readers.add(executor.submit(() -> {
+					while (!done.get()) {
+						// reads beyond the end of the file are served by the channel, mapped reads must never
+						// access a truncated region
+						ByteBuffer buf = ByteBuffer.allocate(64);
+						nioFile.read(buf, ThreadLocalRandom.current().nextInt(data.length - 64));
+					}
+					return null;
+				}));
+			}
+
+			for (int i = 0; i < 2000; i++) {
+				nioFile.writeBytes(data, 0);
+				nioFile.truncate(0);
+			}
+			done.set(true);
+
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static byte[] slice(byte[] data, int offset, int length) {
+		byte[] result = new byte[length];
+		System.arraycopy(data, offset, result, 0, length);
+		return result;
+	}
+}
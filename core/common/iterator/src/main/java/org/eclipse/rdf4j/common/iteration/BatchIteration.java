@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.common.iteration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+
+/**
+ * A CloseableIteration that groups the elements of a source iteration into lists of at most a fixed size. Each list
+ * returned is a new, mutable list that is owned by the caller.
+ */
+@Experimental
+public class BatchIteration<E> extends LookAheadIteration<List<E>> {
+
+	private final CloseableIteration<? extends E> iter;
+
+	private final int batchSize;
+
+	/**
+	 * @param iter      the source iteration, must not be <var>null</var>.
+	 * @param batchSize the maximum number of elements in each batch, must be at least 1.
+	 */
+	public BatchIteration(CloseableIteration<? extends E> iter, int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("batchSize must be at least 1");
+		}
+		this.iter = Objects.requireNonNull(iter, "The iterator was null");
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	protected List<E> getNextElement() {
+		if (!iter.hasNext()) {
+			return null;
+		}
+		List<E> batch = new ArrayList<>(batchSize);
+		do {
+			batch.add(iter.next());
+		} while (batch.size() < batchSize && iter.hasNext());
+		return batch;
+	}
+
+	@Override
+	protected void handleClose() {
+		iter.close();
+	}
+}
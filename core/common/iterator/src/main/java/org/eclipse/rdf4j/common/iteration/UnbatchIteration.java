@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.common.iteration;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+
+/**
+ * A CloseableIteration that flattens an iteration over batches of elements, as produced by for example
+ * {@link BatchIteration}, back into an iteration over the individual elements. Empty batches are skipped.
+ */
+@Experimental
+public class UnbatchIteration<E> extends AbstractCloseableIteration<E> {
+
+	private final CloseableIteration<? extends List<? extends E>> iter;
+
+	private Iterator<? extends E> current = Collections.emptyIterator();
+
+	public UnbatchIteration(CloseableIteration<? extends List<? extends E>> iter) {
+		this.iter = Objects.requireNonNull(iter, "The iterator was null");
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (isClosed()) {
+			return false;
+		}
+		while (!current.hasNext()) {
+			if (!iter.hasNext()) {
+				close();
+				return false;
+			}
+			current = iter.next().iterator();
+		}
+		return true;
+	}
+
+	@Override
+	public E next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return current.next();
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected void handleClose() {
+		current = Collections.emptyIterator();
+		iter.close();
+	}
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.common.iteration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class BatchIterationTest {
+
+	@Test
+	public void batchesHaveAtMostBatchSizeElements() {
+		BatchIteration<Integer> subject = new BatchIteration<>(
+				new CloseableIteratorIteration<>(List.of(1, 2, 3, 4, 5).iterator()), 2);
+
+		assertThat(Iterations.asList(subject)).containsExactly(List.of(1, 2), List.of(3, 4), List.of(5));
+		assertThat(subject.isClosed()).isTrue();
+	}
+
+	@Test
+	public void unbatchSkipsEmptyBatches() {
+		List<List<Integer>> batches = List.of(List.of(1), new ArrayList<>(), List.of(2, 3), new ArrayList<>());
+		UnbatchIteration<Integer> subject = new UnbatchIteration<>(
+				new CloseableIteratorIteration<>(batches.iterator()));
+
+		assertThat(Iterations.asList(subject)).containsExactly(1, 2, 3);
+		assertThat(subject.isClosed()).isTrue();
+	}
+
+	@Test
+	public void roundTrip() {
+		List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			values.add(i);
+		}
+		UnbatchIteration<Integer> subject = new UnbatchIteration<>(
+				new BatchIteration<>(new CloseableIteratorIteration<>(values.iterator()), 7));
+
+		assertThat(Iterations.asList(subject)).isEqualTo(values);
+	}
+}
@@ -241,6 +241,18 @@ public class CONFIG {
 
 		/** <var>tag:rdf4j.org,2023:config/mem.syncDelay</var> */
 		public final static IRI syncDelay = createIRI(NAMESPACE, "mem.syncDelay");
+
+		/** <var>tag:rdf4j.org,2023:config/mem.writeAheadLog</var> */
+		public final static IRI writeAheadLog = createIRI(NAMESPACE, "mem.writeAheadLog");
+
+		/** <var>tag:rdf4j.org,2023:config/mem.checkpointThreshold</var> */
+		public final static IRI checkpointThreshold = createIRI(NAMESPACE, "mem.checkpointThreshold");
+
+		/** <var>tag:rdf4j.org,2023:config/mem.compositeIndexes</var> */
+		public final static IRI compositeIndexes = createIRI(NAMESPACE, "mem.compositeIndexes");
+
+		/** <var>tag:rdf4j.org,2023:config/mem.columnarStorage</var> */
+		public final static IRI columnarStorage = createIRI(NAMESPACE, "mem.columnarStorage");
 	}
 
 	/**
@@ -257,6 +269,11 @@ public class CONFIG {
 		 */
 		public final static IRI forceSync = createIRI(NAMESPACE, "native.forceSync");
 
+		/**
+		 * <var>tag:rdf4j.org,2023:config/native.memoryMappedReads</var>
+		 */
+		public final static IRI memoryMappedReads = createIRI(NAMESPACE, "native.memoryMappedReads");
+
 		/**
 		 * <var>tag:rdf4j.org,2023:config/native.valueCacheSize</var>
 		 */
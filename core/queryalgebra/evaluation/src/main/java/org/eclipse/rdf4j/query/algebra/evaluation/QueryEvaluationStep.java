@@ -10,8 +10,11 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.query.algebra.evaluation;
 
+import java.util.List;
 import java.util.function.Function;
 
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.iteration.BatchIteration;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.DelayedIteration;
 import org.eclipse.rdf4j.common.iteration.EmptyIteration;
@@ -51,6 +54,22 @@ public interface QueryEvaluationStep {
 
 	CloseableIteration<BindingSet> evaluate(BindingSet bindings);
 
+	/**
+	 * Evaluate this step and return the results in batches of at most batchSize binding sets. Each batch is a mutable
+	 * list owned by the caller, so steps may filter or replace its elements in place. A batch may be empty.
+	 * <p>
+	 * Steps that can process many bindings at once should override this method, the default implementation batches the
+	 * results of {@link #evaluate(BindingSet)}.
+	 *
+	 * @param bindings  the bindings to evaluate with
+	 * @param batchSize the maximum number of binding sets in a batch
+	 * @return an iteration over batches of results
+	 */
+	@Experimental
+	default CloseableIteration<List<BindingSet>> evaluateBatch(BindingSet bindings, int batchSize) {
+		return new BatchIteration<>(evaluate(bindings), batchSize);
+	}
+
 	/**
 	 * A fall back implementation that wraps a pre-existing evaluate method on a strategy
 	 *
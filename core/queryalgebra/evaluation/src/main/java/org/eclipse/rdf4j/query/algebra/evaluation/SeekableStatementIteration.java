@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.order.StatementOrder;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+
+/**
+ * An iteration over statements sorted by a {@link StatementOrder} that can skip ahead to a given value, so that
+ * intersections of several sorted statement streams do not need to enumerate every statement.
+ * <p>
+ * Values are ordered by the comparator returned from {@link TripleSource#getComparator()}, which must be consistent
+ * with {@link Value#equals(Object)}.
+ * <p>
+ * Note that this interface is experimental and may be changed or removed without notice.
+ *
+ * @see TripleSource#getSeekableStatements(StatementOrder, org.eclipse.rdf4j.model.Resource,
+ *      org.eclipse.rdf4j.model.IRI, Value, org.eclipse.rdf4j.model.Resource...)
+ */
+@Experimental
+public interface SeekableStatementIteration extends CloseableIteration<Statement> {
+
+	/**
+	 * @return the order in which statements are returned by this iteration.
+	 */
+	StatementOrder getStatementOrder();
+
+	/**
+	 * Skips forward to the first remaining statement whose value at the position given by {@link #getStatementOrder()}
+	 * is greater than or equal to <var>key</var>. Skipped statements are not returned. Seeking to a key that is smaller
+	 * than the value of the next statement has no effect.
+	 *
+	 * @param key the value to skip ahead to
+	 * @throws QueryEvaluationException If the triple source failed to reposition the iteration.
+	 */
+	void seek(Value key) throws QueryEvaluationException;
+}
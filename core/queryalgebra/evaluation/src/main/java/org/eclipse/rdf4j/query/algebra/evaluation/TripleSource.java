@@ -20,12 +20,14 @@ import org.eclipse.rdf4j.common.iteration.EmptyIteration;
 import org.eclipse.rdf4j.common.order.AvailableStatementOrder;
 import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Triple;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.OrderedStatementIteration;
 
 /**
  * A triple source that can be queried for (the existence of) certain triples in certain contexts. This interface
@@ -78,6 +80,53 @@ public interface TripleSource extends AvailableStatementOrder {
 				"StatementOrder is not supported by this TripleSource: " + this.getClass().getName());
 	}
 
+	/**
+	 * Gets all statements with a specific subject, predicate and/or object in the given order, as an iteration that can
+	 * skip ahead to a given value. Triple sources that can reposition their index cursors should override this method;
+	 * the default implementation seeks by scanning the result of
+	 * {@link #getStatements(StatementOrder, Resource, IRI, Value, Resource...)}.
+	 * <p>
+	 * Note that this method is experimental and may be changed or removed without notice.
+	 *
+	 * @param order    The order in which the statements should be returned.
+	 * @param subj     A Resource specifying the subject, or <var>null</var> for a wildcard.
+	 * @param pred     A IRI specifying the predicate, or <var>null</var> for a wildcard.
+	 * @param obj      A Value specifying the object, or <var>null</var> for a wildcard.
+	 * @param contexts The context(s) to get the statements from. Note that this parameter is a vararg and as such is
+	 *                 optional. If no contexts are supplied the method operates on the entire repository.
+	 * @return An ordered, seekable iterator over the relevant statements.
+	 * @throws QueryEvaluationException If the triple source failed to get the statements.
+	 */
+	@Experimental
+	default SeekableStatementIteration getSeekableStatements(StatementOrder order, Resource subj, IRI pred,
+			Value obj, Resource... contexts) throws QueryEvaluationException {
+		return new OrderedStatementIteration(getStatements(order, subj, pred, obj, contexts), order, getComparator());
+	}
+
+	/**
+	 * Gets statements with a specific subject, predicate and/or context whose object may lie within the given range of
+	 * literal values. The bounds are inclusive and either of them may be <var>null</var> to indicate an open range.
+	 * Stores that keep literals in value order can use this to scan only part of an index; the result is however only
+	 * guaranteed to be a superset of the statements whose object lies within the range, so callers must still check the
+	 * objects of the returned statements. The default implementation returns all statements matching the pattern.
+	 * <p>
+	 * Note that this method is experimental and may be changed or removed without notice.
+	 *
+	 * @param subj       A Resource specifying the subject, or <var>null</var> for a wildcard.
+	 * @param pred       A IRI specifying the predicate, or <var>null</var> for a wildcard.
+	 * @param lowerBound The lowest object value of interest, or <var>null</var> if there is no lower bound.
+	 * @param upperBound The highest object value of interest, or <var>null</var> if there is no upper bound.
+	 * @param contexts   The context(s) to get the statements from. Note that this parameter is a vararg and as such is
+	 *                   optional. If no contexts are supplied the method operates on the entire repository.
+	 * @return An iterator over (at least) the statements whose object lies within the range.
+	 * @throws QueryEvaluationException If the triple source failed to get the statements.
+	 */
+	@Experimental
+	default CloseableIteration<? extends Statement> getStatementsInRange(Resource subj, IRI pred, Literal lowerBound,
+			Literal upperBound, Resource... contexts) throws QueryEvaluationException {
+		return getStatements(subj, pred, null, contexts);
+	}
+
 	/**
 	 * The underlying store may support some, but not all, statement orders based on the statement pattern. This method
 	 * can be used to determine which orders are supported for a given statement pattern. The supported orders can be
@@ -115,6 +164,20 @@ public interface TripleSource extends AvailableStatementOrder {
 		return null;
 	}
 
+	/**
+	 * Whether statements may be read from this triple source by several threads at once, for instance to evaluate the
+	 * arguments of a union in parallel. Triple sources whose iterations share state, such as a transaction or cursor
+	 * that is bound to the thread that created it, must return false.
+	 * <p>
+	 * Note that this method is experimental and may be changed or removed without notice.
+	 *
+	 * @return true if the triple source can be read concurrently, false by default
+	 */
+	@Experimental
+	default boolean supportsConcurrentReads() {
+		return false;
+	}
+
 	/**
 	 * Gets a ValueFactory object that can be used to create IRI-, blank node- and literal objects.
 	 *
@@ -11,7 +11,9 @@
 package org.eclipse.rdf4j.query.algebra.evaluation.impl;
 
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategyFactory;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryOptimizerPipeline;
 
@@ -29,6 +31,14 @@ public abstract class AbstractEvaluationStrategyFactory implements EvaluationStr
 
 	private QueryOptimizerPipeline pipeline;
 
+	private ExecutorService parallelEvaluationExecutor;
+
+	private int evaluationBatchSize;
+
+	private int bindJoinBatchSize;
+
+	private double adaptiveJoinThreshold;
+
 	@Override
 	public void setQuerySolutionCacheThreshold(long threshold) {
 		this.querySolutionCacheThreshold = threshold;
@@ -58,4 +68,94 @@ public abstract class AbstractEvaluationStrategyFactory implements EvaluationStr
 	public void setTrackResultSize(boolean trackResultSize) {
 		this.trackResultSize = trackResultSize;
 	}
+
+	/**
+	 * @return the executor that the created strategies evaluate union arguments and independent join arguments on, null
+	 *         if they are evaluated on the calling thread
+	 */
+	@Experimental
+	public ExecutorService getParallelEvaluationExecutor() {
+		return parallelEvaluationExecutor;
+	}
+
+	/**
+	 * Sets the executor that is passed to every created strategy, see
+	 * {@link DefaultEvaluationStrategy#setParallelEvaluationExecutor(ExecutorService)}. The executor is shared by all
+	 * queries and is not shut down by the strategies or by this factory.
+	 *
+	 * @param parallelEvaluationExecutor the executor, or null to evaluate everything on the calling thread
+	 */
+	@Experimental
+	public void setParallelEvaluationExecutor(ExecutorService parallelEvaluationExecutor) {
+		this.parallelEvaluationExecutor = parallelEvaluationExecutor;
+	}
+
+	/**
+	 * @return the number of binding sets that the created strategies pass between evaluation steps at once, 0 if batch
+	 *         evaluation is disabled
+	 */
+	@Experimental
+	public int getEvaluationBatchSize() {
+		return evaluationBatchSize;
+	}
+
+	/**
+	 * Sets the batch size that is passed to every created strategy, see
+	 * {@link DefaultEvaluationStrategy#setEvaluationBatchSize(int)}.
+	 *
+	 * @param evaluationBatchSize the maximum number of binding sets in a batch, or 0 to disable batch evaluation
+	 */
+	@Experimental
+	public void setEvaluationBatchSize(int evaluationBatchSize) {
+		if (evaluationBatchSize < 0) {
+			throw new IllegalArgumentException("evaluationBatchSize must not be negative");
+		}
+		this.evaluationBatchSize = evaluationBatchSize;
+	}
+
+	/**
+	 * @return the number of left bindings that the bind joins of the created strategies group, 0 if bind joins are
+	 *         disabled
+	 */
+	@Experimental
+	public int getBindJoinBatchSize() {
+		return bindJoinBatchSize;
+	}
+
+	/**
+	 * Sets the bind join batch size that is passed to every created strategy, see
+	 * {@link DefaultEvaluationStrategy#setBindJoinBatchSize(int)}.
+	 *
+	 * @param bindJoinBatchSize the maximum number of left bindings in a batch, or 0 to disable bind joins
+	 */
+	@Experimental
+	public void setBindJoinBatchSize(int bindJoinBatchSize) {
+		if (bindJoinBatchSize < 0) {
+			throw new IllegalArgumentException("bindJoinBatchSize must not be negative");
+		}
+		this.bindJoinBatchSize = bindJoinBatchSize;
+	}
+
+	/**
+	 * @return the factor by which the left argument of a nested loop join in the created strategies must exceed its
+	 *         estimated size before the join switches to a hash join, 0 if adaptive joins are disabled
+	 */
+	@Experimental
+	public double getAdaptiveJoinThreshold() {
+		return adaptiveJoinThreshold;
+	}
+
+	/**
+	 * Sets the adaptive join threshold that is passed to every created strategy, see
+	 * {@link DefaultEvaluationStrategy#setAdaptiveJoinThreshold(double)}.
+	 *
+	 * @param adaptiveJoinThreshold the factor, or 0 to disable adaptive joins
+	 */
+	@Experimental
+	public void setAdaptiveJoinThreshold(double adaptiveJoinThreshold) {
+		if (adaptiveJoinThreshold < 0) {
+			throw new IllegalArgumentException("adaptiveJoinThreshold must not be negative");
+		}
+		this.adaptiveJoinThreshold = adaptiveJoinThreshold;
+	}
 }
@@ -11,9 +11,11 @@
 package org.eclipse.rdf4j.query.algebra.evaluation.impl;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -22,12 +24,14 @@ import java.util.function.Supplier;
 
 import org.eclipse.rdf4j.collection.factory.api.CollectionFactory;
 import org.eclipse.rdf4j.collection.factory.impl.DefaultCollectionFactory;
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.DistinctIteration;
 import org.eclipse.rdf4j.common.iteration.IterationWrapper;
 import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
 import org.eclipse.rdf4j.common.iteration.ReducedIteration;
 import org.eclipse.rdf4j.common.iteration.SingletonIteration;
+import org.eclipse.rdf4j.common.iteration.UnbatchIteration;
 import org.eclipse.rdf4j.common.transaction.QueryEvaluationMode;
 import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.IRI;
@@ -133,6 +137,7 @@ import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.JoinQuery
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.LeftJoinQueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.MinusQueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.OrderQueryEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.ParallelUnionQueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.ProjectionQueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.RdfStarQueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.RegexValueEvaluationStepSupplier;
@@ -152,11 +157,16 @@ import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.values.Li
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.values.OrValueEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.values.QueryValueEvaluationStepSupplier;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.values.ValueExprTripleRefEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.AdaptiveJoinIterator;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.BindJoinIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.DescribeIteration;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.ExtensionIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.FilterIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.GroupIterator;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.LeapfrogTriejoinIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.MultiProjectionIterator;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.OrderIterator;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.ParallelUnionIteration;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.PathIteration;
 import org.eclipse.rdf4j.query.algebra.evaluation.util.MathUtil;
 import org.eclipse.rdf4j.query.algebra.evaluation.util.OrderComparator;
@@ -202,6 +212,19 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 	// track the exeution time of each node in the plan
 	private boolean trackTime;
 
+	// evaluate the query in batches of this many binding sets, 0 evaluates one binding set at a time
+	private int evaluationBatchSize;
+
+	// pass this many left bindings at once to the statement pattern on the right of a nested loop join, 0 disables it
+	private int bindJoinBatchSize;
+
+	// switch a nested loop join to a hash join when its left argument exceeds its estimated size by this factor
+	private double adaptiveJoinThreshold;
+
+	// evaluate union arguments and independent join arguments concurrently on this executor, null evaluates them on the
+	// calling thread
+	private ExecutorService parallelEvaluationExecutor;
+
 	private UUID uuid;
 
 	private QueryOptimizerPipeline pipeline;
@@ -545,12 +568,23 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 	}
 
 	protected QueryEvaluationStep prepare(Join node, QueryEvaluationContext context) throws QueryEvaluationException {
-		return new JoinQueryEvaluationStep(this, node, context);
+		List<String> variableOrder = node.getLeapfrogVariableOrder();
+		Comparator<Value> comparator = tripleSource.getComparator();
+		if (variableOrder != null && comparator != null && context.getDataset() == null) {
+			List<StatementPattern> statementPatterns = LeapfrogTriejoinIterator.getStatementPatterns(node);
+			if (statementPatterns != null) {
+				node.setAlgorithm(LeapfrogTriejoinIterator.class.getSimpleName());
+				return bindings -> new LeapfrogTriejoinIterator(statementPatterns, variableOrder, tripleSource,
+						comparator, bindings, context);
+			}
+		}
+		return new JoinQueryEvaluationStep(this, node, context, new JoinQueryEvaluationStep.Settings(
+				iterationCacheSyncThreshold, bindJoinBatchSize, adaptiveJoinThreshold, getParallelExecutor()));
 	}
 
 	protected QueryEvaluationStep prepare(LeftJoin node, QueryEvaluationContext context)
 			throws QueryEvaluationException {
-		return LeftJoinQueryEvaluationStep.supply(this, node, context);
+		return LeftJoinQueryEvaluationStep.supply(this, node, context, iterationCacheSyncThreshold);
 	}
 
 	protected QueryEvaluationStep prepare(MultiProjection node, QueryEvaluationContext context)
@@ -589,12 +623,29 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 	}
 
 	protected QueryEvaluationStep prepare(Union node, QueryEvaluationContext context) throws QueryEvaluationException {
+		ExecutorService parallelExecutor = getParallelExecutor();
+		if (parallelExecutor != null) {
+			List<QueryEvaluationStep> args = new ArrayList<>();
+			addUnionArgs(node, context, args);
+			return new ParallelUnionQueryEvaluationStep(args, parallelExecutor);
+		}
+
 		QueryEvaluationStep leftQes = precompile(node.getLeftArg(), context);
 		QueryEvaluationStep rightQes = precompile(node.getRightArg(), context);
 
 		return new UnionQueryEvaluationStep(leftQes, rightQes);
 	}
 
+	private void addUnionArgs(TupleExpr expr, QueryEvaluationContext context, List<QueryEvaluationStep> args) {
+		// flatten nested unions so that all of their arguments are evaluated concurrently
+		if (expr instanceof Union && !trackResultSize && !trackTime) {
+			addUnionArgs(((Union) expr).getLeftArg(), context, args);
+			addUnionArgs(((Union) expr).getRightArg(), context, args);
+		} else {
+			args.add(precompile(expr, context));
+		}
+	}
+
 	protected QueryEvaluationStep prepare(Slice node, QueryEvaluationContext context) throws QueryEvaluationException {
 		QueryEvaluationStep arg = precompile(node.getArg(), context);
 		return SliceQueryEvaluationStep.supply(node, arg);
@@ -626,6 +677,7 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 		boolean reduced = isReducedOrDistinct(node);
 		long limit = getLimit(node);
 		QueryEvaluationStep preparedArg = precompile(node.getArg(), context);
+		node.setAlgorithm(OrderIterator.getAlgorithmName(limit, reduced, iterationCacheSyncThreshold));
 		return new OrderQueryEvaluationStep(cmp, limit, reduced, preparedArg, iterationCacheSyncThreshold);
 	}
 
@@ -650,7 +702,11 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 			DefaultEvaluationStrategy.this.sharedValueOfNow = null;
 			CloseableIteration<BindingSet> evaluate = null;
 			try {
-				evaluate = arg.evaluate(bs);
+				if (evaluationBatchSize > 0) {
+					evaluate = new UnbatchIteration<>(arg.evaluateBatch(bs, evaluationBatchSize));
+				} else {
+					evaluate = arg.evaluate(bs);
+				}
 				var eval = evaluate;
 
 				CloseableIteration<BindingSet> closeContext = new CloseableIteration<>() {
@@ -1495,6 +1551,109 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 		this.trackTime = trackTime;
 	}
 
+	/**
+	 * @return the number of binding sets that are passed between evaluation steps at once, 0 if batch evaluation is
+	 *         disabled
+	 */
+	@Experimental
+	public int getEvaluationBatchSize() {
+		return evaluationBatchSize;
+	}
+
+	/**
+	 * Enable batch evaluation of queries, see {@link QueryEvaluationStep#evaluateBatch(BindingSet, int)}. Steps that
+	 * support it then process this many binding sets at once, other steps fall back to evaluating one binding set at a
+	 * time.
+	 *
+	 * @param evaluationBatchSize the maximum number of binding sets in a batch, or 0 to disable batch evaluation
+	 */
+	@Experimental
+	public void setEvaluationBatchSize(int evaluationBatchSize) {
+		if (evaluationBatchSize < 0) {
+			throw new IllegalArgumentException("evaluationBatchSize must not be negative");
+		}
+		this.evaluationBatchSize = evaluationBatchSize;
+	}
+
+	/**
+	 * @return the number of left bindings a nested loop join groups before looking up its right argument, 0 if bind
+	 *         joins are disabled
+	 */
+	@Experimental
+	public int getBindJoinBatchSize() {
+		return bindJoinBatchSize;
+	}
+
+	/**
+	 * Enable bind joins for nested loop joins whose right argument is a statement pattern, see
+	 * {@link BindJoinIterator}. The right argument is then evaluated once for the distinct join values of a batch of
+	 * this many left bindings instead of once per left binding.
+	 *
+	 * @param bindJoinBatchSize the maximum number of left bindings in a batch, or 0 to disable bind joins
+	 */
+	@Experimental
+	public void setBindJoinBatchSize(int bindJoinBatchSize) {
+		if (bindJoinBatchSize < 0) {
+			throw new IllegalArgumentException("bindJoinBatchSize must not be negative");
+		}
+		this.bindJoinBatchSize = bindJoinBatchSize;
+	}
+
+	/**
+	 * @return the factor by which the left argument of a nested loop join must exceed its estimated size before the
+	 *         join switches to a hash join, 0 if adaptive joins are disabled
+	 */
+	@Experimental
+	public double getAdaptiveJoinThreshold() {
+		return adaptiveJoinThreshold;
+	}
+
+	/**
+	 * Enable adaptive joins for nested loop joins whose right argument is a statement pattern, see
+	 * {@link AdaptiveJoinIterator}. Such a join switches to a hash join while it is running if its left argument
+	 * produces more than this many times the number of bindings that the optimizer estimated, and at least as many
+	 * bindings as the statement pattern is estimated to match.
+	 *
+	 * @param adaptiveJoinThreshold the factor, or 0 to disable adaptive joins
+	 */
+	@Experimental
+	public void setAdaptiveJoinThreshold(double adaptiveJoinThreshold) {
+		if (adaptiveJoinThreshold < 0) {
+			throw new IllegalArgumentException("adaptiveJoinThreshold must not be negative");
+		}
+		this.adaptiveJoinThreshold = adaptiveJoinThreshold;
+	}
+
+	/**
+	 * @return the executor that union arguments and independent join arguments are evaluated on, null if they are
+	 *         evaluated on the calling thread
+	 */
+	@Experimental
+	public ExecutorService getParallelEvaluationExecutor() {
+		return parallelEvaluationExecutor;
+	}
+
+	/**
+	 * Enable parallel evaluation within a query, see {@link ParallelUnionIteration}. The arguments of a union, and the
+	 * right argument of a hash join, whose arguments do not depend on each other, are then evaluated as tasks on this
+	 * executor and their results passed back through bounded queues. The executor bounds the number of threads a query
+	 * can use; on Java 21 and later a virtual thread executor can be used. The executor is not shut down by this
+	 * strategy.
+	 * <p>
+	 * The executor is only used if the {@link TripleSource#supportsConcurrentReads() triple source supports being read
+	 * from several threads at once}, otherwise everything is still evaluated on the calling thread.
+	 *
+	 * @param parallelEvaluationExecutor the executor, or null to evaluate everything on the calling thread
+	 */
+	@Experimental
+	public void setParallelEvaluationExecutor(ExecutorService parallelEvaluationExecutor) {
+		this.parallelEvaluationExecutor = parallelEvaluationExecutor;
+	}
+
+	private ExecutorService getParallelExecutor() {
+		return tripleSource != null && tripleSource.supportsConcurrentReads() ? parallelEvaluationExecutor : null;
+	}
+
 	/**
 	 * Supply a QueryValueEvalationStep that will invoke the function (operator passed in). It will try to optimise
 	 * constant argument to be called only once per query run,
@@ -54,6 +54,10 @@ public class DefaultEvaluationStrategyFactory extends AbstractEvaluationStrategy
 				getQuerySolutionCacheThreshold(), evaluationStatistics, isTrackResultSize());
 		getOptimizerPipeline().ifPresent(strategy::setOptimizerPipeline);
 		strategy.setCollectionFactory(collectionFactorySupplier);
+		strategy.setParallelEvaluationExecutor(getParallelEvaluationExecutor());
+		strategy.setEvaluationBatchSize(getEvaluationBatchSize());
+		strategy.setBindJoinBatchSize(getBindJoinBatchSize());
+		strategy.setAdaptiveJoinThreshold(getAdaptiveJoinThreshold());
 		return strategy;
 	}
 
@@ -14,6 +14,7 @@ import java.util.Collection;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.query.algebra.AbstractQueryModelNode;
 import org.eclipse.rdf4j.query.algebra.ArbitraryLengthPath;
 import org.eclipse.rdf4j.query.algebra.BinaryTupleOperator;
@@ -62,6 +63,25 @@ public class EvaluationStatistics {
 		return calculator.getCardinality();
 	}
 
+	/**
+	 * Estimates the number of distinct values that a variable takes in the results of a statement pattern. Join
+	 * optimizers use this to estimate the selectivity of a join on that variable. The default implementation assumes
+	 * that every result has a different value, which stores can improve on if they keep statistics about the
+	 * distribution of values.
+	 *
+	 * @param sp  a statement pattern
+	 * @param var one of the variables of the statement pattern
+	 * @return the estimated number of distinct values, at most the cardinality of the statement pattern
+	 */
+	@Experimental
+	public double getDistinctValueCount(StatementPattern sp, Var var) {
+		double cardinality = getCardinality(sp);
+		if (var.hasValue()) {
+			return Math.min(1.0, cardinality);
+		}
+		return cardinality;
+	}
+
 	protected CardinalityCalculator createCardinalityCalculator() {
 		return new CardinalityCalculator();
 	}
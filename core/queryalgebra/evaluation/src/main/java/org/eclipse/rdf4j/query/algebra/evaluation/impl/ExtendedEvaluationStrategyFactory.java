@@ -58,6 +58,10 @@ public class ExtendedEvaluationStrategyFactory extends AbstractEvaluationStrateg
 				serviceResolver, getQuerySolutionCacheThreshold(),
 				evaluationStatistics);
 		extendedEvaluationStrategy.setCollectionFactory(collectionFactorySupplier);
+		extendedEvaluationStrategy.setParallelEvaluationExecutor(getParallelEvaluationExecutor());
+		extendedEvaluationStrategy.setEvaluationBatchSize(getEvaluationBatchSize());
+		extendedEvaluationStrategy.setBindJoinBatchSize(getBindJoinBatchSize());
+		extendedEvaluationStrategy.setAdaptiveJoinThreshold(getAdaptiveJoinThreshold());
 		return extendedEvaluationStrategy;
 	}
 
@@ -10,9 +10,12 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.query.algebra.evaluation.impl;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.ConvertingIteration;
+import org.eclipse.rdf4j.common.iteration.EmptyIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.MutableBindingSet;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
@@ -44,4 +47,29 @@ public final class ExtensionQueryEvaluationStep implements QueryEvaluationStep {
 		}
 		return new ExtensionIterator(result, consumer, context);
 	}
+
+	@Override
+	public CloseableIteration<List<BindingSet>> evaluateBatch(BindingSet bs, int batchSize) {
+		CloseableIteration<List<BindingSet>> result;
+		try {
+			result = arg.evaluateBatch(bs, batchSize);
+		} catch (ValueExprEvaluationException e) {
+			// a type error in an extension argument should be silently ignored
+			// and
+			// result in zero bindings.
+			return new EmptyIteration<>();
+		}
+		return new ConvertingIteration<List<BindingSet>, List<BindingSet>>(result) {
+
+			@Override
+			protected List<BindingSet> convert(List<BindingSet> batch) {
+				batch.replaceAll(sourceBindings -> {
+					MutableBindingSet targetBindings = context.createBindingSet(sourceBindings);
+					consumer.accept(targetBindings);
+					return targetBindings;
+				});
+				return batch;
+			}
+		};
+	}
 }
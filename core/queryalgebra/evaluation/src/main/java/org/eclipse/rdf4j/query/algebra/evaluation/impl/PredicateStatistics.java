@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.impl;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+
+/**
+ * Per-predicate statistics that a store can maintain incrementally as statements are added, for use by its
+ * {@link EvaluationStatistics}. For every predicate the number of distinct subjects and distinct objects is estimated
+ * with a HyperLogLog sketch, so the memory used per predicate is bounded no matter how many statements use it.
+ * <p>
+ * The sketches can not forget values, so removed statements are not reflected in the estimates. Callers should cap the
+ * estimates by the current number of statements with the predicate.
+ * <p>
+ * Updates are expected to come from a single writer at a time, reads may happen concurrently and are approximate.
+ */
+@Experimental
+public class PredicateStatistics {
+
+	private final Map<IRI, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Records a statement with the given subject, predicate and object.
+	 */
+	public void add(Resource subj, IRI pred, Value obj) {
+		Entry entry = entries.computeIfAbsent(pred, p -> new Entry());
+		entry.subjects.add(subj.hashCode());
+		entry.objects.add(obj.hashCode());
+	}
+
+	/**
+	 * @return the estimated number of distinct subjects of statements with the given predicate, 0 if no statement with
+	 *         the predicate has been recorded
+	 */
+	public double getDistinctSubjectCount(IRI pred) {
+		Entry entry = entries.get(pred);
+		return entry == null ? 0 : entry.subjects.estimate();
+	}
+
+	/**
+	 * @return the estimated number of distinct objects of statements with the given predicate, 0 if no statement with
+	 *         the predicate has been recorded
+	 */
+	public double getDistinctObjectCount(IRI pred) {
+		Entry entry = entries.get(pred);
+		return entry == null ? 0 : entry.objects.estimate();
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	private static final class Entry {
+
+		private final DistinctCounter subjects = new DistinctCounter();
+
+		private final DistinctCounter objects = new DistinctCounter();
+	}
+
+	/**
+	 * Counts distinct hash codes exactly while there are only a few of them, and switches to a HyperLogLog sketch after
+	 * that so that predicates that are used only a handful of times stay cheap.
+	 */
+	static final class DistinctCounter {
+
+		private static final int PRECISION = 10;
+
+		private static final int REGISTER_COUNT = 1 << PRECISION;
+
+		private static final int MAX_EXACT = 64;
+
+		private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+		private int[] exact = new int[4];
+
+		private int exactSize;
+
+		private volatile byte[] registers;
+
+		void add(int hashCode) {
+			byte[] registers = this.registers;
+			if (registers != null) {
+				addToRegisters(registers, hashCode);
+				return;
+			}
+
+			int index = Arrays.binarySearch(exact, 0, exactSize, hashCode);
+			if (index >= 0) {
+				return;
+			}
+			if (exactSize == MAX_EXACT) {
+				registers = new byte[REGISTER_COUNT];
+				for (int i = 0; i < exactSize; i++) {
+					addToRegisters(registers, exact[i]);
+				}
+				addToRegisters(registers, hashCode);
+				this.registers = registers;
+				exact = null;
+				return;
+			}
+
+			int insertAt = -index - 1;
+			int[] target = exact;
+			if (exactSize == exact.length) {
+				target = Arrays.copyOf(exact, exact.length * 2);
+			}
+			System.arraycopy(exact, insertAt, target, insertAt + 1, exactSize - insertAt);
+			target[insertAt] = hashCode;
+			exact = target;
+			exactSize++;
+		}
+
+		double estimate() {
+			byte[] registers = this.registers;
+			if (registers == null) {
+				return exactSize;
+			}
+
+			double sum = 0;
+			int zeros = 0;
+			for (byte register : registers) {
+				sum += 1.0 / (1L << register);
+				if (register == 0) {
+					zeros++;
+				}
+			}
+			double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+			if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+				// linear counting is more accurate for small cardinalities
+				estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+			}
+			return estimate;
+		}
+
+		private static void addToRegisters(byte[] registers, int hashCode) {
+			long hash = mix(hashCode);
+			int index = (int) (hash >>> (Long.SIZE - PRECISION));
+			byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+			if (rank > registers[index]) {
+				registers[index] = rank;
+			}
+		}
+
+		/**
+		 * Spreads the bits of a hash code over a long, see the finalization step of MurmurHash3.
+		 */
+		private static long mix(int hashCode) {
+			long h = hashCode * 0x9E3779B97F4A7C15L;
+			h ^= h >>> 33;
+			h *= 0xff51afd7ed558ccdL;
+			h ^= h >>> 33;
+			h *= 0xc4ceb93e53e6b4c5L;
+			h ^= h >>> 33;
+			return h;
+		}
+	}
+}
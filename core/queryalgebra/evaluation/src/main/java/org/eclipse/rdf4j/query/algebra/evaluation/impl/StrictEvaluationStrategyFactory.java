@@ -58,6 +58,10 @@ public class StrictEvaluationStrategyFactory extends AbstractEvaluationStrategyF
 				getQuerySolutionCacheThreshold(), evaluationStatistics, isTrackResultSize());
 		getOptimizerPipeline().ifPresent(strategy::setOptimizerPipeline);
 		strategy.setCollectionFactory(collectionFactorySupplier);
+		strategy.setParallelEvaluationExecutor(getParallelEvaluationExecutor());
+		strategy.setEvaluationBatchSize(getEvaluationBatchSize());
+		strategy.setBindJoinBatchSize(getBindJoinBatchSize());
+		strategy.setAdaptiveJoinThreshold(getAdaptiveJoinThreshold());
 		return strategy;
 	}
 
@@ -10,15 +10,24 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.algebra.Join;
 import org.eclipse.rdf4j.query.algebra.Service;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategy;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
 import org.eclipse.rdf4j.query.algebra.evaluation.federation.ServiceJoinIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.AdaptiveJoinIterator;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.BindJoinIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.HashJoinIteration;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.InnerMergeJoinIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.JoinIterator;
@@ -26,30 +35,84 @@ import org.eclipse.rdf4j.query.algebra.helpers.TupleExprs;
 
 public class JoinQueryEvaluationStep implements QueryEvaluationStep {
 
+	/**
+	 * The size of the hash table of an adaptive join when no iteration cache sync threshold is configured.
+	 */
+	private static final long DEFAULT_ADAPTIVE_JOIN_MAX_HASH_TABLE_SIZE = 100_000;
+
 	private final java.util.function.Function<BindingSet, CloseableIteration<BindingSet>> eval;
 
+	private final QueryEvaluationStep leftPrepared;
+
+	private final QueryEvaluationStep rightPrepared;
+
+	private final boolean nestedLoop;
+
 	public JoinQueryEvaluationStep(EvaluationStrategy strategy, Join join, QueryEvaluationContext context) {
+		this(strategy, join, context, Settings.DEFAULT);
+	}
+
+	/**
+	 * @param settings the settings of the join algorithms this step may choose from
+	 */
+	@Experimental
+	public JoinQueryEvaluationStep(EvaluationStrategy strategy, Join join, QueryEvaluationContext context,
+			Settings settings) {
+		long iterationCacheSyncThreshold = settings.getIterationCacheSyncThreshold();
+		int bindJoinBatchSize = settings.getBindJoinBatchSize();
+		double adaptiveJoinThreshold = settings.getAdaptiveJoinThreshold();
+		ExecutorService parallelExecutor = settings.getParallelExecutor();
 		// efficient computation of a SERVICE join using vectored evaluation
 		// TODO maybe we can create a ServiceJoin node already in the parser?
 		QueryEvaluationStep leftPrepared = strategy.precompile(join.getLeftArg(), context);
 		QueryEvaluationStep rightPrepared = strategy.precompile(join.getRightArg(), context);
+		this.leftPrepared = leftPrepared;
+		this.rightPrepared = rightPrepared;
 		if (join.getRightArg() instanceof Service) {
 			eval = bindings -> new ServiceJoinIterator(leftPrepared.evaluate(bindings),
 					(Service) join.getRightArg(), bindings,
 					strategy);
 			join.setAlgorithm(ServiceJoinIterator.class.getSimpleName());
+			nestedLoop = false;
 		} else if (isOutOfScopeForLeftArgBindings(join.getRightArg())) {
 			String[] joinAttributes = HashJoinIteration.hashJoinAttributeNames(join);
-			eval = bindings -> new HashJoinIteration(leftPrepared, rightPrepared, bindings, false,
-					joinAttributes, context);
+			// the arguments do not depend on each other, so the right one can be computed while the left one is read
+			QueryEvaluationStep hashRight = parallelExecutor == null ? rightPrepared
+					: new PrefetchQueryEvaluationStep(rightPrepared, parallelExecutor);
+			eval = bindings -> new HashJoinIteration(leftPrepared, hashRight, bindings, false,
+					joinAttributes, context, iterationCacheSyncThreshold);
 			join.setAlgorithm(HashJoinIteration.class.getSimpleName());
+			nestedLoop = false;
 		} else if (join.isMergeJoin() && context.getComparator() != null) {
 			eval = bindings -> InnerMergeJoinIterator.getInstance(leftPrepared, rightPrepared, bindings,
 					context.getComparator(), context.getValue(join.getOrder().getName()), context);
 			join.setAlgorithm(InnerMergeJoinIterator.class.getSimpleName());
+			nestedLoop = false;
+		} else if (bindJoinBatchSize > 0 && join.getRightArg() instanceof StatementPattern
+				&& bindJoinAttributeNames(join).length > 0) {
+			String[] joinAttributes = bindJoinAttributeNames(join);
+			eval = bindings -> new BindJoinIterator(leftPrepared.evaluate(bindings), rightPrepared, bindings,
+					joinAttributes, bindJoinBatchSize, context.getComparator(), context);
+			join.setAlgorithm(BindJoinIterator.class.getSimpleName());
+			nestedLoop = false;
+		} else if (adaptiveJoinThreshold > 0 && join.getRightArg() instanceof StatementPattern
+				&& join.getLeftArg().getResultSizeEstimate() >= 0 && join.getRightArg().getResultSizeEstimate() >= 0
+				&& bindJoinAttributeNames(join).length > 0) {
+			String[] joinAttributes = bindJoinAttributeNames(join);
+			// switch once the left argument is clearly larger than estimated and the lookups done so far cost about as
+			// much as evaluating the right argument once
+			long switchAfter = (long) Math.max(adaptiveJoinThreshold * join.getLeftArg().getResultSizeEstimate(),
+					join.getRightArg().getResultSizeEstimate());
+			long maxHashTableSize = iterationCacheSyncThreshold > 0 ? iterationCacheSyncThreshold
+					: DEFAULT_ADAPTIVE_JOIN_MAX_HASH_TABLE_SIZE;
+			eval = bindings -> new AdaptiveJoinIterator(leftPrepared.evaluate(bindings), rightPrepared, bindings,
+					joinAttributes, switchAfter, maxHashTableSize, context);
+			join.setAlgorithm(AdaptiveJoinIterator.class.getSimpleName());
+			nestedLoop = false;
 		} else {
 			eval = bindings -> JoinIterator.getInstance(leftPrepared, rightPrepared, bindings);
 			join.setAlgorithm(JoinIterator.class.getSimpleName());
+			nestedLoop = true;
 		}
 	}
 
@@ -58,8 +121,86 @@ public class JoinQueryEvaluationStep implements QueryEvaluationStep {
 		return eval.apply(bindings);
 	}
 
+	@Override
+	public CloseableIteration<List<BindingSet>> evaluateBatch(BindingSet bindings, int batchSize) {
+		if (nestedLoop) {
+			return JoinIterator.getBatchInstance(leftPrepared, rightPrepared, bindings, batchSize);
+		}
+		return QueryEvaluationStep.super.evaluateBatch(bindings, batchSize);
+	}
+
+	/**
+	 * The variables of the right argument that the left argument may bind. The right argument only depends on these, as
+	 * any other binding it sees is passed down from the parent and is the same for every left binding.
+	 */
+	private static String[] bindJoinAttributeNames(Join join) {
+		Set<String> leftBindingNames = join.getLeftArg().getBindingNames();
+		return join.getRightArg()
+				.getBindingNames()
+				.stream()
+				.filter(leftBindingNames::contains)
+				.toArray(String[]::new);
+	}
+
 	private static boolean isOutOfScopeForLeftArgBindings(TupleExpr expr) {
 		return TupleExprs.isVariableScopeChange(expr) || TupleExprs.containsSubquery(expr);
 	}
 
+	/**
+	 * Settings of the join algorithms a {@link JoinQueryEvaluationStep} may choose from. By default, hash joins are
+	 * kept in memory, nested loop joins look up their right argument once per left binding and everything is evaluated
+	 * on the calling thread.
+	 */
+	@Experimental
+	public static final class Settings {
+
+		public static final Settings DEFAULT = new Settings(0, 0, 0, null);
+
+		private final long iterationCacheSyncThreshold;
+
+		private final int bindJoinBatchSize;
+
+		private final double adaptiveJoinThreshold;
+
+		private final ExecutorService parallelExecutor;
+
+		/**
+		 * @param iterationCacheSyncThreshold number of bindings a hash join may cache in memory before it partitions
+		 *                                    its arguments to disk. If set to 0, the hash join is kept in memory.
+		 * @param bindJoinBatchSize           number of left bindings a nested loop join over a statement pattern groups
+		 *                                    before looking up the pattern, see {@link BindJoinIterator}. If set to 0,
+		 *                                    the pattern is looked up once per left binding.
+		 * @param adaptiveJoinThreshold       factor by which the left argument of a nested loop join over a statement
+		 *                                    pattern must exceed its estimated size before the join switches to a hash
+		 *                                    join, see {@link AdaptiveJoinIterator}. If set to 0, the join does not
+		 *                                    switch.
+		 * @param parallelExecutor            executor on which a hash join evaluates its right argument while it reads
+		 *                                    the left one, see {@link PrefetchQueryEvaluationStep}. If null, both are
+		 *                                    evaluated on the calling thread. The triple source must
+		 *                                    {@link TripleSource#supportsConcurrentReads() support concurrent reads}.
+		 */
+		public Settings(long iterationCacheSyncThreshold, int bindJoinBatchSize, double adaptiveJoinThreshold,
+				ExecutorService parallelExecutor) {
+			this.iterationCacheSyncThreshold = iterationCacheSyncThreshold;
+			this.bindJoinBatchSize = bindJoinBatchSize;
+			this.adaptiveJoinThreshold = adaptiveJoinThreshold;
+			this.parallelExecutor = parallelExecutor;
+		}
+
+		public long getIterationCacheSyncThreshold() {
+			return iterationCacheSyncThreshold;
+		}
+
+		public int getBindJoinBatchSize() {
+			return bindJoinBatchSize;
+		}
+
+		public double getAdaptiveJoinThreshold() {
+			return adaptiveJoinThreshold;
+		}
+
+		public ExecutorService getParallelExecutor() {
+			return parallelExecutor;
+		}
+	}
 }
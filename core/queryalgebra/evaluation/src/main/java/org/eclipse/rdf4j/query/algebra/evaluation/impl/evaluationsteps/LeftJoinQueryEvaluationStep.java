@@ -35,6 +35,15 @@ public final class LeftJoinQueryEvaluationStep implements QueryEvaluationStep {
 
 	public static QueryEvaluationStep supply(EvaluationStrategy strategy, LeftJoin leftJoin,
 			QueryEvaluationContext context) {
+		return supply(strategy, leftJoin, context, 0);
+	}
+
+	/**
+	 * @param iterationCacheSyncThreshold number of bindings a hash join may cache in memory before it partitions its
+	 *                                    arguments to disk. If set to 0, the hash join is kept in memory.
+	 */
+	public static QueryEvaluationStep supply(EvaluationStrategy strategy, LeftJoin leftJoin,
+			QueryEvaluationContext context, long iterationCacheSyncThreshold) {
 		QueryEvaluationStep left = strategy.precompile(leftJoin.getLeftArg(), context);
 		QueryEvaluationStep right = strategy.precompile(leftJoin.getRightArg(), context);
 		if (TupleExprs.containsSubquery(leftJoin.getRightArg())) {
@@ -43,7 +52,8 @@ public final class LeftJoinQueryEvaluationStep implements QueryEvaluationStep {
 			String[] joinAttributes = leftBindingNames.stream()
 					.filter(rightBindingNames::contains)
 					.toArray(String[]::new);
-			return bs -> new HashJoinIteration(left, right, bs, true, joinAttributes, context);
+			return bs -> new HashJoinIteration(left, right, bs, true, joinAttributes, context,
+					iterationCacheSyncThreshold);
 		}
 
 		// Check whether optional join is "well designed" as defined in section
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.ParallelUnionIteration;
+
+/**
+ * Evaluates the arguments of a (possibly nested) union concurrently on an {@link ExecutorService}, see
+ * {@link ParallelUnionIteration}.
+ */
+@Experimental
+public class ParallelUnionQueryEvaluationStep implements QueryEvaluationStep {
+
+	private final List<QueryEvaluationStep> args;
+
+	private final ExecutorService executor;
+
+	public ParallelUnionQueryEvaluationStep(List<QueryEvaluationStep> args, ExecutorService executor) {
+		this.args = List.copyOf(args);
+		this.executor = executor;
+	}
+
+	@Override
+	public CloseableIteration<BindingSet> evaluate(BindingSet bindings) {
+		return new ParallelUnionIteration(args, bindings, executor, ParallelUnionIteration.DEFAULT_QUEUE_CAPACITY);
+	}
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.ParallelUnionIteration;
+
+/**
+ * Evaluates its argument ahead of the consumer as a task on an {@link ExecutorService}. The results are passed back
+ * through a bounded queue, so that the consumer can work on something else, such as the other argument of a hash join,
+ * in the meantime. If the executor has not started the task by the time the consumer needs the results, the consumer
+ * evaluates the argument itself.
+ */
+@Experimental
+public class PrefetchQueryEvaluationStep implements QueryEvaluationStep {
+
+	private final List<QueryEvaluationStep> arg;
+
+	private final ExecutorService executor;
+
+	public PrefetchQueryEvaluationStep(QueryEvaluationStep arg, ExecutorService executor) {
+		this.arg = List.of(arg);
+		this.executor = executor;
+	}
+
+	@Override
+	public CloseableIteration<BindingSet> evaluate(BindingSet bindings) {
+		// a parallel union of a single argument only moves its evaluation to the executor
+		return new ParallelUnionIteration(arg, bindings, executor, ParallelUnionIteration.DEFAULT_QUEUE_CAPACITY);
+	}
+}
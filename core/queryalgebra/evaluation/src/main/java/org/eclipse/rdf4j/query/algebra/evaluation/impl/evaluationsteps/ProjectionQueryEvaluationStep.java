@@ -10,7 +10,11 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps;
 
+import java.util.List;
+import java.util.function.Function;
+
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.ConvertingIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.algebra.Projection;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
@@ -44,4 +48,17 @@ public final class ProjectionQueryEvaluationStep implements QueryEvaluationStep
 		}
 
 	}
+
+	@Override
+	public CloseableIteration<List<BindingSet>> evaluateBatch(BindingSet bindings, int batchSize) {
+		Function<BindingSet, BindingSet> projector = ProjectionIterator.buildProjector(projection, bindings, context);
+		return new ConvertingIteration<List<BindingSet>, List<BindingSet>>(qes.evaluateBatch(bindings, batchSize)) {
+
+			@Override
+			protected List<BindingSet> convert(List<BindingSet> batch) {
+				batch.replaceAll(projector::apply);
+				return batch;
+			}
+		};
+	}
 }
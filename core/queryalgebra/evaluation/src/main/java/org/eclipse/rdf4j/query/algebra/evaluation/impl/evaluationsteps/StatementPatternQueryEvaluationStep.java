@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
@@ -19,8 +21,10 @@ import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.EmptyIteration;
 import org.eclipse.rdf4j.common.iteration.FilterIteration;
 import org.eclipse.rdf4j.common.iteration.IndexReportingIterator;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
 import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
@@ -30,8 +34,15 @@ import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.Dataset;
 import org.eclipse.rdf4j.query.MutableBindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.And;
+import org.eclipse.rdf4j.query.algebra.Compare;
+import org.eclipse.rdf4j.query.algebra.Compare.CompareOp;
+import org.eclipse.rdf4j.query.algebra.Filter;
+import org.eclipse.rdf4j.query.algebra.QueryModelNode;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.StatementPattern.Scope;
+import org.eclipse.rdf4j.query.algebra.ValueConstant;
+import org.eclipse.rdf4j.query.algebra.ValueExpr;
 import org.eclipse.rdf4j.query.algebra.Var;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
@@ -56,6 +67,7 @@ public class StatementPatternQueryEvaluationStep implements QueryEvaluationStep
 	private final BiConsumer<MutableBindingSet, Statement> converter;
 	private final QueryEvaluationContext context;
 	private final StatementOrder order;
+	private final Literal[] objectRange;
 
 	private final Predicate<BindingSet> unboundTest;
 
@@ -71,6 +83,7 @@ public class StatementPatternQueryEvaluationStep implements QueryEvaluationStep
 		super();
 		this.statementPattern = statementPattern;
 		this.order = statementPattern.getStatementOrder();
+		this.objectRange = order == null ? getObjectRange(statementPattern) : null;
 		this.context = context;
 		this.tripleSource = tripleSource;
 		Set<IRI> graphs = null;
@@ -198,6 +211,104 @@ public class StatementPatternQueryEvaluationStep implements QueryEvaluationStep
 
 	}
 
+	/**
+	 * Collects the literal bounds that the filters directly above the statement pattern place on its object variable,
+	 * so that stores which keep literals in value order can restrict their index scan. The filters are still evaluated
+	 * on the result, so the bounds only need to be a relaxation of the filter conditions.
+	 *
+	 * @return the lower and upper bound of the object, either of which may be null, or null if there are no bounds
+	 */
+	private static Literal[] getObjectRange(StatementPattern statementPattern) {
+		Var objVar = statementPattern.getObjectVar();
+		if (objVar.hasValue()) {
+			return null;
+		}
+
+		Literal[] range = new Literal[2];
+		QueryModelNode node = statementPattern;
+		while (node.getParentNode() instanceof Filter && ((Filter) node.getParentNode()).getArg() == node) {
+			node = node.getParentNode();
+			addObjectRange(((Filter) node).getCondition(), objVar.getName(), range);
+		}
+		return range[0] != null || range[1] != null ? range : null;
+	}
+
+	private static void addObjectRange(ValueExpr condition, String objVarName, Literal[] range) {
+		if (condition instanceof And) {
+			addObjectRange(((And) condition).getLeftArg(), objVarName, range);
+			addObjectRange(((And) condition).getRightArg(), objVarName, range);
+		} else if (condition instanceof Compare) {
+			Compare compare = (Compare) condition;
+			CompareOp operator = compare.getOperator();
+			Value bound;
+			if (isUnboundVar(compare.getLeftArg(), objVarName)) {
+				bound = getConstantValue(compare.getRightArg());
+			} else if (isUnboundVar(compare.getRightArg(), objVarName)) {
+				bound = getConstantValue(compare.getLeftArg());
+				// the object is on the right hand side, e.g. 100 < ?o
+				switch (operator) {
+				case LT:
+					operator = CompareOp.GT;
+					break;
+				case LE:
+					operator = CompareOp.GE;
+					break;
+				case GT:
+					operator = CompareOp.LT;
+					break;
+				case GE:
+					operator = CompareOp.LE;
+					break;
+				default:
+					break;
+				}
+			} else {
+				return;
+			}
+
+			if (!(bound instanceof Literal)) {
+				return;
+			}
+			switch (operator) {
+			case EQ:
+				if (range[0] == null) {
+					range[0] = (Literal) bound;
+				}
+				if (range[1] == null) {
+					range[1] = (Literal) bound;
+				}
+				break;
+			case GT:
+			case GE:
+				if (range[0] == null) {
+					range[0] = (Literal) bound;
+				}
+				break;
+			case LT:
+			case LE:
+				if (range[1] == null) {
+					range[1] = (Literal) bound;
+				}
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	private static boolean isUnboundVar(ValueExpr expr, String name) {
+		return expr instanceof Var && !((Var) expr).hasValue() && ((Var) expr).getName().equals(name);
+	}
+
+	private static Value getConstantValue(ValueExpr expr) {
+		if (expr instanceof ValueConstant) {
+			return ((ValueConstant) expr).getValue();
+		} else if (expr instanceof Var) {
+			return ((Var) expr).getValue();
+		}
+		return null;
+	}
+
 	private static Function<BindingSet, Value> makeGetVarValue(Var var, QueryEvaluationContext context) {
 		if (var == null) {
 			return null;
@@ -233,7 +344,50 @@ public class StatementPatternQueryEvaluationStep implements QueryEvaluationStep
 		}
 	}
 
+	/**
+	 * Converts the matching statements into binding sets a batch at a time, without an intermediate iteration over
+	 * single binding sets.
+	 */
+	@Override
+	public CloseableIteration<List<BindingSet>> evaluateBatch(BindingSet bindings, int batchSize) {
+		CloseableIteration<? extends Statement> statements;
+		if (emptyGraph) {
+			statements = null;
+		} else if (bindings.isEmpty()) {
+			statements = getStatements();
+		} else if (unboundTest.test(bindings)) {
+			statements = null;
+		} else {
+			statements = getStatements(bindings);
+		}
+		if (statements == null) {
+			return new EmptyIteration<>();
+		}
+		return new ConvertStatementsToBatchIteration(statements, converter, bindings, context, batchSize);
+	}
+
 	private JoinStatementWithBindingSetIterator getIteration(BindingSet bindings) {
+		CloseableIteration<? extends Statement> statements = getStatements(bindings);
+		if (statements == null) {
+			return null;
+		}
+		// Return an iterator that converts the statements to var bindings
+		return new JoinStatementWithBindingSetIterator(statements, converter, bindings, context);
+	}
+
+	private ConvertStatementToBindingSetIterator getIteration() {
+		CloseableIteration<? extends Statement> statements = getStatements();
+		if (statements == null) {
+			return null;
+		}
+		// Return an iterator that converts the statements to var bindings
+		return new ConvertStatementToBindingSetIterator(statements, converter, context);
+	}
+
+	/**
+	 * @return the statements that match the pattern under the given bindings, or null if there are none
+	 */
+	private CloseableIteration<? extends Statement> getStatements(BindingSet bindings) {
 		final Value contextValue = getContextVar != null ? getContextVar.apply(bindings) : null;
 
 		Resource[] contexts = contextSup.apply(contextValue);
@@ -261,6 +415,9 @@ public class StatementPatternQueryEvaluationStep implements QueryEvaluationStep
 			if (order != null) {
 				iteration = tripleSource.getStatements(order, (Resource) subject, (IRI) predicate, object, contexts);
 
+			} else if (object == null && objectRange != null) {
+				iteration = tripleSource.getStatementsInRange((Resource) subject, (IRI) predicate, objectRange[0],
+						objectRange[1], contexts);
 			} else {
 				iteration = tripleSource.getStatements((Resource) subject, (IRI) predicate, object, contexts);
 			}
@@ -273,10 +430,7 @@ public class StatementPatternQueryEvaluationStep implements QueryEvaluationStep
 				return null;
 			}
 
-			iteration = handleFilter(contexts, (Resource) subject, (IRI) predicate, object, iteration);
-
-			// Return an iterator that converts the statements to var bindings
-			return new JoinStatementWithBindingSetIterator(iteration, converter, bindings, context);
+			return handleFilter(contexts, (Resource) subject, (IRI) predicate, object, iteration);
 		} catch (Throwable t) {
 			if (iteration != null) {
 				iteration.close();
@@ -288,7 +442,10 @@ public class StatementPatternQueryEvaluationStep implements QueryEvaluationStep
 		}
 	}
 
-	private ConvertStatementToBindingSetIterator getIteration() {
+	/**
+	 * @return the statements that match the pattern without any bindings, or null if there are none
+	 */
+	private CloseableIteration<? extends Statement> getStatements() {
 
 		Var contextVar = statementPattern.getContextVar();
 		Resource[] contexts = contextSup.apply(contextVar != null ? contextVar.getValue() : null);
@@ -315,6 +472,9 @@ public class StatementPatternQueryEvaluationStep implements QueryEvaluationStep
 		try {
 			if (order != null) {
 				iteration = tripleSource.getStatements(order, (Resource) subject, (IRI) predicate, object, contexts);
+			} else if (object == null && objectRange != null) {
+				iteration = tripleSource.getStatementsInRange((Resource) subject, (IRI) predicate, objectRange[0],
+						objectRange[1], contexts);
 			} else {
 				iteration = tripleSource.getStatements((Resource) subject, (IRI) predicate, object, contexts);
 			}
@@ -325,10 +485,7 @@ public class StatementPatternQueryEvaluationStep implements QueryEvaluationStep
 			if (iteration instanceof EmptyIteration) {
 				return null;
 			}
-			iteration = handleFilter(contexts, (Resource) subject, (IRI) predicate, object, iteration);
-
-			// Return an iterator that converts the statements to var bindings
-			return new ConvertStatementToBindingSetIterator(iteration, converter, context);
+			return handleFilter(contexts, (Resource) subject, (IRI) predicate, object, iteration);
 		} catch (Throwable t) {
 			if (iteration != null) {
 				iteration.close();
@@ -621,6 +778,52 @@ public class StatementPatternQueryEvaluationStep implements QueryEvaluationStep
 		}
 	}
 
+	/**
+	 * Converts statements into batches of binding sets that extend the given bindings.
+	 */
+	private static final class ConvertStatementsToBatchIteration extends LookAheadIteration<List<BindingSet>> {
+
+		private final BiConsumer<MutableBindingSet, Statement> action;
+		private final QueryEvaluationContext context;
+		private final BindingSet bindings;
+		private final CloseableIteration<? extends Statement> iteration;
+		private final int batchSize;
+
+		private ConvertStatementsToBatchIteration(CloseableIteration<? extends Statement> iteration,
+				BiConsumer<MutableBindingSet, Statement> action, BindingSet bindings, QueryEvaluationContext context,
+				int batchSize) {
+			assert iteration != null;
+			if (batchSize < 1) {
+				throw new IllegalArgumentException("batchSize must be at least 1");
+			}
+			this.iteration = iteration;
+			this.action = action;
+			this.context = context;
+			this.bindings = bindings;
+			this.batchSize = batchSize;
+		}
+
+		@Override
+		protected List<BindingSet> getNextElement() throws QueryEvaluationException {
+			if (!iteration.hasNext()) {
+				return null;
+			}
+			List<BindingSet> batch = new ArrayList<>(batchSize);
+			boolean unbound = bindings.isEmpty();
+			do {
+				MutableBindingSet made = unbound ? context.createBindingSet() : context.createBindingSet(bindings);
+				action.accept(made, iteration.next());
+				batch.add(made);
+			} while (batch.size() < batchSize && iteration.hasNext());
+			return batch;
+		}
+
+		@Override
+		protected void handleClose() throws QueryEvaluationException {
+			iteration.close();
+		}
+	}
+
 	/**
 	 * We need to test every binding with hasBinding etc. as these are not guaranteed to be equivalent between calls of
 	 * evaluate(bs).
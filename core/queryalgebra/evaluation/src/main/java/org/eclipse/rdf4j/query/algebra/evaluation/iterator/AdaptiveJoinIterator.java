@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.MutableBindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
+
+/**
+ * Join that starts out as a nested loop join and switches to a hash join when its left argument turns out to produce
+ * many more bindings than the optimizer estimated.
+ * <p>
+ * Once the number of left bindings exceeds the given limit, the right argument is evaluated once without the left
+ * bindings and its results are put in a hash table keyed on the join attributes, which is then probed with the
+ * remaining left bindings. The limit is typically chosen so that the lookups done so far cost about as much as
+ * evaluating the right argument once. If the right argument produces more results than fit in the hash table, the hash
+ * table is discarded and the join continues as a nested loop.
+ * <p>
+ * The right argument must not depend on the left bindings other than through the join attributes, which holds for a
+ * single statement pattern.
+ */
+@Experimental
+public class AdaptiveJoinIterator extends LookAheadIteration<BindingSet> {
+
+	private final CloseableIteration<BindingSet> leftIter;
+
+	private final QueryEvaluationStep preparedRight;
+
+	private final BindingSet bindings;
+
+	private final String[] joinAttributes;
+
+	private final long switchAfter;
+
+	private final long maxHashTableSize;
+
+	private final QueryEvaluationContext context;
+
+	private long leftCount;
+
+	private boolean hashJoin;
+
+	private boolean nestedLoopOnly;
+
+	private Map<BindingSetHashKey, List<BindingSet>> hashTable;
+
+	private CloseableIteration<BindingSet> rightIter;
+
+	private BindingSet currentLeft;
+
+	private Iterator<BindingSet> matches = Collections.emptyIterator();
+
+	/**
+	 * @param leftIter         the bindings of the left argument
+	 * @param preparedRight    the right argument
+	 * @param bindings         the bindings that the join is evaluated with
+	 * @param joinAttributes   the variables of the right argument that may be bound by the left argument
+	 * @param switchAfter      the number of left bindings after which the join switches to a hash join
+	 * @param maxHashTableSize the maximum number of right results to hold in the hash table
+	 * @param context          used to create combined binding sets
+	 */
+	public AdaptiveJoinIterator(CloseableIteration<BindingSet> leftIter, QueryEvaluationStep preparedRight,
+			BindingSet bindings, String[] joinAttributes, long switchAfter, long maxHashTableSize,
+			QueryEvaluationContext context) {
+		this.leftIter = leftIter;
+		this.preparedRight = preparedRight;
+		this.bindings = bindings;
+		this.joinAttributes = joinAttributes;
+		this.switchAfter = switchAfter;
+		this.maxHashTableSize = maxHashTableSize;
+		this.context = context;
+	}
+
+	/**
+	 * @return true if the join has switched to a hash join
+	 */
+	public boolean isHashJoin() {
+		return hashJoin;
+	}
+
+	@Override
+	protected BindingSet getNextElement() throws QueryEvaluationException {
+		while (true) {
+			if (rightIter != null) {
+				if (rightIter.hasNext()) {
+					return rightIter.next();
+				}
+				rightIter.close();
+				rightIter = null;
+			}
+
+			if (matches.hasNext()) {
+				return combine(currentLeft, matches.next());
+			}
+
+			if (!leftIter.hasNext()) {
+				return null;
+			}
+
+			BindingSet left = leftIter.next();
+			leftCount++;
+			if (!hashJoin && !nestedLoopOnly && leftCount > switchAfter) {
+				hashJoin = buildHashTable();
+				nestedLoopOnly = !hashJoin;
+			}
+
+			if (hashJoin && bindsJoinAttributes(left)) {
+				currentLeft = left;
+				matches = hashTable.getOrDefault(BindingSetHashKey.create(joinAttributes, left), List.of())
+						.iterator();
+			} else {
+				rightIter = preparedRight.evaluate(left);
+			}
+		}
+	}
+
+	/**
+	 * @return false if the right argument has too many results, or results that do not bind all join attributes
+	 */
+	private boolean buildHashTable() throws QueryEvaluationException {
+		Map<BindingSetHashKey, List<BindingSet>> hashTable = new HashMap<>();
+		long size = 0;
+		try (CloseableIteration<BindingSet> iter = preparedRight.evaluate(bindings)) {
+			while (iter.hasNext()) {
+				BindingSet next = iter.next();
+				if (++size > maxHashTableSize || !bindsJoinAttributes(next)) {
+					return false;
+				}
+				hashTable.computeIfAbsent(BindingSetHashKey.create(joinAttributes, next), k -> new ArrayList<>(1))
+						.add(next);
+			}
+		}
+		this.hashTable = hashTable;
+		return true;
+	}
+
+	private boolean bindsJoinAttributes(BindingSet bindingSet) {
+		for (String name : joinAttributes) {
+			if (!bindingSet.hasBinding(name)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private BindingSet combine(BindingSet left, BindingSet rightResult) {
+		MutableBindingSet result = context.createBindingSet(left);
+		for (Binding binding : rightResult) {
+			if (!result.hasBinding(binding.getName())) {
+				result.setBinding(binding.getName(), binding.getValue());
+			}
+		}
+		return result;
+	}
+
+	@Override
+	protected void handleClose() throws QueryEvaluationException {
+		try {
+			if (rightIter != null) {
+				rightIter.close();
+				rightIter = null;
+			}
+		} finally {
+			hashTable = null;
+			leftIter.close();
+		}
+	}
+}
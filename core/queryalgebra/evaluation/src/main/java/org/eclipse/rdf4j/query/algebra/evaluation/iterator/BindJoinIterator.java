@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.MutableBindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.BindingSetAssignment;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.BindingSetAssignmentQueryEvaluationStep;
+
+/**
+ * Nested loop join that passes bindings from its left argument to its right argument in batches.
+ * <p>
+ * Up to <var>batchSize</var> left bindings are read at a time and their distinct join values are collected into a
+ * single {@link BindingSetAssignment}, sorted by the join values when a value comparator is available so that
+ * consecutive index lookups are close to each other. The right argument is then evaluated once for the whole batch by
+ * joining it with these VALUES, and each of its results is combined with every left binding that has the same join
+ * values. Results are produced in the same order as {@link JoinIterator} would produce them.
+ * <p>
+ * Left bindings that leave some of the join variables unbound, such as OPTIONAL variables, can not be matched up with
+ * the results of a shared evaluation, as the right argument may bind those variables. Each distinct join key of this
+ * kind gets a VALUES assignment of its own.
+ * <p>
+ * The right argument is evaluated eagerly for a whole batch, so this iterator should only be used for right arguments
+ * that are cheap lookups, such as a single statement pattern.
+ */
+@Experimental
+public class BindJoinIterator extends LookAheadIteration<BindingSet> {
+
+	private final CloseableIteration<BindingSet> leftIter;
+
+	private final Function<BindingSetAssignment, CloseableIteration<BindingSet>> batchedRight;
+
+	private final String[] joinAttributes;
+
+	private final int batchSize;
+
+	private final Comparator<Value> comparator;
+
+	private final QueryEvaluationContext context;
+
+	private final List<BindingSet> leftBatch;
+
+	private final Map<BindingSetHashKey, Group> groups = new HashMap<>();
+
+	private int leftIndex;
+
+	private BindingSet currentLeft;
+
+	private Iterator<BindingSet> currentResults = Collections.emptyIterator();
+
+	/**
+	 * Joins with a right argument that is evaluated for each VALUES row in turn, see
+	 * {@link JoinIterator#getInstance(QueryEvaluationStep, QueryEvaluationStep, BindingSet)}.
+	 *
+	 * @param leftIter       the bindings of the left argument
+	 * @param preparedRight  the right argument
+	 * @param bindings       the bindings the join is evaluated with
+	 * @param joinAttributes the variables of the right argument that may be bound by the left argument
+	 * @param batchSize      the maximum number of left bindings to process at once
+	 * @param comparator     used to sort lookups within a batch by their join values, may be null
+	 * @param context        used to create binding sets
+	 */
+	public BindJoinIterator(CloseableIteration<BindingSet> leftIter, QueryEvaluationStep preparedRight,
+			BindingSet bindings, String[] joinAttributes, int batchSize, Comparator<Value> comparator,
+			QueryEvaluationContext context) {
+		this(leftIter, values -> JoinIterator.getInstance(
+				new BindingSetAssignmentQueryEvaluationStep(values, context), preparedRight, bindings),
+				joinAttributes, batchSize, comparator, context);
+	}
+
+	/**
+	 * @param leftIter       the bindings of the left argument
+	 * @param batchedRight   evaluates the join of the right argument with the given VALUES, under the bindings the
+	 *                       join is evaluated with
+	 * @param joinAttributes the variables of the right argument that may be bound by the left argument
+	 * @param batchSize      the maximum number of left bindings to process at once
+	 * @param comparator     used to sort lookups within a batch by their join values, may be null
+	 * @param context        used to create binding sets
+	 */
+	public BindJoinIterator(CloseableIteration<BindingSet> leftIter,
+			Function<BindingSetAssignment, CloseableIteration<BindingSet>> batchedRight, String[] joinAttributes,
+			int batchSize, Comparator<Value> comparator, QueryEvaluationContext context) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		this.leftIter = leftIter;
+		this.batchedRight = batchedRight;
+		this.joinAttributes = joinAttributes;
+		this.batchSize = batchSize;
+		this.comparator = comparator;
+		this.context = context;
+		this.leftBatch = new ArrayList<>(Math.min(batchSize, 1024));
+	}
+
+	@Override
+	protected BindingSet getNextElement() throws QueryEvaluationException {
+		while (true) {
+			if (currentResults.hasNext()) {
+				return combine(currentLeft, currentResults.next());
+			}
+
+			if (leftIndex >= leftBatch.size() && !fillBatch()) {
+				return null;
+			}
+
+			currentLeft = leftBatch.get(leftIndex++);
+			currentResults = groups.get(BindingSetHashKey.create(joinAttributes, currentLeft)).results.iterator();
+		}
+	}
+
+	/**
+	 * Reads the next batch of left bindings and evaluates the right argument for all of their distinct join keys.
+	 *
+	 * @return false if the left argument is exhausted
+	 */
+	private boolean fillBatch() throws QueryEvaluationException {
+		leftBatch.clear();
+		groups.clear();
+		leftIndex = 0;
+
+		List<Group> lookups = new ArrayList<>();
+		List<Group> partialLookups = new ArrayList<>();
+		while (leftBatch.size() < batchSize && leftIter.hasNext()) {
+			BindingSet left = leftIter.next();
+			leftBatch.add(left);
+			BindingSetHashKey key = BindingSetHashKey.create(joinAttributes, left);
+			if (!groups.containsKey(key)) {
+				Group group = new Group(joinValues(left));
+				groups.put(key, group);
+				if (bindsAllJoinAttributes(left)) {
+					lookups.add(group);
+				} else {
+					partialLookups.add(group);
+				}
+			}
+		}
+		if (leftBatch.isEmpty()) {
+			return false;
+		}
+
+		if (!lookups.isEmpty()) {
+			if (comparator != null && lookups.size() > 1) {
+				lookups.sort(this::compareJoinValues);
+			}
+			List<BindingSet> rows = new ArrayList<>(lookups.size());
+			for (Group group : lookups) {
+				rows.add(group.values);
+			}
+			try (CloseableIteration<BindingSet> rightIter = batchedRight.apply(values(rows))) {
+				while (rightIter.hasNext()) {
+					BindingSet result = rightIter.next();
+					groups.get(BindingSetHashKey.create(joinAttributes, result)).results.add(result);
+				}
+			}
+		}
+		for (Group group : partialLookups) {
+			try (CloseableIteration<BindingSet> rightIter = batchedRight.apply(values(List.of(group.values)))) {
+				while (rightIter.hasNext()) {
+					group.results.add(rightIter.next());
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean bindsAllJoinAttributes(BindingSet left) {
+		for (String name : joinAttributes) {
+			if (!left.hasBinding(name)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private BindingSet joinValues(BindingSet left) {
+		MutableBindingSet values = context.createBindingSet();
+		for (String name : joinAttributes) {
+			Value value = left.getValue(name);
+			if (value != null) {
+				values.setBinding(name, value);
+			}
+		}
+		return values;
+	}
+
+	private BindingSetAssignment values(List<BindingSet> rows) {
+		BindingSetAssignment values = new BindingSetAssignment();
+		values.setBindingNames(Set.of(joinAttributes));
+		values.setBindingSets(rows);
+		return values;
+	}
+
+	private int compareJoinValues(Group a, Group b) {
+		for (String name : joinAttributes) {
+			int result = comparator.compare(a.values.getValue(name), b.values.getValue(name));
+			if (result != 0) {
+				return result;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Adds the bindings of a result of the right argument to a left binding with the same join values. The result also
+	 * holds the join values and the bindings the join is evaluated with, which the left binding already has.
+	 */
+	private BindingSet combine(BindingSet left, BindingSet rightResult) {
+		MutableBindingSet result = context.createBindingSet(left);
+		for (Binding binding : rightResult) {
+			if (!result.hasBinding(binding.getName())) {
+				result.setBinding(binding.getName(), binding.getValue());
+			}
+		}
+		return result;
+	}
+
+	@Override
+	protected void handleClose() throws QueryEvaluationException {
+		leftBatch.clear();
+		groups.clear();
+		leftIter.close();
+	}
+
+	private static final class Group {
+
+		/**
+		 * The values of the join variables that the left bindings of this group bind.
+		 */
+		private final BindingSet values;
+
+		private final List<BindingSet> results = new ArrayList<>();
+
+		private Group(BindingSet values) {
+			this.values = values;
+		}
+	}
+}
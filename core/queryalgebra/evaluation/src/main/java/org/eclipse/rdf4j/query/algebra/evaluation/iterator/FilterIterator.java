@@ -12,12 +12,14 @@ package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
 
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.ConvertingIteration;
 import org.eclipse.rdf4j.common.iteration.FilterIteration;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.query.BindingSet;
@@ -57,7 +59,25 @@ public class FilterIterator extends FilterIteration<BindingSet> {
 			retain = Function.identity();
 		}
 
-		return (bs) -> new FilterIterator(arg.evaluate(bs), ves, strategy, retain);
+		return new QueryEvaluationStep() {
+
+			@Override
+			public CloseableIteration<BindingSet> evaluate(BindingSet bs) {
+				return new FilterIterator(arg.evaluate(bs), ves, strategy, retain);
+			}
+
+			@Override
+			public CloseableIteration<List<BindingSet>> evaluateBatch(BindingSet bs, int batchSize) {
+				return new ConvertingIteration<List<BindingSet>, List<BindingSet>>(arg.evaluateBatch(bs, batchSize)) {
+
+					@Override
+					protected List<BindingSet> convert(List<BindingSet> batch) {
+						batch.removeIf(bindings -> !isTrue(ves, strategy, retain, bindings));
+						return batch;
+					}
+				};
+			}
+		};
 	}
 
 	/*--------------*
@@ -122,10 +142,15 @@ public class FilterIterator extends FilterIteration<BindingSet> {
 
 	@Override
 	protected boolean accept(BindingSet bindings) throws QueryEvaluationException {
+		return isTrue(condition, strategy, retain, bindings);
+	}
+
+	private static boolean isTrue(QueryValueEvaluationStep condition, EvaluationStrategy strategy,
+			Function<BindingSet, BindingSet> retain, BindingSet bindings) throws QueryEvaluationException {
 		try {
 
 			// Limit the bindings to the ones that are in scope for this filter
-			BindingSet scopeBindings = this.retain.apply(bindings);
+			BindingSet scopeBindings = retain.apply(bindings);
 			return strategy.isTrue(condition, scopeBindings);
 		} catch (ValueExprEvaluationException e) {
 			// failed to evaluate condition
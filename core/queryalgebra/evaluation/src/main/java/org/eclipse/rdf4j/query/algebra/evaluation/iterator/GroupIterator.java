@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -416,13 +418,12 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 			SumAggregate agg = new SumAggregate(precompileArg(operator));
 			Supplier<Predicate<Value>> predicate = operator.isDistinct() ? DistinctValues::new
 					: ALWAYS_TRUE_VALUE_SUPPLIER;
-			return new AggregatePredicateCollectorSupplier<>(agg, predicate, () -> new IntegerCollector(vf),
-					ge.getName());
+			return new AggregatePredicateCollectorSupplier<>(agg, predicate, IntegerCollector::new, ge.getName());
 		} else if (operator instanceof Avg) {
 			AvgAggregate agg = new AvgAggregate(precompileArg(operator));
 			Supplier<Predicate<Value>> predicate = operator.isDistinct() ? DistinctValues::new
 					: ALWAYS_TRUE_VALUE_SUPPLIER;
-			return new AggregatePredicateCollectorSupplier<>(agg, predicate, () -> new AvgCollector(vf), ge.getName());
+			return new AggregatePredicateCollectorSupplier<>(agg, predicate, AvgCollector::new, ge.getName());
 		} else if (operator instanceof Sample) {
 			SampleAggregate agg = new SampleAggregate(precompileArg(operator));
 			Supplier<Predicate<Value>> predicate = operator.isDistinct() ? DistinctValues::new
@@ -493,12 +494,7 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 	private static class IntegerCollector implements AggregateCollector {
 		private ValueExprEvaluationException typeError;
 
-		private Literal value;
-
-		public IntegerCollector(ValueFactory vf) {
-			super();
-			this.value = vf.createLiteral("0", CoreDatatype.XSD.INTEGER);
-		}
+		private final NumericSum value = new NumericSum();
 
 		public void setTypeError(ValueExprEvaluationException typeError) {
 			this.typeError = typeError;
@@ -514,22 +510,15 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 				// a type error occurred while processing the aggregate, throw it now.
 				throw typeError;
 			}
-			return value;
+			return value.getLiteral();
 		}
 	}
 
-	private class AvgCollector implements AggregateCollector {
-		private final ValueFactory vf;
-		private Literal sum;
+	private static class AvgCollector implements AggregateCollector {
+		private final NumericSum sum = new NumericSum();
 		private long count;
 		private ValueExprEvaluationException typeError;
 
-		public AvgCollector(ValueFactory vf) {
-			super();
-			this.vf = vf;
-			sum = vf.createLiteral("0", CoreDatatype.XSD.INTEGER);
-		}
-
 		public void setTypeError(ValueExprEvaluationException typeError) {
 			this.typeError = typeError;
 		}
@@ -551,7 +540,115 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 			}
 
 			Literal sizeLit = SimpleValueFactory.getInstance().createLiteral(count);
-			return MathUtil.compute(sum, sizeLit, MathOp.DIVIDE);
+			return MathUtil.compute(sum.getLiteral(), sizeLit, MathOp.DIVIDE);
+		}
+	}
+
+	/**
+	 * Running total for SUM and AVG that keeps the intermediate result in primitive form, so that no literal is created
+	 * for every aggregated value. Type promotion follows {@link MathUtil#compute(Literal, Literal, MathOp)}: the sum is
+	 * an xsd:integer until a decimal, float or double value is added, after which it is widened accordingly. Integer
+	 * sums are kept in a {@code long} and only fall back to {@link BigInteger} on overflow.
+	 */
+	private static final class NumericSum {
+		private CoreDatatype.XSD datatype = CoreDatatype.XSD.INTEGER;
+		private long longSum;
+		private BigInteger integerSum;
+		private BigDecimal decimalSum;
+		private float floatSum;
+		private double doubleSum;
+
+		void add(Literal literal, CoreDatatype.XSD literalDatatype) throws ValueExprEvaluationException {
+			try {
+				CoreDatatype.XSD common = promote(literalDatatype);
+				if (common != datatype) {
+					widenTo(common);
+				}
+				switch (datatype) {
+				case DOUBLE:
+					doubleSum += literal.doubleValue();
+					break;
+				case FLOAT:
+					floatSum += literal.floatValue();
+					break;
+				case DECIMAL:
+					decimalSum = decimalSum.add(literal.decimalValue());
+					break;
+				default:
+					addInteger(literal.integerValue());
+				}
+			} catch (NumberFormatException | ArithmeticException e) {
+				throw new ValueExprEvaluationException(e);
+			}
+		}
+
+		Literal getLiteral() {
+			ValueFactory vf = SimpleValueFactory.getInstance();
+			switch (datatype) {
+			case DOUBLE:
+				return vf.createLiteral(doubleSum);
+			case FLOAT:
+				return vf.createLiteral(floatSum);
+			case DECIMAL:
+				return vf.createLiteral(decimalSum);
+			default:
+				return vf.createLiteral(integerValue());
+			}
+		}
+
+		private CoreDatatype.XSD promote(CoreDatatype.XSD literalDatatype) {
+			if (datatype == CoreDatatype.XSD.DOUBLE || literalDatatype == CoreDatatype.XSD.DOUBLE) {
+				return CoreDatatype.XSD.DOUBLE;
+			} else if (datatype == CoreDatatype.XSD.FLOAT || literalDatatype == CoreDatatype.XSD.FLOAT) {
+				return CoreDatatype.XSD.FLOAT;
+			} else if (datatype == CoreDatatype.XSD.DECIMAL || literalDatatype == CoreDatatype.XSD.DECIMAL) {
+				return CoreDatatype.XSD.DECIMAL;
+			}
+			return CoreDatatype.XSD.INTEGER;
+		}
+
+		private void widenTo(CoreDatatype.XSD target) {
+			switch (target) {
+			case DOUBLE:
+				if (datatype == CoreDatatype.XSD.FLOAT) {
+					doubleSum = floatSum;
+				} else if (datatype == CoreDatatype.XSD.DECIMAL) {
+					doubleSum = decimalSum.doubleValue();
+				} else {
+					doubleSum = integerValue().doubleValue();
+				}
+				break;
+			case FLOAT:
+				if (datatype == CoreDatatype.XSD.DECIMAL) {
+					floatSum = decimalSum.floatValue();
+				} else {
+					floatSum = integerValue().floatValue();
+				}
+				break;
+			case DECIMAL:
+				decimalSum = new BigDecimal(integerValue());
+				break;
+			default:
+				throw new IllegalStateException("Cannot widen " + datatype + " to " + target);
+			}
+			datatype = target;
+		}
+
+		private void addInteger(BigInteger value) {
+			if (integerSum == null && value.bitLength() < Long.SIZE) {
+				long l = value.longValue();
+				long result = longSum + l;
+				// overflow iff both operands have the same sign and the result has a different one
+				if (((longSum ^ result) & (l ^ result)) >= 0) {
+					longSum = result;
+					return;
+				}
+			}
+			integerSum = integerValue().add(value);
+		}
+
+		private BigInteger integerValue() {
+			return integerSum != null ? integerSum : BigInteger.valueOf(longSum);
 		}
 	}
 
@@ -680,7 +777,7 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 						Literal literal = (Literal) v;
 						CoreDatatype.XSD coreDatatype = literal.getCoreDatatype().asXSDDatatypeOrNull();
 						if (coreDatatype != null && coreDatatype.isNumericDatatype()) {
-							sum.value = MathUtil.compute(sum.value, literal, MathOp.PLUS);
+							sum.value.add(literal, coreDatatype);
 						} else {
 							sum.setTypeError(new ValueExprEvaluationException("not a number: " + v));
 						}
@@ -715,7 +812,7 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 					CoreDatatype.XSD datatype = nextLiteral.getCoreDatatype().asXSDDatatypeOrNull();
 
 					if (datatype != null && datatype.isNumericDatatype()) {
-						avg.sum = MathUtil.compute(avg.sum, nextLiteral, MathOp.PLUS);
+						avg.sum.add(nextLiteral, datatype);
 					} else {
 						avg.setTypeError(new ValueExprEvaluationException("not a number: " + v));
 					}
@@ -10,9 +10,21 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -26,6 +38,7 @@ import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
 import org.eclipse.rdf4j.common.iterator.EmptyIterator;
 import org.eclipse.rdf4j.common.iterator.UnionIterator;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.Binding;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.MutableBindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
@@ -38,11 +51,31 @@ import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
 
 /**
  * Generic hash join implementation suitable for use by Sail implementations.
+ * <p>
+ * When an iteration cache sync threshold is supplied and the number of bindings that would have to be cached in memory
+ * to build the hash table exceeds it, the join switches to a hybrid hash join: both arguments are partitioned on the
+ * hash of their join attributes, the first partition is joined in memory and the remaining partitions are spilled to
+ * temporary files and joined one partition at a time. A spilled partition that is still too large to be joined in
+ * memory is partitioned again, or joined with a block nested loop join if partitioning does not split it.
  *
  * @author MJAHale
  */
 public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 
+	/**
+	 * Number of partitions (as a power of two) used once the hash join spills to disk. Partition 0 is always kept in
+	 * memory.
+	 */
+	private static final int SPILL_PARTITION_BITS = 4;
+
+	private static final int SPILL_PARTITIONS = 1 << SPILL_PARTITION_BITS;
+
+	/**
+	 * Number of times a spilled partition that is too large to be joined in memory is partitioned again before it is
+	 * joined with a block nested loop join.
+	 */
+	private static final int MAX_SPILL_LEVEL = 3;
+
 	protected final String[] joinAttributes;
 	private final CloseableIteration<BindingSet> leftIter;
 	private final CloseableIteration<BindingSet> rightIter;
@@ -59,6 +92,29 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 	private final IntFunction<List<BindingSet>> mapValueMaker;
 	private final Function<BindingSet, MutableBindingSet> bsMaker;
 
+	/**
+	 * Number of bindings cached in memory before the join is partitioned to disk. If set to 0, no disk-syncing is done
+	 * and the whole hash table is kept in memory.
+	 */
+	private final long iterationCacheSyncThreshold;
+
+	private List<SpillFile> spillFiles;
+	private SpillFile[] buildPartitions;
+	private SpillFile[] probePartitions;
+	private Deque<SpilledPartition> spilledPartitions;
+	private SpilledPartition currentSpilledPartition;
+
+	/**
+	 * The remaining build side of the current partition, while it is joined with a block nested loop join.
+	 */
+	private CloseableIteration<BindingSet> buildBlocks;
+
+	/**
+	 * The probe bindings of the current partition that have matched a block, while a left join is joined with a block
+	 * nested loop join.
+	 */
+	private BitSet matchedProbes;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -67,6 +123,14 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 			BindingSet bindings,
 			boolean leftJoin, String[] joinAttributes, QueryEvaluationContext context)
 			throws QueryEvaluationException {
+		this(left, right, bindings, leftJoin, joinAttributes, context, 0);
+	}
+
+	public HashJoinIteration(QueryEvaluationStep left, QueryEvaluationStep right,
+			BindingSet bindings,
+			boolean leftJoin, String[] joinAttributes, QueryEvaluationContext context,
+			long iterationCacheSyncThreshold)
+			throws QueryEvaluationException {
 		this.leftIter = left.evaluate(bindings);
 		this.rightIter = right.evaluate(bindings);
 		this.joinAttributes = joinAttributes;
@@ -74,6 +138,8 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 		this.mapMaker = this::makeHashTable;
 		this.mapValueMaker = this::makeHashValue;
 		this.bsMaker = context::createBindingSet;
+		this.iterationCacheSyncThreshold = iterationCacheSyncThreshold > 0 ? iterationCacheSyncThreshold
+				: Long.MAX_VALUE;
 	}
 
 	@Deprecated(since = "5.0.0", forRemoval = true) // there are still some tests that use this constructor
@@ -91,6 +157,7 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 		this.leftJoin = leftJoin;
 		this.mapValueMaker = this::makeHashValue;
 		this.bsMaker = QueryBindingSet::new;
+		this.iterationCacheSyncThreshold = Long.MAX_VALUE;
 	}
 
 	/*---------*
@@ -114,6 +181,8 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 
 				if (restIter.hasNext()) {
 					currentScanElem = restIter.next();
+				} else if (nextSpilledPartition()) {
+					nextHashTable = hashTable;
 				} else {
 					// no more elements available
 					return null;
@@ -201,10 +270,14 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 							disposeCache(toCloseScanList);
 						}
 					} finally {
-						Map<BindingSetHashKey, List<BindingSet>> toCloseHashTable = hashTable;
-						hashTable = null;
-						if (toCloseHashTable != null) {
-							disposeHashTable(toCloseHashTable);
+						try {
+							Map<BindingSetHashKey, List<BindingSet>> toCloseHashTable = hashTable;
+							hashTable = null;
+							if (toCloseHashTable != null) {
+								disposeHashTable(toCloseHashTable);
+							}
+						} finally {
+							disposeSpillFiles();
 						}
 					}
 				}
@@ -220,6 +293,9 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 			leftArgResults = makeIterationCache(leftIter);
 
 			while (leftIter.hasNext() && rightIter.hasNext()) {
+				if (exceedsSyncThreshold(leftArgResults.size() + rightArgResults.size())) {
+					return setupPartitionedHashTable(leftArgResults, rightArgResults);
+				}
 				add(leftArgResults, leftIter.next());
 				add(rightArgResults, rightIter.next());
 			}
@@ -227,6 +303,9 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 			leftArgResults = Collections.emptyList();
 
 			while (rightIter.hasNext()) {
+				if (exceedsSyncThreshold(rightArgResults.size())) {
+					return setupPartitionedHashTable(leftArgResults, rightArgResults);
+				}
 				add(rightArgResults, rightIter.next());
 			}
 		}
@@ -247,6 +326,11 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 		leftArgResults = null;
 		rightArgResults = null;
 
+		return buildHashTable(smallestResult);
+	}
+
+	private Map<BindingSetHashKey, List<BindingSet>> buildHashTable(Collection<BindingSet> smallestResult)
+			throws QueryEvaluationException {
 		// create the hash table for our join
 		// hash table will never be any bigger than smallestResult.size()
 		Map<BindingSetHashKey, List<BindingSet>> resultHashTable = mapMaker.apply(smallestResult.size());
@@ -269,6 +353,367 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 		return resultHashTable;
 	}
 
+	private boolean exceedsSyncThreshold(int cachedSize) {
+		// a cartesian product can not be partitioned on its (empty) join key
+		return joinAttributes.length > 0 && cachedSize >= iterationCacheSyncThreshold;
+	}
+
+	/**
+	 * Switches to a hybrid hash join. The right argument is always used as the build side, so that the semantics of a
+	 * left join are preserved. Both sides are partitioned on the hash of their join key; partition 0 is joined in
+	 * memory while the left argument is streamed, all other partitions are written to temporary files and joined once
+	 * the left argument is exhausted.
+	 */
+	private Map<BindingSetHashKey, List<BindingSet>> setupPartitionedHashTable(
+			Collection<BindingSet> leftArgResults, Collection<BindingSet> rightArgResults)
+			throws QueryEvaluationException {
+		spillFiles = new ArrayList<>();
+		buildPartitions = new SpillFile[SPILL_PARTITIONS];
+		probePartitions = new SpillFile[SPILL_PARTITIONS];
+
+		List<BindingSet> inMemoryBuild = new ArrayList<>();
+		for (BindingSet b : rightArgResults) {
+			addToBuildPartition(inMemoryBuild, b);
+		}
+		rightArgResults = null;
+		while (rightIter.hasNext()) {
+			addToBuildPartition(inMemoryBuild, rightIter.next());
+		}
+
+		List<BindingSet> inMemoryProbe = new ArrayList<>();
+		for (BindingSet b : leftArgResults) {
+			if (addToProbePartitions(b)) {
+				inMemoryProbe.add(b);
+			}
+		}
+		leftArgResults = null;
+
+		scanList = inMemoryProbe.iterator();
+		restIter = new LookAheadIteration<>() {
+
+			@Override
+			protected BindingSet getNextElement() throws QueryEvaluationException {
+				while (leftIter.hasNext()) {
+					BindingSet next = leftIter.next();
+					if (addToProbePartitions(next)) {
+						return next;
+					}
+				}
+				return null;
+			}
+
+			@Override
+			protected void handleClose() throws QueryEvaluationException {
+				leftIter.close();
+			}
+		};
+
+		return buildHashTable(inMemoryBuild);
+	}
+
+	/**
+	 * @param level the number of times the binding set has been partitioned before, every level uses a different seed
+	 *              so that a partition that is still too large is split when it is partitioned again
+	 */
+	private int partitionOf(BindingSet b, int level) {
+		// use the high bits of a scrambled hash, the low bits are used by the in memory hash table
+		int h = BindingSetHashKey.create(joinAttributes, b).hashCode() + level * 0x9E3779B9;
+		h = (h ^ (h >>> 16)) * 0x85EBCA6B;
+		h = (h ^ (h >>> 13)) * 0xC2B2AE35;
+		return (h ^ (h >>> 16)) >>> (32 - SPILL_PARTITION_BITS);
+	}
+
+	private void addToBuildPartition(List<BindingSet> inMemory, BindingSet b) throws QueryEvaluationException {
+		int partition = partitionOf(b, 0);
+		if (partition == 0) {
+			inMemory.add(b);
+		} else {
+			addToPartition(buildPartitions, partition, b);
+		}
+	}
+
+	/**
+	 * @return true if the binding set also needs to be joined against the in memory partition
+	 */
+	private boolean addToProbePartitions(BindingSet b) throws QueryEvaluationException {
+		if (b instanceof EmptyBindingSet) {
+			// the empty bindingset is merged with every build partition
+			for (int i = 1; i < SPILL_PARTITIONS; i++) {
+				addToProbePartition(buildPartitions, probePartitions, i, b);
+			}
+			return true;
+		}
+		int partition = partitionOf(b, 0);
+		if (partition == 0) {
+			return true;
+		}
+		addToProbePartition(buildPartitions, probePartitions, partition, b);
+		return false;
+	}
+
+	private void addToProbePartition(SpillFile[] build, SpillFile[] probe, int partition, BindingSet b)
+			throws QueryEvaluationException {
+		if (build[partition] == null && !leftJoin) {
+			// nothing to join with
+			return;
+		}
+		addToPartition(probe, partition, b);
+	}
+
+	private void addToPartition(SpillFile[] partitions, int partition, BindingSet b) throws QueryEvaluationException {
+		if (partitions[partition] == null) {
+			SpillFile spillFile = new SpillFile();
+			spillFiles.add(spillFile);
+			partitions[partition] = spillFile;
+		}
+		partitions[partition].add(b);
+	}
+
+	/**
+	 * Loads the next spilled partition, if any, as the current hash table and scan iteration. A partition whose build
+	 * side does not fit within the iteration cache sync threshold is partitioned again with a different seed. If that
+	 * does not make it any smaller, e.g. because most of its bindings share the same join key, or once it has been
+	 * partitioned {@link #MAX_SPILL_LEVEL} times, it is joined with a block nested loop join instead: the build side is
+	 * read in blocks that fit within the threshold and the probe side is scanned once for every block.
+	 *
+	 * @return false if there are no more partitions to join
+	 */
+	private boolean nextSpilledPartition() throws QueryEvaluationException {
+		if (spillFiles == null) {
+			return false;
+		}
+		if (spilledPartitions == null) {
+			spilledPartitions = new ArrayDeque<>();
+			for (int i = 1; i < SPILL_PARTITIONS; i++) {
+				spilledPartitions.push(new SpilledPartition(buildPartitions[i], probePartitions[i], 0,
+						Integer.MAX_VALUE));
+			}
+			buildPartitions = null;
+			probePartitions = null;
+		}
+
+		if (buildBlocks != null) {
+			if (nextBuildBlock()) {
+				return true;
+			}
+			CloseableIteration<BindingSet> toClose = buildBlocks;
+			buildBlocks = null;
+			toClose.close();
+			if (leftJoin) {
+				// the probe bindings that did not match any block are joined against an empty hash table
+				startPartition(mapMaker.apply(0), unmatchedProbes(currentSpilledPartition.probe, matchedProbes));
+				matchedProbes = null;
+				return true;
+			}
+		}
+
+		if (currentSpilledPartition != null) {
+			restIter.close();
+			currentSpilledPartition.close();
+			currentSpilledPartition = null;
+		}
+
+		SpilledPartition partition;
+		while ((partition = spilledPartitions.poll()) != null) {
+			if (partition.probe == null) {
+				partition.close();
+				continue;
+			}
+
+			int buildSize = partition.build == null ? 0 : partition.build.size();
+			if (buildSize > iterationCacheSyncThreshold) {
+				if (partition.level < MAX_SPILL_LEVEL && buildSize < partition.parentSize) {
+					repartition(partition);
+					continue;
+				}
+
+				currentSpilledPartition = partition;
+				buildBlocks = partition.build.iterator();
+				matchedProbes = leftJoin ? new BitSet() : null;
+				return nextBuildBlock();
+			}
+
+			List<BindingSet> build = new ArrayList<>(buildSize);
+			if (partition.build != null) {
+				try (CloseableIteration<BindingSet> iter = partition.build.iterator()) {
+					while (iter.hasNext()) {
+						build.add(iter.next());
+					}
+				}
+			}
+
+			currentSpilledPartition = partition;
+			startPartition(buildHashTable(build), partition.probe.iterator());
+			return true;
+		}
+		return false;
+	}
+
+	private void repartition(SpilledPartition partition) throws QueryEvaluationException {
+		int level = partition.level + 1;
+		SpillFile[] build = new SpillFile[SPILL_PARTITIONS];
+		SpillFile[] probe = new SpillFile[SPILL_PARTITIONS];
+
+		try (CloseableIteration<BindingSet> iter = partition.build.iterator()) {
+			while (iter.hasNext()) {
+				BindingSet next = iter.next();
+				addToPartition(build, partitionOf(next, level), next);
+			}
+		}
+		try (CloseableIteration<BindingSet> iter = partition.probe.iterator()) {
+			while (iter.hasNext()) {
+				BindingSet next = iter.next();
+				if (next instanceof EmptyBindingSet) {
+					for (int i = 0; i < SPILL_PARTITIONS; i++) {
+						addToProbePartition(build, probe, i, next);
+					}
+				} else {
+					addToProbePartition(build, probe, partitionOf(next, level), next);
+				}
+			}
+		}
+
+		int parentSize = partition.build.size();
+		partition.close();
+		for (int i = 0; i < SPILL_PARTITIONS; i++) {
+			spilledPartitions.push(new SpilledPartition(build[i], probe[i], level, parentSize));
+		}
+	}
+
+	/**
+	 * Loads the next block of the build side of the current partition and rescans its probe side against it.
+	 *
+	 * @return false if the build side is exhausted
+	 */
+	private boolean nextBuildBlock() throws QueryEvaluationException {
+		List<BindingSet> block = new ArrayList<>();
+		while (block.size() < iterationCacheSyncThreshold && buildBlocks.hasNext()) {
+			block.add(buildBlocks.next());
+		}
+		if (block.isEmpty()) {
+			return false;
+		}
+		startPartition(buildHashTable(block), matchingProbes(currentSpilledPartition.probe.iterator()));
+		return true;
+	}
+
+	private void startPartition(Map<BindingSetHashKey, List<BindingSet>> nextHashTable,
+			CloseableIteration<BindingSet> probe) throws QueryEvaluationException {
+		Map<BindingSetHashKey, List<BindingSet>> previous = hashTable;
+		hashTable = null;
+		if (previous != null) {
+			disposeHashTable(previous);
+		}
+		hashTable = nextHashTable;
+
+		CloseableIteration<BindingSet> previousRestIter = restIter;
+		restIter = probe;
+		previousRestIter.close();
+		scanList = Collections.emptyIterator();
+	}
+
+	/**
+	 * Skips the probe bindings that have no match in the current block, so that a left join does not produce them once
+	 * for every block. The matches are recorded in {@link #matchedProbes}.
+	 */
+	private CloseableIteration<BindingSet> matchingProbes(CloseableIteration<BindingSet> probe) {
+		return new LookAheadIteration<>() {
+
+			private int index = -1;
+
+			@Override
+			protected BindingSet getNextElement() throws QueryEvaluationException {
+				while (probe.hasNext()) {
+					BindingSet next = probe.next();
+					index++;
+					boolean matches;
+					if (next instanceof EmptyBindingSet) {
+						matches = !hashTable.isEmpty();
+					} else {
+						List<BindingSet> hashValue = hashTable.get(BindingSetHashKey.create(joinAttributes, next));
+						matches = hashValue != null && !hashValue.isEmpty();
+					}
+					if (matches) {
+						if (matchedProbes != null) {
+							matchedProbes.set(index);
+						}
+						return next;
+					}
+				}
+				return null;
+			}
+
+			@Override
+			protected void handleClose() throws QueryEvaluationException {
+				probe.close();
+			}
+		};
+	}
+
+	private CloseableIteration<BindingSet> unmatchedProbes(SpillFile probe, BitSet matched)
+			throws QueryEvaluationException {
+		CloseableIteration<BindingSet> iter = probe.iterator();
+		return new LookAheadIteration<>() {
+
+			private int index = -1;
+
+			@Override
+			protected BindingSet getNextElement() throws QueryEvaluationException {
+				while (iter.hasNext()) {
+					BindingSet next = iter.next();
+					index++;
+					// like an empty hash table, the empty bindingset produces no results when it matched nothing
+					if (!matched.get(index) && !(next instanceof EmptyBindingSet)) {
+						return next;
+					}
+				}
+				return null;
+			}
+
+			@Override
+			protected void handleClose() throws QueryEvaluationException {
+				iter.close();
+			}
+		};
+	}
+
+	private void disposeSpillFiles() throws QueryEvaluationException {
+		try {
+			if (restIter != null && spillFiles != null) {
+				restIter.close();
+			}
+		} finally {
+			try {
+				if (buildBlocks != null) {
+					buildBlocks.close();
+				}
+			} finally {
+				QueryEvaluationException failure = null;
+				if (spillFiles != null) {
+					for (SpillFile spillFile : spillFiles) {
+						try {
+							spillFile.close();
+						} catch (IOException e) {
+							if (failure == null) {
+								failure = new QueryEvaluationException(e);
+							}
+						}
+					}
+				}
+				spillFiles = null;
+				buildPartitions = null;
+				probePartitions = null;
+				spilledPartitions = null;
+				currentSpilledPartition = null;
+				buildBlocks = null;
+				matchedProbes = null;
+				if (failure != null) {
+					throw failure;
+				}
+			}
+		}
+	}
+
 	protected void putHashTableEntry(Map<BindingSetHashKey, List<BindingSet>> nextHashTable, BindingSetHashKey hashKey,
 			List<BindingSet> hashValue, boolean newEntry) throws QueryEvaluationException {
 		// by default, we use a standard memory hash map
@@ -360,4 +805,159 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 		Set<String> rightBindingNames = join.getRightArg().getBindingNames();
 		return leftBindingNames.stream().filter(rightBindingNames::contains).toArray(String[]::new);
 	}
+
+	/**
+	 * The build and probe sides of a partition that have been spilled to disk, either of which may be null if no
+	 * bindings were spilled to it.
+	 */
+	private static final class SpilledPartition implements Closeable {
+
+		private final SpillFile build;
+
+		private final SpillFile probe;
+
+		private final int level;
+
+		/**
+		 * The size of the build side of the partition that this partition was split from.
+		 */
+		private final int parentSize;
+
+		SpilledPartition(SpillFile build, SpillFile probe, int level, int parentSize) {
+			this.build = build;
+			this.probe = probe;
+			this.level = level;
+			this.parentSize = parentSize;
+		}
+
+		@Override
+		public void close() throws QueryEvaluationException {
+			try {
+				if (build != null) {
+					build.close();
+				}
+				if (probe != null) {
+					probe.close();
+				}
+			} catch (IOException e) {
+				throw new QueryEvaluationException(e);
+			}
+		}
+	}
+
+	/**
+	 * An append-only temporary file of binding sets. Bindings are written name by name, rather than as serialized
+	 * {@link BindingSet} objects, so that store specific binding set implementations do not need to survive
+	 * serialization.
+	 */
+	private static final class SpillFile implements Closeable {
+
+		/**
+		 * How often the object stream is reset, so that it does not keep a reference to every value written.
+		 */
+		private static final int RESET_INTERVAL = 1024;
+
+		private static final byte EMPTY = 0;
+
+		private static final byte BINDINGS = 1;
+
+		private final File file;
+
+		private final ObjectOutputStream output;
+
+		private int size;
+
+		SpillFile() throws QueryEvaluationException {
+			try {
+				file = File.createTempFile("hashjoin", "");
+				output = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			} catch (IOException e) {
+				throw new QueryEvaluationException(e);
+			}
+		}
+
+		void add(BindingSet bindings) throws QueryEvaluationException {
+			try {
+				if (bindings instanceof EmptyBindingSet) {
+					output.writeByte(EMPTY);
+				} else {
+					output.writeByte(BINDINGS);
+					for (Binding binding : bindings) {
+						Value value = binding.getValue();
+						if (value != null) {
+							output.writeBoolean(true);
+							output.writeUTF(binding.getName());
+							output.writeObject(value);
+						}
+					}
+					output.writeBoolean(false);
+				}
+				if (++size % RESET_INTERVAL == 0) {
+					output.reset();
+				}
+			} catch (IOException e) {
+				throw new QueryEvaluationException(e);
+			}
+		}
+
+		int size() {
+			return size;
+		}
+
+		/**
+		 * Finishes writing the file, if necessary, and opens a new iteration over its binding sets.
+		 */
+		CloseableIteration<BindingSet> iterator() throws QueryEvaluationException {
+			ObjectInputStream input;
+			try {
+				output.close();
+				input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+			} catch (IOException e) {
+				throw new QueryEvaluationException(e);
+			}
+			return new LookAheadIteration<>() {
+
+				private int remaining = size;
+
+				@Override
+				protected BindingSet getNextElement() throws QueryEvaluationException {
+					if (remaining <= 0) {
+						return null;
+					}
+					remaining--;
+					try {
+						if (input.readByte() == EMPTY) {
+							return EmptyBindingSet.getInstance();
+						}
+						QueryBindingSet result = new QueryBindingSet();
+						while (input.readBoolean()) {
+							String name = input.readUTF();
+							result.addBinding(name, (Value) input.readObject());
+						}
+						return result;
+					} catch (IOException | ClassNotFoundException e) {
+						throw new QueryEvaluationException(e);
+					}
+				}
+
+				@Override
+				protected void handleClose() throws QueryEvaluationException {
+					try {
+						input.close();
+					} catch (IOException e) {
+						throw new QueryEvaluationException(e);
+					}
+				}
+			};
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				output.close();
+			} finally {
+				file.delete();
+			}
+		}
+	}
 }
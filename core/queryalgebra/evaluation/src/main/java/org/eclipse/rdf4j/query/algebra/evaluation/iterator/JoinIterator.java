@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
 
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
 import org.eclipse.rdf4j.query.BindingSet;
@@ -55,6 +60,16 @@ public class JoinIterator extends LookAheadIteration<BindingSet> {
 		return new JoinIterator(leftIter, preparedRight);
 	}
 
+	/**
+	 * Batched variant of {@link #getInstance(QueryEvaluationStep, QueryEvaluationStep, BindingSet)}: the left argument
+	 * is evaluated in batches and each batch of results of the right argument is passed on as is.
+	 */
+	@Experimental
+	public static CloseableIteration<List<BindingSet>> getBatchInstance(QueryEvaluationStep leftPrepared,
+			QueryEvaluationStep preparedRight, BindingSet bindings, int batchSize) {
+		return new BatchJoinIterator(leftPrepared.evaluateBatch(bindings, batchSize), preparedRight, batchSize);
+	}
+
 	/*---------*
 	 * Methods *
 	 *---------*/
@@ -91,4 +106,56 @@ public class JoinIterator extends LookAheadIteration<BindingSet> {
 			}
 		}
 	}
+
+	private static final class BatchJoinIterator extends LookAheadIteration<List<BindingSet>> {
+
+		private final CloseableIteration<List<BindingSet>> leftIter;
+
+		private final QueryEvaluationStep preparedRight;
+
+		private final int batchSize;
+
+		private Iterator<BindingSet> leftBatch = Collections.emptyIterator();
+
+		private CloseableIteration<List<BindingSet>> rightIter;
+
+		private BatchJoinIterator(CloseableIteration<List<BindingSet>> leftIter, QueryEvaluationStep preparedRight,
+				int batchSize) {
+			this.leftIter = leftIter;
+			this.preparedRight = preparedRight;
+			this.batchSize = batchSize;
+		}
+
+		@Override
+		protected List<BindingSet> getNextElement() throws QueryEvaluationException {
+			while (true) {
+				if (rightIter != null) {
+					if (rightIter.hasNext()) {
+						return rightIter.next();
+					}
+					rightIter.close();
+					rightIter = null;
+				}
+
+				if (leftBatch.hasNext()) {
+					rightIter = preparedRight.evaluateBatch(leftBatch.next(), batchSize);
+				} else if (leftIter.hasNext()) {
+					leftBatch = leftIter.next().iterator();
+				} else {
+					return null;
+				}
+			}
+		}
+
+		@Override
+		protected void handleClose() throws QueryEvaluationException {
+			try {
+				leftIter.close();
+			} finally {
+				if (rightIter != null) {
+					rightIter.close();
+				}
+			}
+		}
+	}
 }
@@ -0,0 +1,501 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.common.order.StatementOrder;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.MutableBindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.Join;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.StatementPattern.Scope;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.SeekableStatementIteration;
+import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
+
+/**
+ * A worst-case optimal multiway join of statement patterns using the leapfrog triejoin algorithm (Veldhuizen, 2014).
+ * <p>
+ * Variables are bound one at a time in a fixed order. For each variable, every statement pattern that contains it is
+ * scanned in the order of that variable, with all previously bound variables fixed, and the sorted scans are
+ * intersected by repeatedly seeking the lagging scan to the largest current value. This avoids materialising the
+ * intermediate results that pairwise joins produce for cyclic patterns such as triangles.
+ * <p>
+ * Scans are obtained from {@link TripleSource#getSeekableStatements(StatementOrder, Resource, IRI, Value, Resource...)}
+ * when the triple source supports the required order, and are otherwise sorted in memory. Statements that occur in more
+ * than one context are counted, so the multiplicity of each solution is the same as with nested loop joins.
+ */
+@Experimental
+public class LeapfrogTriejoinIterator extends LookAheadIteration<BindingSet> {
+
+	private final TripleSource tripleSource;
+
+	private final Comparator<Value> comparator;
+
+	private final BindingSet bindings;
+
+	private final QueryEvaluationContext context;
+
+	private final Pattern[] patterns;
+
+	private final Level[] levels;
+
+	private final Value[] assignment;
+
+	private final long[] multiplicity;
+
+	private long baseMultiplicity;
+
+	private final List<BiConsumer<Value, MutableBindingSet>> setters;
+
+	private boolean started;
+
+	private int depth;
+
+	private boolean entering = true;
+
+	private long remainingCopies;
+
+	public LeapfrogTriejoinIterator(List<StatementPattern> statementPatterns, List<String> variableOrder,
+			TripleSource tripleSource, Comparator<Value> comparator, BindingSet bindings,
+			QueryEvaluationContext context) {
+		this.tripleSource = tripleSource;
+		this.comparator = comparator;
+		this.bindings = bindings;
+		this.context = context;
+
+		List<String> variables = new ArrayList<>(variableOrder.size());
+		for (String name : variableOrder) {
+			if (!bindings.hasBinding(name)) {
+				variables.add(name);
+			}
+		}
+
+		this.patterns = new Pattern[statementPatterns.size()];
+		for (int i = 0; i < patterns.length; i++) {
+			patterns[i] = new Pattern(statementPatterns.get(i), variables, bindings);
+		}
+
+		this.levels = new Level[variables.size()];
+		this.setters = new ArrayList<>(variables.size());
+		for (int i = 0; i < levels.length; i++) {
+			List<Pattern> participants = new ArrayList<>();
+			for (Pattern pattern : patterns) {
+				if (pattern.positionOf(i) != null) {
+					participants.add(pattern);
+				}
+			}
+			levels[i] = new Level(i, participants);
+			setters.add(context.setBinding(variables.get(i)));
+		}
+		this.assignment = new Value[levels.length];
+		this.multiplicity = new long[levels.length];
+	}
+
+	/**
+	 * Collects the statement patterns of a join tree, if all of its leaves are statement patterns that this iterator
+	 * can evaluate.
+	 *
+	 * @return the statement patterns, or null if the join tree contains anything else.
+	 */
+	public static List<StatementPattern> getStatementPatterns(Join join) {
+		List<StatementPattern> statementPatterns = new ArrayList<>();
+		return collectStatementPatterns(join, statementPatterns) ? statementPatterns : null;
+	}
+
+	private static boolean collectStatementPatterns(TupleExpr expr, List<StatementPattern> statementPatterns) {
+		if (expr instanceof Join) {
+			Join join = (Join) expr;
+			return collectStatementPatterns(join.getLeftArg(), statementPatterns)
+					&& collectStatementPatterns(join.getRightArg(), statementPatterns);
+		} else if (expr instanceof StatementPattern && supports((StatementPattern) expr)) {
+			statementPatterns.add((StatementPattern) expr);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if the statement pattern queries the default graph, has at least one unbound variable and does not
+	 *         use the same variable more than once.
+	 */
+	public static boolean supports(StatementPattern statementPattern) {
+		if (statementPattern.getScope() != Scope.DEFAULT_CONTEXTS || statementPattern.getContextVar() != null) {
+			return false;
+		}
+		Set<String> names = new HashSet<>();
+		for (Var var : statementPattern.getVarList()) {
+			if (!var.hasValue() && !names.add(var.getName())) {
+				return false;
+			}
+		}
+		return !names.isEmpty();
+	}
+
+	@Override
+	protected BindingSet getNextElement() throws QueryEvaluationException {
+		if (remainingCopies > 0) {
+			remainingCopies--;
+			return createSolution();
+		}
+
+		if (!started) {
+			started = true;
+			long constant = countConstantPatterns();
+			if (constant == 0) {
+				return null;
+			} else if (levels.length == 0) {
+				remainingCopies = constant - 1;
+				return createSolution();
+			}
+			baseMultiplicity = constant;
+			depth = 0;
+		}
+
+		while (depth >= 0 && levels.length > 0) {
+			Level level = levels[depth];
+			boolean found = entering ? level.open() : level.advance();
+			if (!found) {
+				level.close();
+				depth--;
+				entering = false;
+				continue;
+			}
+
+			assignment[depth] = level.getKey();
+			long parentMultiplicity = depth == 0 ? baseMultiplicity : multiplicity[depth - 1];
+			long levelMultiplicity = Math.multiplyExact(parentMultiplicity, level.getMultiplicity());
+			if (depth == levels.length - 1) {
+				entering = false;
+				remainingCopies = levelMultiplicity - 1;
+				return createSolution();
+			}
+			multiplicity[depth] = levelMultiplicity;
+			depth++;
+			entering = true;
+		}
+		return null;
+	}
+
+	private BindingSet createSolution() {
+		MutableBindingSet solution = context.createBindingSet(bindings);
+		for (int i = 0; i < assignment.length; i++) {
+			setters.get(i).accept(assignment[i], solution);
+		}
+		return solution;
+	}
+
+	/**
+	 * Counts the matches of the patterns without unbound variables, which do not take part in any level.
+	 *
+	 * @return the product of the counts, which is the multiplicity of every solution.
+	 */
+	private long countConstantPatterns() throws QueryEvaluationException {
+		long count = 1;
+		for (Pattern pattern : patterns) {
+			if (pattern.lastLevel < 0) {
+				long matches = 0;
+				Value[] spo = pattern.resolve(-1);
+				if (spo != null) {
+					try (CloseableIteration<? extends Statement> statements = tripleSource.getStatements(
+							(Resource) spo[0], (IRI) spo[1], spo[2])) {
+						while (statements.hasNext()) {
+							statements.next();
+							matches++;
+						}
+					}
+				}
+				count = Math.multiplyExact(count, matches);
+			}
+		}
+		return count;
+	}
+
+	@Override
+	protected void handleClose() throws QueryEvaluationException {
+		for (Level level : levels) {
+			level.close();
+		}
+	}
+
+	/**
+	 * A statement pattern with its constant values resolved and its variables mapped to levels.
+	 */
+	private static final class Pattern {
+
+		private final Value[] constants = new Value[3];
+
+		private final int[] levelOf = { -1, -1, -1 };
+
+		private final int lastLevel;
+
+		Pattern(StatementPattern statementPattern, List<String> variables, BindingSet bindings) {
+			Var[] vars = { statementPattern.getSubjectVar(), statementPattern.getPredicateVar(),
+					statementPattern.getObjectVar() };
+			int last = -1;
+			for (int i = 0; i < 3; i++) {
+				Var var = vars[i];
+				if (var.hasValue()) {
+					constants[i] = var.getValue();
+				} else if (bindings.hasBinding(var.getName())) {
+					constants[i] = bindings.getValue(var.getName());
+				} else {
+					levelOf[i] = variables.indexOf(var.getName());
+					if (levelOf[i] < 0) {
+						throw new IllegalArgumentException("Variable is not part of the join order: " + var);
+					}
+					last = Math.max(last, levelOf[i]);
+				}
+			}
+			this.lastLevel = last;
+		}
+
+		StatementOrder positionOf(int level) {
+			if (levelOf[0] == level) {
+				return StatementOrder.S;
+			} else if (levelOf[1] == level) {
+				return StatementOrder.P;
+			} else if (levelOf[2] == level) {
+				return StatementOrder.O;
+			}
+			return null;
+		}
+
+		/**
+		 * Resolves the subject, predicate and object to scan for the given level, binding the variables of all earlier
+		 * levels.
+		 *
+		 * @return the values to scan with, or null if an earlier binding can not occur in its position.
+		 */
+		Value[] resolve(int level, Value... assignment) {
+			Value[] spo = new Value[3];
+			for (int i = 0; i < 3; i++) {
+				if (levelOf[i] < 0) {
+					spo[i] = constants[i];
+				} else if (levelOf[i] < level) {
+					spo[i] = assignment[levelOf[i]];
+				}
+			}
+			if (spo[0] != null && !(spo[0] instanceof Resource) || spo[1] != null && !(spo[1] instanceof IRI)) {
+				return null;
+			}
+			return spo;
+		}
+	}
+
+	/**
+	 * The leapfrog intersection of all patterns containing the variable bound at one level.
+	 */
+	private final class Level {
+
+		private final int index;
+
+		private final List<Pattern> participants;
+
+		private final Cursor[] cursors;
+
+		private int p;
+
+		Level(int index, List<Pattern> participants) {
+			this.index = index;
+			this.participants = participants;
+			this.cursors = new Cursor[participants.size()];
+		}
+
+		boolean open() throws QueryEvaluationException {
+			for (int i = 0; i < cursors.length; i++) {
+				Pattern pattern = participants.get(i);
+				Cursor cursor = new Cursor(pattern.lastLevel == index);
+				cursors[i] = cursor;
+				Value[] spo = pattern.resolve(index, assignment);
+				if (spo == null) {
+					return false;
+				}
+				cursor.open(pattern.positionOf(index), spo);
+				if (cursor.atEnd) {
+					return false;
+				}
+			}
+			Arrays.sort(cursors, (a, b) -> comparator.compare(a.key, b.key));
+			p = 0;
+			return search();
+		}
+
+		boolean advance() throws QueryEvaluationException {
+			Cursor cursor = cursors[p];
+			cursor.next();
+			if (cursor.atEnd) {
+				return false;
+			}
+			p = (p + 1) % cursors.length;
+			return search();
+		}
+
+		private boolean search() throws QueryEvaluationException {
+			Value max = cursors[(p + cursors.length - 1) % cursors.length].key;
+			while (true) {
+				Cursor cursor = cursors[p];
+				if (comparator.compare(cursor.key, max) == 0) {
+					return true;
+				}
+				cursor.seek(max);
+				if (cursor.atEnd) {
+					return false;
+				}
+				max = cursor.key;
+				p = (p + 1) % cursors.length;
+			}
+		}
+
+		Value getKey() {
+			return cursors[p].key;
+		}
+
+		/**
+		 * @return the number of matching statements of the patterns whose last variable is bound at this level.
+		 */
+		long getMultiplicity() {
+			long result = 1;
+			for (Cursor cursor : cursors) {
+				if (cursor.countRuns) {
+					result = Math.multiplyExact(result, cursor.run);
+				}
+			}
+			return result;
+		}
+
+		void close() throws QueryEvaluationException {
+			for (int i = 0; i < cursors.length; i++) {
+				if (cursors[i] != null) {
+					try {
+						cursors[i].close();
+					} finally {
+						cursors[i] = null;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A sorted scan of one pattern that moves over distinct values of the level's variable.
+	 */
+	private final class Cursor {
+
+		private final boolean countRuns;
+
+		private SeekableStatementIteration iter;
+
+		private StatementOrder order;
+
+		private Statement lookahead;
+
+		private Value key;
+
+		private long run;
+
+		private boolean atEnd;
+
+		Cursor(boolean countRuns) {
+			this.countRuns = countRuns;
+		}
+
+		void open(StatementOrder order, Value[] spo) throws QueryEvaluationException {
+			this.order = order;
+			Resource subj = (Resource) spo[0];
+			IRI pred = (IRI) spo[1];
+			if (tripleSource.getSupportedOrders(subj, pred, spo[2]).contains(order)) {
+				iter = tripleSource.getSeekableStatements(order, subj, pred, spo[2]);
+			} else {
+				List<Statement> statements = new ArrayList<>();
+				Iterations.addAll(tripleSource.getStatements(subj, pred, spo[2]), statements);
+				statements.sort(order.getComparator(comparator));
+				iter = new OrderedStatementIteration(new CloseableIteratorIteration<>(statements.iterator()), order,
+						comparator);
+			}
+			land(nextStatement());
+		}
+
+		void next() throws QueryEvaluationException {
+			land(nextStatement());
+		}
+
+		void seek(Value target) throws QueryEvaluationException {
+			if (lookahead != null) {
+				if (comparator.compare(OrderedStatementIteration.getValue(lookahead, order), target) >= 0) {
+					land(nextStatement());
+					return;
+				}
+				lookahead = null;
+			}
+			iter.seek(target);
+			land(nextStatement());
+		}
+
+		private Statement nextStatement() throws QueryEvaluationException {
+			if (lookahead != null) {
+				Statement result = lookahead;
+				lookahead = null;
+				return result;
+			}
+			return iter.hasNext() ? iter.next() : null;
+		}
+
+		/**
+		 * Positions this cursor on the value of the given statement and skips, while counting, all following statements
+		 * with the same value.
+		 */
+		private void land(Statement first) throws QueryEvaluationException {
+			if (first == null) {
+				atEnd = true;
+				key = null;
+				return;
+			}
+			key = OrderedStatementIteration.getValue(first, order);
+			run = 1;
+			while (iter.hasNext()) {
+				Statement statement = iter.next();
+				if (comparator.compare(OrderedStatementIteration.getValue(statement, order), key) == 0) {
+					run++;
+				} else {
+					lookahead = statement;
+					break;
+				}
+			}
+		}
+
+		void close() throws QueryEvaluationException {
+			lookahead = null;
+			if (iter != null) {
+				iter.close();
+			}
+		}
+	}
+}
@@ -27,24 +27,49 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.TreeMap;
 import java.util.stream.Stream;
 
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
 import org.eclipse.rdf4j.common.iteration.DelayedIteration;
+import org.eclipse.rdf4j.common.iteration.EmptyIteration;
 import org.eclipse.rdf4j.common.iteration.LimitIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 
 /**
  * Sorts the input and optionally applies limit and distinct.
+ * <p>
+ * When a limit is known, distinct is not required and the limit fits within the sync threshold, only the top
+ * <var>limit</var> bindings are kept in a bounded heap. Otherwise the input is sorted in runs that are spilled to disk
+ * once the sync threshold is exceeded, and the runs are combined using a k-way merge.
  *
  * @author James Leigh
  * @author Arjohn Kampman
  */
 public class OrderIterator extends DelayedIteration<BindingSet> {
 
+	/**
+	 * Algorithm name reported when only the top <var>limit</var> bindings are retained in a bounded heap.
+	 */
+	@Experimental
+	public static final String TOP_K = "TopKHeapSort";
+
+	/**
+	 * Algorithm name reported when sorted runs may be spilled to disk and merged.
+	 */
+	@Experimental
+	public static final String EXTERNAL_MERGE_SORT = "ExternalMergeSort";
+
+	/**
+	 * Algorithm name reported when the complete input is sorted in memory.
+	 */
+	@Experimental
+	public static final String IN_MEMORY_SORT = "InMemorySort";
+
 	/*-----------*
 	 * Variables *
 	 *-----------*/
@@ -91,8 +116,36 @@ public class OrderIterator extends DelayedIteration<BindingSet> {
 	 * Methods *
 	 *---------*/
 
+	/**
+	 * Determines the sorting algorithm an {@link OrderIterator} created with the supplied arguments will use.
+	 *
+	 * @param limit                  the maximum number of results, or {@link Long#MAX_VALUE} if unbounded
+	 * @param distinct               whether duplicates are to be removed
+	 * @param iterationSyncThreshold the number of bindings to keep in memory before spilling to disk, 0 for no limit
+	 * @return one of {@link #TOP_K}, {@link #EXTERNAL_MERGE_SORT} or {@link #IN_MEMORY_SORT}
+	 */
+	@Experimental
+	public static String getAlgorithmName(long limit, boolean distinct, long iterationSyncThreshold) {
+		long syncThreshold = iterationSyncThreshold > 0 ? iterationSyncThreshold : Integer.MAX_VALUE;
+		if (isTopK(limit, distinct, syncThreshold)) {
+			return TOP_K;
+		} else if (iterationSyncThreshold > 0) {
+			return EXTERNAL_MERGE_SORT;
+		} else {
+			return IN_MEMORY_SORT;
+		}
+	}
+
+	private static boolean isTopK(long limit, boolean distinct, long syncThreshold) {
+		return !distinct && limit < Integer.MAX_VALUE && limit <= syncThreshold;
+	}
+
 	@Override
 	protected CloseableIteration<BindingSet> createIteration() throws QueryEvaluationException {
+		if (isTopK(limit, distinct, iterationSyncThreshold)) {
+			return topK();
+		}
+
 		BindingSet threshold = null;
 		List<BindingSet> list = new LinkedList<>();
 		int limit2 = limit >= Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : (int) limit * 2;
@@ -143,6 +196,47 @@ public class OrderIterator extends DelayedIteration<BindingSet> {
 		return new LimitIteration<>(new CloseableIteratorIteration<>(iterator), limit);
 	}
 
+	/**
+	 * Keeps the smallest <var>limit</var> bindings in a max-heap, so that memory is bounded by the limit and every
+	 * binding costs at most O(log limit) comparisons. Ties are broken by arrival order to match the stable sort used
+	 * otherwise.
+	 */
+	private CloseableIteration<BindingSet> topK() throws QueryEvaluationException {
+		if (limit <= 0) {
+			iter.close();
+			return new EmptyIteration<>();
+		}
+
+		Comparator<Ranked> ranking = Comparator.<Ranked, BindingSet>comparing(r -> r.bindings, comparator)
+				.thenComparingLong(r -> r.rank);
+		PriorityQueue<Ranked> heap = new PriorityQueue<>((int) Math.min(limit, 1024) + 1, ranking.reversed());
+		long rank = 0;
+		try {
+			while (iter.hasNext()) {
+				BindingSet next = iter.next();
+				if (heap.size() < limit) {
+					heap.add(new Ranked(next, rank++));
+					increment();
+				} else if (comparator.compare(next, heap.peek().bindings) < 0) {
+					heap.poll();
+					heap.add(new Ranked(next, rank++));
+					increment();
+					decrement(1);
+				}
+			}
+		} finally {
+			iter.close();
+		}
+
+		Ranked[] sorted = heap.toArray(new Ranked[heap.size()]);
+		Arrays.sort(sorted, ranking);
+		List<BindingSet> result = new ArrayList<>(sorted.length);
+		for (Ranked ranked : sorted) {
+			result.add(ranked.bindings);
+		}
+		return new CloseableIteratorIteration<>(result.iterator());
+	}
+
 	protected void increment() throws QueryEvaluationException {
 		// give subclasses a chance to stop query evaluation
 	}
@@ -191,6 +285,18 @@ public class OrderIterator extends DelayedIteration<BindingSet> {
 		}
 	}
 
+	private static final class Ranked {
+
+		private final BindingSet bindings;
+
+		private final long rank;
+
+		private Ranked(BindingSet bindings, long rank) {
+			this.bindings = bindings;
+			this.rank = rank;
+		}
+	}
+
 	private static class SerializedQueue<E extends Serializable> extends AbstractQueue<E> implements Closeable {
 
 		private final File file;
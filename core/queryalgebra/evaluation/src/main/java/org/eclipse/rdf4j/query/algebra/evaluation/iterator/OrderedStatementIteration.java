@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.iteration.AbstractCloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.order.StatementOrder;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.SeekableStatementIteration;
+
+/**
+ * A {@link SeekableStatementIteration} over an iteration that is already sorted by a {@link StatementOrder}. Seeking is
+ * implemented by scanning forward, which is what triple sources without native index seeks fall back to.
+ */
+@Experimental
+public class OrderedStatementIteration extends AbstractCloseableIteration<Statement>
+		implements SeekableStatementIteration {
+
+	private final CloseableIteration<? extends Statement> iter;
+
+	private final StatementOrder order;
+
+	private final Comparator<Value> comparator;
+
+	private Statement next;
+
+	public OrderedStatementIteration(CloseableIteration<? extends Statement> iter, StatementOrder order,
+			Comparator<Value> comparator) {
+		this.iter = iter;
+		this.order = order;
+		this.comparator = comparator;
+	}
+
+	@Override
+	public StatementOrder getStatementOrder() {
+		return order;
+	}
+
+	@Override
+	public void seek(Value key) throws QueryEvaluationException {
+		while (hasNext()) {
+			if (comparator.compare(getValue(next, order), key) >= 0) {
+				return;
+			}
+			next = null;
+		}
+	}
+
+	@Override
+	public boolean hasNext() throws QueryEvaluationException {
+		if (next != null) {
+			return true;
+		}
+		if (isClosed()) {
+			return false;
+		}
+		if (iter.hasNext()) {
+			next = iter.next();
+			return true;
+		}
+		close();
+		return false;
+	}
+
+	@Override
+	public Statement next() throws QueryEvaluationException {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Statement result = next;
+		next = null;
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected void handleClose() throws QueryEvaluationException {
+		next = null;
+		iter.close();
+	}
+
+	/**
+	 * @return the value of the statement at the position given by the supplied order.
+	 */
+	public static Value getValue(Statement statement, StatementOrder order) {
+		switch (order) {
+		case S:
+			return statement.getSubject();
+		case P:
+			return statement.getPredicate();
+		case O:
+			return statement.getObject();
+		case C:
+			return statement.getContext();
+		}
+		throw new IllegalStateException("Unknown StatementOrder: " + order);
+	}
+}
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.QueryInterruptedException;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
+
+/**
+ * Evaluates the arguments of a union concurrently. Every argument is submitted to an {@link ExecutorService} and its
+ * results are passed to the consumer through a bounded queue, so a branch that produces results faster than they are
+ * consumed blocks instead of buffering them all. Results of the different branches are interleaved in no particular
+ * order. With a single argument, the argument is evaluated ahead of the consumer on another thread.
+ * <p>
+ * A branch that has not been picked up by the executor when the consumer runs out of results is evaluated by the
+ * consumer itself. This keeps nested parallel unions from deadlocking on a saturated executor, and it means that an
+ * executor with a single thread, or one that rejects tasks, still makes progress.
+ * <p>
+ * Closing the iteration, for instance when the query times out, cancels the branches that are still running.
+ */
+@Experimental
+public class ParallelUnionIteration extends LookAheadIteration<BindingSet> {
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+	// offered to the queue when a branch has finished to wake up a consumer that is waiting for results
+	private static final Object BRANCH_DONE = new Object();
+
+	private final BindingSet bindings;
+
+	private final Branch[] branches;
+
+	private final BlockingQueue<Object> queue;
+
+	private final ConcurrentLinkedQueue<Throwable> exceptions = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger running;
+
+	private volatile boolean closed;
+
+	private CloseableIteration<BindingSet> inline;
+
+	private Branch inlineBranch;
+
+	public ParallelUnionIteration(List<QueryEvaluationStep> args, BindingSet bindings, ExecutorService executor,
+			int queueCapacity) {
+		this.bindings = bindings;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.branches = new Branch[args.size()];
+		this.running = new AtomicInteger(args.size());
+
+		for (int i = 0; i < branches.length; i++) {
+			branches[i] = new Branch(args.get(i));
+		}
+		for (Branch branch : branches) {
+			try {
+				branch.future = executor.submit(branch);
+			} catch (RejectedExecutionException e) {
+				// evaluated by the consumer instead
+			}
+		}
+	}
+
+	@Override
+	protected BindingSet getNextElement() throws QueryEvaluationException {
+		try {
+			while (true) {
+				checkException();
+
+				if (inline != null) {
+					if (inline.hasNext()) {
+						return inline.next();
+					}
+					inline.close();
+					inline = null;
+					inlineBranch.finish();
+				}
+
+				Object next = queue.poll();
+				if (next == null) {
+					if (running.get() == 0) {
+						// every branch has finished after its last put, so anything it produced is in the queue
+						next = queue.poll();
+						if (next == null) {
+							checkException();
+							return null;
+						}
+					} else if (startInline()) {
+						continue;
+					} else {
+						next = queue.take();
+					}
+				}
+
+				if (next != BRANCH_DONE) {
+					return (BindingSet) next;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new QueryInterruptedException(e);
+		}
+	}
+
+	private boolean startInline() {
+		for (Branch branch : branches) {
+			if (branch.claim()) {
+				inlineBranch = branch;
+				try {
+					inline = branch.arg.evaluate(bindings);
+				} catch (Throwable t) {
+					inlineBranch.finish();
+					inlineBranch = null;
+					throw t;
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void checkException() {
+		Throwable t = exceptions.poll();
+		if (t != null) {
+			close();
+			if (t instanceof QueryEvaluationException) {
+				throw (QueryEvaluationException) t;
+			} else if (t instanceof RuntimeException) {
+				throw (RuntimeException) t;
+			} else if (t instanceof Error) {
+				throw (Error) t;
+			}
+			throw new QueryEvaluationException(t);
+		}
+	}
+
+	@Override
+	protected void handleClose() throws QueryEvaluationException {
+		closed = true;
+		try {
+			for (Branch branch : branches) {
+				// branches that have not started yet will not start at all
+				branch.claim();
+				Future<?> future = branch.future;
+				if (future != null) {
+					future.cancel(true);
+				}
+			}
+			// unblock producers waiting for space in the queue
+			queue.clear();
+		} finally {
+			if (inline != null) {
+				inline.close();
+				inline = null;
+			}
+		}
+	}
+
+	private final class Branch implements Runnable {
+
+		private final QueryEvaluationStep arg;
+
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		private volatile Future<?> future;
+
+		private Branch(QueryEvaluationStep arg) {
+			this.arg = arg;
+		}
+
+		private boolean claim() {
+			return claimed.compareAndSet(false, true);
+		}
+
+		@Override
+		public void run() {
+			if (!claim()) {
+				return;
+			}
+			try (CloseableIteration<BindingSet> iter = arg.evaluate(bindings)) {
+				while (!closed && iter.hasNext()) {
+					put(iter.next());
+				}
+			} catch (InterruptedException e) {
+				// cancelled by close()
+				Thread.currentThread().interrupt();
+			} catch (Throwable t) {
+				if (!closed) {
+					exceptions.add(t);
+				}
+			} finally {
+				finish();
+			}
+		}
+
+		private void put(BindingSet bindingSet) throws InterruptedException {
+			while (!closed && !queue.offer(bindingSet, 10, TimeUnit.MILLISECONDS)) {
+				// queue is full, keep checking whether the consumer went away
+			}
+		}
+
+		private void finish() {
+			running.decrementAndGet();
+			queue.offer(BRANCH_DONE);
+		}
+	}
+}
@@ -34,9 +34,7 @@ public class ProjectionIterator extends ConvertingIteration<BindingSet, BindingS
 	 * Constants *
 	 *-----------*/
 
-	private final BiConsumer<MutableBindingSet, BindingSet> projector;
-
-	private final Supplier<MutableBindingSet> maker;
+	private final Function<BindingSet, BindingSet> projector;
 
 	/*--------------*
 	 * Constructors *
@@ -64,6 +62,19 @@ public class ProjectionIterator extends ConvertingIteration<BindingSet, BindingS
 	public ProjectionIterator(Projection projection, CloseableIteration<BindingSet> iter,
 			BindingSet parentBindings, QueryEvaluationContext context) throws QueryEvaluationException {
 		super(iter);
+		this.projector = buildProjector(projection, parentBindings, context);
+	}
+
+	/**
+	 * Build the function that projects a single source binding set, as applied by this iterator.
+	 *
+	 * @param projection     the projection to apply
+	 * @param parentBindings the bindings the projection is evaluated with
+	 * @param context        the evaluation context
+	 * @return a function that creates the projected binding set
+	 */
+	public static Function<BindingSet, BindingSet> buildProjector(Projection projection, BindingSet parentBindings,
+			QueryEvaluationContext context) {
 		ProjectionElemList projectionElemList = projection.getProjectionElemList();
 		boolean isOuterProjection = determineOuterProjection(projection);
 		boolean includeAllParentBindings = !isOuterProjection;
@@ -107,12 +118,18 @@ public class ProjectionIterator extends ConvertingIteration<BindingSet, BindingS
 			};
 		}
 
+		Supplier<MutableBindingSet> maker;
 		if (includeAllParentBindings) {
-			this.maker = () -> context.createBindingSet(parentBindings);
+			maker = () -> context.createBindingSet(parentBindings);
 		} else {
-			this.maker = context::createBindingSet;
+			maker = context::createBindingSet;
 		}
-		this.projector = consumer;
+		BiConsumer<MutableBindingSet, BindingSet> projector = consumer;
+		return sourceBindings -> {
+			MutableBindingSet qbs = maker.get();
+			projector.accept(qbs, sourceBindings);
+			return qbs;
+		};
 	}
 
 	private BiConsumer<MutableBindingSet, BindingSet> andThen(BiConsumer<MutableBindingSet, BindingSet> consumer,
@@ -124,7 +141,7 @@ public class ProjectionIterator extends ConvertingIteration<BindingSet, BindingS
 		}
 	}
 
-	private boolean determineOuterProjection(QueryModelNode ancestor) {
+	private static boolean determineOuterProjection(QueryModelNode ancestor) {
 		while (ancestor.getParentNode() != null) {
 			ancestor = ancestor.getParentNode();
 			if (ancestor instanceof Projection || ancestor instanceof MultiProjection) {
@@ -140,9 +157,7 @@ public class ProjectionIterator extends ConvertingIteration<BindingSet, BindingS
 
 	@Override
 	protected BindingSet convert(BindingSet sourceBindings) throws QueryEvaluationException {
-		MutableBindingSet qbs = maker.get();
-		projector.accept(qbs, sourceBindings);
-		return qbs;
+		return projector.apply(sourceBindings);
 	}
 
 	public static BindingSet project(ProjectionElemList projElemList, BindingSet sourceBindings,
@@ -12,11 +12,15 @@ package org.eclipse.rdf4j.query.algebra.evaluation.optimizer;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +47,7 @@ import org.eclipse.rdf4j.query.algebra.ZeroLengthPath;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryOptimizer;
 import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.LeapfrogTriejoinIterator;
 import org.eclipse.rdf4j.query.algebra.helpers.AbstractSimpleQueryModelVisitor;
 import org.eclipse.rdf4j.query.algebra.helpers.StatementPatternVisitor;
 import org.eclipse.rdf4j.query.algebra.helpers.TupleExprs;
@@ -67,6 +72,29 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 	@Experimental
 	public static boolean USE_MERGE_JOIN_FOR_LAST_STATEMENT_PATTERNS_WHEN_CROSS_JOIN = true;
 
+	/**
+	 * When enabled, a join group that consists of at least three statement patterns whose variables form a cycle (for
+	 * instance a triangle) is evaluated as a single leapfrog triejoin, provided the triple source can return the
+	 * statements of every pattern ordered by each of its variables. Disabled by default.
+	 */
+	@Experimental
+	public static boolean USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS = false;
+
+	/**
+	 * When enabled, a join group of only statement patterns that is no larger than
+	 * {@link #DYNAMIC_PROGRAMMING_JOIN_ORDER_MAX_SIZE} is ordered by enumerating all left-deep join orders with dynamic
+	 * programming, using {@link EvaluationStatistics#getDistinctValueCount(StatementPattern, Var)} to estimate the size
+	 * of the intermediate results. Other join groups are ordered greedily.
+	 */
+	@Experimental
+	public static boolean USE_DYNAMIC_PROGRAMMING_JOIN_ORDER = false;
+
+	/**
+	 * The largest join group that is ordered with dynamic programming, the work grows with 2^n.
+	 */
+	@Experimental
+	public static int DYNAMIC_PROGRAMMING_JOIN_ORDER_MAX_SIZE = 10;
+
 	protected final EvaluationStatistics statistics;
 	private final boolean trackResultSize;
 	private final TripleSource tripleSource;
@@ -93,10 +121,16 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 	 * Applies generally applicable optimizations: path expressions are sorted from more to less specific.
 	 *
 	 * @param tupleExpr
+	 * @param bindings  the bindings the query is evaluated with, variables with these names are ordered as bound even
+	 *                  if no value has been assigned to them
 	 */
 	@Override
 	public void optimize(TupleExpr tupleExpr, Dataset dataset, BindingSet bindings) {
-		tupleExpr.visit(new JoinVisitor());
+		if (bindings == null || bindings.isEmpty()) {
+			tupleExpr.visit(new JoinVisitor());
+		} else {
+			tupleExpr.visit(new JoinVisitor(bindings.getBindingNames()));
+		}
 	}
 
 	/**
@@ -105,12 +139,22 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 	@SuppressWarnings("InnerClassMayBeStatic")
 	protected class JoinVisitor extends AbstractSimpleQueryModelVisitor<RuntimeException> {
 
-		private Set<String> boundVars = new HashSet<>();
+		/**
+		 * The names of the variables that are bound when the query is evaluated, but may not have been assigned a
+		 * value yet. Their values are not known while ordering, so they are not used for sorted joins.
+		 */
+		private final Set<String> bindingNames;
+		private Set<String> boundVars;
 		private double currentHighestCost = 1;
 
 		protected JoinVisitor() {
-			super(trackResultSize);
+			this(Set.of());
+		}
 
+		protected JoinVisitor(Set<String> bindingNames) {
+			super(trackResultSize);
+			this.bindingNames = bindingNames;
+			this.boundVars = new HashSet<>(bindingNames);
 		}
 
 		@Override
@@ -215,9 +259,15 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 						fillVarFreqMap(varList, varFreqMap);
 					}
 
+					List<TupleExpr> plannedOrder = USE_DYNAMIC_PROGRAMMING_JOIN_ORDER
+							? getDynamicProgrammingOrder(joinArgs)
+							: null;
+
 					// order all other join arguments based on available statistics
 					while (!joinArgs.isEmpty()) {
-						TupleExpr tupleExpr = selectNextTupleExpr(joinArgs, cardinalityMap, varsMap, varFreqMap);
+						TupleExpr tupleExpr = plannedOrder != null
+								? plannedOrder.get(orderedJoinArgs.size())
+								: selectNextTupleExpr(joinArgs, cardinalityMap, varsMap, varFreqMap);
 						this.currentHighestCost = Math.max(currentHighestCost, tupleExpr.getCostEstimate());
 
 						joinArgs.remove(tupleExpr);
@@ -240,13 +290,17 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 					}
 				}
 
-				if (priorityJoins == null && !orderedJoinArgs.isEmpty()) {
+				List<String> leapfrogVariableOrder = priorityJoins == null
+						? getLeapfrogVariableOrder(orderedJoinArgs)
+						: null;
+
+				if (priorityJoins == null && leapfrogVariableOrder == null && !orderedJoinArgs.isEmpty()) {
 
 					double cardinality = 0;
 
 					while (orderedJoinArgs.size() > 1) {
 
-						Set<Var> supportedOrders = orderedJoinArgs.peekFirst().getSupportedOrders(tripleSource);
+						Set<Var> supportedOrders = getSupportedOrders(orderedJoinArgs.peekFirst());
 						if (supportedOrders.isEmpty()) {
 							break;
 						}
@@ -255,7 +309,7 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 						TupleExpr right = orderedJoinArgs.removeFirst();
 
 						supportedOrders = new HashSet<>(supportedOrders);
-						supportedOrders.retainAll(right.getSupportedOrders(tripleSource));
+						supportedOrders.retainAll(getSupportedOrders(right));
 
 						if (supportedOrders.isEmpty() || joinOnMultipleVars(left, right) || joinSizeIsTooDifferent(
 								Math.max(cardinality, left.getResultSizeEstimate()), right.getResultSizeEstimate())) {
@@ -286,12 +340,13 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 					if (!orderedJoinArgs.isEmpty()) {
 						TupleExpr left = orderedJoinArgs.removeLast();
 
-						Set<Var> supportedOrders = new HashSet<>(left.getSupportedOrders(tripleSource));
-						supportedOrders.retainAll(right.getSupportedOrders(tripleSource));
+						Set<Var> supportedOrders = new HashSet<>(getSupportedOrders(left));
+						supportedOrders.retainAll(getSupportedOrders(right));
 
 						Join join = new Join(left, right);
 
-						if (USE_MERGE_JOIN_FOR_LAST_STATEMENT_PATTERNS_WHEN_CROSS_JOIN) {
+						if (USE_MERGE_JOIN_FOR_LAST_STATEMENT_PATTERNS_WHEN_CROSS_JOIN
+								&& leapfrogVariableOrder == null) {
 							mergeJoinForCrossJoin(orderedJoinArgs, supportedOrders, left, right, join);
 						}
 
@@ -306,6 +361,10 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 						right = new Join(priorityJoins, right);
 					}
 
+					if (leapfrogVariableOrder != null) {
+						((Join) right).setLeapfrogVariableOrder(leapfrogVariableOrder);
+					}
+
 					// Replace old join hierarchy
 					node.replaceWith(right);
 
@@ -327,10 +386,223 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 
 		private void optimizeInNewScope(List<TupleExpr> subSelects) {
 			for (TupleExpr subSelect : subSelects) {
-				subSelect.visit(new JoinVisitor());
+				subSelect.visit(new JoinVisitor(bindingNames));
 			}
 		}
 
+		/**
+		 * Finds the left-deep join order of a group of statement patterns with the lowest estimated cost, where the
+		 * cost of an order is the sum of the sizes of its intermediate results. The size of a join is estimated as the
+		 * product of the sizes of its arguments divided, for each shared variable, by the larger number of distinct
+		 * values the variable has in either argument. Variables that are bound outside of the group count as joined
+		 * with a single value.
+		 *
+		 * @return the join arguments in the order in which to evaluate them, or null if the group is not suitable
+		 */
+		private List<TupleExpr> getDynamicProgrammingOrder(List<TupleExpr> joinArgs) {
+			int size = joinArgs.size();
+			if (size < 2 || size > DYNAMIC_PROGRAMMING_JOIN_ORDER_MAX_SIZE || size > 30) {
+				return null;
+			}
+
+			double[] cardinalities = new double[size];
+			List<Map<String, Double>> distinctCounts = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				if (!(joinArgs.get(i) instanceof StatementPattern)) {
+					return null;
+				}
+				StatementPattern statementPattern = (StatementPattern) joinArgs.get(i);
+				double cardinality = statistics.getCardinality(statementPattern);
+
+				Map<String, Double> distinct = new HashMap<>();
+				for (Var var : statementPattern.getVarList()) {
+					if (var.hasValue() || distinct.containsKey(var.getName())) {
+						continue;
+					}
+					double count = Math.max(1, statistics.getDistinctValueCount(statementPattern, var));
+					if (boundVars.contains(var.getName())) {
+						// one value is passed in for each evaluation of the group
+						cardinality /= count;
+					} else {
+						distinct.put(var.getName(), count);
+					}
+				}
+				cardinalities[i] = cardinality;
+				distinctCounts.add(distinct);
+			}
+
+			int subsets = 1 << size;
+			double[] rows = new double[subsets];
+			double[] cost = new double[subsets];
+			int[] last = new int[subsets];
+			Arrays.fill(cost, Double.POSITIVE_INFINITY);
+			rows[0] = 1;
+			cost[0] = 0;
+
+			for (int subset = 0; subset < subsets; subset++) {
+				if (cost[subset] == Double.POSITIVE_INFINITY) {
+					continue;
+				}
+				for (int i = 0; i < size; i++) {
+					int bit = 1 << i;
+					if ((subset & bit) != 0) {
+						continue;
+					}
+					double joinRows = rows[subset] * cardinalities[i];
+					for (Map.Entry<String, Double> entry : distinctCounts.get(i).entrySet()) {
+						double joined = getDistinctValueCount(subset, entry.getKey(), distinctCounts);
+						if (joined > 0) {
+							joinRows /= Math.max(joined, entry.getValue());
+						}
+					}
+					// every row of the prefix is one lookup of the next pattern
+					double joinCost = cost[subset] + rows[subset] + joinRows;
+					int next = subset | bit;
+					if (joinCost < cost[next]) {
+						cost[next] = joinCost;
+						rows[next] = joinRows;
+						last[next] = i;
+					}
+				}
+			}
+
+			TupleExpr[] order = new TupleExpr[size];
+			int subset = subsets - 1;
+			for (int position = size - 1; position >= 0; position--) {
+				int i = last[subset];
+				order[position] = joinArgs.get(i);
+				order[position].setCostEstimate(rows[subset]);
+				subset &= ~(1 << i);
+			}
+			return Arrays.asList(order);
+		}
+
+		/**
+		 * The number of distinct values of a variable in the join of a set of statement patterns, estimated as the
+		 * smallest number of distinct values among the patterns that use it.
+		 *
+		 * @return the number of distinct values, or 0 if none of the patterns use the variable
+		 */
+		private double getDistinctValueCount(int subset, String varName, List<Map<String, Double>> distinctCounts) {
+			double result = 0;
+			for (int i = 0; i < distinctCounts.size(); i++) {
+				if ((subset & (1 << i)) != 0) {
+					Double count = distinctCounts.get(i).get(varName);
+					if (count != null && (result == 0 || count < result)) {
+						result = count;
+					}
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Determines whether the join arguments can be evaluated with a leapfrog triejoin: they must all be statement
+		 * patterns that the triple source can scan in order, and their variables must form a cycle, which is where
+		 * pairwise joins produce large intermediate results.
+		 *
+		 * @return the order in which to bind the variables, or null if a leapfrog triejoin should not be used.
+		 */
+		private List<String> getLeapfrogVariableOrder(Collection<TupleExpr> joinArgs) {
+			if (!USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS || joinArgs.size() < 3
+					|| tripleSource.getComparator() == null) {
+				return null;
+			}
+
+			List<Set<String>> patternVars = new ArrayList<>(joinArgs.size());
+			for (TupleExpr joinArg : joinArgs) {
+				if (!(joinArg instanceof StatementPattern)) {
+					return null;
+				}
+				StatementPattern statementPattern = (StatementPattern) joinArg;
+				if (!LeapfrogTriejoinIterator.supports(statementPattern)) {
+					return null;
+				}
+				Set<Var> supportedOrders = statementPattern.getSupportedOrders(tripleSource);
+				Set<String> vars = new LinkedHashSet<>();
+				for (Var var : statementPattern.getVarList()) {
+					if (!var.hasValue()) {
+						if (bindingNames.contains(var.getName()) || !supportedOrders.contains(var)) {
+							// the triejoin would have to sort the statements of this pattern in memory, or the variable
+							// is bound to a value that is not known yet
+							return null;
+						}
+						vars.add(var.getName());
+					}
+				}
+				patternVars.add(vars);
+			}
+
+			if (!isCyclic(patternVars)) {
+				return null;
+			}
+
+			// bind the most shared variables first, preferring variables that are connected to those already bound
+			Map<String, Integer> frequency = new LinkedHashMap<>();
+			for (Set<String> vars : patternVars) {
+				for (String var : vars) {
+					frequency.merge(var, 1, Integer::sum);
+				}
+			}
+			List<String> order = new ArrayList<>(frequency.size());
+			Set<String> connected = new HashSet<>();
+			while (order.size() < frequency.size()) {
+				String next = null;
+				for (Map.Entry<String, Integer> entry : frequency.entrySet()) {
+					String var = entry.getKey();
+					if (order.contains(var)) {
+						continue;
+					}
+					if (next == null || connected.contains(var) && !connected.contains(next)
+							|| connected.contains(var) == connected.contains(next)
+									&& entry.getValue() > frequency.get(next)) {
+						next = var;
+					}
+				}
+				order.add(next);
+				for (Set<String> vars : patternVars) {
+					if (vars.contains(next)) {
+						connected.addAll(vars);
+					}
+				}
+			}
+			return order;
+		}
+
+		/**
+		 * A join group is cyclic if some pattern connects variables that are already connected through other patterns.
+		 */
+		private boolean isCyclic(List<Set<String>> patternVars) {
+			Map<String, String> parent = new HashMap<>();
+			for (Set<String> vars : patternVars) {
+				Set<String> roots = new HashSet<>();
+				for (String var : vars) {
+					if (!roots.add(findRoot(parent, var))) {
+						// this pattern connects two variables that are already connected
+						return true;
+					}
+				}
+				String root = null;
+				for (String r : roots) {
+					if (root == null) {
+						root = r;
+					} else {
+						parent.put(r, root);
+					}
+				}
+			}
+			return false;
+		}
+
+		private String findRoot(Map<String, String> parent, String var) {
+			String root = var;
+			String next;
+			while ((next = parent.get(root)) != null) {
+				root = next;
+			}
+			return root;
+		}
+
 		private boolean joinSizeIsTooDifferent(double cardinality, double second) {
 			if (cardinality > second && cardinality / MERGE_JOIN_CARDINALITY_SIZE_DIFF_MULTIPLIER > second) {
 				return true;
@@ -756,6 +1028,16 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 			}
 		}
 
+		private Set<Var> getSupportedOrders(TupleExpr tupleExpr) {
+			Set<Var> supportedOrders = tupleExpr.getSupportedOrders(tripleSource);
+			if (bindingNames.isEmpty() || supportedOrders.isEmpty()) {
+				return supportedOrders;
+			}
+			Set<Var> result = new HashSet<>(supportedOrders);
+			result.removeIf(var -> bindingNames.contains(var.getName()));
+			return result;
+		}
+
 		private void mergeJoinForCrossJoin(Deque<TupleExpr> orderedJoinArgs, Set<Var> supportedOrders, TupleExpr left,
 				TupleExpr right, Join join) {
 			if (!orderedJoinArgs.isEmpty()
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.BindingSetAssignment;
+import org.eclipse.rdf4j.query.algebra.Compare;
+import org.eclipse.rdf4j.query.algebra.Compare.CompareOp;
+import org.eclipse.rdf4j.query.algebra.Extension;
+import org.eclipse.rdf4j.query.algebra.ExtensionElem;
+import org.eclipse.rdf4j.query.algebra.Filter;
+import org.eclipse.rdf4j.query.algebra.Join;
+import org.eclipse.rdf4j.query.algebra.MathExpr;
+import org.eclipse.rdf4j.query.algebra.MathExpr.MathOp;
+import org.eclipse.rdf4j.query.algebra.Projection;
+import org.eclipse.rdf4j.query.algebra.ProjectionElem;
+import org.eclipse.rdf4j.query.algebra.ProjectionElemList;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.ValueConstant;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.JoinIterator;
+import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks that the steps that override {@link QueryEvaluationStep#evaluateBatch(BindingSet, int)} produce the same
+ * results as {@link QueryEvaluationStep#evaluate(BindingSet)}.
+ */
+public class BatchEvaluationTest {
+
+	private static final int SIZE = 7;
+
+	private static final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private static final IRI PREDICATE = vf.createIRI("ex:p");
+
+	/**
+	 * Two statements for every even object value and one for every odd one.
+	 */
+	private final List<Statement> statements = new ArrayList<>();
+
+	private final DefaultEvaluationStrategy strategy = new DefaultEvaluationStrategy(new TripleSource() {
+
+		@Override
+		public ValueFactory getValueFactory() {
+			return vf;
+		}
+
+		@Override
+		public CloseableIteration<? extends Statement> getStatements(Resource subj, IRI pred, Value obj,
+				Resource... contexts) throws QueryEvaluationException {
+			return new CloseableIteratorIteration<>(statements.stream()
+					.filter(st -> subj == null || subj.equals(st.getSubject()))
+					.filter(st -> pred == null || pred.equals(st.getPredicate()))
+					.filter(st -> obj == null || obj.equals(st.getObject()))
+					.iterator());
+		}
+	}, null);
+
+	@BeforeEach
+	public void setUp() {
+		for (int i = 0; i < SIZE; i++) {
+			statements.add(vf.createStatement(vf.createIRI("ex:s" + i), PREDICATE, vf.createLiteral(i)));
+			if (i % 2 == 0) {
+				statements.add(vf.createStatement(vf.createIRI("ex:t" + i), PREDICATE, vf.createLiteral(i)));
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 3, SIZE, 100 })
+	public void testFilter(int batchSize) {
+		Filter filter = new Filter(values(),
+				new Compare(new Var("a"), new ValueConstant(vf.createLiteral(3)), CompareOp.GE));
+
+		assertBatchEquivalence(filter, batchSize);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 3, SIZE, 100 })
+	public void testProjection(int batchSize) {
+		Projection projection = new Projection(values(),
+				new ProjectionElemList(new ProjectionElem("a"), new ProjectionElem("b", "c")));
+
+		assertBatchEquivalence(projection, batchSize);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 3, SIZE, 100 })
+	public void testExtension(int batchSize) {
+		Extension extension = new Extension(values(),
+				new ExtensionElem(new MathExpr(new Var("a"), new Var("b"), MathOp.PLUS), "sum"));
+
+		assertBatchEquivalence(extension, batchSize);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 3, SIZE, 100 })
+	public void testNestedLoopJoin(int batchSize) {
+		BindingSetAssignment right = new BindingSetAssignment();
+		List<BindingSet> rightBindings = new ArrayList<>();
+		for (int i = 0; i < SIZE; i += 2) {
+			for (int j = 0; j < 2; j++) {
+				QueryBindingSet bindings = new QueryBindingSet();
+				bindings.addBinding("a", vf.createLiteral(i));
+				bindings.addBinding("d", vf.createLiteral(j));
+				rightBindings.add(bindings);
+			}
+		}
+		right.setBindingSets(rightBindings);
+		Join join = new Join(values(), right);
+
+		assertBatchEquivalence(join, batchSize);
+		assertThat(join.getAlgorithmName()).isEqualTo(JoinIterator.class.getSimpleName());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 3, SIZE, 100 })
+	public void testStatementPattern(int batchSize) {
+		StatementPattern pattern = new StatementPattern(new Var("s"), new Var("p", PREDICATE), new Var("a"));
+
+		assertBatchEquivalence(pattern, batchSize);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 3, SIZE, 100 })
+	public void testNestedLoopJoinWithStatementPattern(int batchSize) {
+		Join join = new Join(values(),
+				new StatementPattern(new Var("s"), new Var("p", PREDICATE), new Var("a")));
+
+		assertBatchEquivalence(join, batchSize);
+		assertThat(join.getAlgorithmName()).isEqualTo(JoinIterator.class.getSimpleName());
+	}
+
+	@Test
+	public void testFactoryEnablesBatchEvaluation() {
+		DefaultEvaluationStrategyFactory factory = new DefaultEvaluationStrategyFactory();
+		factory.setEvaluationBatchSize(16);
+
+		DefaultEvaluationStrategy created = (DefaultEvaluationStrategy) factory.createEvaluationStrategy(null,
+				new EmptyTripleSource(), new EvaluationStatistics());
+
+		assertThat(created.getEvaluationBatchSize()).isEqualTo(16);
+	}
+
+	private void assertBatchEquivalence(TupleExpr expr, int batchSize) {
+		QueryEvaluationStep step = strategy.precompile(expr);
+
+		List<BindingSet> expected = Iterations.asList(step.evaluate(EmptyBindingSet.getInstance()));
+		List<BindingSet> actual = new ArrayList<>();
+		try (CloseableIteration<List<BindingSet>> batches = step.evaluateBatch(EmptyBindingSet.getInstance(),
+				batchSize)) {
+			while (batches.hasNext()) {
+				List<BindingSet> batch = batches.next();
+				assertThat(batch).hasSizeLessThanOrEqualTo(batchSize);
+				actual.addAll(batch);
+			}
+		}
+
+		assertThat(expected).isNotEmpty();
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	private BindingSetAssignment values() {
+		BindingSetAssignment values = new BindingSetAssignment();
+		List<BindingSet> bindingSets = new ArrayList<>();
+		for (int i = 0; i < SIZE; i++) {
+			QueryBindingSet bindings = new QueryBindingSet();
+			bindings.addBinding("a", vf.createLiteral(i));
+			bindings.addBinding("b", vf.createLiteral(i * 2));
+			bindingSets.add(bindings);
+		}
+		values.setBindingSets(bindingSets);
+		return values;
+	}
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.Projection;
+import org.eclipse.rdf4j.query.algebra.QueryRoot;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.ParallelUnionQueryEvaluationStep;
+import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
+import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+@Timeout(60)
+public class ParallelEvaluationTest {
+
+	private static final String UNION_QUERY = "select * where { { ?s <ex:p> ?o } union { ?s <ex:q> ?x } }";
+
+	private static final String HASH_JOIN_QUERY = "select * where { ?s <ex:p> ?o . "
+			+ "{ select ?s ?x where { ?s <ex:q> ?x } } }";
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+	private final AtomicInteger submitted = new AtomicInteger();
+
+	private final ExecutorService executor = new AbstractExecutorService() {
+
+		@Override
+		public void execute(Runnable command) {
+			submitted.incrementAndGet();
+			pool.execute(command);
+		}
+
+		@Override
+		public void shutdown() {
+			pool.shutdown();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return pool.shutdownNow();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return pool.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return pool.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return pool.awaitTermination(timeout, unit);
+		}
+	};
+
+	@AfterEach
+	public void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void testParallelEvaluationWithConcurrentReads() {
+		DefaultEvaluationStrategy strategy = new DefaultEvaluationStrategy(tripleSource(true), null);
+		strategy.setParallelEvaluationExecutor(executor);
+
+		assertThat(strategy.precompile(union()))
+				.isInstanceOf(ParallelUnionQueryEvaluationStep.class);
+		assertThat(evaluate(strategy, UNION_QUERY)).hasSize(10).isEqualTo(evaluateSequentially(UNION_QUERY));
+		assertThat(submitted.getAndSet(0)).isEqualTo(2);
+
+		assertThat(evaluate(strategy, HASH_JOIN_QUERY)).hasSize(5).isEqualTo(evaluateSequentially(HASH_JOIN_QUERY));
+		assertThat(submitted.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testNoParallelEvaluationWithoutConcurrentReads() {
+		DefaultEvaluationStrategy strategy = new DefaultEvaluationStrategy(tripleSource(false), null);
+		strategy.setParallelEvaluationExecutor(executor);
+
+		assertThat(strategy.precompile(union()))
+				.isNotInstanceOf(ParallelUnionQueryEvaluationStep.class);
+		assertThat(evaluate(strategy, UNION_QUERY)).hasSize(10);
+		assertThat(evaluate(strategy, HASH_JOIN_QUERY)).hasSize(5);
+		assertThat(submitted.get()).isZero();
+	}
+
+	private List<BindingSet> evaluateSequentially(String query) {
+		return evaluate(new DefaultEvaluationStrategy(tripleSource(false), null), query);
+	}
+
+	private List<BindingSet> evaluate(DefaultEvaluationStrategy strategy, String query) {
+		List<BindingSet> result = Iterations.asList(strategy.precompile(parse(query))
+				.evaluate(EmptyBindingSet.getInstance()));
+		result.sort((a, b) -> a.toString().compareTo(b.toString()));
+		return result;
+	}
+
+	private TupleExpr union() {
+		QueryRoot root = (QueryRoot) parse(UNION_QUERY);
+		return ((Projection) root.getArg()).getArg();
+	}
+
+	private TupleExpr parse(String query) {
+		return new SPARQLParser().parseQuery(query, null).getTupleExpr();
+	}
+
+	private TripleSource tripleSource(boolean concurrentReads) {
+		List<Statement> statements = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			IRI subject = vf.createIRI("ex:s" + i);
+			statements.add(vf.createStatement(subject, vf.createIRI("ex:p"), vf.createIRI("ex:o" + i)));
+			statements.add(vf.createStatement(subject, vf.createIRI("ex:q"), vf.createLiteral(i)));
+		}
+
+		return new TripleSource() {
+
+			@Override
+			public CloseableIteration<? extends Statement> getStatements(Resource subj, IRI pred, Value obj,
+					Resource... contexts) throws QueryEvaluationException {
+				List<Statement> matches = new ArrayList<>();
+				for (Statement st : statements) {
+					if ((subj == null || subj.equals(st.getSubject()))
+							&& (pred == null || pred.equals(st.getPredicate()))
+							&& (obj == null || obj.equals(st.getObject()))) {
+						matches.add(st);
+					}
+				}
+				return new CloseableIteratorIteration<>(matches.iterator());
+			}
+
+			@Override
+			public boolean supportsConcurrentReads() {
+				return concurrentReads;
+			}
+
+			@Override
+			public ValueFactory getValueFactory() {
+				return vf;
+			}
+		};
+	}
+}
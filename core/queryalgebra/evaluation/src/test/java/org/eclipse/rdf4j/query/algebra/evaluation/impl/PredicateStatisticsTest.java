@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.jupiter.api.Test;
+
+public class PredicateStatisticsTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final IRI p = vf.createIRI("ex:p");
+
+	private final IRI q = vf.createIRI("ex:q");
+
+	@Test
+	public void testSmallCountsAreExact() {
+		PredicateStatistics statistics = new PredicateStatistics();
+		for (int i = 0; i < 50; i++) {
+			statistics.add(vf.createIRI("ex:s" + i % 5), p, vf.createLiteral(i));
+			statistics.add(vf.createIRI("ex:s" + i % 5), p, vf.createLiteral(i));
+		}
+
+		assertThat(statistics.getDistinctSubjectCount(p)).isEqualTo(5);
+		assertThat(statistics.getDistinctObjectCount(p)).isEqualTo(50);
+		assertThat(statistics.getDistinctSubjectCount(q)).isEqualTo(0);
+	}
+
+	@Test
+	public void testLargeCountsAreEstimated() {
+		PredicateStatistics statistics = new PredicateStatistics();
+		for (int i = 0; i < 100_000; i++) {
+			statistics.add(vf.createIRI("ex:s" + i), p, vf.createLiteral(i % 1000));
+		}
+
+		assertThat(statistics.getDistinctSubjectCount(p)).isCloseTo(100_000, within(10_000.0));
+		assertThat(statistics.getDistinctObjectCount(p)).isCloseTo(1000, within(100.0));
+	}
+
+	@Test
+	public void testClear() {
+		PredicateStatistics statistics = new PredicateStatistics();
+		statistics.add(vf.createIRI("ex:s"), p, vf.createLiteral(1));
+		statistics.clear();
+
+		assertThat(statistics.getDistinctSubjectCount(p)).isEqualTo(0);
+	}
+}
@@ -17,9 +17,18 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.rdf4j.common.exception.RDF4JException;
+import org.eclipse.rdf4j.common.order.StatementOrder;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.QueryLanguage;
 import org.eclipse.rdf4j.query.UnsupportedQueryLanguageException;
@@ -31,9 +40,13 @@ import org.eclipse.rdf4j.query.algebra.QueryRoot;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.query.algebra.UnaryTupleOperator;
+import org.eclipse.rdf4j.query.algebra.Var;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryOptimizerTest;
+import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
 import org.eclipse.rdf4j.query.algebra.evaluation.optimizer.QueryJoinOptimizer;
+import org.eclipse.rdf4j.query.algebra.evaluation.util.ValueComparator;
 import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
 import org.eclipse.rdf4j.query.parser.ParsedQuery;
 import org.eclipse.rdf4j.query.parser.QueryParserUtil;
 import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
@@ -192,6 +205,151 @@ public class QueryJoinOptimizerTest extends QueryOptimizerTest {
 
 	}
 
+	@Test
+	public void testLeapfrogTriejoinForCyclicJoin() {
+		Join join = optimizeWithOrderedTripleSource(
+				"select * where { ?a <ex:knows> ?b . ?b <ex:knows> ?c . ?a <ex:knows> ?c . }");
+
+		assertThat(join.getLeapfrogVariableOrder()).containsExactlyInAnyOrder("a", "b", "c");
+		assertThat(join.isMergeJoin()).isFalse();
+	}
+
+	@Test
+	public void testNoLeapfrogTriejoinForAcyclicJoin() {
+		Join join = optimizeWithOrderedTripleSource(
+				"select * where { ?a <ex:knows> ?b . ?b <ex:knows> ?c . ?c <ex:knows> ?d . }");
+
+		assertThat(join.getLeapfrogVariableOrder()).isNull();
+	}
+
+	@Test
+	public void testNoLeapfrogTriejoinWithoutOrderedTripleSource() {
+		String query = "select * where { ?a <ex:knows> ?b . ?b <ex:knows> ?c . ?a <ex:knows> ?c . }";
+		QueryRoot optRoot = new QueryRoot(new SPARQLParser().parseQuery(query, null).getTupleExpr());
+		boolean useLeapfrog = QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS;
+		try {
+			QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS = true;
+			getOptimizer().optimize(optRoot, null, null);
+		} finally {
+			QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS = useLeapfrog;
+		}
+
+		JoinFinder joinFinder = new JoinFinder();
+		optRoot.visit(joinFinder);
+		assertThat(joinFinder.getJoin().getLeapfrogVariableOrder()).isNull();
+	}
+
+	@Test
+	public void testNoLeapfrogTriejoinWithoutAllRequiredOrders() {
+		Join join = optimizeWithOrderedTripleSource(
+				"select * where { ?a <ex:knows> ?b . ?b <ex:knows> ?c . ?a <ex:knows> ?c . }", StatementOrder.S);
+
+		assertThat(join.getLeapfrogVariableOrder()).isNull();
+	}
+
+	@Test
+	public void testDynamicProgrammingJoinOrder() {
+		Map<String, double[]> statistics = Map.of(
+				// cardinality, distinct subjects, distinct objects
+				"ex:p", new double[] { 100, 100, 100 },
+				"ex:q", new double[] { 1_000_000, 100, 1_000_000 },
+				"ex:r", new double[] { 500, 500, 1 });
+		EvaluationStatistics evaluationStatistics = new EvaluationStatistics() {
+			@Override
+			public double getCardinality(TupleExpr expr) {
+				if (expr instanceof StatementPattern) {
+					return statistics.get(getPredicate((StatementPattern) expr))[0];
+				}
+				return super.getCardinality(expr);
+			}
+
+			@Override
+			public double getDistinctValueCount(StatementPattern sp, Var var) {
+				double[] counts = statistics.get(getPredicate(sp));
+				return var.equals(sp.getSubjectVar()) ? counts[1] : counts[2];
+			}
+		};
+
+		// starting with the smallest pattern joins every ?y with 10000 values of ?z, most of which ex:r discards
+		String query = "select * where { ?x <ex:p> ?y . ?y <ex:q> ?z . ?z <ex:r> <ex:o> . }";
+		QueryRoot optRoot = new QueryRoot(new SPARQLParser().parseQuery(query, null).getTupleExpr());
+		boolean useDynamicProgramming = QueryJoinOptimizer.USE_DYNAMIC_PROGRAMMING_JOIN_ORDER;
+		try {
+			QueryJoinOptimizer.USE_DYNAMIC_PROGRAMMING_JOIN_ORDER = true;
+			new QueryJoinOptimizer(evaluationStatistics, new EmptyTripleSource()).optimize(optRoot, null, null);
+		} finally {
+			QueryJoinOptimizer.USE_DYNAMIC_PROGRAMMING_JOIN_ORDER = useDynamicProgramming;
+		}
+
+		StatementFinder statementFinder = new StatementFinder();
+		optRoot.visit(statementFinder);
+		assertThat(statementFinder.getStatements()).extracting(this::getPredicate)
+				.containsExactly("ex:r", "ex:q", "ex:p");
+	}
+
+	@Test
+	public void testBindingNamesAreOrderedAsBound() {
+		String query = "select * where { ?a <ex:p> ?b . ?b <ex:q> ?c . }";
+		MapBindingSet bindings = new MapBindingSet();
+		bindings.addBinding("c", SimpleValueFactory.getInstance().createIRI("ex:c"));
+
+		QueryRoot optRoot = new QueryRoot(new SPARQLParser().parseQuery(query, null).getTupleExpr());
+		new QueryJoinOptimizer(new EvaluationStatistics(), new EmptyTripleSource()).optimize(optRoot, null, bindings);
+
+		StatementFinder statementFinder = new StatementFinder();
+		optRoot.visit(statementFinder);
+		assertThat(statementFinder.getStatements()).extracting(this::getPredicate).containsExactly("ex:q", "ex:p");
+	}
+
+	@Test
+	public void testNoLeapfrogTriejoinOnBindingNames() {
+		MapBindingSet bindings = new MapBindingSet();
+		bindings.addBinding("a", SimpleValueFactory.getInstance().createIRI("ex:a"));
+		Join join = optimizeWithOrderedTripleSource(
+				"select * where { ?a <ex:knows> ?b . ?b <ex:knows> ?c . ?c <ex:knows> ?a . }", bindings,
+				StatementOrder.S, StatementOrder.O);
+
+		assertThat(join.getLeapfrogVariableOrder()).isNull();
+	}
+
+	private String getPredicate(StatementPattern statementPattern) {
+		return statementPattern.getPredicateVar().getValue().stringValue();
+	}
+
+	private Join optimizeWithOrderedTripleSource(String query) {
+		return optimizeWithOrderedTripleSource(query, StatementOrder.S, StatementOrder.O);
+	}
+
+	private Join optimizeWithOrderedTripleSource(String query, StatementOrder... orders) {
+		return optimizeWithOrderedTripleSource(query, null, orders);
+	}
+
+	private Join optimizeWithOrderedTripleSource(String query, BindingSet bindings, StatementOrder... orders) {
+		TripleSource tripleSource = new EmptyTripleSource() {
+			@Override
+			public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
+				return Set.of(orders);
+			}
+
+			@Override
+			public Comparator<Value> getComparator() {
+				return new ValueComparator();
+			}
+		};
+		QueryRoot optRoot = new QueryRoot(new SPARQLParser().parseQuery(query, null).getTupleExpr());
+		boolean useLeapfrog = QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS;
+		try {
+			QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS = true;
+			new QueryJoinOptimizer(new EvaluationStatistics(), tripleSource).optimize(optRoot, null, bindings);
+		} finally {
+			QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS = useLeapfrog;
+		}
+
+		JoinFinder joinFinder = new JoinFinder();
+		optRoot.visit(joinFinder);
+		return joinFinder.getJoin();
+	}
+
 	@Override
 	public QueryJoinOptimizer getOptimizer() {
 		return new QueryJoinOptimizer(new EvaluationStatistics(), new EmptyTripleSource());
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
+import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveJoinIteratorTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final QueryEvaluationContext context = new QueryEvaluationContext.Minimal(null);
+
+	private final List<BindingSet> rightBindings = new ArrayList<>();
+
+	private int rightEvaluations;
+
+	private QueryEvaluationStep left;
+
+	/**
+	 * Behaves like a statement pattern over ?a and ?b: returns the results compatible with ?a if it is bound.
+	 */
+	private final QueryEvaluationStep right = bindings -> {
+		rightEvaluations++;
+		Value a = bindings.getValue("a");
+		List<BindingSet> result = new ArrayList<>();
+		for (BindingSet rightBinding : rightBindings) {
+			if (a == null || a.equals(rightBinding.getValue("a"))) {
+				QueryBindingSet bs = new QueryBindingSet(bindings);
+				bs.addBinding("b", rightBinding.getValue("b"));
+				if (a == null) {
+					bs.addBinding("a", rightBinding.getValue("a"));
+				}
+				result.add(bs);
+			}
+		}
+		return new CloseableIteratorIteration<>(result.iterator());
+	};
+
+	@BeforeEach
+	public void setUp() {
+		for (int i = 0; i < 6; i++) {
+			QueryBindingSet b = new QueryBindingSet();
+			b.addBinding("a", vf.createLiteral(i % 3));
+			b.addBinding("b", vf.createLiteral(i));
+			rightBindings.add(b);
+		}
+
+		List<BindingSet> leftBindings = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			QueryBindingSet b = new QueryBindingSet();
+			b.addBinding("a", vf.createLiteral(i % 4));
+			b.addBinding("c", vf.createLiteral(i));
+			leftBindings.add(b);
+		}
+		left = bindings -> new CloseableIteratorIteration<>(leftBindings.iterator());
+	}
+
+	@Test
+	public void testSwitchesToHashJoin() {
+		List<BindingSet> expected = Iterations.asList(JoinIterator.getInstance(left, right,
+				EmptyBindingSet.getInstance()));
+		rightEvaluations = 0;
+
+		AdaptiveJoinIterator iter = new AdaptiveJoinIterator(left.evaluate(EmptyBindingSet.getInstance()), right,
+				EmptyBindingSet.getInstance(), new String[] { "a" }, 5, 100, context);
+		List<BindingSet> actual = Iterations.asList(iter);
+
+		assertThat(actual).isEqualTo(expected);
+		assertThat(iter.isHashJoin()).isTrue();
+		// five lookups and one evaluation to build the hash table
+		assertThat(rightEvaluations).isEqualTo(6);
+	}
+
+	@Test
+	public void testStaysNestedLoopWhenHashTableIsTooLarge() {
+		List<BindingSet> expected = Iterations.asList(JoinIterator.getInstance(left, right,
+				EmptyBindingSet.getInstance()));
+		rightEvaluations = 0;
+
+		AdaptiveJoinIterator iter = new AdaptiveJoinIterator(left.evaluate(EmptyBindingSet.getInstance()), right,
+				EmptyBindingSet.getInstance(), new String[] { "a" }, 5, 3, context);
+		List<BindingSet> actual = Iterations.asList(iter);
+
+		assertThat(actual).isEqualTo(expected);
+		assertThat(iter.isHashJoin()).isFalse();
+		assertThat(rightEvaluations).isEqualTo(21);
+	}
+
+	@Test
+	public void testStaysNestedLoopBelowLimit() {
+		rightEvaluations = 0;
+
+		AdaptiveJoinIterator iter = new AdaptiveJoinIterator(left.evaluate(EmptyBindingSet.getInstance()), right,
+				EmptyBindingSet.getInstance(), new String[] { "a" }, 20, 100, context);
+		Iterations.asList(iter);
+
+		assertThat(iter.isHashJoin()).isFalse();
+		assertThat(rightEvaluations).isEqualTo(20);
+	}
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.algebra.BindingSetAssignment;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.BindingSetAssignmentQueryEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.util.ValueComparator;
+import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BindJoinIteratorTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final QueryEvaluationContext context = new QueryEvaluationContext.Minimal(null);
+
+	private final List<Value> lookups = new ArrayList<>();
+
+	private QueryEvaluationStep left;
+
+	/**
+	 * Produces two bindings for ?b for every value of ?a and records the values of ?a it is evaluated with.
+	 */
+	private final QueryEvaluationStep right = bindings -> {
+		Value a = bindings.getValue("a");
+		lookups.add(a);
+		int i = Integer.parseInt(a.stringValue());
+		List<BindingSet> result = new ArrayList<>();
+		for (int j = 0; j < 2; j++) {
+			QueryBindingSet bs = new QueryBindingSet(bindings);
+			bs.addBinding("b", vf.createLiteral(i * 10 + j));
+			result.add(bs);
+		}
+		return new CloseableIteratorIteration<>(result.iterator());
+	};
+
+	@BeforeEach
+	public void setUp() {
+		List<BindingSet> leftBindings = new ArrayList<>();
+		int[] values = { 3, 1, 3, 2, 1, 3, 2 };
+		for (int k = 0; k < values.length; k++) {
+			QueryBindingSet b = new QueryBindingSet();
+			b.addBinding("a", vf.createLiteral(values[k]));
+			b.addBinding("c", vf.createLiteral(k));
+			leftBindings.add(b);
+		}
+		left = bindings -> new CloseableIteratorIteration<>(leftBindings.iterator());
+	}
+
+	@Test
+	public void testSameResultsAsNestedLoopJoin() {
+		List<BindingSet> expected = Iterations.asList(JoinIterator.getInstance(left, right,
+				EmptyBindingSet.getInstance()));
+		lookups.clear();
+
+		List<BindingSet> actual = Iterations.asList(new BindJoinIterator(left.evaluate(EmptyBindingSet.getInstance()),
+				right, EmptyBindingSet.getInstance(), new String[] { "a" }, 4, null, context));
+
+		assertThat(actual).isEqualTo(expected);
+		assertThat(actual).hasSize(14);
+	}
+
+	@Test
+	public void testLooksUpEachJoinValueOncePerBatch() {
+		Iterations.asList(new BindJoinIterator(left.evaluate(EmptyBindingSet.getInstance()), right,
+				EmptyBindingSet.getInstance(), new String[] { "a" }, 4, null, context));
+
+		// first batch has 3, 1, 3, 2 and the second 1, 3, 2
+		assertThat(lookups).containsExactly(vf.createLiteral(3), vf.createLiteral(1), vf.createLiteral(2),
+				vf.createLiteral(1), vf.createLiteral(3), vf.createLiteral(2));
+	}
+
+	@Test
+	public void testSortsLookupsWithinBatch() {
+		Iterations.asList(new BindJoinIterator(left.evaluate(EmptyBindingSet.getInstance()), right,
+				EmptyBindingSet.getInstance(), new String[] { "a" }, 10, new ValueComparator(), context));
+
+		assertThat(lookups).containsExactly(vf.createLiteral(1), vf.createLiteral(2), vf.createLiteral(3));
+	}
+
+	@Test
+	public void testBatchOfOne() {
+		List<BindingSet> expected = Iterations.asList(JoinIterator.getInstance(left, right,
+				EmptyBindingSet.getInstance()));
+
+		List<BindingSet> actual = Iterations.asList(new BindJoinIterator(left.evaluate(EmptyBindingSet.getInstance()),
+				right, EmptyBindingSet.getInstance(), new String[] { "a" }, 1, new ValueComparator(), context));
+
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	@Test
+	public void testDoesNotCopyUnboundLeftVariablesOfRepresentative() {
+		// ?c is bound, like an OPTIONAL variable, for the first left binding but not for the second with the same ?a
+		QueryBindingSet withOptional = new QueryBindingSet();
+		withOptional.addBinding("a", vf.createLiteral(1));
+		withOptional.addBinding("c", vf.createLiteral("optional"));
+		QueryBindingSet withoutOptional = new QueryBindingSet();
+		withoutOptional.addBinding("a", vf.createLiteral(1));
+		List<BindingSet> leftBindings = List.of(withOptional, withoutOptional);
+		QueryEvaluationStep optionalLeft = bindings -> new CloseableIteratorIteration<>(leftBindings.iterator());
+
+		List<BindingSet> expected = Iterations.asList(JoinIterator.getInstance(optionalLeft, right,
+				EmptyBindingSet.getInstance()));
+
+		List<BindingSet> actual = Iterations.asList(new BindJoinIterator(
+				optionalLeft.evaluate(EmptyBindingSet.getInstance()), right, EmptyBindingSet.getInstance(),
+				new String[] { "a" }, 10, null, context));
+
+		assertThat(actual).isEqualTo(expected);
+		assertThat(actual).hasSize(4);
+		assertThat(actual.subList(2, 4)).allSatisfy(bs -> assertThat(bs.hasBinding("c")).isFalse());
+	}
+
+	@Test
+	public void testEvaluatesRightArgumentOncePerBatch() {
+		List<BindingSetAssignment> evaluations = new ArrayList<>();
+		List<BindingSet> expected = Iterations.asList(JoinIterator.getInstance(left, right,
+				EmptyBindingSet.getInstance()));
+
+		List<BindingSet> actual = Iterations.asList(new BindJoinIterator(left.evaluate(EmptyBindingSet.getInstance()),
+				values -> {
+					evaluations.add(values);
+					return JoinIterator.getInstance(new BindingSetAssignmentQueryEvaluationStep(values, context), right,
+							EmptyBindingSet.getInstance());
+				}, new String[] { "a" }, 4, new ValueComparator(), context));
+
+		assertThat(actual).isEqualTo(expected);
+		// first batch has 3, 1, 3, 2 and the second 1, 3, 2
+		assertThat(evaluations).hasSize(2);
+		assertThat(evaluations).allSatisfy(values -> assertThat(values.getBindingSets())
+				.extracting(bs -> bs.getValue("a"))
+				.containsExactly(vf.createLiteral(1), vf.createLiteral(2), vf.createLiteral(3)));
+		assertThat(evaluations.get(0).getBindingSets()).allSatisfy(bs -> assertThat(bs.hasBinding("c")).isFalse());
+	}
+
+	@Test
+	public void testEvaluatesPartiallyBoundJoinValuesSeparately() {
+		// ?c is a join variable that the second left binding leaves unbound, like an OPTIONAL variable
+		QueryBindingSet first = new QueryBindingSet();
+		first.addBinding("a", vf.createLiteral(1));
+		first.addBinding("c", vf.createLiteral("x"));
+		QueryBindingSet second = new QueryBindingSet();
+		second.addBinding("a", vf.createLiteral(1));
+		QueryBindingSet third = new QueryBindingSet();
+		third.addBinding("a", vf.createLiteral(2));
+		third.addBinding("c", vf.createLiteral("y"));
+		List<BindingSet> leftBindings = List.of(first, second, third);
+		QueryEvaluationStep optionalLeft = bindings -> new CloseableIteratorIteration<>(leftBindings.iterator());
+		List<BindingSetAssignment> evaluations = new ArrayList<>();
+
+		List<BindingSet> expected = Iterations.asList(JoinIterator.getInstance(optionalLeft, right,
+				EmptyBindingSet.getInstance()));
+
+		List<BindingSet> actual = Iterations.asList(new BindJoinIterator(
+				optionalLeft.evaluate(EmptyBindingSet.getInstance()), values -> {
+					evaluations.add(values);
+					return JoinIterator.getInstance(new BindingSetAssignmentQueryEvaluationStep(values, context), right,
+							EmptyBindingSet.getInstance());
+				}, new String[] { "a", "c" }, 10, null, context));
+
+		assertThat(actual).isEqualTo(expected);
+		assertThat(evaluations).hasSize(2);
+		assertThat(evaluations.get(0).getBindingSets()).containsExactly(first, third);
+		assertThat(evaluations.get(1).getBindingSets()).containsExactly(second);
+	}
+}
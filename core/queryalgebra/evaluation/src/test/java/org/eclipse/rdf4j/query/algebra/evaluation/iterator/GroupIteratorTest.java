@@ -230,6 +230,46 @@ public class GroupIteratorTest {
 		}
 	}
 
+	@Test
+	public void testSumLongOverflow() throws QueryEvaluationException {
+		BindingSetAssignment assignment = assignment(vf.createLiteral(Long.MAX_VALUE), vf.createLiteral(Long.MAX_VALUE),
+				vf.createLiteral(-1L));
+		Group group = new Group(assignment);
+		group.addGroupElement(new GroupElem("sum", new Sum(new Var("a"))));
+		try (GroupIterator gi = new GroupIterator(evaluator, group, EmptyBindingSet.getInstance(), context)) {
+
+			assertThat(gi.next().getBinding("sum").getValue())
+					.isEqualTo(vf.createLiteral("18446744073709551613", XSD.INTEGER));
+		}
+	}
+
+	@Test
+	public void testSumTypePromotion() throws QueryEvaluationException {
+		BindingSetAssignment assignment = assignment(vf.createLiteral(1), vf.createLiteral("1.5", XSD.DECIMAL),
+				vf.createLiteral(2.0d));
+		Group group = new Group(assignment);
+		group.addGroupElement(new GroupElem("sum", new Sum(new Var("a"))));
+		group.addGroupElement(new GroupElem("avg", new Avg(new Var("a"))));
+		try (GroupIterator gi = new GroupIterator(evaluator, group, EmptyBindingSet.getInstance(), context)) {
+			BindingSet result = gi.next();
+
+			assertThat(result.getValue("sum")).isEqualTo(vf.createLiteral(4.5d));
+			assertThat(result.getValue("avg")).isEqualTo(vf.createLiteral(1.5d));
+		}
+	}
+
+	@Test
+	public void testSumDecimal() throws QueryEvaluationException {
+		BindingSetAssignment assignment = assignment(vf.createLiteral("0.1", XSD.DECIMAL),
+				vf.createLiteral("0.2", XSD.DECIMAL), vf.createLiteral(3));
+		Group group = new Group(assignment);
+		group.addGroupElement(new GroupElem("sum", new Sum(new Var("a"))));
+		try (GroupIterator gi = new GroupIterator(evaluator, group, EmptyBindingSet.getInstance(), context)) {
+
+			assertThat(((Literal) gi.next().getValue("sum")).decimalValue()).isEqualByComparingTo("3.3");
+		}
+	}
+
 	@Test
 	public void testCustomAggregateFunction_Nonempty() throws QueryEvaluationException {
 		Group group = new Group(NONEMPTY_ASSIGNMENT);
@@ -271,4 +311,16 @@ public class GroupIteratorTest {
 			return value;
 		}
 	}
+
+	private static BindingSetAssignment assignment(Value... values) {
+		var list = new ArrayList<BindingSet>();
+		for (Value value : values) {
+			var bindings = new QueryBindingSet();
+			bindings.addBinding("a", value);
+			list.add(bindings);
+		}
+		BindingSetAssignment assignment = new BindingSetAssignment();
+		assignment.setBindingSets(list);
+		return assignment;
+	}
 }
@@ -13,10 +13,12 @@ package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
@@ -27,7 +29,9 @@ import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.BindingSetAssignment;
 import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategy;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.StrictEvaluationStrategy;
 import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
 import org.junit.jupiter.api.Test;
@@ -134,4 +138,132 @@ public class HashJoinIterationTest {
 		assertEquals("x", actual.getValue("i").stringValue());
 		assertFalse(actual.hasBinding("b"));
 	}
+
+	@Test
+	public void testSpilledInnerJoin() throws QueryEvaluationException {
+		BindingSetAssignment left = new BindingSetAssignment();
+		List<BindingSet> leftBindings = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			QueryBindingSet leftb = new QueryBindingSet();
+			leftb.addBinding("a", vf.createLiteral(i));
+			leftb.addBinding("i", vf.createLiteral(i % 10));
+			leftBindings.add(leftb);
+		}
+		left.setBindingSets(leftBindings);
+
+		BindingSetAssignment right = new BindingSetAssignment();
+		List<BindingSet> rightBindings = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			QueryBindingSet rightb = new QueryBindingSet();
+			rightb.addBinding("b", vf.createLiteral(i));
+			rightb.addBinding("i", vf.createLiteral(i % 5));
+			rightBindings.add(rightb);
+		}
+		right.setBindingSets(rightBindings);
+
+		QueryEvaluationStep leftStep = bs -> evaluator.evaluate(left, bs);
+		QueryEvaluationStep rightStep = bs -> evaluator.evaluate(right, bs);
+		try (HashJoinIteration iter = new HashJoinIteration(leftStep, rightStep, EmptyBindingSet.getInstance(), false,
+				new String[] { "i" }, new QueryEvaluationContext.Minimal(null), 4)) {
+			int count = 0;
+			while (iter.hasNext()) {
+				BindingSet actual = iter.next();
+				assertEquals(actual.getValue("i"), vf.createLiteral(((Literal) actual.getValue("a")).intValue() % 10));
+				assertEquals(actual.getValue("i"), vf.createLiteral(((Literal) actual.getValue("b")).intValue() % 5));
+				count++;
+			}
+			// 50 left bindings with i < 5, each matching 10 right bindings
+			assertEquals(500, count);
+		}
+	}
+
+	@Test
+	public void testSpilledLeftJoin() throws QueryEvaluationException {
+		BindingSetAssignment left = new BindingSetAssignment();
+		List<BindingSet> leftBindings = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			QueryBindingSet leftb = new QueryBindingSet();
+			leftb.addBinding("a", vf.createLiteral(i));
+			leftb.addBinding("i", vf.createLiteral(i));
+			leftBindings.add(leftb);
+		}
+		left.setBindingSets(leftBindings);
+
+		BindingSetAssignment right = new BindingSetAssignment();
+		List<BindingSet> rightBindings = new ArrayList<>();
+		for (int i = 0; i < 100; i += 2) {
+			QueryBindingSet rightb = new QueryBindingSet();
+			rightb.addBinding("b", vf.createLiteral(i));
+			rightb.addBinding("i", vf.createLiteral(i));
+			rightBindings.add(rightb);
+		}
+		right.setBindingSets(rightBindings);
+
+		QueryEvaluationStep leftStep = bs -> evaluator.evaluate(left, bs);
+		QueryEvaluationStep rightStep = bs -> evaluator.evaluate(right, bs);
+		try (HashJoinIteration iter = new HashJoinIteration(leftStep, rightStep, EmptyBindingSet.getInstance(), true,
+				new String[] { "i" }, new QueryEvaluationContext.Minimal(null), 4)) {
+			int count = 0;
+			int matched = 0;
+			while (iter.hasNext()) {
+				BindingSet actual = iter.next();
+				int a = ((Literal) actual.getValue("a")).intValue();
+				if (a % 2 == 0) {
+					assertEquals(actual.getValue("a"), actual.getValue("b"));
+					matched++;
+				} else {
+					assertFalse(actual.hasBinding("b"));
+				}
+				count++;
+			}
+			assertEquals(100, count);
+			assertEquals(50, matched);
+		}
+	}
+
+	@Test
+	public void testSpilledSkewedLeftJoin() throws QueryEvaluationException {
+		BindingSetAssignment left = new BindingSetAssignment();
+		List<BindingSet> leftBindings = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			QueryBindingSet leftb = new QueryBindingSet();
+			leftb.addBinding("a", vf.createLiteral(i));
+			leftb.addBinding("i", vf.createLiteral(i));
+			leftBindings.add(leftb);
+		}
+		left.setBindingSets(leftBindings);
+
+		// every join key has more bindings than the threshold, so partitioning can not split them
+		BindingSetAssignment right = new BindingSetAssignment();
+		List<BindingSet> rightBindings = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			QueryBindingSet rightb = new QueryBindingSet();
+			rightb.addBinding("b", vf.createLiteral(i));
+			rightb.addBinding("i", vf.createLiteral(i % 5));
+			rightBindings.add(rightb);
+		}
+		right.setBindingSets(rightBindings);
+
+		QueryEvaluationStep leftStep = bs -> evaluator.evaluate(left, bs);
+		QueryEvaluationStep rightStep = bs -> evaluator.evaluate(right, bs);
+		try (HashJoinIteration iter = new HashJoinIteration(leftStep, rightStep, EmptyBindingSet.getInstance(), true,
+				new String[] { "i" }, new QueryEvaluationContext.Minimal(null), 4)) {
+			int count = 0;
+			int matched = 0;
+			while (iter.hasNext()) {
+				BindingSet actual = iter.next();
+				int a = ((Literal) actual.getValue("a")).intValue();
+				if (a < 5) {
+					assertEquals(a, ((Literal) actual.getValue("b")).intValue() % 5);
+					matched++;
+				} else {
+					assertFalse(actual.hasBinding("b"));
+				}
+				count++;
+			}
+			// 5 left bindings matching 20 right bindings each, the other 15 left bindings unmatched
+			assertEquals(115, count);
+			assertEquals(100, matched);
+		}
+	}
 }
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.common.order.StatementOrder;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
+import org.eclipse.rdf4j.query.algebra.evaluation.util.ValueComparator;
+import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LeapfrogTriejoinIteratorTest {
+
+	private static final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private static final IRI KNOWS = vf.createIRI("urn:knows");
+
+	private static final Comparator<Value> comparator = new ValueComparator();
+
+	private final Model model = new LinkedHashModel();
+
+	private final QueryEvaluationContext context = new QueryEvaluationContext.Minimal(null);
+
+	@BeforeEach
+	public void setUp() {
+		Random random = new Random(42);
+		for (int i = 0; i < 300; i++) {
+			IRI subject = vf.createIRI("urn:node:" + random.nextInt(30));
+			IRI object = vf.createIRI("urn:node:" + random.nextInt(30));
+			model.add(subject, KNOWS, object);
+			if (i % 10 == 0) {
+				// the same edge in a named graph is counted twice, as with nested loop joins
+				model.add(subject, KNOWS, object, vf.createIRI("urn:graph"));
+			}
+		}
+	}
+
+	@Test
+	public void testTriangleWithOrderedTripleSource() {
+		assertThat(evaluateTriangles(tripleSource(true), EmptyBindingSet.getInstance()))
+				.containsExactlyInAnyOrderElementsOf(bruteForceTriangles(null));
+	}
+
+	@Test
+	public void testTriangleWithUnorderedTripleSource() {
+		assertThat(evaluateTriangles(tripleSource(false), EmptyBindingSet.getInstance()))
+				.containsExactlyInAnyOrderElementsOf(bruteForceTriangles(null));
+	}
+
+	@Test
+	public void testTriangleWithParentBinding() {
+		IRI node = vf.createIRI("urn:node:3");
+		QueryBindingSet bindings = new QueryBindingSet();
+		bindings.addBinding("b", node);
+		assertThat(evaluateTriangles(tripleSource(true), bindings))
+				.containsExactlyInAnyOrderElementsOf(bruteForceTriangles(node));
+	}
+
+	@Test
+	public void testSupports() {
+		assertThat(LeapfrogTriejoinIterator.supports(pattern("a", "b"))).isTrue();
+		assertThat(LeapfrogTriejoinIterator.supports(pattern("a", "a"))).isFalse();
+		assertThat(LeapfrogTriejoinIterator
+				.supports(new StatementPattern(new Var("a"), knows(), new Var("b"), new Var("g")))).isFalse();
+	}
+
+	private List<String> evaluateTriangles(TripleSource tripleSource, BindingSet bindings) {
+		List<StatementPattern> patterns = List.of(pattern("a", "b"), pattern("b", "c"), pattern("a", "c"));
+		List<String> results = new ArrayList<>();
+		try (CloseableIteration<BindingSet> iter = new LeapfrogTriejoinIterator(patterns, List.of("a", "b", "c"),
+				tripleSource, comparator, bindings, context)) {
+			for (BindingSet bs : Iterations.asList(iter)) {
+				results.add(bs.getValue("a") + " " + bs.getValue("b") + " " + bs.getValue("c"));
+			}
+		}
+		return results;
+	}
+
+	private List<String> bruteForceTriangles(Value b) {
+		List<String> results = new ArrayList<>();
+		List<Statement> statements = new ArrayList<>(model);
+		for (Statement ab : statements) {
+			if (b != null && !ab.getObject().equals(b)) {
+				continue;
+			}
+			for (Statement bc : statements) {
+				if (!bc.getSubject().equals(ab.getObject())) {
+					continue;
+				}
+				for (Statement ac : statements) {
+					if (ac.getSubject().equals(ab.getSubject()) && ac.getObject().equals(bc.getObject())) {
+						results.add(ab.getSubject() + " " + ab.getObject() + " " + bc.getObject());
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	private static StatementPattern pattern(String subject, String object) {
+		return new StatementPattern(new Var(subject), knows(), new Var(object));
+	}
+
+	private static Var knows() {
+		return new Var("_const_knows", KNOWS, true, true);
+	}
+
+	private TripleSource tripleSource(boolean ordered) {
+		return new TripleSource() {
+
+			@Override
+			public CloseableIteration<? extends Statement> getStatements(Resource subj, IRI pred, Value obj,
+					Resource... contexts) throws QueryEvaluationException {
+				return new CloseableIteratorIteration<>(model.getStatements(subj, pred, obj, contexts).iterator());
+			}
+
+			@Override
+			public CloseableIteration<? extends Statement> getStatements(StatementOrder order, Resource subj,
+					IRI pred, Value obj, Resource... contexts) throws QueryEvaluationException {
+				List<Statement> statements = new ArrayList<>();
+				model.getStatements(subj, pred, obj, contexts).forEach(statements::add);
+				statements.sort(order.getComparator(comparator));
+				return new CloseableIteratorIteration<>(statements.iterator());
+			}
+
+			@Override
+			public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
+				return ordered ? Set.of(StatementOrder.S, StatementOrder.O) : Set.of();
+			}
+
+			@Override
+			public Comparator<Value> getComparator() {
+				return comparator;
+			}
+
+			@Override
+			public ValueFactory getValueFactory() {
+				return vf;
+			}
+		};
+	}
+}
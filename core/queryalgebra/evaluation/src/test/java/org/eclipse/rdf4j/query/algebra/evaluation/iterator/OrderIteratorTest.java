@@ -12,6 +12,7 @@ package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.ArrayList;
@@ -212,6 +213,37 @@ public class OrderIteratorTest {
 		assertFalse(order.hasNext());
 	}
 
+	@Test
+	public void testTopK() {
+		OrderIterator topK = new OrderIterator(new IterationStub(list.iterator()), cmp, 3, false, 0);
+		assertEquals(b1, topK.next());
+		assertEquals(b2, topK.next());
+		assertEquals(b2, topK.next());
+		assertFalse(topK.hasNext());
+	}
+
+	@Test
+	public void testTopKKeepsArrivalOrderOfTies() {
+		BindingSet first = new BindingSetSize(2);
+		BindingSet second = new BindingSetSize(2);
+		BindingSet third = new BindingSetSize(2);
+		List<BindingSet> ties = Arrays.asList(first, b3, second, third, b1);
+		OrderIterator topK = new OrderIterator(new IterationStub(ties.iterator()), cmp, 3, false, 0);
+		assertSame(b1, topK.next());
+		assertSame(first, topK.next());
+		assertSame(second, topK.next());
+		assertFalse(topK.hasNext());
+	}
+
+	@Test
+	public void testAlgorithmName() {
+		assertEquals(OrderIterator.TOP_K, OrderIterator.getAlgorithmName(10, false, 0));
+		assertEquals(OrderIterator.TOP_K, OrderIterator.getAlgorithmName(10, false, 10));
+		assertEquals(OrderIterator.EXTERNAL_MERGE_SORT, OrderIterator.getAlgorithmName(11, false, 10));
+		assertEquals(OrderIterator.EXTERNAL_MERGE_SORT, OrderIterator.getAlgorithmName(10, true, 10));
+		assertEquals(OrderIterator.IN_MEMORY_SORT, OrderIterator.getAlgorithmName(Long.MAX_VALUE, false, 0));
+	}
+
 	@BeforeEach
 	protected void setUp() {
 		list = Arrays.asList(b3, b5, b2, b1, b4, b2);
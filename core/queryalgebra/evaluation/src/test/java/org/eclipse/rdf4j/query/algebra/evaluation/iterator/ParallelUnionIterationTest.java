@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
+import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+@Timeout(60)
+public class ParallelUnionIterationTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	private QueryEvaluationStep branch(String name, int size) {
+		List<BindingSet> bindingSets = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			QueryBindingSet b = new QueryBindingSet();
+			b.addBinding(name, vf.createLiteral(i));
+			bindingSets.add(b);
+		}
+		return bindings -> new CloseableIteratorIteration<>(bindingSets.iterator());
+	}
+
+	@Test
+	public void testAllBranchesReturned() {
+		List<QueryEvaluationStep> args = List.of(branch("a", 3000), branch("b", 2000), branch("c", 1000),
+				bindings -> QueryEvaluationStep.EMPTY_ITERATION);
+
+		// a small queue makes the branches wait for the consumer
+		List<BindingSet> result = Iterations.asList(
+				new ParallelUnionIteration(args, EmptyBindingSet.getInstance(), executor, 16));
+
+		assertThat(result).hasSize(6000);
+		assertThat(result.stream().filter(b -> b.hasBinding("a"))).hasSize(3000);
+		assertThat(result.stream().filter(b -> b.hasBinding("b"))).hasSize(2000);
+		assertThat(result.stream().filter(b -> b.hasBinding("c"))).hasSize(1000);
+	}
+
+	@Test
+	public void testBusyExecutor() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService single = Executors.newSingleThreadExecutor();
+		try {
+			single.execute(() -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+
+			List<QueryEvaluationStep> args = List.of(branch("a", 100), branch("b", 100));
+
+			// the consumer evaluates the branches that the executor has not started
+			List<BindingSet> result = Iterations.asList(
+					new ParallelUnionIteration(args, EmptyBindingSet.getInstance(), single, 4));
+
+			assertThat(result).hasSize(200);
+		} finally {
+			release.countDown();
+			single.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testNestedOnSaturatedExecutor() {
+		ExecutorService single = Executors.newSingleThreadExecutor();
+		try {
+			QueryEvaluationStep inner = bindings -> new ParallelUnionIteration(
+					List.of(branch("a", 100), branch("b", 100)), bindings, single, 4);
+			List<QueryEvaluationStep> args = List.of(inner, branch("c", 100), inner);
+
+			List<BindingSet> result = Iterations.asList(
+					new ParallelUnionIteration(args, EmptyBindingSet.getInstance(), single, 4));
+
+			assertThat(result).hasSize(500);
+		} finally {
+			single.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testException() {
+		List<QueryEvaluationStep> args = List.of(branch("a", 100), bindings -> {
+			throw new QueryEvaluationException("failed");
+		});
+
+		assertThatThrownBy(() -> Iterations.asList(
+				new ParallelUnionIteration(args, EmptyBindingSet.getInstance(), executor, 4)))
+				.isInstanceOf(QueryEvaluationException.class)
+				.hasMessage("failed");
+	}
+
+	@Test
+	public void testCloseCancelsBranches() throws InterruptedException {
+		AtomicInteger open = new AtomicInteger();
+		QueryEvaluationStep endless = bindings -> {
+			open.incrementAndGet();
+			return new LookAheadIteration<>() {
+
+				@Override
+				protected BindingSet getNextElement() {
+					return EmptyBindingSet.getInstance();
+				}
+
+				@Override
+				protected void handleClose() {
+					open.decrementAndGet();
+				}
+			};
+		};
+
+		CloseableIteration<BindingSet> iter = new ParallelUnionIteration(List.of(endless, endless),
+				EmptyBindingSet.getInstance(), executor, 4);
+		for (int i = 0; i < 100; i++) {
+			assertThat(iter.hasNext()).isTrue();
+			iter.next();
+		}
+		iter.close();
+
+		// branches that had not started are not started at all, the others close their iterations
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(open.get()).isEqualTo(0);
+	}
+}
@@ -11,6 +11,7 @@
 package org.eclipse.rdf4j.query.algebra;
 
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.rdf4j.common.annotation.Experimental;
@@ -31,6 +32,12 @@ public class Join extends BinaryTupleOperator {
 	 */
 	private boolean cacheable;
 
+	/**
+	 * The variable order for evaluating all statement patterns in this join tree with a multiway leapfrog triejoin, or
+	 * null if this join is evaluated pairwise.
+	 */
+	private List<String> leapfrogVariableOrder;
+
 	public Join() {
 	}
 
@@ -88,4 +95,23 @@ public class Join extends BinaryTupleOperator {
 	public void setCacheable(boolean cacheable) {
 		this.cacheable = cacheable;
 	}
+
+	/**
+	 * @return the variable order to use when this join tree is evaluated as a single multiway leapfrog triejoin, or
+	 *         null if it is evaluated pairwise.
+	 */
+	@Experimental
+	public List<String> getLeapfrogVariableOrder() {
+		return leapfrogVariableOrder;
+	}
+
+	/**
+	 * Marks this join tree for evaluation as a multiway leapfrog triejoin over its statement patterns.
+	 *
+	 * @param leapfrogVariableOrder the order in which the join variables are bound, or null to evaluate pairwise.
+	 */
+	@Experimental
+	public void setLeapfrogVariableOrder(List<String> leapfrogVariableOrder) {
+		this.leapfrogVariableOrder = leapfrogVariableOrder == null ? null : List.copyOf(leapfrogVariableOrder);
+	}
 }
@@ -13,6 +13,8 @@ package org.eclipse.rdf4j.query.algebra;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.rdf4j.common.annotation.Experimental;
+
 /**
  * An order operator that can be used to order bindings as specified by a set of value expressions.
  *
@@ -26,6 +28,8 @@ public class Order extends UnaryTupleOperator {
 
 	private List<OrderElem> elements = new ArrayList<>();
 
+	private String algorithmName;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -76,6 +80,16 @@ public class Order extends UnaryTupleOperator {
 		pe.setParentNode(this);
 	}
 
+	@Experimental
+	public void setAlgorithm(String algorithmName) {
+		this.algorithmName = algorithmName;
+	}
+
+	@Experimental
+	public String getAlgorithmName() {
+		return algorithmName;
+	}
+
 	@Override
 	public <X extends Exception> void visit(QueryModelVisitor<X> visitor) throws X {
 		visitor.meet(this);
@@ -13,6 +13,7 @@ package org.eclipse.rdf4j.query.algebra.helpers;
 import java.util.stream.Stream;
 
 import org.eclipse.rdf4j.query.algebra.BinaryTupleOperator;
+import org.eclipse.rdf4j.query.algebra.Order;
 import org.eclipse.rdf4j.query.algebra.QueryModelNode;
 import org.eclipse.rdf4j.query.algebra.VariableScopeChange;
 
@@ -79,11 +80,14 @@ public class QueryModelTreePrinter extends AbstractQueryModelVisitor<RuntimeExce
 			}
 		}
 
+		String algorithmName = null;
 		if (node instanceof BinaryTupleOperator) {
-			String algorithmName = ((BinaryTupleOperator) node).getAlgorithmName();
-			if (algorithmName != null) {
-				sb.append(" (").append(algorithmName).append(")");
-			}
+			algorithmName = ((BinaryTupleOperator) node).getAlgorithmName();
+		} else if (node instanceof Order) {
+			algorithmName = ((Order) node).getAlgorithmName();
+		}
+		if (algorithmName != null) {
+			sb.append(" (").append(algorithmName).append(")");
 		}
 
 		appendCostAnnotation(node, sb);
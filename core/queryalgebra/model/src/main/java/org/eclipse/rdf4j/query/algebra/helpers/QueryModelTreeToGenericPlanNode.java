@@ -15,6 +15,7 @@ import java.util.ArrayDeque;
 import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.common.annotation.InternalUseOnly;
 import org.eclipse.rdf4j.query.algebra.BinaryTupleOperator;
+import org.eclipse.rdf4j.query.algebra.Order;
 import org.eclipse.rdf4j.query.algebra.QueryModelNode;
 import org.eclipse.rdf4j.query.algebra.QueryRoot;
 import org.eclipse.rdf4j.query.algebra.VariableScopeChange;
@@ -56,6 +57,8 @@ public class QueryModelTreeToGenericPlanNode extends AbstractQueryModelVisitor<R
 		if (node instanceof BinaryTupleOperator) {
 			String algorithmName = ((BinaryTupleOperator) node).getAlgorithmName();
 			genericPlanNode.setAlgorithm(algorithmName);
+		} else if (node instanceof Order) {
+			genericPlanNode.setAlgorithm(((Order) node).getAlgorithmName());
 		}
 
 		// convert from nanoseconds to milliseconds
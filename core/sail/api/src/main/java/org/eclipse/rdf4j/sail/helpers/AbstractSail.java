@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.common.transaction.IsolationLevel;
 import org.eclipse.rdf4j.common.transaction.IsolationLevels;
 import org.eclipse.rdf4j.common.transaction.QueryEvaluationMode;
@@ -114,6 +115,9 @@ public abstract class AbstractSail implements Sail {
 	// track the results size that each node in the query plan produces during execution
 	private boolean trackResultSize;
 
+	// optimized query plans shared by all connections, null if plans are not cached
+	private volatile QueryPlanCache queryPlanCache;
+
 	/**
 	 * Map used to track active connections and where these were acquired. The Throwable value may be null in case
 	 * debugging was disable at the time the connection was acquired.
@@ -280,6 +284,10 @@ public abstract class AbstractSail implements Sail {
 
 			shutDownInternal();
 		} finally {
+			QueryPlanCache queryPlanCache = this.queryPlanCache;
+			if (queryPlanCache != null) {
+				queryPlanCache.clear();
+			}
 			initialized = false;
 			initializationLock.writeLock().unlock();
 		}
@@ -438,6 +446,28 @@ public abstract class AbstractSail implements Sail {
 		this.trackResultSize = trackResultSize;
 	}
 
+	/**
+	 * @return the cache of optimized query plans, or null if query plans are not cached
+	 */
+	@Experimental
+	public QueryPlanCache getQueryPlanCache() {
+		return queryPlanCache;
+	}
+
+	/**
+	 * Cache the optimized plans of up to this many queries, so that evaluating the same query again, possibly with
+	 * different bindings, does not optimize it again. See {@link QueryPlanCache}.
+	 *
+	 * @param queryPlanCacheSize the maximum number of cached plans, or 0 to disable the cache
+	 */
+	@Experimental
+	public void setQueryPlanCacheSize(int queryPlanCacheSize) {
+		if (queryPlanCacheSize < 0) {
+			throw new IllegalArgumentException("queryPlanCacheSize must not be negative");
+		}
+		this.queryPlanCache = queryPlanCacheSize == 0 ? null : new QueryPlanCache(queryPlanCacheSize);
+	}
+
 	/**
 	 * @return the defaultQueryEvaluationMode
 	 */
@@ -0,0 +1,292 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.helpers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.transaction.QueryEvaluationMode;
+import org.eclipse.rdf4j.query.Dataset;
+import org.eclipse.rdf4j.query.algebra.ExtensionElem;
+import org.eclipse.rdf4j.query.algebra.Group;
+import org.eclipse.rdf4j.query.algebra.GroupElem;
+import org.eclipse.rdf4j.query.algebra.ProjectionElem;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
+
+/**
+ * A bounded cache of optimized query plans, shared by the connections of a {@link AbstractSail Sail}.
+ * <p>
+ * Plans are keyed on the unoptimized query model, the dataset, whether inferred statements are included, the query
+ * evaluation mode and the names of the variables that are bound when the query is evaluated. Anonymous variables,
+ * which parsers give a unique name every time a query is parsed, are renamed in the order in which they occur before
+ * the key is built, so that a query with blank nodes or property paths finds the plan of an earlier evaluation.
+ * Plans are meant to be optimized for the bound variables but not for their values, so that a query that is evaluated
+ * with different values can reuse the same plan; the values are then assigned to the plan when it is evaluated.
+ * <p>
+ * Every plan records the size of the store it was optimized for, and is discarded once the size has changed by more
+ * than a factor of {@value #MAX_SIZE_DRIFT} in either direction. The size is only checked again after the store has
+ * reported a change through {@link #dataChanged()}, so that unchanged stores do not need to estimate their size for
+ * every query.
+ * <p>
+ * The cache stores and returns copies of the plans, so callers are free to modify them.
+ */
+@Experimental
+public class QueryPlanCache {
+
+	/**
+	 * The factor by which the size of the store may change before a cached plan is optimized again.
+	 */
+	public static final double MAX_SIZE_DRIFT = 2;
+
+	private final Map<Key, Plan> plans;
+
+	/**
+	 * Incremented whenever the data of the store changes.
+	 */
+	private final AtomicLong epoch = new AtomicLong();
+
+	/**
+	 * @param maxSize the maximum number of plans to keep, the least recently used plan is evicted first
+	 */
+	public QueryPlanCache(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+		}
+		this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Plan> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @param query           the unoptimized query model
+	 * @param dataset         the dataset the query is evaluated on, may be null
+	 * @param includeInferred whether inferred statements are included
+	 * @param mode            the query evaluation mode
+	 * @param bindingNames    the names of the variables that are bound when the query is evaluated
+	 * @param storeSize       supplies the current estimated size of the store, only called if the data has changed
+	 *                        since the plan was last checked
+	 * @return a copy of the cached plan, or null if there is no plan or the store has changed too much since it was
+	 *         optimized
+	 */
+	public TupleExpr get(TupleExpr query, Dataset dataset, boolean includeInferred, QueryEvaluationMode mode,
+			Set<String> bindingNames, DoubleSupplier storeSize) {
+		Key key = new Key(normalize(query), dataset, includeInferred, mode, bindingNames);
+		long currentEpoch = epoch.get();
+		Plan plan;
+		synchronized (plans) {
+			plan = plans.get(key);
+		}
+		if (plan == null) {
+			return null;
+		}
+		if (plan.epoch != currentEpoch) {
+			if (hasDrifted(plan.storeSize, storeSize.getAsDouble())) {
+				synchronized (plans) {
+					plans.remove(key, plan);
+				}
+				return null;
+			}
+			plan.epoch = currentEpoch;
+		}
+		return plan.tupleExpr.clone();
+	}
+
+	/**
+	 * Adds a plan to the cache, replacing any plan for the same query.
+	 *
+	 * @param query           the unoptimized query model
+	 * @param dataset         the dataset the query is evaluated on, may be null
+	 * @param includeInferred whether inferred statements are included
+	 * @param mode            the query evaluation mode
+	 * @param bindingNames    the names of the variables that the plan was optimized as bound
+	 * @param storeSize       the estimated size of the store the plan was optimized for
+	 * @param plan            the optimized query model
+	 */
+	public void put(TupleExpr query, Dataset dataset, boolean includeInferred, QueryEvaluationMode mode,
+			Set<String> bindingNames, double storeSize, TupleExpr plan) {
+		Key key = new Key(normalize(query), dataset, includeInferred, mode, bindingNames);
+		Plan value = new Plan(plan.clone(), storeSize, epoch.get());
+		synchronized (plans) {
+			plans.put(key, value);
+		}
+	}
+
+	/**
+	 * Records that statements have been added to or removed from the store, so that the cached plans are checked
+	 * against the size of the store when they are next used.
+	 */
+	public void dataChanged() {
+		epoch.incrementAndGet();
+	}
+
+	public int size() {
+		synchronized (plans) {
+			return plans.size();
+		}
+	}
+
+	public void clear() {
+		synchronized (plans) {
+			plans.clear();
+		}
+	}
+
+	/**
+	 * Returns a copy of the query in which the anonymous variables are named after the order of their first occurrence.
+	 * The names can not be written as SPARQL variables, so they do not collide with named variables.
+	 */
+	private static TupleExpr normalize(TupleExpr query) {
+		Map<String, String> names = new HashMap<>();
+		query.visit(new AbstractQueryModelVisitor<RuntimeException>() {
+			@Override
+			public void meet(Var node) {
+				if (node.isAnonymous()) {
+					names.putIfAbsent(node.getName(), "-anon-" + names.size());
+				}
+			}
+		});
+
+		TupleExpr copy = query.clone();
+		if (!names.isEmpty()) {
+			copy.visit(new AnonymousVarRenamer(names));
+		}
+		return copy;
+	}
+
+	private static boolean hasDrifted(double cachedSize, double currentSize) {
+		double smaller = Math.max(1, Math.min(cachedSize, currentSize));
+		double larger = Math.max(1, Math.max(cachedSize, currentSize));
+		return larger / smaller > MAX_SIZE_DRIFT;
+	}
+
+	private static final class Key {
+
+		private final TupleExpr query;
+
+		private final Dataset dataset;
+
+		private final boolean includeInferred;
+
+		private final QueryEvaluationMode mode;
+
+		private final Set<String> bindingNames;
+
+		private final int hashCode;
+
+		private Key(TupleExpr query, Dataset dataset, boolean includeInferred, QueryEvaluationMode mode,
+				Set<String> bindingNames) {
+			this.query = query;
+			this.dataset = dataset;
+			this.includeInferred = includeInferred;
+			this.mode = mode;
+			this.bindingNames = Set.copyOf(bindingNames);
+			this.hashCode = Objects.hash(query, dataset, includeInferred, mode, this.bindingNames);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return hashCode == other.hashCode && includeInferred == other.includeInferred && mode == other.mode
+					&& Objects.equals(dataset, other.dataset) && bindingNames.equals(other.bindingNames)
+					&& query.equals(other.query);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	private static final class AnonymousVarRenamer extends AbstractQueryModelVisitor<RuntimeException> {
+
+		private final Map<String, String> names;
+
+		private AnonymousVarRenamer(Map<String, String> names) {
+			this.names = names;
+		}
+
+		@Override
+		public void meet(Var node) {
+			if (node.isAnonymous()) {
+				node.replaceWith(new Var(rename(node.getName()), node.getValue(), true, node.isConstant()));
+			}
+		}
+
+		@Override
+		public void meet(ExtensionElem node) {
+			node.setName(rename(node.getName()));
+			super.meet(node);
+		}
+
+		@Override
+		public void meet(GroupElem node) {
+			node.setName(rename(node.getName()));
+			super.meet(node);
+		}
+
+		@Override
+		public void meet(Group node) {
+			List<String> groupBindingNames = new ArrayList<>();
+			for (String name : node.getGroupBindingNames()) {
+				groupBindingNames.add(rename(name));
+			}
+			node.setGroupBindingNames(groupBindingNames);
+			super.meet(node);
+		}
+
+		@Override
+		public void meet(ProjectionElem node) {
+			node.setName(rename(node.getName()));
+			super.meet(node);
+		}
+
+		private String rename(String name) {
+			return names.getOrDefault(name, name);
+		}
+	}
+
+	private static final class Plan {
+
+		private final TupleExpr tupleExpr;
+
+		private final double storeSize;
+
+		/**
+		 * The epoch in which the plan was last found to be suitable for the size of the store.
+		 */
+		private volatile long epoch;
+
+		private Plan(TupleExpr tupleExpr, double storeSize, long epoch) {
+			this.tupleExpr = tupleExpr;
+			this.storeSize = storeSize;
+			this.epoch = epoch;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.rdf4j.common.transaction.QueryEvaluationMode;
+import org.eclipse.rdf4j.query.algebra.Join;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.junit.jupiter.api.Test;
+
+public class QueryPlanCacheTest {
+
+	private static final QueryEvaluationMode MODE = QueryEvaluationMode.STANDARD;
+
+	@Test
+	public void testReturnsCopyOfPlan() {
+		QueryPlanCache cache = new QueryPlanCache(10);
+		TupleExpr plan = join("a", "b");
+		cache.put(join("b", "a"), null, true, MODE, Set.of(), 100, plan);
+
+		TupleExpr cached = cache.get(join("b", "a"), null, true, MODE, Set.of(), () -> 100);
+		assertEquals(plan, cached);
+		assertNotSame(plan, cached);
+		assertNotSame(cached, cache.get(join("b", "a"), null, true, MODE, Set.of(), () -> 100));
+	}
+
+	@Test
+	public void testKey() {
+		QueryPlanCache cache = new QueryPlanCache(10);
+		cache.put(join("a", "b"), null, true, MODE, Set.of(), 100, join("a", "b"));
+
+		assertNull(cache.get(join("b", "a"), null, true, MODE, Set.of(), () -> 100));
+		assertNull(cache.get(join("a", "b"), null, false, MODE, Set.of(), () -> 100));
+		assertNull(cache.get(join("a", "b"), null, true, QueryEvaluationMode.STRICT, Set.of(), () -> 100));
+		assertNull(cache.get(join("a", "b"), null, true, MODE, Set.of("s"), () -> 100));
+		assertNotNull(cache.get(join("a", "b"), null, true, MODE, Set.of(), () -> 100));
+	}
+
+	@Test
+	public void testBindingNamesAreKey() {
+		QueryPlanCache cache = new QueryPlanCache(10);
+		cache.put(join("a", "b"), null, true, MODE, Set.of("s", "o"), 100, join("a", "b"));
+
+		assertNull(cache.get(join("a", "b"), null, true, MODE, Set.of("s"), () -> 100));
+		assertNotNull(cache.get(join("a", "b"), null, true, MODE, Set.of("o", "s"), () -> 100));
+	}
+
+	@Test
+	public void testAnonymousVariablesAreNormalized() {
+		QueryPlanCache cache = new QueryPlanCache(10);
+		cache.put(anonymousJoin("_anon_1", "_anon_2"), null, true, MODE, Set.of(), 100,
+				anonymousJoin("_anon_1", "_anon_2"));
+
+		assertEquals(anonymousJoin("_anon_1", "_anon_2"),
+				cache.get(anonymousJoin("_anon_3", "_anon_4"), null, true, MODE, Set.of(), () -> 100));
+		assertNull(cache.get(anonymousJoin("_anon_3", "_anon_3"), null, true, MODE, Set.of(), () -> 100));
+		assertNull(cache.get(join("_anon_3", "_anon_4"), null, true, MODE, Set.of(), () -> 100));
+	}
+
+	@Test
+	public void testPlanIsDiscardedWhenStoreSizeDrifts() {
+		QueryPlanCache cache = new QueryPlanCache(10);
+		cache.put(join("a", "b"), null, true, MODE, Set.of(), 100, join("a", "b"));
+
+		cache.dataChanged();
+		assertNotNull(cache.get(join("a", "b"), null, true, MODE, Set.of(), () -> 150));
+		cache.dataChanged();
+		assertNotNull(cache.get(join("a", "b"), null, true, MODE, Set.of(), () -> 60));
+		cache.dataChanged();
+		assertNull(cache.get(join("a", "b"), null, true, MODE, Set.of(), () -> 201));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testStoreSizeIsOnlyCheckedAfterDataChanged() {
+		QueryPlanCache cache = new QueryPlanCache(10);
+		cache.put(join("a", "b"), null, true, MODE, Set.of(), 100, join("a", "b"));
+		AtomicInteger sizeChecks = new AtomicInteger();
+
+		for (int i = 0; i < 3; i++) {
+			assertNotNull(cache.get(join("a", "b"), null, true, MODE, Set.of(), () -> {
+				sizeChecks.incrementAndGet();
+				return 1000;
+			}));
+		}
+		assertEquals(0, sizeChecks.get());
+
+		cache.dataChanged();
+		assertNull(cache.get(join("a", "b"), null, true, MODE, Set.of(), () -> {
+			sizeChecks.incrementAndGet();
+			return 1000;
+		}));
+		assertEquals(1, sizeChecks.get());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedPlanIsEvicted() {
+		QueryPlanCache cache = new QueryPlanCache(2);
+		cache.put(join("a", "b"), null, true, MODE, Set.of(), 100, join("a", "b"));
+		cache.put(join("b", "c"), null, true, MODE, Set.of(), 100, join("b", "c"));
+		cache.get(join("a", "b"), null, true, MODE, Set.of(), () -> 100);
+		cache.put(join("c", "d"), null, true, MODE, Set.of(), 100, join("c", "d"));
+
+		assertEquals(2, cache.size());
+		assertNotNull(cache.get(join("a", "b"), null, true, MODE, Set.of(), () -> 100));
+		assertNull(cache.get(join("b", "c"), null, true, MODE, Set.of(), () -> 100));
+	}
+
+	private TupleExpr anonymousJoin(String first, String second) {
+		return new Join(new StatementPattern(new Var("s"), new Var("p"), new Var(first, true)),
+				new StatementPattern(new Var(first, true), new Var("p"), new Var(second, true)));
+	}
+
+	private TupleExpr join(String first, String second) {
+		return new Join(new StatementPattern(new Var("s"), new Var(first), new Var("o")),
+				new StatementPattern(new Var("s"), new Var(second), new Var("o")));
+	}
+}
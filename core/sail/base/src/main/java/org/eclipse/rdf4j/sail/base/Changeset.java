@@ -140,24 +140,102 @@ public abstract class Changeset implements SailSink, ModelFactory {
 	public void prepare() throws SailException {
 		assert !closed;
 		if (prepend != null && observed != null) {
-			for (SimpleStatementPattern p : observed) {
-				Resource subj = p.getSubject();
-				IRI pred = p.getPredicate();
-				Value obj = p.getObject();
-				Resource context = p.getContext();
-				Resource[] contexts;
-				if (p.isAllContexts()) {
-					contexts = new Resource[0];
+			ObservedPatterns observedPatterns = null;
+			for (Changeset changeset : prepend) {
+				// Look up every observed pattern in the changes of the other changeset, or look up every change of the
+				// other changeset in the observed patterns, whichever is fewer lookups.
+				if (changeset.getChangeCount() < observed.size()) {
+					if (observedPatterns == null) {
+						observedPatterns = new ObservedPatterns(observed);
+					}
+					if (changeset.hasApprovedOrDeprecated(observedPatterns)) {
+						throw new SailConflictException("Observed State has Changed");
+					}
 				} else {
-					contexts = new Resource[] { context };
+					for (SimpleStatementPattern p : observed) {
+						Resource subj = p.getSubject();
+						IRI pred = p.getPredicate();
+						Value obj = p.getObject();
+						Resource context = p.getContext();
+						Resource[] contexts;
+						if (p.isAllContexts()) {
+							contexts = new Resource[0];
+						} else {
+							contexts = new Resource[] { context };
+						}
+						if (changeset.hasApproved(subj, pred, obj, contexts)
+								|| (changeset.hasDeprecated(subj, pred, obj, contexts))) {
+							throw new SailConflictException("Observed State has Changed");
+						}
+					}
 				}
-				for (Changeset changeset : prepend) {
-					if (changeset.hasApproved(subj, pred, obj, contexts)
-							|| (changeset.hasDeprecated(subj, pred, obj, contexts))) {
-						throw new SailConflictException("Observed State has Changed");
+			}
+		}
+	}
+
+	/**
+	 * @return The number of approved and deprecated statements, plus the number of cleared contexts.
+	 */
+	long getChangeCount() {
+		assert !closed;
+		boolean readLock = readWriteLock.readLock();
+		try {
+			long count = 0;
+			if (approved != null && !approvedEmpty) {
+				count += approved.size();
+			}
+			if (deprecated != null && !deprecatedEmpty) {
+				count += deprecated.size();
+			}
+			if (deprecatedContexts != null) {
+				count += deprecatedContexts.size();
+			}
+			return count;
+		} finally {
+			readWriteLock.unlockReader(readLock);
+		}
+	}
+
+	/**
+	 * Checks whether any of the approved or deprecated statements, or any of the cleared contexts, of this changeset
+	 * matches one of the supplied patterns. This gives the same result as calling
+	 * {@link #hasApproved(Resource, IRI, Value, Resource[])} and
+	 * {@link #hasDeprecated(Resource, IRI, Value, Resource[])} for every pattern, but only does a few hash lookups per
+	 * change.
+	 */
+	boolean hasApprovedOrDeprecated(ObservedPatterns patterns) {
+		assert !closed;
+		if ((approved == null || approvedEmpty) && (deprecated == null || deprecatedEmpty)
+				&& deprecatedContexts == null) {
+			return false;
+		}
+
+		boolean readLock = readWriteLock.readLock();
+		try {
+			if (deprecatedContexts != null) {
+				for (Resource context : deprecatedContexts) {
+					if (patterns.matchesContext(context)) {
+						return true;
 					}
 				}
 			}
+			if (approved != null && !approvedEmpty) {
+				for (Statement statement : approved) {
+					if (patterns.matches(statement)) {
+						return true;
+					}
+				}
+			}
+			if (deprecated != null && !deprecatedEmpty) {
+				for (Statement statement : deprecated) {
+					if (patterns.matches(statement)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		} finally {
+			readWriteLock.unlockReader(readLock);
 		}
 	}
 
@@ -1007,6 +1085,101 @@ public abstract class Changeset implements SailSink, ModelFactory {
 
 	}
 
+	/**
+	 * Index over a set of observed {@link SimpleStatementPattern}s that finds the patterns matching a statement with a
+	 * hash lookup for each combination of bound positions that occurs among the patterns, instead of comparing the
+	 * statement against every pattern.
+	 */
+	static final class ObservedPatterns {
+
+		private static final int SUBJECT = 1;
+		private static final int PREDICATE = 2;
+		private static final int OBJECT = 4;
+		private static final int CONTEXT = 8;
+
+		private final Set<SimpleStatementPattern> patterns;
+
+		/**
+		 * The combinations of bound positions that occur among the patterns, see {@link #shapeOf}.
+		 */
+		private final int[] shapes;
+
+		/**
+		 * The contexts of the patterns that are restricted to a single context.
+		 */
+		private final Set<Resource> contexts = new HashSet<>();
+
+		ObservedPatterns(Set<SimpleStatementPattern> observed) {
+			boolean[] present = new boolean[16];
+			boolean normalized = true;
+			for (SimpleStatementPattern pattern : observed) {
+				present[shapeOf(pattern)] = true;
+				if (!pattern.isAllContexts()) {
+					contexts.add(pattern.getContext());
+				} else if (pattern.getContext() != null) {
+					normalized = false;
+				}
+			}
+
+			if (normalized) {
+				this.patterns = observed;
+			} else {
+				// the context of a pattern that spans all contexts is irrelevant, drop it so that lookups can find it
+				this.patterns = new HashSet<>(observed.size());
+				for (SimpleStatementPattern pattern : observed) {
+					if (pattern.isAllContexts() && pattern.getContext() != null) {
+						pattern = new SimpleStatementPattern(pattern.getSubject(), pattern.getPredicate(),
+								pattern.getObject(), null, true);
+					}
+					this.patterns.add(pattern);
+				}
+			}
+
+			int count = 0;
+			for (boolean p : present) {
+				if (p) {
+					count++;
+				}
+			}
+			this.shapes = new int[count];
+			for (int shape = 0, i = 0; shape < present.length; shape++) {
+				if (present[shape]) {
+					shapes[i++] = shape;
+				}
+			}
+		}
+
+		private static int shapeOf(SimpleStatementPattern pattern) {
+			return (pattern.getSubject() != null ? SUBJECT : 0) | (pattern.getPredicate() != null ? PREDICATE : 0)
+					| (pattern.getObject() != null ? OBJECT : 0) | (pattern.isAllContexts() ? 0 : CONTEXT);
+		}
+
+		/**
+		 * @return <var>true</var> if the statement matches at least one of the patterns.
+		 */
+		boolean matches(Statement statement) {
+			for (int shape : shapes) {
+				SimpleStatementPattern probe = new SimpleStatementPattern(
+						(shape & SUBJECT) != 0 ? statement.getSubject() : null,
+						(shape & PREDICATE) != 0 ? statement.getPredicate() : null,
+						(shape & OBJECT) != 0 ? statement.getObject() : null,
+						(shape & CONTEXT) != 0 ? statement.getContext() : null,
+						(shape & CONTEXT) == 0);
+				if (patterns.contains(probe)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return <var>true</var> if at least one of the patterns is restricted to the supplied context.
+		 */
+		boolean matchesContext(Resource context) {
+			return contexts.contains(context);
+		}
+	}
+
 	public static class SimpleStatementPattern {
 		final private Resource subject;
 		final private IRI predicate;
@@ -16,11 +16,13 @@ import java.util.Set;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Triple;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.algebra.evaluation.SeekableStatementIteration;
 import org.eclipse.rdf4j.sail.SailException;
 
 /**
@@ -84,6 +86,18 @@ abstract class DelegatingSailDataset implements SailDataset {
 		return delegate.getStatements(statementOrder, subj, pred, obj, contexts);
 	}
 
+	@Override
+	public SeekableStatementIteration getSeekableStatements(StatementOrder statementOrder, Resource subj, IRI pred,
+			Value obj, Resource... contexts) throws SailException {
+		return delegate.getSeekableStatements(statementOrder, subj, pred, obj, contexts);
+	}
+
+	@Override
+	public CloseableIteration<? extends Statement> getStatementsInRange(Resource subj, IRI pred, Literal lowerBound,
+			Literal upperBound, Resource... contexts) throws SailException {
+		return delegate.getStatementsInRange(subj, pred, lowerBound, upperBound, contexts);
+	}
+
 	@Override
 	public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
 		return delegate.getSupportedOrders(subj, pred, obj, contexts);
@@ -11,11 +11,14 @@
 package org.eclipse.rdf4j.sail.base;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.common.transaction.IsolationLevels;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.algebra.evaluation.SeekableStatementIteration;
 import org.eclipse.rdf4j.sail.SailException;
 
 /**
@@ -70,4 +73,25 @@ class ObservingSailDataset extends DelegatingSailDataset {
 		return super.getStatements(subj, pred, obj, contexts);
 	}
 
+	@Override
+	public CloseableIteration<? extends Statement> getStatements(StatementOrder statementOrder, Resource subj, IRI pred,
+			Value obj, Resource... contexts) throws SailException {
+		observer.observe(subj, pred, obj, contexts);
+		return super.getStatements(statementOrder, subj, pred, obj, contexts);
+	}
+
+	@Override
+	public SeekableStatementIteration getSeekableStatements(StatementOrder statementOrder, Resource subj, IRI pred,
+			Value obj, Resource... contexts) throws SailException {
+		observer.observe(subj, pred, obj, contexts);
+		return super.getSeekableStatements(statementOrder, subj, pred, obj, contexts);
+	}
+
+	@Override
+	public CloseableIteration<? extends Statement> getStatementsInRange(Resource subj, IRI pred, Literal lowerBound,
+			Literal upperBound, Resource... contexts) throws SailException {
+		observer.observe(subj, pred, null, contexts);
+		return super.getStatementsInRange(subj, pred, lowerBound, upperBound, contexts);
+	}
+
 }
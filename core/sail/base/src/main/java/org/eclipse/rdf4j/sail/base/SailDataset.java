@@ -18,11 +18,14 @@ import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.common.transaction.IsolationLevels;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Triple;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.algebra.evaluation.SeekableStatementIteration;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.OrderedStatementIteration;
 import org.eclipse.rdf4j.sail.SailException;
 
 /**
@@ -105,6 +108,48 @@ public interface SailDataset extends SailClosable {
 		throw new SailException("Statement ordering not supported by " + this.getClass().getSimpleName());
 	}
 
+	/**
+	 * Gets all statements that have a specific subject, predicate and/or object in the given order, as an iteration
+	 * that can skip ahead to a given value. Datasets that can reposition their index cursors should override this
+	 * method, the default implementation skips ahead by scanning the result of
+	 * {@link #getStatements(StatementOrder, Resource, IRI, Value, Resource...)}.
+	 *
+	 * @param statementOrder The order that the statements should be returned in.
+	 * @param subj           A Resource specifying the subject, or <var>null</var> for a wildcard.
+	 * @param pred           A IRI specifying the predicate, or <var>null</var> for a wildcard.
+	 * @param obj            A Value specifying the object, or <var>null</var> for a wildcard.
+	 * @param contexts       The context(s) to get the statements from. Note that this parameter is a vararg and as such
+	 *                       is optional. If no contexts are supplied the method operates on all contexts.
+	 * @return An ordered, seekable iterator over the relevant statements.
+	 * @throws SailException If the triple source failed to get the statements.
+	 */
+	@Experimental
+	default SeekableStatementIteration getSeekableStatements(StatementOrder statementOrder, Resource subj, IRI pred,
+			Value obj, Resource... contexts) throws SailException {
+		return new OrderedStatementIteration(getStatements(statementOrder, subj, pred, obj, contexts), statementOrder,
+				getComparator());
+	}
+
+	/**
+	 * Gets the statements with a specific subject, predicate and/or context whose object may lie within the given
+	 * (inclusive) range of literal values. The result must contain all matching statements whose object lies within the
+	 * range, but may contain others as well.
+	 *
+	 * @param subj       A Resource specifying the subject, or <var>null</var> for a wildcard.
+	 * @param pred       A IRI specifying the predicate, or <var>null</var> for a wildcard.
+	 * @param lowerBound The lowest object value of interest, or <var>null</var> if there is no lower bound.
+	 * @param upperBound The highest object value of interest, or <var>null</var> if there is no upper bound.
+	 * @param contexts   The context(s) to get the statements from. Note that this parameter is a vararg and as such is
+	 *                   optional. If no contexts are supplied the method operates on all contexts.
+	 * @return An iterator over (at least) the statements whose object lies within the range.
+	 * @throws SailException If the triple source failed to get the statements.
+	 */
+	@Experimental
+	default CloseableIteration<? extends Statement> getStatementsInRange(Resource subj, IRI pred, Literal lowerBound,
+			Literal upperBound, Resource... contexts) throws SailException {
+		return getStatements(subj, pred, null, contexts);
+	}
+
 	/**
 	 * Gets all RDF-star triples that have a specific subject, predicate and/or object. All three parameters may be null
 	 * to indicate wildcards.
@@ -29,6 +29,7 @@ import org.eclipse.rdf4j.common.iteration.DualUnionIteration;
 import org.eclipse.rdf4j.common.iteration.EmptyIteration;
 import org.eclipse.rdf4j.common.iteration.FilterIteration;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
@@ -290,6 +291,17 @@ class SailDatasetImpl implements SailDataset {
 		}
 	}
 
+	@Override
+	public CloseableIteration<? extends Statement> getStatementsInRange(Resource subj, IRI pred, Literal lowerBound,
+			Literal upperBound, Resource... contexts) throws SailException {
+		if (changes.isStatementCleared() || changes.getDeprecatedContexts() != null || changes.hasDeprecated()
+				|| changes.hasApproved()) {
+			// merging the changes needs the whole pattern
+			return getStatements(subj, pred, null, contexts);
+		}
+		return derivedFrom.getStatementsInRange(subj, pred, lowerBound, upperBound, contexts);
+	}
+
 	@Override
 	public CloseableIteration<? extends Triple> getTriples(Resource subj, IRI pred, Value obj)
 			throws SailException {
@@ -20,6 +20,7 @@ import org.eclipse.rdf4j.common.iteration.DistinctIteration;
 import org.eclipse.rdf4j.common.iteration.EmptyIteration;
 import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Triple;
@@ -27,6 +28,7 @@ import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.evaluation.RDFStarTripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.SeekableStatementIteration;
 import org.eclipse.rdf4j.sail.SailException;
 import org.eclipse.rdf4j.sail.TripleSourceIterationWrapper;
 
@@ -40,9 +42,22 @@ public class SailDatasetTripleSource implements RDFStarTripleSource {
 
 	private final SailDataset dataset;
 
+	private final boolean concurrentReads;
+
 	public SailDatasetTripleSource(ValueFactory vf, SailDataset dataset) {
+		this(vf, dataset, false);
+	}
+
+	/**
+	 * @param vf              the value factory
+	 * @param dataset         the dataset to read statements from
+	 * @param concurrentReads whether the dataset may be read by several threads at once, see
+	 *                        {@link #supportsConcurrentReads()}
+	 */
+	public SailDatasetTripleSource(ValueFactory vf, SailDataset dataset, boolean concurrentReads) {
 		this.vf = vf;
 		this.dataset = dataset;
+		this.concurrentReads = concurrentReads;
 	}
 
 	@Override
@@ -92,6 +107,45 @@ public class SailDatasetTripleSource implements RDFStarTripleSource {
 		}
 	}
 
+	@Override
+	public SeekableStatementIteration getSeekableStatements(StatementOrder order, Resource subj, IRI pred, Value obj,
+			Resource... contexts) throws QueryEvaluationException {
+		SeekableStatementIteration statements = null;
+		try {
+			statements = dataset.getSeekableStatements(order, subj, pred, obj, contexts);
+			return new SeekableIterationWrapper(statements);
+		} catch (Throwable t) {
+			if (statements != null) {
+				statements.close();
+			}
+			if (t instanceof SailException) {
+				throw new QueryEvaluationException(t);
+			}
+			throw t;
+		}
+	}
+
+	@Override
+	public CloseableIteration<? extends Statement> getStatementsInRange(Resource subj, IRI pred, Literal lowerBound,
+			Literal upperBound, Resource... contexts) throws QueryEvaluationException {
+		CloseableIteration<? extends Statement> statements = null;
+		try {
+			statements = dataset.getStatementsInRange(subj, pred, lowerBound, upperBound, contexts);
+			if (statements instanceof EmptyIteration) {
+				return statements;
+			}
+			return new TripleSourceIterationWrapper<>(statements);
+		} catch (Throwable t) {
+			if (statements != null) {
+				statements.close();
+			}
+			if (t instanceof SailException) {
+				throw new QueryEvaluationException(t);
+			}
+			throw t;
+		}
+	}
+
 	@Override
 	public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
 		return dataset.getSupportedOrders(subj, pred, obj, contexts);
@@ -102,6 +156,11 @@ public class SailDatasetTripleSource implements RDFStarTripleSource {
 		return dataset.getComparator();
 	}
 
+	@Override
+	public boolean supportsConcurrentReads() {
+		return concurrentReads;
+	}
+
 	@Override
 	public ValueFactory getValueFactory() {
 		return vf;
@@ -139,4 +198,32 @@ public class SailDatasetTripleSource implements RDFStarTripleSource {
 			throw t;
 		}
 	}
+
+	/**
+	 * Converts the {@link SailException}s of a seekable iteration into {@link QueryEvaluationException}s.
+	 */
+	private static final class SeekableIterationWrapper extends TripleSourceIterationWrapper<Statement>
+			implements SeekableStatementIteration {
+
+		private final SeekableStatementIteration delegate;
+
+		private SeekableIterationWrapper(SeekableStatementIteration delegate) {
+			super(delegate);
+			this.delegate = delegate;
+		}
+
+		@Override
+		public StatementOrder getStatementOrder() {
+			return delegate.getStatementOrder();
+		}
+
+		@Override
+		public void seek(Value key) throws QueryEvaluationException {
+			try {
+				delegate.seek(key);
+			} catch (SailException e) {
+				throw new QueryEvaluationException(e);
+			}
+		}
+	}
 }
@@ -13,6 +13,7 @@ package org.eclipse.rdf4j.sail.base;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
@@ -33,7 +34,9 @@ import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.Dataset;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.QueryRoot;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.Var;
 import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategy;
 import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategyFactory;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
@@ -42,6 +45,9 @@ import org.eclipse.rdf4j.query.algebra.evaluation.federation.FederatedServiceRes
 import org.eclipse.rdf4j.query.algebra.evaluation.federation.FederatedServiceResolverClient;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.DefaultEvaluationStrategy;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.DefaultEvaluationStrategyFactory;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.query.algebra.evaluation.optimizer.BindingAssignerOptimizer;
+import org.eclipse.rdf4j.query.algebra.evaluation.optimizer.QueryJoinOptimizer;
 import org.eclipse.rdf4j.query.algebra.helpers.QueryModelTreeToGenericPlanNode;
 import org.eclipse.rdf4j.query.explanation.Explanation;
 import org.eclipse.rdf4j.query.explanation.ExplanationImpl;
@@ -50,8 +56,10 @@ import org.eclipse.rdf4j.sail.SailConnection;
 import org.eclipse.rdf4j.sail.SailException;
 import org.eclipse.rdf4j.sail.UnknownSailTransactionStateException;
 import org.eclipse.rdf4j.sail.UpdateContext;
+import org.eclipse.rdf4j.sail.features.ThreadSafetyAware;
 import org.eclipse.rdf4j.sail.helpers.AbstractNotifyingSailConnection;
 import org.eclipse.rdf4j.sail.helpers.AbstractSail;
+import org.eclipse.rdf4j.sail.helpers.QueryPlanCache;
 import org.eclipse.rdf4j.sail.inferencer.InferencerConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -219,6 +227,12 @@ public abstract class SailSourceConnection extends AbstractNotifyingSailConnecti
 			Dataset dataset, BindingSet bindings, boolean includeInferred) throws SailException {
 		logger.trace("Incoming query model:\n{}", tupleExpr);
 
+		// explain(...) needs the plan of this evaluation, so it does not use cached plans
+		QueryPlanCache queryPlanCache = cloneTupleExpression && !trackResultSize && !trackTime
+				? getSailBase().getQueryPlanCache()
+				: null;
+		TupleExpr query = tupleExpr;
+
 		if (cloneTupleExpression) {
 			// Clone the tuple expression to allow for more aggressive optimizations
 			tupleExpr = tupleExpr.clone();
@@ -238,7 +252,7 @@ public abstract class SailSourceConnection extends AbstractNotifyingSailConnecti
 			branch = branch(IncludeInferred.fromBoolean(includeInferred));
 			rdfDataset = branch.dataset(getIsolationLevel());
 
-			TripleSource tripleSource = new SailDatasetTripleSource(vf, rdfDataset);
+			TripleSource tripleSource = new SailDatasetTripleSource(vf, rdfDataset, supportsConcurrentDatasetReads());
 			EvaluationStrategy strategy = getEvaluationStrategy(dataset, tripleSource);
 			if (trackResultSize) {
 				strategy.setTrackResultSize(trackResultSize);
@@ -248,7 +262,12 @@ public abstract class SailSourceConnection extends AbstractNotifyingSailConnecti
 				strategy.setTrackTime(trackTime);
 			}
 
-			tupleExpr = strategy.optimize(tupleExpr, store.getEvaluationStatistics(), bindings);
+			if (queryPlanCache != null) {
+				tupleExpr = getCachedPlan(queryPlanCache, query, tupleExpr, strategy, tripleSource, dataset,
+						bindings, includeInferred);
+			} else {
+				tupleExpr = strategy.optimize(tupleExpr, store.getEvaluationStatistics(), bindings);
+			}
 
 			logger.trace("Optimized query model:\n{}", tupleExpr);
 			QueryEvaluationStep qes = strategy.precompile(tupleExpr);
@@ -280,6 +299,39 @@ public abstract class SailSourceConnection extends AbstractNotifyingSailConnecti
 		}
 	}
 
+	/**
+	 * Returns the optimized plan of the query from the cache, optimizing it if there is no suitable plan. Plans are
+	 * optimized for the names of the bindings but not for their values, so that they can be reused with different
+	 * values, which are assigned afterwards. Assigning the values before optimizing would let optimizers fold them into
+	 * the plan, instead the joins are ordered again with the bound variables once the other optimizations are done.
+	 */
+	private TupleExpr getCachedPlan(QueryPlanCache queryPlanCache, TupleExpr query, TupleExpr tupleExpr,
+			EvaluationStrategy strategy, TripleSource tripleSource, Dataset dataset, BindingSet bindings,
+			boolean includeInferred) {
+		EvaluationStatistics statistics = store.getEvaluationStatistics();
+		Set<String> bindingNames = bindings.getBindingNames();
+
+		TupleExpr plan = queryPlanCache.get(query, dataset, includeInferred, queryEvaluationMode, bindingNames,
+				() -> getStoreSize(statistics));
+		if (plan == null) {
+			plan = strategy.optimize(tupleExpr, statistics, EmptyBindingSet.getInstance());
+			if (!bindings.isEmpty()) {
+				new QueryJoinOptimizer(statistics, tripleSource).optimize(plan, dataset, bindings);
+			}
+			queryPlanCache.put(query, dataset, includeInferred, queryEvaluationMode, bindingNames,
+					getStoreSize(statistics), plan);
+		} else {
+			logger.trace("Using cached query plan");
+		}
+
+		new BindingAssignerOptimizer().optimize(plan, dataset, bindings);
+		return plan;
+	}
+
+	private static double getStoreSize(EvaluationStatistics statistics) {
+		return statistics.getCardinality(new StatementPattern(new Var("s"), new Var("p"), new Var("o")));
+	}
+
 	@Override
 	public Explanation explain(Explanation.Level level, TupleExpr tupleExpr, Dataset dataset,
 			BindingSet bindings, boolean includeInferred, int timeoutSeconds) {
@@ -505,6 +557,10 @@ public abstract class SailSourceConnection extends AbstractNotifyingSailConnecti
 			if (toCloseInferredBranch != null) {
 				toCloseInferredBranch.flush();
 			}
+			QueryPlanCache queryPlanCache = getSailBase().getQueryPlanCache();
+			if (queryPlanCache != null) {
+				queryPlanCache.dataChanged();
+			}
 		} finally {
 			if (toCloseInferredBranch != null) {
 				toCloseInferredBranch.close();
@@ -951,6 +1007,15 @@ public abstract class SailSourceConnection extends AbstractNotifyingSailConnecti
 	 * Inner class MemEvaluationStatistics *
 	 *-------------------------------------*/
 
+	/**
+	 * Whether the datasets that queries read from may be read by several threads at once, which lets the evaluation
+	 * strategy evaluate independent parts of a query in parallel. This is the case if the connection declares that it
+	 * {@link ThreadSafetyAware#supportsConcurrentReads() supports concurrent reads}.
+	 */
+	private boolean supportsConcurrentDatasetReads() {
+		return this instanceof ThreadSafetyAware && ((ThreadSafetyAware) this).supportsConcurrentReads();
+	}
+
 	private IsolationLevel getIsolationLevel() throws UnknownSailTransactionStateException {
 		if (isActive()) {
 			return getTransactionIsolation();
@@ -13,17 +13,22 @@ package org.eclipse.rdf4j.sail.base;
 
 import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
+import org.eclipse.rdf4j.common.iteration.AbstractCloseableIteration;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.DualUnionIteration;
 import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Triple;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.algebra.evaluation.SeekableStatementIteration;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.OrderedStatementIteration;
 import org.eclipse.rdf4j.sail.SailException;
 
 /**
@@ -145,6 +150,31 @@ class UnionSailDataset implements SailDataset {
 
 	}
 
+	@Override
+	public CloseableIteration<? extends Statement> getStatementsInRange(Resource subj, IRI pred, Literal lowerBound,
+			Literal upperBound, Resource... contexts) throws SailException {
+
+		CloseableIteration<? extends Statement> iteration1 = null;
+		CloseableIteration<? extends Statement> iteration2 = null;
+		try {
+			iteration1 = dataset1.getStatementsInRange(subj, pred, lowerBound, upperBound, contexts);
+			iteration2 = dataset2.getStatementsInRange(subj, pred, lowerBound, upperBound, contexts);
+			return DualUnionIteration.getWildcardInstance(iteration1, iteration2);
+		} catch (Throwable t) {
+			try {
+				if (iteration1 != null) {
+					iteration1.close();
+				}
+			} finally {
+				if (iteration2 != null) {
+					iteration2.close();
+				}
+			}
+			throw t;
+		}
+
+	}
+
 	@Override
 	public CloseableIteration<? extends Triple> getTriples(Resource subj, IRI pred, Value obj)
 			throws SailException {
@@ -196,6 +226,31 @@ class UnionSailDataset implements SailDataset {
 
 	}
 
+	@Override
+	public SeekableStatementIteration getSeekableStatements(StatementOrder statementOrder, Resource subj, IRI pred,
+			Value obj, Resource... contexts) throws SailException {
+
+		SeekableStatementIteration iteration1 = null;
+		SeekableStatementIteration iteration2 = null;
+		try {
+			iteration1 = dataset1.getSeekableStatements(statementOrder, subj, pred, obj, contexts);
+			iteration2 = dataset2.getSeekableStatements(statementOrder, subj, pred, obj, contexts);
+			return new SeekableUnionIteration(iteration1, iteration2, statementOrder, dataset1.getComparator());
+		} catch (Throwable t) {
+			try {
+				if (iteration1 != null) {
+					iteration1.close();
+				}
+			} finally {
+				if (iteration2 != null) {
+					iteration2.close();
+				}
+			}
+			throw t;
+		}
+
+	}
+
 	@Override
 	public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
 
@@ -227,4 +282,108 @@ class UnionSailDataset implements SailDataset {
 
 		return comparator1;
 	}
+
+	/**
+	 * Merges two seekable iterations that are sorted by the same order, passing seeks on to both of them.
+	 */
+	private static final class SeekableUnionIteration extends AbstractCloseableIteration<Statement>
+			implements SeekableStatementIteration {
+
+		private final SeekableStatementIteration iteration1;
+
+		private final SeekableStatementIteration iteration2;
+
+		private final StatementOrder statementOrder;
+
+		private final Comparator<Value> comparator;
+
+		private final Comparator<Statement> statementComparator;
+
+		private Statement next1;
+
+		private Statement next2;
+
+		private SeekableUnionIteration(SeekableStatementIteration iteration1, SeekableStatementIteration iteration2,
+				StatementOrder statementOrder, Comparator<Value> comparator) {
+			this.iteration1 = iteration1;
+			this.iteration2 = iteration2;
+			this.statementOrder = statementOrder;
+			this.comparator = comparator;
+			this.statementComparator = statementOrder.getComparator(comparator);
+		}
+
+		@Override
+		public StatementOrder getStatementOrder() {
+			return statementOrder;
+		}
+
+		@Override
+		public void seek(Value key) {
+			if (isClosed()) {
+				return;
+			}
+			if (next1 == null || isBefore(next1, key)) {
+				next1 = null;
+				iteration1.seek(key);
+			}
+			if (next2 == null || isBefore(next2, key)) {
+				next2 = null;
+				iteration2.seek(key);
+			}
+		}
+
+		private boolean isBefore(Statement statement, Value key) {
+			return comparator.compare(OrderedStatementIteration.getValue(statement, statementOrder), key) < 0;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (isClosed()) {
+				return false;
+			}
+			if (next1 == null && iteration1.hasNext()) {
+				next1 = iteration1.next();
+			}
+			if (next2 == null && iteration2.hasNext()) {
+				next2 = iteration2.next();
+			}
+			if (next1 == null && next2 == null) {
+				close();
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public Statement next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Statement result;
+			if (next2 == null || next1 != null && statementComparator.compare(next1, next2) <= 0) {
+				result = next1;
+				next1 = null;
+			} else {
+				result = next2;
+				next2 = null;
+			}
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		protected void handleClose() {
+			next1 = null;
+			next2 = null;
+			try {
+				iteration1.close();
+			} finally {
+				iteration2.close();
+			}
+		}
+	}
 }
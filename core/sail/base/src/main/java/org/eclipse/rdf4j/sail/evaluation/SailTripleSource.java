@@ -26,6 +26,7 @@ import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
 import org.eclipse.rdf4j.sail.SailConnection;
 import org.eclipse.rdf4j.sail.SailException;
 import org.eclipse.rdf4j.sail.TripleSourceIterationWrapper;
+import org.eclipse.rdf4j.sail.features.ThreadSafetyAware;
 
 public class SailTripleSource implements TripleSource {
 
@@ -88,6 +89,11 @@ public class SailTripleSource implements TripleSource {
 		return conn.getSupportedOrders(subj, pred, obj, contexts);
 	}
 
+	@Override
+	public boolean supportsConcurrentReads() {
+		return conn instanceof ThreadSafetyAware && ((ThreadSafetyAware) conn).supportsConcurrentReads();
+	}
+
 	@Override
 	public ValueFactory getValueFactory() {
 		return vf;
@@ -10,7 +10,14 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.sail.base;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -18,14 +25,19 @@ import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.sail.SailConflictException;
 import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.base.Changeset.ObservedPatterns;
+import org.eclipse.rdf4j.sail.base.Changeset.SimpleStatementPattern;
 import org.junit.jupiter.api.Test;
 
 public class ChangesetTest {
@@ -111,6 +123,90 @@ public class ChangesetTest {
 		executorService.shutdownNow();
 	}
 
+	@Test
+	public void testConflictDetectionWithManyObservations() {
+		Changeset observer = getChangeset();
+		for (int i = 0; i < 100; i++) {
+			observer.observe(vf.createIRI("urn:s" + i), RDF.TYPE, null, allGraph);
+		}
+		Resource graph = vf.createIRI("urn:graph");
+		observer.observe(null, RDFS.LABEL, null, graph);
+
+		Changeset unrelated = getChangeset();
+		unrelated.approve(vf.createStatement(vf.createIRI("urn:s1"), RDFS.LABEL, vf.createLiteral("a")));
+		unrelated.deprecate(vf.createStatement(vf.createIRI("urn:other"), RDF.TYPE, RDFS.RESOURCE));
+		unrelated.clear(vf.createIRI("urn:otherGraph"));
+		observer.prepend(unrelated);
+		assertDoesNotThrow(observer::prepare);
+
+		Changeset approved = getChangeset();
+		approved.approve(vf.createStatement(vf.createIRI("urn:s42"), RDF.TYPE, RDFS.CLASS, graph));
+		assertConflict(approved);
+
+		Changeset deprecated = getChangeset();
+		deprecated.deprecate(vf.createStatement(vf.createIRI("urn:x"), RDFS.LABEL, vf.createLiteral("b"), graph));
+		assertConflict(deprecated);
+
+		Changeset cleared = getChangeset();
+		cleared.clear(graph);
+		assertConflict(cleared);
+	}
+
+	private void assertConflict(Changeset changeset) {
+		Changeset observer = getChangeset();
+		for (int i = 0; i < 100; i++) {
+			observer.observe(vf.createIRI("urn:s" + i), RDF.TYPE, null, allGraph);
+		}
+		observer.observe(null, RDFS.LABEL, null, vf.createIRI("urn:graph"));
+		observer.prepend(changeset);
+		assertThrows(SailConflictException.class, observer::prepare);
+	}
+
+	@Test
+	public void testObservedPatternsMatchLikeModel() {
+		List<Resource> subjects = List.of(vf.createIRI("urn:a"), vf.createIRI("urn:b"));
+		List<IRI> predicates = List.of(RDF.TYPE, RDFS.LABEL);
+		List<Value> objects = List.of(RDFS.RESOURCE, vf.createLiteral("x"));
+		Resource[] contexts = { null, vf.createIRI("urn:g1"), vf.createIRI("urn:g2") };
+
+		Model model = new LinkedHashModel();
+		for (Resource subj : subjects) {
+			for (IRI pred : predicates) {
+				for (Value obj : objects) {
+					for (Resource context : contexts) {
+						model.add(subj, pred, obj, context);
+					}
+				}
+			}
+		}
+
+		// every single pattern must match exactly the statements that the model finds for it
+		for (Resource subj : withNull(subjects)) {
+			for (IRI pred : withNull(predicates)) {
+				for (Value obj : withNull(objects)) {
+					for (int c = -1; c < contexts.length; c++) {
+						SimpleStatementPattern pattern = c < 0
+								? new SimpleStatementPattern(subj, pred, obj, null, true)
+								: new SimpleStatementPattern(subj, pred, obj, contexts[c], false);
+						Model expected = c < 0 ? model.filter(subj, pred, obj)
+								: model.filter(subj, pred, obj, contexts[c]);
+						ObservedPatterns patterns = new ObservedPatterns(Set.of(pattern));
+						for (Statement statement : model) {
+							assertEquals(expected.contains(statement), patterns.matches(statement),
+									pattern + " " + statement);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static <T> List<T> withNull(List<T> values) {
+		List<T> result = new ArrayList<>(values);
+		result.add(null);
+		return result;
+	}
+
 	private Changeset getChangeset() {
 		return new Changeset() {
 			@Override
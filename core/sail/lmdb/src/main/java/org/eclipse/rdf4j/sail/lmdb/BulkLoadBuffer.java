@@ -0,0 +1,386 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Collects the quads that are added to a {@link TripleStore} in bulk load mode so that they can be written to each
+ * index in key order. Quads are kept in memory until the buffer is full; the buffer is then sorted once per index and
+ * written to a temporary run file for each index. {@link #sorted(int)} merges the run files of an index with the quads
+ * that are still in memory.
+ */
+class BulkLoadBuffer implements Closeable {
+
+	static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final File dir;
+
+	private final int[][] indexMaps;
+
+	private final int chunkSize;
+
+	private final long[] quads;
+
+	private int chunkQuads;
+
+	private long totalQuads;
+
+	private long totalKeyLength;
+
+	/**
+	 * One array of run files per spilled chunk, with one file per index.
+	 */
+	private final List<File[]> runs = new ArrayList<>();
+
+	/**
+	 * @param dir       the directory for temporary run files
+	 * @param indexMaps for every index, the positions in a quad of the fields of its key in key order
+	 * @param chunkSize the number of quads that are kept in memory
+	 */
+	BulkLoadBuffer(File dir, int[][] indexMaps, int chunkSize) {
+		this.dir = dir;
+		this.indexMaps = indexMaps;
+		this.chunkSize = chunkSize;
+		this.quads = new long[chunkSize * 4];
+	}
+
+	void add(long subj, long pred, long obj, long context) throws IOException {
+		if (chunkQuads == chunkSize) {
+			spill();
+		}
+		int i = chunkQuads * 4;
+		quads[i] = subj;
+		quads[i + 1] = pred;
+		quads[i + 2] = obj;
+		quads[i + 3] = context;
+		chunkQuads++;
+		totalQuads++;
+		totalKeyLength += Varint.calcListLengthUnsigned(subj, pred, obj, context);
+	}
+
+	boolean isEmpty() {
+		return totalQuads == 0;
+	}
+
+	/**
+	 * @return the number of quads that were added, including duplicates
+	 */
+	long size() {
+		return totalQuads;
+	}
+
+	/**
+	 * @return the total length of the keys of the added quads, which is the same for every index
+	 */
+	long keyLength() {
+		return totalKeyLength;
+	}
+
+	/**
+	 * Returns the keys of the added quads for an index in ascending order, without duplicates.
+	 *
+	 * @param index the position of the index in the index maps
+	 */
+	KeyIterator sorted(int index) throws IOException {
+		sortChunk(indexMaps[index]);
+
+		List<Source> sources = new ArrayList<>(runs.size() + 1);
+		try {
+			for (File[] run : runs) {
+				sources.add(new RunSource(run[index]));
+			}
+		} catch (IOException e) {
+			for (Source source : sources) {
+				try {
+					source.close();
+				} catch (IOException suppressed) {
+					e.addSuppressed(suppressed);
+				}
+			}
+			throw e;
+		}
+		sources.add(new ChunkSource(indexMaps[index]));
+		return new KeyIterator(sources);
+	}
+
+	/**
+	 * Discards all quads and deletes the temporary run files.
+	 */
+	void clear() {
+		chunkQuads = 0;
+		totalQuads = 0;
+		totalKeyLength = 0;
+		for (File[] run : runs) {
+			for (File file : run) {
+				file.delete();
+			}
+		}
+		runs.clear();
+	}
+
+	@Override
+	public void close() {
+		clear();
+	}
+
+	private void spill() throws IOException {
+		File[] run = new File[indexMaps.length];
+		runs.add(run);
+		for (int index = 0; index < indexMaps.length; index++) {
+			run[index] = File.createTempFile("bulk-" + runs.size() + "-" + index + "-", ".run", dir);
+			sortChunk(indexMaps[index]);
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(run[index]), BUFFER_SIZE))) {
+				ByteBuffer key = ByteBuffer.allocate(TripleStore.MAX_KEY_LENGTH);
+				for (int i = 0; i < chunkQuads; i++) {
+					key.clear();
+					toKey(key, indexMaps[index], i);
+					out.writeByte(key.position());
+					out.write(key.array(), 0, key.position());
+				}
+			}
+		}
+		chunkQuads = 0;
+	}
+
+	private void toKey(ByteBuffer key, int[] indexMap, int quad) {
+		for (int field : indexMap) {
+			Varint.writeUnsigned(key, quads[quad * 4 + field]);
+		}
+	}
+
+	/**
+	 * Sorts the quads in memory by the fields of an index. Varints preserve the order of the values, so the keys of the
+	 * sorted quads are in ascending order as well.
+	 */
+	private void sortChunk(int[] indexMap) {
+		sort(0, chunkQuads, indexMap);
+	}
+
+	private void sort(int from, int to, int[] indexMap) {
+		// quicksort that only recurses into the smaller partition to bound the stack depth
+		while (to - from > 16) {
+			int a = from;
+			int b = from + (to - from) / 2;
+			int c = to - 1;
+			int pivot;
+			if (compare(a, b, indexMap) < 0) {
+				pivot = compare(b, c, indexMap) < 0 ? b : (compare(a, c, indexMap) < 0 ? c : a);
+			} else {
+				pivot = compare(a, c, indexMap) < 0 ? a : (compare(b, c, indexMap) < 0 ? c : b);
+			}
+			swap(pivot, from);
+
+			int i = from;
+			int j = to;
+			while (true) {
+				do {
+					i++;
+				} while (i < to && compare(i, from, indexMap) < 0);
+				do {
+					j--;
+				} while (compare(j, from, indexMap) > 0);
+				if (i >= j) {
+					break;
+				}
+				swap(i, j);
+			}
+			swap(from, j);
+
+			if (j - from < to - j - 1) {
+				sort(from, j, indexMap);
+				from = j + 1;
+			} else {
+				sort(j + 1, to, indexMap);
+				to = j;
+			}
+		}
+		insertionSort(from, to, indexMap);
+	}
+
+	private void insertionSort(int from, int to, int[] indexMap) {
+		for (int i = from + 1; i < to; i++) {
+			for (int j = i; j > from && compare(j - 1, j, indexMap) > 0; j--) {
+				swap(j - 1, j);
+			}
+		}
+	}
+
+	private int compare(int a, int b, int[] indexMap) {
+		for (int field : indexMap) {
+			int diff = Long.compare(quads[a * 4 + field], quads[b * 4 + field]);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return 0;
+	}
+
+	private void swap(int a, int b) {
+		int i = a * 4;
+		int j = b * 4;
+		for (int k = 0; k < 4; k++) {
+			long tmp = quads[i + k];
+			quads[i + k] = quads[j + k];
+			quads[j + k] = tmp;
+		}
+	}
+
+	/**
+	 * Merges the sorted keys of several sources and skips duplicates.
+	 */
+	static final class KeyIterator implements Closeable {
+
+		private final List<Source> sources;
+
+		private final PriorityQueue<Source> queue = new PriorityQueue<>(
+				(a, b) -> Arrays.compareUnsigned(a.key, 0, a.length, b.key, 0, b.length));
+
+		private final byte[] key = new byte[TripleStore.MAX_KEY_LENGTH];
+
+		private final ByteBuffer keyBuffer = ByteBuffer.wrap(key);
+
+		private int length = -1;
+
+		private KeyIterator(List<Source> sources) throws IOException {
+			this.sources = sources;
+			try {
+				for (Source source : sources) {
+					if (source.advance()) {
+						queue.add(source);
+					}
+				}
+			} catch (IOException e) {
+				close();
+				throw e;
+			}
+		}
+
+		/**
+		 * @return the next key, which is only valid until the next call, or <tt>null</tt> if there are no more keys
+		 */
+		ByteBuffer next() throws IOException {
+			while (!queue.isEmpty()) {
+				Source source = queue.poll();
+				boolean duplicate = length >= 0
+						&& Arrays.equals(source.key, 0, source.length, key, 0, length);
+				if (!duplicate) {
+					System.arraycopy(source.key, 0, key, 0, source.length);
+					length = source.length;
+				}
+				if (source.advance()) {
+					queue.add(source);
+				}
+				if (!duplicate) {
+					keyBuffer.clear();
+					keyBuffer.limit(length);
+					return keyBuffer;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public void close() throws IOException {
+			IOException exception = null;
+			for (Source source : sources) {
+				try {
+					source.close();
+				} catch (IOException e) {
+					if (exception == null) {
+						exception = e;
+					}
+				}
+			}
+			if (exception != null) {
+				throw exception;
+			}
+		}
+	}
+
+	private abstract static class Source implements Closeable {
+
+		final byte[] key = new byte[TripleStore.MAX_KEY_LENGTH];
+
+		int length;
+
+		abstract boolean advance() throws IOException;
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+
+	private static final class RunSource extends Source {
+
+		private final DataInputStream in;
+
+		RunSource(File file) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+		}
+
+		@Override
+		boolean advance() throws IOException {
+			int keyLength = in.read();
+			if (keyLength < 0) {
+				return false;
+			}
+			length = keyLength;
+			in.readFully(key, 0, keyLength);
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	private final class ChunkSource extends Source {
+
+		private final int[] indexMap;
+
+		private final ByteBuffer keyBuffer = ByteBuffer.wrap(key);
+
+		private int next;
+
+		ChunkSource(int[] indexMap) {
+			this.indexMap = indexMap;
+		}
+
+		@Override
+		boolean advance() {
+			if (next == chunkQuads) {
+				return false;
+			}
+			keyBuffer.clear();
+			toKey(keyBuffer, indexMap, next++);
+			length = keyBuffer.position();
+			return true;
+		}
+	}
+}
@@ -0,0 +1,482 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-limited concurrent cache for objects that are identified by a numeric ID, such as values and namespaces.
+ * <p>
+ * Entries are kept in a set-associative table that is split into stripes. An ID maps to a set of {@link #WAYS} slots
+ * which are read and replaced with atomic operations only, so that lookups neither block nor box their keys. When all
+ * slots of a set are taken, a TinyLFU admission policy decides whether the new entry may replace the least frequently
+ * used entry of the set; access frequencies are estimated by a {@link FrequencySketch}. Lookups do not update the
+ * sketch directly but append to a small buffer of their stripe, which is recorded in the sketch once it is full.
+ * Besides the number of slots, each stripe limits the total weight of its entries, which callers provide as an
+ * estimate of the memory footprint of an entry in bytes.
+ *
+ * @param <V> the type of the cached objects
+ */
+public class ConcurrentIdCache<V> {
+
+	/**
+	 * The number of slots per set, which is the maximum number of slots inspected by a lookup.
+	 */
+	static final int WAYS = 8;
+
+	/**
+	 * The number of accesses a stripe buffers before they are recorded in the frequency sketch, a power of two.
+	 */
+	static final int READ_BUFFER_SIZE = 16;
+
+	private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+	private final Stripe<V>[] stripes;
+
+	private final int stripeMask;
+
+	private final int stripeShift;
+
+	private final FrequencySketch sketch;
+
+	/**
+	 * Held while buffered accesses are recorded in the sketch, which allows only one writer at a time.
+	 */
+	private final ReentrantLock sketchLock = new ReentrantLock();
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param capacity  the approximate maximum number of entries, rounded up to a power of two number of sets.
+	 * @param maxWeight the approximate maximum total weight of all entries.
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentIdCache(int capacity, long maxWeight) {
+		int sets = tableSizeFor(Math.max(1, (capacity + WAYS - 1) / WAYS));
+		int stripeCount = Math.min(sets, tableSizeFor(4 * Runtime.getRuntime().availableProcessors()));
+
+		stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe<>(sets / stripeCount, Math.max(1, maxWeight / stripeCount));
+		}
+		stripeMask = stripeCount - 1;
+		stripeShift = Integer.bitCount(stripeMask);
+		sketch = new FrequencySketch(sets * WAYS);
+	}
+
+	/**
+	 * Gets the object with the specified ID from this cache and records the access for the admission policy.
+	 *
+	 * @param id the ID of the object
+	 * @return the cached object or <code>null</code> if it is not in the cache
+	 */
+	public V get(long id) {
+		int hash = hash(id);
+		Stripe<V> stripe = stripes[hash & stripeMask];
+		recordAccess(stripe, hash);
+
+		int offset = stripe.offset(hash >>> stripeShift);
+		for (int i = offset; i < offset + WAYS; i++) {
+			Entry<V> entry = stripe.slots.get(i);
+			if (entry != null && entry.id == id) {
+				hitCount.increment();
+				return entry.value;
+			}
+		}
+		missCount.increment();
+		return null;
+	}
+
+	/**
+	 * Offers an object to this cache. The object is not cached if its set is full and the object is requested less
+	 * frequently than the entries of that set, or if its weight exceeds the limit of its stripe.
+	 *
+	 * @param id     the ID of the object
+	 * @param value  the object
+	 * @param weight the estimated memory footprint of the object in bytes
+	 */
+	public void put(long id, V value, int weight) {
+		int hash = hash(id);
+		Stripe<V> stripe = stripes[hash & stripeMask];
+		if (weight > stripe.maxWeight) {
+			return;
+		}
+
+		Entry<V> entry = new Entry<>(id, hash, value, weight);
+		int offset = stripe.offset(hash >>> stripeShift);
+
+		int freeIndex = -1;
+		int victimIndex = -1;
+		Entry<V> victim = null;
+		int victimFrequency = Integer.MAX_VALUE;
+
+		// the ID may be cached in any slot of the set, also behind a free one
+		for (int i = offset; i < offset + WAYS; i++) {
+			Entry<V> current = stripe.slots.get(i);
+			if (current == null) {
+				if (freeIndex < 0) {
+					freeIndex = i;
+				}
+			} else if (current.id == id) {
+				if (stripe.slots.compareAndSet(i, current, entry)) {
+					added(stripe, i, entry, current);
+				}
+				return;
+			} else if (freeIndex < 0) {
+				int frequency = sketch.frequency(current.hash);
+				if (frequency < victimFrequency) {
+					victimIndex = i;
+					victim = current;
+					victimFrequency = frequency;
+				}
+			}
+		}
+
+		if (freeIndex >= 0) {
+			for (int i = freeIndex; i < offset + WAYS; i++) {
+				if (stripe.slots.compareAndSet(i, null, entry)) {
+					added(stripe, i, entry, null);
+					removeConcurrentDuplicate(stripe, offset, i, entry);
+					return;
+				}
+			}
+			// the free slots were taken by concurrent puts
+			return;
+		}
+
+		// the set is full: only admit the new entry if it is requested at least as often as the victim
+		if (victim != null && sketch.frequency(hash) >= victimFrequency
+				&& stripe.slots.compareAndSet(victimIndex, victim, entry)) {
+			evictionCount.increment();
+			added(stripe, victimIndex, entry, victim);
+			removeConcurrentDuplicate(stripe, offset, victimIndex, entry);
+		}
+	}
+
+	/**
+	 * Concurrent puts of the same ID may each add it to a different slot of its set. Of these entries, the one in the
+	 * first slot is kept, so that every put that sees the others agrees on which to remove.
+	 *
+	 * @param index the slot to which the entry has just been added
+	 */
+	private void removeConcurrentDuplicate(Stripe<V> stripe, int offset, int index, Entry<V> entry) {
+		for (int i = offset; i < offset + WAYS; i++) {
+			Entry<V> other = stripe.slots.get(i);
+			if (i == index || other == null || other.id != entry.id) {
+				continue;
+			}
+			if (i < index) {
+				if (stripe.slots.compareAndSet(index, entry, null)) {
+					stripe.weight.addAndGet(-entry.weight);
+				}
+				return;
+			} else if (stripe.slots.compareAndSet(i, other, null)) {
+				stripe.weight.addAndGet(-other.weight);
+			}
+		}
+	}
+
+	/**
+	 * Buffers an access for the frequency sketch. The lookup that fills the buffer of its stripe records all buffered
+	 * accesses, unless another thread is recording accesses at the same time; those accesses are dropped, which only
+	 * reduces the accuracy of the estimates.
+	 */
+	private void recordAccess(Stripe<V> stripe, int hash) {
+		int index = stripe.reads.getAndIncrement() & READ_BUFFER_MASK;
+		stripe.readBuffer.lazySet(index, hash);
+		if (index == READ_BUFFER_MASK && sketchLock.tryLock()) {
+			try {
+				for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+					sketch.increment(stripe.readBuffer.get(i));
+				}
+			} finally {
+				sketchLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Records the buffered accesses of all stripes in the frequency sketch and estimates how often the object with the
+	 * given ID was requested. Intended for testing only.
+	 */
+	int frequency(long id) {
+		sketchLock.lock();
+		try {
+			for (Stripe<V> stripe : stripes) {
+				int buffered = stripe.reads.getAndSet(0) & READ_BUFFER_MASK;
+				for (int i = 0; i < buffered; i++) {
+					sketch.increment(stripe.readBuffer.get(i));
+				}
+			}
+			return sketch.frequency(hash(id));
+		} finally {
+			sketchLock.unlock();
+		}
+	}
+
+	private void added(Stripe<V> stripe, int index, Entry<V> entry, Entry<V> replaced) {
+		long delta = replaced == null ? entry.weight : entry.weight - replaced.weight;
+		if (stripe.weight.addAndGet(delta) > stripe.maxWeight) {
+			shrink(stripe, index);
+		}
+	}
+
+	/**
+	 * Evicts the least frequently used entry of successive sets of a stripe until the stripe no longer exceeds its
+	 * weight limit.
+	 *
+	 * @param stripe the stripe to shrink
+	 * @param keep   the index of the slot holding the entry that has just been added
+	 */
+	private void shrink(Stripe<V> stripe, int keep) {
+		for (int set = 0; set <= stripe.setMask && stripe.weight.get() > stripe.maxWeight; set++) {
+			// the clock hand is not updated atomically, concurrent shrinks may visit the same set
+			int offset = stripe.offset(stripe.clock++);
+
+			int victimIndex = -1;
+			Entry<V> victim = null;
+			int victimFrequency = Integer.MAX_VALUE;
+			for (int i = offset; i < offset + WAYS; i++) {
+				Entry<V> current = stripe.slots.get(i);
+				if (current != null && i != keep) {
+					int frequency = sketch.frequency(current.hash);
+					if (frequency < victimFrequency) {
+						victimIndex = i;
+						victim = current;
+						victimFrequency = frequency;
+					}
+				}
+			}
+			if (victim != null && stripe.slots.compareAndSet(victimIndex, victim, null)) {
+				evictionCount.increment();
+				stripe.weight.addAndGet(-victim.weight);
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries from this cache. The statistics and access frequencies are retained.
+	 */
+	public void clear() {
+		for (Stripe<V> stripe : stripes) {
+			for (int i = 0; i < stripe.slots.length(); i++) {
+				Entry<V> entry = stripe.slots.getAndSet(i, null);
+				if (entry != null) {
+					stripe.weight.addAndGet(-entry.weight);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of lookups that found the requested object
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * @return the number of lookups that did not find the requested object
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * @return the number of entries that were removed to make room for other entries
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * @return the estimated total weight of all entries
+	 */
+	public long getWeight() {
+		long weight = 0;
+		for (Stripe<V> stripe : stripes) {
+			weight += stripe.weight.get();
+		}
+		return weight;
+	}
+
+	/**
+	 * Counts the entries of this cache. This visits every slot and is intended for monitoring and testing only.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe<V> stripe : stripes) {
+			for (int i = 0; i < stripe.slots.length(); i++) {
+				if (stripe.slots.get(i) != null) {
+					size++;
+				}
+			}
+		}
+		return size;
+	}
+
+	private static int hash(long id) {
+		long h = id * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private static int tableSizeFor(int n) {
+		return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+
+	private static final class Entry<V> {
+
+		final long id;
+
+		final int hash;
+
+		final V value;
+
+		final int weight;
+
+		Entry(long id, int hash, V value, int weight) {
+			this.id = id;
+			this.hash = hash;
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	private static final class Stripe<V> {
+
+		final AtomicReferenceArray<Entry<V>> slots;
+
+		final int setMask;
+
+		final long maxWeight;
+
+		final AtomicLong weight = new AtomicLong();
+
+		/**
+		 * The number of accesses to this stripe, which determines the next slot of the read buffer.
+		 */
+		final AtomicInteger reads = new AtomicInteger();
+
+		/**
+		 * The hashes of the last accessed IDs that have not been recorded in the frequency sketch yet.
+		 */
+		final AtomicIntegerArray readBuffer = new AtomicIntegerArray(READ_BUFFER_SIZE);
+
+		/**
+		 * The next set to inspect when entries must be evicted to reduce the weight of this stripe.
+		 */
+		int clock;
+
+		Stripe(int sets, long maxWeight) {
+			this.slots = new AtomicReferenceArray<>(sets * WAYS);
+			this.setMask = sets - 1;
+			this.maxWeight = maxWeight;
+		}
+
+		int offset(int set) {
+			return (set & setMask) * WAYS;
+		}
+	}
+
+	/**
+	 * Count-min sketch with four 4-bit counters per ID that estimates how often an ID was requested recently. All
+	 * counters are halved after a number of increments proportional to the cache size, so that old accesses fade out.
+	 * Only one thread may increment the counters at a time, while any number of threads may read them.
+	 */
+	static final class FrequencySketch {
+
+		private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+				0xcbf29ce484222325L };
+
+		private static final long RESET_MASK = 0x7777777777777777L;
+
+		private static final VarHandle TABLE = MethodHandles.arrayElementVarHandle(long[].class);
+
+		private final long[] table;
+
+		private final int tableMask;
+
+		private final int sampleSize;
+
+		private int additions;
+
+		FrequencySketch(int capacity) {
+			int size = tableSizeFor(Math.max(capacity, 16));
+			table = new long[size];
+			tableMask = size - 1;
+			sampleSize = 10 * size;
+		}
+
+		int frequency(int hash) {
+			int frequency = 15;
+			for (int i = 0; i < SEEDS.length; i++) {
+				long h = spread(hash, i);
+				frequency = Math.min(frequency, (int) ((long) TABLE.getOpaque(table, index(h)) >>> shift(h)) & 15);
+			}
+			return frequency;
+		}
+
+		void increment(int hash) {
+			boolean added = false;
+			for (int i = 0; i < SEEDS.length; i++) {
+				long h = spread(hash, i);
+				added |= incrementAt(index(h), shift(h));
+			}
+			if (added && ++additions >= sampleSize) {
+				reset();
+			}
+		}
+
+		private boolean incrementAt(int index, int shift) {
+			long word = (long) TABLE.getOpaque(table, index);
+			if (((word >>> shift) & 15) == 15) {
+				return false;
+			}
+			TABLE.setOpaque(table, index, word + (1L << shift));
+			return true;
+		}
+
+		private void reset() {
+			additions >>>= 1;
+			for (int i = 0; i < table.length; i++) {
+				TABLE.setOpaque(table, i, ((long) TABLE.getOpaque(table, i) >>> 1) & RESET_MASK);
+			}
+		}
+
+		private static long spread(int hash, int i) {
+			long h = (hash + SEEDS[i]) * SEEDS[i];
+			return h ^ (h >>> 32);
+		}
+
+		private int index(long h) {
+			return (int) h & tableMask;
+		}
+
+		private static int shift(long h) {
+			return (int) (h >>> 40 & 15) << 2;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import java.io.IOException;
+
+/**
+ * Coordinates the disk syncs of commits that were written without syncing. Each commit is assigned a sequence number
+ * and threads waiting for their commit to become durable elect a leader that syncs on behalf of all commits written so
+ * far, while the others wait for its result. Commits that arrive while a sync is in progress are covered by the next
+ * sync, so that concurrent writers share a single sync instead of each paying for its own.
+ */
+class GroupCommit {
+
+	/**
+	 * Makes all commits written so far durable.
+	 */
+	interface SyncAction {
+		void sync() throws IOException;
+	}
+
+	private final SyncAction syncAction;
+
+	/**
+	 * Sequence number of the latest commit written to the database.
+	 */
+	private long committed;
+
+	/**
+	 * Sequence number up to which all commits are known to be durable.
+	 */
+	private long synced;
+
+	/**
+	 * Whether a leader is currently syncing.
+	 */
+	private boolean syncing;
+
+	/**
+	 * Sequence number up to which the last failed sync should have made commits durable, and its error.
+	 */
+	private long failedUpTo;
+	private IOException failure;
+
+	GroupCommit(SyncAction syncAction) {
+		this.syncAction = syncAction;
+	}
+
+	/**
+	 * Registers a commit that has been written to the database without syncing.
+	 *
+	 * @return the sequence number of the commit
+	 */
+	synchronized long committed() {
+		return ++committed;
+	}
+
+	/**
+	 * Blocks until the commit with the given sequence number, and all commits before it, are durable. Either joins a
+	 * sync that is about to cover the commit or performs the sync itself.
+	 *
+	 * @param sequence the sequence number of the commit
+	 * @throws IOException if the sync that should have made the commit durable failed
+	 */
+	void awaitDurable(long sequence) throws IOException {
+		long target;
+		synchronized (this) {
+			while (true) {
+				if (synced >= sequence) {
+					return;
+				}
+				if (!syncing && failure != null && sequence <= failedUpTo) {
+					// the commit was covered by a failed sync, report its error to this waiter as well
+					throw new IOException("Failed to sync commit", failure);
+				}
+				if (!syncing) {
+					break;
+				}
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException(e);
+				}
+			}
+			syncing = true;
+			target = committed;
+		}
+
+		IOException error = null;
+		boolean done = false;
+		try {
+			syncAction.sync();
+			done = true;
+		} catch (IOException e) {
+			error = e;
+		} catch (RuntimeException e) {
+			error = new IOException(e);
+		} finally {
+			synchronized (this) {
+				syncing = false;
+				if (done) {
+					synced = Math.max(synced, target);
+					if (failedUpTo <= synced) {
+						failure = null;
+					}
+				} else {
+					failedUpTo = target;
+					failure = error != null ? error : new IOException("Sync did not complete");
+				}
+				notifyAll();
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+}
@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DateTimeException;
+import java.time.Instant;
+
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.base.CoreDatatype;
+import org.eclipse.rdf4j.sail.lmdb.model.LmdbValue;
+
+/**
+ * Encodes literals of some XML Schema datatypes directly into their value IDs instead of storing them in the value
+ * store. The IDs of inlined literals are larger than the IDs of all stored values and, per datatype, ordered by the
+ * value of the literals. A range restriction on such literals can therefore be answered by a range scan over an index
+ * that is sorted by object.
+ * <p>
+ * An inlined ID consists of (starting with the most significant bit) a marker bit, a 4 bit datatype tag, a 49 bit
+ * payload in offset binary and the 2 bits of the literal value type. Only literals with a canonical label are inlined,
+ * so that the label of the decoded literal is equal to the original label.
+ */
+final class InlinedLiterals {
+
+	/**
+	 * Marks the ID of an inlined literal. IDs of stored values are always smaller.
+	 */
+	static final long INLINED_BIT = 1L << 55;
+
+	static final int INTEGER = 0;
+
+	static final int BOOLEAN = 1;
+
+	/**
+	 * A dateTime in UTC, stored as milliseconds since the epoch.
+	 */
+	static final int DATETIME = 2;
+
+	private static final int TAG_SHIFT = 51;
+
+	private static final int PAYLOAD_SHIFT = 2;
+
+	private static final long PAYLOAD_MASK = (1L << 49) - 1;
+
+	private static final long PAYLOAD_OFFSET = 1L << 48;
+
+	static final long MIN_PAYLOAD = -PAYLOAD_OFFSET;
+
+	static final long MAX_PAYLOAD = PAYLOAD_OFFSET - 1;
+
+	private static final long LITERAL_VALUE = 0x1;
+
+	/**
+	 * Maximum difference between a dateTime without timezone and its value in UTC.
+	 */
+	private static final long MAX_TIMEZONE_MILLIS = 14 * 60 * 60 * 1000L;
+
+	private static final BigDecimal MIN_PAYLOAD_DECIMAL = BigDecimal.valueOf(MIN_PAYLOAD);
+
+	private static final BigDecimal MAX_PAYLOAD_DECIMAL = BigDecimal.valueOf(MAX_PAYLOAD);
+
+	private InlinedLiterals() {
+	}
+
+	static boolean isInlined(long id) {
+		return (id & INLINED_BIT) != 0;
+	}
+
+	static long toId(int tag, long payload) {
+		return INLINED_BIT | ((long) tag << TAG_SHIFT) | ((payload + PAYLOAD_OFFSET) << PAYLOAD_SHIFT) | LITERAL_VALUE;
+	}
+
+	static int getTag(long id) {
+		return (int) ((id >>> TAG_SHIFT) & 0xF);
+	}
+
+	static long getPayload(long id) {
+		return ((id >>> PAYLOAD_SHIFT) & PAYLOAD_MASK) - PAYLOAD_OFFSET;
+	}
+
+	/**
+	 * Returns the inlined ID of a literal.
+	 *
+	 * @return the ID, or {@link LmdbValue#UNKNOWN_ID} if the literal can not be inlined
+	 */
+	static long getId(Literal literal) {
+		CoreDatatype.XSD datatype = literal.getCoreDatatype().asXSDDatatypeOrNull();
+		if (datatype == null) {
+			return LmdbValue.UNKNOWN_ID;
+		}
+		String label = literal.getLabel();
+		switch (datatype) {
+		case INTEGER:
+			try {
+				long value = Long.parseLong(label);
+				if (value >= MIN_PAYLOAD && value <= MAX_PAYLOAD && Long.toString(value).equals(label)) {
+					return toId(INTEGER, value);
+				}
+			} catch (NumberFormatException e) {
+				// not a canonical integer
+			}
+			break;
+		case BOOLEAN:
+			if ("true".equals(label)) {
+				return toId(BOOLEAN, 1);
+			} else if ("false".equals(label)) {
+				return toId(BOOLEAN, 0);
+			}
+			break;
+		case DATETIME:
+			// only UTC values with at most millisecond precision are inlined
+			if (label.endsWith("Z")) {
+				try {
+					long millis = Instant.parse(label).toEpochMilli();
+					if (millis >= MIN_PAYLOAD && millis <= MAX_PAYLOAD
+							&& Instant.ofEpochMilli(millis).toString().equals(label)) {
+						return toId(DATETIME, millis);
+					}
+				} catch (DateTimeException | ArithmeticException e) {
+					// not a canonical dateTime
+				}
+			}
+			break;
+		default:
+			break;
+		}
+		return LmdbValue.UNKNOWN_ID;
+	}
+
+	static CoreDatatype.XSD getDatatype(long id) {
+		switch (getTag(id)) {
+		case INTEGER:
+			return CoreDatatype.XSD.INTEGER;
+		case BOOLEAN:
+			return CoreDatatype.XSD.BOOLEAN;
+		case DATETIME:
+			return CoreDatatype.XSD.DATETIME;
+		default:
+			throw new IllegalArgumentException("Unknown type of inlined literal: " + id);
+		}
+	}
+
+	static String getLabel(long id) {
+		long payload = getPayload(id);
+		switch (getTag(id)) {
+		case INTEGER:
+			return Long.toString(payload);
+		case BOOLEAN:
+			return payload != 0 ? "true" : "false";
+		case DATETIME:
+			return Instant.ofEpochMilli(payload).toString();
+		default:
+			throw new IllegalArgumentException("Unknown type of inlined literal: " + id);
+		}
+	}
+
+	/**
+	 * Computes the range of inlined IDs of literals that may lie between the given bounds, according to the SPARQL
+	 * comparison operators. Literals with an ID outside this range can not lie between the bounds, but literals with an
+	 * ID within the range may still need to be checked.
+	 *
+	 * @param lowerBound the lower bound, or <tt>null</tt>
+	 * @param upperBound the upper bound, or <tt>null</tt>
+	 * @return the lowest and highest ID of the range (the range is empty if the lowest ID is larger than the highest),
+	 *         or <tt>null</tt> if the bounds do not restrict the inlined IDs
+	 */
+	static long[] getIdRange(Literal lowerBound, Literal upperBound) {
+		int tag = -1;
+		long min = MIN_PAYLOAD;
+		long max = MAX_PAYLOAD;
+		Literal[] bounds = { lowerBound, upperBound };
+		for (int i = 0; i < bounds.length; i++) {
+			Literal bound = bounds[i];
+			if (bound == null) {
+				continue;
+			}
+			boolean isLower = i == 0;
+			CoreDatatype.XSD datatype = bound.getCoreDatatype().asXSDDatatypeOrNull();
+			int boundTag;
+			long payload;
+			try {
+				if (datatype != null && datatype.isNumericDatatype()) {
+					boundTag = INTEGER;
+					payload = toIntegerBound(bound, datatype, isLower);
+				} else if (datatype == CoreDatatype.XSD.DATETIME) {
+					boundTag = DATETIME;
+					payload = toDateTimeBound(bound.calendarValue(), isLower);
+				} else {
+					return null;
+				}
+			} catch (IllegalArgumentException | ArithmeticException e) {
+				// not a valid value of its datatype
+				return null;
+			}
+			if (tag != -1 && tag != boundTag) {
+				return null;
+			}
+			tag = boundTag;
+			if (isLower) {
+				min = Math.max(min, payload);
+			} else {
+				max = Math.min(max, payload);
+			}
+		}
+		if (tag == -1) {
+			return null;
+		}
+		if (min > max) {
+			// no inlined literal lies within the bounds
+			return new long[] { toId(tag, MAX_PAYLOAD), toId(tag, MIN_PAYLOAD) };
+		}
+		return new long[] { toId(tag, min), toId(tag, max) };
+	}
+
+	private static long toIntegerBound(Literal bound, CoreDatatype.XSD datatype, boolean isLower) {
+		BigDecimal value;
+		if (datatype == CoreDatatype.XSD.DOUBLE || datatype == CoreDatatype.XSD.FLOAT) {
+			double doubleValue = datatype == CoreDatatype.XSD.DOUBLE ? bound.doubleValue() : bound.floatValue();
+			if (Double.isNaN(doubleValue)) {
+				throw new IllegalArgumentException("NaN is not comparable");
+			} else if (Double.isInfinite(doubleValue)) {
+				return (doubleValue > 0) == isLower ? MAX_PAYLOAD + 1 : MIN_PAYLOAD - 1;
+			}
+			if (datatype == CoreDatatype.XSD.FLOAT) {
+				// integers are compared as floats, which may round them towards the bound
+				double ulp = Math.ulp(bound.floatValue());
+				doubleValue += isLower ? -ulp : ulp;
+			}
+			value = new BigDecimal(doubleValue);
+		} else {
+			value = bound.decimalValue();
+		}
+
+		value = value.setScale(0, isLower ? RoundingMode.CEILING : RoundingMode.FLOOR);
+		if (value.compareTo(MIN_PAYLOAD_DECIMAL) < 0) {
+			return MIN_PAYLOAD - 1;
+		} else if (value.compareTo(MAX_PAYLOAD_DECIMAL) > 0) {
+			return MAX_PAYLOAD + 1;
+		}
+		return value.longValueExact();
+	}
+
+	private static long toDateTimeBound(XMLGregorianCalendar bound, boolean isLower) {
+		long millis;
+		if (bound.getTimezone() == DatatypeConstants.FIELD_UNDEFINED) {
+			// the value may be compared with any timezone
+			XMLGregorianCalendar utc = (XMLGregorianCalendar) bound.clone();
+			utc.setTimezone(0);
+			millis = utc.toGregorianCalendar().getTimeInMillis();
+			millis += isLower ? -MAX_TIMEZONE_MILLIS : MAX_TIMEZONE_MILLIS;
+		} else {
+			millis = bound.toGregorianCalendar().getTimeInMillis();
+		}
+		// fractions below milliseconds are truncated
+		millis += isLower ? -1 : 1;
+		return Math.max(MIN_PAYLOAD - 1, Math.min(MAX_PAYLOAD + 1, millis));
+	}
+}
@@ -38,6 +38,40 @@ class LmdbEvaluationStatistics extends EvaluationStatistics {
 		this.tripleStore = tripleStore;
 	}
 
+	@Override
+	public double getDistinctValueCount(StatementPattern sp, Var var) {
+		double cardinality = super.getDistinctValueCount(sp, var);
+		if (var.hasValue()) {
+			return cardinality;
+		}
+
+		// the per-predicate statistics only describe patterns with a constant predicate and nothing else bound
+		Value pred = sp.getPredicateVar().getValue();
+		if (!(pred instanceof IRI) || sp.getSubjectVar().hasValue() || sp.getObjectVar().hasValue()
+				|| sp.getContextVar() != null && sp.getContextVar().hasValue()) {
+			return cardinality;
+		}
+
+		try {
+			long predID = valueStore.getId(pred);
+			if (predID == LmdbValue.UNKNOWN_ID) {
+				return 0;
+			}
+			StatisticsStore.PredicateStatistics stats = tripleStore.getPredicateStatistics(predID);
+			if (stats == null) {
+				return cardinality;
+			}
+			if (var.equals(sp.getSubjectVar())) {
+				return Math.min(cardinality, stats.getDistinctSubjectCount());
+			} else if (var.equals(sp.getObjectVar())) {
+				return Math.min(cardinality, stats.getDistinctObjectCount());
+			}
+		} catch (IOException e) {
+			log.error("Failed to read predicate statistics, falling back to generic implementation", e);
+		}
+		return cardinality;
+	}
+
 	@Override
 	protected CardinalityCalculator createCardinalityCalculator() {
 		return new LmdbCardinalityCalculator();
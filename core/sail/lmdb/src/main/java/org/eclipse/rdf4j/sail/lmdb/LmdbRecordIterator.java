@@ -76,20 +76,77 @@ class LmdbRecordIterator implements RecordIterator {
 
 	private final Thread ownerThread = Thread.currentThread();
 
+	/**
+	 * The range of object IDs that are returned, only used if {@link #objRange} is set.
+	 */
+	private final long minObj, maxObj;
+
+	private final boolean objRange;
+
+	/**
+	 * The pattern, only used to compute the keys to {@link #seek(long)} to.
+	 */
+	private final long subj, pred, obj, context;
+
+	/**
+	 * The component that the records are sorted by, or -1 if this iterator does not support seeks.
+	 */
+	private final int sortComponent;
+
 	LmdbRecordIterator(Pool pool, TripleIndex index, boolean rangeSearch, long subj, long pred, long obj,
 			long context, boolean explicit, Txn txnRef) throws IOException {
+		this(pool, index, rangeSearch, subj, pred, obj, obj, context, explicit, txnRef, -1);
+	}
+
+	/**
+	 * Creates an iterator over the records matching the pattern that can be {@link #seek(long) repositioned} on the
+	 * given component, which must be the component that follows the bound components of the pattern in the index.
+	 */
+	LmdbRecordIterator(Pool pool, TripleIndex index, boolean rangeSearch, long subj, long pred, long obj,
+			long context, boolean explicit, Txn txnRef, int sortComponent) throws IOException {
+		this(pool, index, rangeSearch, subj, pred, obj, obj, context, explicit, txnRef, sortComponent);
+	}
+
+	/**
+	 * Creates an iterator over the records matching the pattern whose object ID lies between <var>minObj</var> and
+	 * <var>maxObj</var> (inclusive). If both are equal, the object is matched like any other component of the pattern.
+	 */
+	LmdbRecordIterator(Pool pool, TripleIndex index, boolean rangeSearch, long subj, long pred, long minObj,
+			long maxObj, long context, boolean explicit, Txn txnRef) throws IOException {
+		this(pool, index, rangeSearch, subj, pred, minObj, maxObj, context, explicit, txnRef, -1);
+	}
+
+	private LmdbRecordIterator(Pool pool, TripleIndex index, boolean rangeSearch, long subj, long pred, long minObj,
+			long maxObj, long context, boolean explicit, Txn txnRef, int sortComponent) throws IOException {
 		this.pool = pool;
 		this.keyData = pool.getVal();
 		this.valueData = pool.getVal();
 		this.index = index;
+		this.objRange = minObj != maxObj;
+		this.minObj = minObj;
+		this.maxObj = maxObj;
+		long obj = objRange ? -1 : minObj;
+		this.subj = subj;
+		this.pred = pred;
+		this.obj = obj;
+		this.context = context;
+		this.sortComponent = sortComponent;
 		if (rangeSearch) {
 			minKeyBuf = pool.getKeyBuffer();
-			index.getMinKey(minKeyBuf, subj, pred, obj, context);
+			if (objRange) {
+				index.getObjectRangeKey(minKeyBuf, subj, pred, minObj, context, false);
+			} else {
+				index.getMinKey(minKeyBuf, subj, pred, obj, context);
+			}
 			minKeyBuf.flip();
 
 			this.maxKey = pool.getVal();
 			this.maxKeyBuf = pool.getKeyBuffer();
-			index.getMaxKey(maxKeyBuf, subj, pred, obj, context);
+			if (objRange) {
+				index.getObjectRangeKey(maxKeyBuf, subj, pred, maxObj, context, true);
+			} else {
+				index.getMaxKey(maxKeyBuf, subj, pred, obj, context);
+			}
 			maxKeyBuf.flip();
 			this.maxKey.mv_data(maxKeyBuf);
 		} else {
@@ -176,6 +233,11 @@ class LmdbRecordIterator implements RecordIterator {
 				} else {
 					// Matching value found
 					index.keyToQuad(keyData.mv_data(), quad);
+					if (objRange && (quad[TripleStore.OBJ_IDX] < minObj || quad[TripleStore.OBJ_IDX] > maxObj)) {
+						// object is outside of the range, fetch next value
+						lastResult = mdb_cursor_get(cursor, keyData, valueData, MDB_NEXT);
+						continue;
+					}
 					// fetch next value
 					fetchNext = true;
 					return quad;
@@ -188,6 +250,37 @@ class LmdbRecordIterator implements RecordIterator {
 		}
 	}
 
+	/**
+	 * Repositions this iterator on the first record whose ID of the sort component is at least <var>id</var>, using
+	 * {@code MDB_SET_RANGE} on the key that consists of the bound components of the pattern followed by <var>id</var>.
+	 * The caller must make sure not to seek backwards, as records would then be returned again.
+	 *
+	 * @param id The ID of the sort component to skip ahead to.
+	 */
+	void seek(long id) {
+		if (sortComponent == -1) {
+			throw new IllegalStateException("Iterator is not sorted by a component");
+		}
+		if (closed) {
+			return;
+		}
+		long stamp = txnLock.readLock();
+		try {
+			if (minKeyBuf == null) {
+				minKeyBuf = pool.getKeyBuffer();
+			}
+			minKeyBuf.clear();
+			index.getMinKey(minKeyBuf, sortComponent == TripleStore.SUBJ_IDX ? id : subj,
+					sortComponent == TripleStore.PRED_IDX ? id : pred, sortComponent == TripleStore.OBJ_IDX ? id : obj,
+					sortComponent == TripleStore.CONTEXT_IDX ? id : context);
+			minKeyBuf.flip();
+			// the next call positions the cursor on the new minimum key
+			fetchNext = false;
+		} finally {
+			txnLock.unlockRead(stamp);
+		}
+	}
+
 	private void closeInternal(boolean maybeCalledAsync) {
 		if (!closed) {
 			long stamp;
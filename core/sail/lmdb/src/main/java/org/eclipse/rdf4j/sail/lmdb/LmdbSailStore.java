@@ -16,6 +16,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -25,7 +27,12 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+import org.eclipse.rdf4j.collection.factory.api.CollectionFactory;
+import org.eclipse.rdf4j.collection.factory.impl.DefaultCollectionFactory;
+import org.eclipse.rdf4j.collection.factory.primitive.LongArrayList;
+import org.eclipse.rdf4j.collection.factory.primitive.LongHashSet;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
 import org.eclipse.rdf4j.common.iteration.ConvertingIteration;
@@ -35,12 +42,15 @@ import org.eclipse.rdf4j.common.iteration.UnionIteration;
 import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.common.transaction.IsolationLevel;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.algebra.evaluation.SeekableStatementIteration;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.OrderedStatementIteration;
 import org.eclipse.rdf4j.sail.SailException;
 import org.eclipse.rdf4j.sail.base.BackingSailSource;
 import org.eclipse.rdf4j.sail.base.SailDataset;
@@ -60,10 +70,32 @@ class LmdbSailStore implements SailStore {
 
 	final Logger logger = LoggerFactory.getLogger(LmdbSailStore.class);
 
+	/**
+	 * The maximum number of distinct IDs of removed statements that are buffered in memory before they are added to the
+	 * persistent set of possibly unused IDs.
+	 */
+	private static final int MAX_BUFFERED_UNUSED_IDS = 1 << 20;
+
 	private final TripleStore tripleStore;
 
 	private final ValueStore valueStore;
 
+	/**
+	 * Shares disk syncs between concurrent commits, <code>null</code> if each commit syncs on its own.
+	 */
+	private final GroupCommit groupCommit;
+
+	/**
+	 * Whether datasets report the statement orders of the indexes, see {@link LmdbStoreConfig#setOrderedScans}.
+	 */
+	private final boolean orderedScans;
+
+	/**
+	 * Sequence number of the latest commit that the current thread has written without syncing, if group commits are
+	 * enabled.
+	 */
+	private final ThreadLocal<Long> unsyncedCommit = new ThreadLocal<>();
+
 	private final ExecutorService tripleStoreExecutor = Executors.newCachedThreadPool();
 	private final CircularBuffer<Operation> opQueue = new CircularBuffer<>(1024);
 	private volatile Throwable tripleStoreException;
@@ -74,6 +106,11 @@ class LmdbSailStore implements SailStore {
 
 	boolean enableMultiThreading = true;
 
+	/**
+	 * Provides the primitive collections for the IDs of removed statements.
+	 */
+	private final Supplier<CollectionFactory> collectionFactory;
+
 	private PersistentSetFactory<Long> setFactory;
 	private PersistentSet<Long> unusedIds, nextUnusedIds;
 
@@ -178,6 +215,16 @@ class LmdbSailStore implements SailStore {
 	 * Creates a new {@link LmdbSailStore}.
 	 */
 	public LmdbSailStore(File dataDir, LmdbStoreConfig config) throws IOException, SailException {
+		this(dataDir, config, DefaultCollectionFactory::new);
+	}
+
+	/**
+	 * Creates a new {@link LmdbSailStore} that takes the collections for its ID bookkeeping from the given factory.
+	 */
+	public LmdbSailStore(File dataDir, LmdbStoreConfig config, Supplier<CollectionFactory> collectionFactory)
+			throws IOException, SailException {
+		this.collectionFactory = collectionFactory;
+		this.orderedScans = config.getOrderedScans();
 		this.setFactory = new PersistentSetFactory<>(dataDir);
 		Function<Long, byte[]> encode = element -> {
 			ByteBuffer bb = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.BIG_ENDIAN);
@@ -192,6 +239,14 @@ class LmdbSailStore implements SailStore {
 			namespaceStore = new NamespaceStore(dataDir);
 			valueStore = new ValueStore(new File(dataDir, "values"), config);
 			tripleStore = new TripleStore(new File(dataDir, "triples"), config);
+			if (config.getForceSync() && config.getGroupCommit()) {
+				groupCommit = new GroupCommit(() -> {
+					tripleStore.sync();
+					valueStore.sync();
+				});
+			} else {
+				groupCommit = null;
+			}
 			initialized = true;
 		} finally {
 			if (!initialized) {
@@ -205,6 +260,10 @@ class LmdbSailStore implements SailStore {
 		return valueStore;
 	}
 
+	ValueStore getValueStore() {
+		return valueStore;
+	}
+
 	void rollback() throws SailException {
 		sinkStoreAccessLock.lock();
 		try {
@@ -276,6 +335,31 @@ class LmdbSailStore implements SailStore {
 		}
 	}
 
+	/**
+	 * Blocks until the transaction that the current thread has committed last is durable. Transactions are committed
+	 * without syncing if group commits are enabled, in which case the first caller syncs on behalf of all of them while
+	 * callers arriving in the meantime wait for the next sync. Returns immediately if group commits are disabled or if
+	 * the current thread has not written a commit since it last called this method, for example because its transaction
+	 * did not change anything.
+	 * <p>
+	 * A failed sync does not roll the transaction back: it has already been committed and is visible to readers, but
+	 * may be lost if the process or the system crashes before the next successful sync.
+	 *
+	 * @throws SailException if the sync that should have made the transaction durable failed
+	 */
+	void awaitDurableCommits() throws SailException {
+		Long sequence = unsyncedCommit.get();
+		if (groupCommit != null && sequence != null) {
+			unsyncedCommit.remove();
+			try {
+				groupCommit.awaitDurable(sequence);
+			} catch (IOException e) {
+				logger.error("Failed to sync committed transactions", e);
+				throw new SailException(e);
+			}
+		}
+	}
+
 	SailException wrapTripleStoreException() {
 		return tripleStoreException instanceof SailException ? (SailException) tripleStoreException
 				: new SailException(tripleStoreException);
@@ -347,6 +431,18 @@ class LmdbSailStore implements SailStore {
 	 */
 	CloseableIteration<? extends Statement> createStatementIterator(
 			Txn txn, Resource subj, IRI pred, Value obj, boolean explicit, Resource... contexts) throws IOException {
+		return createStatementIterator(txn, subj, pred, obj, null, explicit, contexts);
+	}
+
+	/**
+	 * Creates a statement iterator based on the supplied pattern, restricting inlined literal objects to the given
+	 * range of IDs. Objects that are stored in the value store are not restricted.
+	 *
+	 * @param inlinedObjRange The lowest and highest ID of inlined literals to return, or <tt>null</tt> to return all
+	 *                        objects that match <var>obj</var>.
+	 */
+	private CloseableIteration<? extends Statement> createStatementIterator(Txn txn, Resource subj, IRI pred,
+			Value obj, long[] inlinedObjRange, boolean explicit, Resource... contexts) throws IOException {
 		long subjID = LmdbValue.UNKNOWN_ID;
 		if (subj != null) {
 			subjID = valueStore.getId(subj);
@@ -392,8 +488,20 @@ class LmdbSailStore implements SailStore {
 		ArrayList<LmdbStatementIterator> perContextIterList = new ArrayList<>(contextIDList.size());
 
 		for (long contextID : contextIDList) {
-			RecordIterator records = tripleStore.getTriples(txn, subjID, predID, objID, contextID, explicit);
-			perContextIterList.add(new LmdbStatementIterator(records, valueStore));
+			if (inlinedObjRange == null) {
+				RecordIterator records = tripleStore.getTriples(txn, subjID, predID, objID, contextID, explicit);
+				perContextIterList.add(new LmdbStatementIterator(records, valueStore));
+			} else {
+				// all objects from the value store followed by the inlined literals within the range
+				RecordIterator records = tripleStore.getTriplesInRange(txn, subjID, predID, 0,
+						InlinedLiterals.INLINED_BIT - 1, contextID, explicit);
+				perContextIterList.add(new LmdbStatementIterator(records, valueStore));
+				if (inlinedObjRange[0] <= inlinedObjRange[1]) {
+					records = tripleStore.getTriplesInRange(txn, subjID, predID, inlinedObjRange[0],
+							inlinedObjRange[1], contextID, explicit);
+					perContextIterList.add(new LmdbStatementIterator(records, valueStore));
+				}
+			}
 		}
 
 		if (perContextIterList.size() == 1) {
@@ -403,6 +511,78 @@ class LmdbSailStore implements SailStore {
 		}
 	}
 
+	/**
+	 * Creates a statement iterator based on the supplied pattern that returns the statements ordered by the IDs of the
+	 * component selected by <var>statementOrder</var> and that supports seeking. If none of the indexes can return the
+	 * statements in this order, the matching statements are read and sorted in memory.
+	 */
+	private SeekableStatementIteration createSortedStatementIterator(Txn txn, StatementOrder statementOrder,
+			Resource subj, IRI pred, Value obj, boolean explicit, Resource... contexts) throws IOException {
+		if (contexts.length > 1) {
+			return sortStatements(txn, statementOrder, subj, pred, obj, explicit, contexts);
+		}
+
+		long[] ids = new long[4];
+		Value[] values = { subj, pred, obj, contexts.length == 0 ? null : contexts[0] };
+		for (int i = 0; i < ids.length; i++) {
+			if (values[i] == null) {
+				ids[i] = i == TripleStore.CONTEXT_IDX && contexts.length == 1 ? 0 : LmdbValue.UNKNOWN_ID;
+			} else {
+				ids[i] = valueStore.getId(values[i]);
+				if (ids[i] == LmdbValue.UNKNOWN_ID) {
+					return new OrderedStatementIteration(new EmptyIteration<>(), statementOrder,
+							valueStore::compareIds);
+				}
+			}
+		}
+
+		int component = getComponent(statementOrder);
+		LmdbRecordIterator records = tripleStore.getTriplesSorted(txn, ids[TripleStore.SUBJ_IDX],
+				ids[TripleStore.PRED_IDX], ids[TripleStore.OBJ_IDX], ids[TripleStore.CONTEXT_IDX], component,
+				explicit);
+		if (records == null) {
+			return sortStatements(txn, statementOrder, subj, pred, obj, explicit, contexts);
+		}
+		return new LmdbSeekableStatementIterator(records, valueStore, statementOrder, component);
+	}
+
+	/**
+	 * Reads the statements matching the pattern with an unordered scan and sorts them in memory, for orders that none
+	 * of the indexes can deliver. The query planner asks for orders without knowing the contexts of the query's
+	 * dataset, so such requests are expected.
+	 */
+	private SeekableStatementIteration sortStatements(Txn txn, StatementOrder statementOrder, Resource subj, IRI pred,
+			Value obj, boolean explicit, Resource... contexts) throws IOException {
+		List<Statement> statements = new ArrayList<>();
+		try (CloseableIteration<? extends Statement> iter = createStatementIterator(txn, subj, pred, obj, explicit,
+				contexts)) {
+			while (iter.hasNext()) {
+				statements.add(iter.next());
+			}
+		}
+		// the default graph has ID 0 and is ordered before all other contexts
+		Comparator<Value> comparator = Comparator.nullsFirst(valueStore::compareIds);
+		statements.sort((st1, st2) -> comparator.compare(OrderedStatementIteration.getValue(st1, statementOrder),
+				OrderedStatementIteration.getValue(st2, statementOrder)));
+		return new OrderedStatementIteration(new CloseableIteratorIteration<>(statements.iterator()), statementOrder,
+				comparator);
+	}
+
+	private static int getComponent(StatementOrder statementOrder) {
+		switch (statementOrder) {
+		case S:
+			return TripleStore.SUBJ_IDX;
+		case P:
+			return TripleStore.PRED_IDX;
+		case O:
+			return TripleStore.OBJ_IDX;
+		case C:
+			return TripleStore.CONTEXT_IDX;
+		default:
+			throw new IllegalArgumentException("Unknown statement order: " + statementOrder);
+		}
+	}
+
 	private final class LmdbSailSource extends BackingSailSource {
 
 		private final boolean explicit;
@@ -454,17 +634,32 @@ class LmdbSailStore implements SailStore {
 
 		protected void handleRemovedIdsInValueStore() throws IOException {
 			if (!unusedIds.isEmpty()) {
-				do {
-					valueStore.gcIds(unusedIds, nextUnusedIds);
-					unusedIds.clear();
-					if (!nextUnusedIds.isEmpty()) {
-						// swap sets
-						PersistentSet<Long> ids = unusedIds;
-						unusedIds = nextUnusedIds;
-						nextUnusedIds = ids;
-						filterUsedIdsInTripleStore();
-					}
-				} while (!unusedIds.isEmpty());
+				try (CollectionFactory cf = collectionFactory.get()) {
+					LongArrayList batch = new LongArrayList(Math.min(unusedIds.size(), MAX_BUFFERED_UNUSED_IDS));
+					LongHashSet nextIds = cf.createLongSet();
+					do {
+						// hand the IDs to the value store in bounded batches of primitive values, sorted so that its
+						// writes follow the key order
+						for (Iterator<Long> it = unusedIds.iterator(); it.hasNext();) {
+							batch.add(it.next());
+							if (batch.size() == MAX_BUFFERED_UNUSED_IDS || !it.hasNext()) {
+								batch.sort();
+								valueStore.gcIds(batch, nextIds);
+								batch.clear();
+								nextIds.forEach(id -> nextUnusedIds.add(id));
+								nextIds.clear();
+							}
+						}
+						unusedIds.clear();
+						if (!nextUnusedIds.isEmpty()) {
+							// swap sets
+							PersistentSet<Long> ids = unusedIds;
+							unusedIds = nextUnusedIds;
+							nextUnusedIds = ids;
+							filterUsedIdsInTripleStore();
+						}
+					} while (!unusedIds.isEmpty());
+				}
 			}
 		}
 
@@ -504,6 +699,9 @@ class LmdbSailStore implements SailStore {
 						valueStore.commit();
 						// do not set flag to false until _after_ commit is successfully completed.
 						storeTxnStarted.set(false);
+						if (groupCommit != null) {
+							unsyncedCommit.set(groupCommit.committed());
+						}
 					}
 				}
 			} catch (IOException e) {
@@ -763,15 +961,25 @@ class LmdbSailStore implements SailStore {
 		private long removeStatements(long subj, long pred, long obj, boolean explicit, long[] contexts)
 				throws IOException {
 			long[] removeCount = { 0 };
-			for (long contextId : contexts) {
-				tripleStore.removeTriplesByContext(subj, pred, obj, contextId, explicit, quad -> {
-					removeCount[0]++;
-					for (long id : quad) {
-						if (id != 0L) {
-							unusedIds.add(id);
+			// most IDs occur in many of the removed statements, collect them in a primitive set first to avoid
+			// boxing and writing each of them to the persistent set repeatedly
+			try (CollectionFactory cf = collectionFactory.get()) {
+				LongHashSet removedIds = cf.createLongSet();
+				for (long contextId : contexts) {
+					tripleStore.removeTriplesByContext(subj, pred, obj, contextId, explicit, quad -> {
+						removeCount[0]++;
+						for (long id : quad) {
+							if (id != 0L) {
+								removedIds.add(id);
+							}
 						}
-					}
-				});
+						if (removedIds.size() >= MAX_BUFFERED_UNUSED_IDS) {
+							removedIds.forEach(id -> unusedIds.add(id));
+							removedIds.clear();
+						}
+					});
+				}
+				removedIds.forEach(id -> unusedIds.add(id));
 			}
 			return removeCount[0];
 		}
@@ -940,20 +1148,60 @@ class LmdbSailStore implements SailStore {
 			}
 		}
 
+		@Override
+		public CloseableIteration<? extends Statement> getStatementsInRange(Resource subj, IRI pred,
+				Literal lowerBound, Literal upperBound, Resource... contexts) throws SailException {
+			long[] inlinedObjRange = valueStore.getInlinedIdRange(lowerBound, upperBound);
+			if (inlinedObjRange == null) {
+				return getStatements(subj, pred, null, contexts);
+			}
+			try {
+				return createStatementIterator(txn, subj, pred, null, inlinedObjRange, explicit, contexts);
+			} catch (IOException e) {
+				throw new SailException("Unable to get statements", e);
+			}
+		}
+
 		@Override
 		public CloseableIteration<? extends Statement> getStatements(StatementOrder statementOrder, Resource subj,
 				IRI pred, Value obj, Resource... contexts) throws SailException {
-			throw new UnsupportedOperationException("Not implemented yet");
+			return getSeekableStatements(statementOrder, subj, pred, obj, contexts);
+		}
+
+		@Override
+		public SeekableStatementIteration getSeekableStatements(StatementOrder statementOrder, Resource subj,
+				IRI pred, Value obj, Resource... contexts) throws SailException {
+			try {
+				return createSortedStatementIterator(txn, statementOrder, subj, pred, obj, explicit, contexts);
+			} catch (IOException e) {
+				throw new SailException("Unable to get statements", e);
+			}
 		}
 
 		@Override
 		public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
-			return Set.of();
+			if (!orderedScans || contexts.length > 1
+					|| contexts.length == 1 && contexts[0] != null && contexts[0].isTriple()) {
+				return Set.of();
+			}
+			// only whether a component is bound matters for the choice of index
+			long[] ids = { subj != null ? 1 : LmdbValue.UNKNOWN_ID, pred != null ? 1 : LmdbValue.UNKNOWN_ID,
+					obj != null ? 1 : LmdbValue.UNKNOWN_ID, contexts.length == 1 ? 0 : LmdbValue.UNKNOWN_ID };
+			EnumSet<StatementOrder> orders = EnumSet.noneOf(StatementOrder.class);
+			for (StatementOrder order : StatementOrder.values()) {
+				int component = getComponent(order);
+				if (ids[component] == LmdbValue.UNKNOWN_ID && tripleStore.getSortedIndex(ids[TripleStore.SUBJ_IDX],
+						ids[TripleStore.PRED_IDX], ids[TripleStore.OBJ_IDX], ids[TripleStore.CONTEXT_IDX],
+						component) != null) {
+					orders.add(order);
+				}
+			}
+			return orders;
 		}
 
 		@Override
 		public Comparator<Value> getComparator() {
-			return null;
+			return orderedScans ? valueStore::compareIds : null;
 		}
 	}
 }
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import org.eclipse.rdf4j.common.iteration.AbstractCloseableIteration;
+import org.eclipse.rdf4j.common.order.StatementOrder;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.algebra.evaluation.SeekableStatementIteration;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.lmdb.model.LmdbValue;
+
+/**
+ * A statement iterator over records that are sorted by the IDs of one component, which skips ahead by repositioning the
+ * index cursor instead of scanning the records in between. Values are ordered by their IDs, see
+ * {@link ValueStore#compareIds(Value, Value)}.
+ */
+class LmdbSeekableStatementIterator extends AbstractCloseableIteration<Statement>
+		implements SeekableStatementIteration {
+
+	private final LmdbRecordIterator recordIt;
+
+	private final ValueStore valueStore;
+
+	private final StatementOrder order;
+
+	private final int component;
+
+	private Statement next;
+
+	/**
+	 * The ID of the sort component of the last record that was read.
+	 */
+	private long lastId = -1;
+
+	LmdbSeekableStatementIterator(LmdbRecordIterator recordIt, ValueStore valueStore, StatementOrder order,
+			int component) {
+		this.recordIt = recordIt;
+		this.valueStore = valueStore;
+		this.order = order;
+		this.component = component;
+	}
+
+	@Override
+	public StatementOrder getStatementOrder() {
+		return order;
+	}
+
+	@Override
+	public void seek(Value key) throws SailException {
+		if (isClosed()) {
+			return;
+		}
+		long id;
+		try {
+			id = valueStore.getId(key);
+		} catch (IOException e) {
+			throw new SailException(e);
+		}
+		if (id == LmdbValue.UNKNOWN_ID || id <= lastId) {
+			// values that are not in the store are ordered before all others, and all remaining records have an ID
+			// of at least the last one that was read
+			return;
+		}
+		next = null;
+		recordIt.seek(id);
+	}
+
+	@Override
+	public boolean hasNext() throws SailException {
+		if (next != null) {
+			return true;
+		}
+		if (isClosed()) {
+			return false;
+		}
+		long[] quad = recordIt.next();
+		if (quad == null) {
+			close();
+			return false;
+		}
+		lastId = quad[component];
+		next = createStatement(quad);
+		return true;
+	}
+
+	@Override
+	public Statement next() throws SailException {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Statement result = next;
+		next = null;
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private Statement createStatement(long[] quad) throws SailException {
+		try {
+			Resource subj = (Resource) valueStore.getLazyValue(quad[TripleStore.SUBJ_IDX]);
+			IRI pred = (IRI) valueStore.getLazyValue(quad[TripleStore.PRED_IDX]);
+			Value obj = valueStore.getLazyValue(quad[TripleStore.OBJ_IDX]);
+			Resource context = null;
+			long contextID = quad[TripleStore.CONTEXT_IDX];
+			if (contextID != 0) {
+				context = (Resource) valueStore.getLazyValue(contextID);
+			}
+			return valueStore.createStatement(subj, pred, obj, context);
+		} catch (IOException e) {
+			throw new SailException(e);
+		}
+	}
+
+	@Override
+	protected void handleClose() throws SailException {
+		next = null;
+		recordIt.close();
+	}
+}
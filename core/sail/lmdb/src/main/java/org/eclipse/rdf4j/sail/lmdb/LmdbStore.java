@@ -250,12 +250,12 @@ public class LmdbStore extends AbstractNotifyingSail implements FederatedService
 			if (!VERSION.equals(version) && upgradeStore(dataDir, version)) {
 				FileUtils.writeStringToFile(versionFile, VERSION, StandardCharsets.UTF_8);
 			}
-			backingStore = new LmdbSailStore(dataDir, config);
+			backingStore = new LmdbSailStore(dataDir, config, getCollectionFactory());
 			this.store = new SnapshotSailStore(backingStore, () -> new MemoryOverflowModel(false) {
 				@Override
 				protected LmdbSailStore createSailStore(File dataDir) throws IOException, SailException {
 					// Model can't fit into memory, use another LmdbSailStore to store delta
-					LmdbSailStore lmdbSailStore = new LmdbSailStore(dataDir, config);
+					LmdbSailStore lmdbSailStore = new LmdbSailStore(dataDir, config, getCollectionFactory());
 					lmdbSailStore.enableMultiThreading = false;
 					return lmdbSailStore;
 				}
@@ -399,6 +399,27 @@ public class LmdbStore extends AbstractNotifyingSail implements FederatedService
 		return backingStore;
 	}
 
+	/**
+	 * Returns the number of value lookups by ID that were answered by the value cache since the store was initialized.
+	 *
+	 * @return the number of value cache hits, or 0 if the store is not initialized.
+	 */
+	public long getValueCacheHitCount() {
+		LmdbSailStore backingStore = this.backingStore;
+		return backingStore == null ? 0 : backingStore.getValueStore().getValueCache().getHitCount();
+	}
+
+	/**
+	 * Returns the number of value lookups by ID that were not answered by the value cache since the store was
+	 * initialized.
+	 *
+	 * @return the number of value cache misses, or 0 if the store is not initialized.
+	 */
+	public long getValueCacheMissCount() {
+		LmdbSailStore backingStore = this.backingStore;
+		return backingStore == null ? 0 : backingStore.getValueStore().getValueCache().getMissCount();
+	}
+
 	private boolean upgradeStore(File dataDir, String version) throws SailException {
 		// nothing to do, just update version number
 		return true;
@@ -95,10 +95,16 @@ public class LmdbStoreConnection extends SailSourceConnection {
 			}
 		}
 
-		lmdbStore.notifySailChanged(sailChangedEvent);
+		try {
+			// wait outside of any lock so that the sync can be shared with concurrently committing connections
+			lmdbStore.getBackingStore().awaitDurableCommits();
+		} finally {
+			// the transaction is committed and visible to readers even if the sync failed
+			lmdbStore.notifySailChanged(sailChangedEvent);
 
-		// create a fresh event object.
-		sailChangedEvent = new DefaultSailChangedEvent(lmdbStore);
+			// create a fresh event object.
+			sailChangedEvent = new DefaultSailChangedEvent(lmdbStore);
+		}
 	}
 
 	@Override
@@ -0,0 +1,507 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.E;
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.openDatabase;
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.readTransaction;
+import static org.lwjgl.util.lmdb.LMDB.MDB_CREATE;
+import static org.lwjgl.util.lmdb.LMDB.MDB_FIRST;
+import static org.lwjgl.util.lmdb.LMDB.MDB_NEXT;
+import static org.lwjgl.util.lmdb.LMDB.MDB_SUCCESS;
+import static org.lwjgl.util.lmdb.LMDB.mdb_cursor_close;
+import static org.lwjgl.util.lmdb.LMDB.mdb_cursor_get;
+import static org.lwjgl.util.lmdb.LMDB.mdb_cursor_open;
+import static org.lwjgl.util.lmdb.LMDB.mdb_get;
+import static org.lwjgl.util.lmdb.LMDB.mdb_put;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.rdf4j.sail.lmdb.TripleStore.TripleIndex;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.util.lmdb.MDBVal;
+
+/**
+ * Persistent statistics about the statements of a {@link TripleStore}. For each predicate, the number of statements,
+ * sketches of the number of distinct subjects and objects, and the most frequent objects are stored in a database of
+ * the triple store's environment. The statistics are updated within the write transaction of the triple store, so that
+ * cardinalities can be estimated without sampling the indexes.
+ */
+class StatisticsStore {
+
+	private static final String DB_NAME = "statistics";
+
+	/**
+	 * The key of the record that marks the statistics as complete. Predicate IDs are always larger than <tt>0</tt>.
+	 */
+	private static final long VERSION_KEY = 0;
+
+	private static final long VERSION = 1;
+
+	/**
+	 * The number of bits of a hash that select a register of a distinct value sketch.
+	 */
+	private static final int PRECISION = 8;
+
+	private static final int REGISTERS = 1 << PRECISION;
+
+	/**
+	 * The number of most frequent objects that are tracked per predicate.
+	 */
+	static final int HEAVY_HITTERS = 16;
+
+	private static final int MAX_RECORD_LENGTH = 9 + 2 * REGISTERS + 9 + HEAVY_HITTERS * 2 * 9;
+
+	private final long env;
+
+	private final int dbi;
+
+	private final TxnManager txnManager;
+
+	/**
+	 * The statistics that were changed by the current write transaction.
+	 */
+	private final Map<Long, PredicateStatistics> changed = new HashMap<>();
+
+	/**
+	 * Committed statistics that have been read before; the instances are never modified.
+	 */
+	private final Map<Long, PredicateStatistics> committed = new ConcurrentHashMap<>();
+
+	private volatile boolean initialized;
+
+	StatisticsStore(long env, TxnManager txnManager) throws IOException {
+		this.env = env;
+		this.txnManager = txnManager;
+		this.dbi = openDatabase(env, DB_NAME, MDB_CREATE, null);
+		this.initialized = readTransaction(env, (stack, txn) -> {
+			MDBVal keyVal = MDBVal.calloc(stack);
+			keyVal.mv_data(toKey(stack, VERSION_KEY));
+			MDBVal dataVal = MDBVal.calloc(stack);
+			return mdb_get(txn, dbi, keyVal, dataVal) == MDB_SUCCESS;
+		});
+	}
+
+	/**
+	 * Returns whether the statistics describe all statements of the store. Stores that were created before the
+	 * statistics were introduced have no statistics until they are {@link #rebuild rebuilt}.
+	 */
+	boolean isInitialized() {
+		return initialized;
+	}
+
+	/**
+	 * Computes the statistics from scratch by scanning the explicit and inferred statements of an index in the given
+	 * transaction. Nothing is changed until the result is passed to {@link #write(long, Map)} and, once that is
+	 * committed, to {@link #initialize(Map)}.
+	 *
+	 * @throws InterruptedIOException if the current thread is interrupted during the scan
+	 */
+	Map<Long, PredicateStatistics> rebuild(long txn, TripleIndex index) throws IOException {
+		Map<Long, PredicateStatistics> rebuilt = new HashMap<>();
+		try (MemoryStack stack = MemoryStack.stackPush()) {
+			PointerBuffer pp = stack.mallocPointer(1);
+			MDBVal keyVal = MDBVal.calloc(stack);
+			MDBVal dataVal = MDBVal.calloc(stack);
+			long[] quad = new long[4];
+			for (boolean explicit : new boolean[] { true, false }) {
+				E(mdb_cursor_open(txn, index.getDB(explicit), pp));
+				long cursor = pp.get(0);
+				try {
+					int rc = mdb_cursor_get(cursor, keyVal, dataVal, MDB_FIRST);
+					while (rc == MDB_SUCCESS) {
+						if (Thread.currentThread().isInterrupted()) {
+							throw new InterruptedIOException("Computing statistics was interrupted");
+						}
+						index.keyToQuad(keyVal.mv_data(), quad);
+						rebuilt.computeIfAbsent(quad[TripleStore.PRED_IDX], pred -> new PredicateStatistics())
+								.add(quad[TripleStore.SUBJ_IDX], quad[TripleStore.OBJ_IDX]);
+						rc = mdb_cursor_get(cursor, keyVal, dataVal, MDB_NEXT);
+					}
+				} finally {
+					mdb_cursor_close(cursor);
+				}
+			}
+		}
+		return rebuilt;
+	}
+
+	/**
+	 * Makes statistics that were {@link #rebuild rebuilt} and committed visible to readers, and starts updating them
+	 * with the changes of later write transactions.
+	 */
+	void initialize(Map<Long, PredicateStatistics> rebuilt) {
+		committed.putAll(rebuilt);
+		initialized = true;
+	}
+
+	/**
+	 * Records a statement that was added in the given write transaction.
+	 */
+	void add(long txn, long subj, long pred, long obj) throws IOException {
+		if (initialized) {
+			getForUpdate(txn, pred).add(subj, obj);
+		}
+	}
+
+	/**
+	 * Records a statement that was removed in the given write transaction.
+	 */
+	void remove(long txn, long subj, long pred, long obj) throws IOException {
+		if (initialized) {
+			getForUpdate(txn, pred).remove(obj);
+		}
+	}
+
+	private PredicateStatistics getForUpdate(long txn, long pred) throws IOException {
+		PredicateStatistics stats = changed.get(pred);
+		if (stats == null) {
+			PredicateStatistics current = committed.get(pred);
+			if (current == null) {
+				current = readTransaction(env, txn, (stack, t) -> read(stack, t, pred));
+			}
+			stats = current.copy();
+			changed.put(pred, stats);
+		}
+		return stats;
+	}
+
+	/**
+	 * Returns an upper bound of the space that {@link #write(long)} needs in the map, assuming that pages are only half
+	 * full.
+	 */
+	long getWriteSize() {
+		if (!initialized) {
+			return 0;
+		}
+		return getWriteSize(changed.size());
+	}
+
+	/**
+	 * Returns an upper bound of the space that writing the statistics of the given number of predicates needs in the
+	 * map, assuming that pages are only half full.
+	 */
+	static long getWriteSize(int predicates) {
+		// key, record and node header of about 16 bytes for every predicate and the version record
+		return 2L * (predicates + 1) * (9 + MAX_RECORD_LENGTH + 16);
+	}
+
+	/**
+	 * Writes the changed statistics to the given write transaction. This has to be done before the transaction is
+	 * committed; it may be repeated if the transaction is committed in several steps.
+	 */
+	void write(long txn) throws IOException {
+		if (initialized) {
+			write(txn, changed);
+		}
+	}
+
+	/**
+	 * Writes the given statistics and marks the statistics as complete in the given write transaction.
+	 */
+	void write(long txn, Map<Long, PredicateStatistics> stats) throws IOException {
+		try (MemoryStack stack = MemoryStack.stackPush()) {
+			MDBVal keyVal = MDBVal.calloc(stack);
+			MDBVal dataVal = MDBVal.calloc(stack);
+			ByteBuffer dataBuf = stack.malloc(MAX_RECORD_LENGTH);
+			for (Map.Entry<Long, PredicateStatistics> entry : stats.entrySet()) {
+				stack.push();
+				try {
+					keyVal.mv_data(toKey(stack, entry.getKey()));
+					dataBuf.clear();
+					entry.getValue().write(dataBuf);
+					dataBuf.flip();
+					dataVal.mv_data(dataBuf);
+					E(mdb_put(txn, dbi, keyVal, dataVal, 0));
+				} finally {
+					stack.pop();
+				}
+			}
+			keyVal.mv_data(toKey(stack, VERSION_KEY));
+			dataBuf.clear();
+			Varint.writeUnsigned(dataBuf, VERSION);
+			dataBuf.flip();
+			dataVal.mv_data(dataBuf);
+			E(mdb_put(txn, dbi, keyVal, dataVal, 0));
+		}
+	}
+
+	/**
+	 * Makes the changes of the current write transaction visible to readers after it was committed.
+	 */
+	void commit() {
+		committed.putAll(changed);
+		changed.clear();
+	}
+
+	/**
+	 * Discards the changes of the current write transaction. Does nothing if they were already committed.
+	 */
+	void rollback() {
+		// parts of the changes may have been committed when the map was resized during the commit, so the cache is
+		// reloaded
+		for (Long pred : changed.keySet()) {
+			committed.remove(pred);
+		}
+		changed.clear();
+	}
+
+	/**
+	 * Returns the committed statistics for a predicate.
+	 *
+	 * @return the statistics or <tt>null</tt> if no statistics are available
+	 */
+	PredicateStatistics get(long pred) throws IOException {
+		if (!initialized) {
+			return null;
+		}
+		PredicateStatistics stats = committed.get(pred);
+		if (stats == null) {
+			stats = txnManager.doWith((stack, txn) -> read(stack, txn, pred));
+			// keep a version that was published by a concurrent commit
+			PredicateStatistics existing = committed.putIfAbsent(pred, stats);
+			if (existing != null) {
+				stats = existing;
+			}
+		}
+		return stats;
+	}
+
+	private PredicateStatistics read(MemoryStack stack, long txn, long pred) throws IOException {
+		MDBVal keyVal = MDBVal.calloc(stack);
+		keyVal.mv_data(toKey(stack, pred));
+		MDBVal dataVal = MDBVal.calloc(stack);
+		if (mdb_get(txn, dbi, keyVal, dataVal) == MDB_SUCCESS) {
+			return PredicateStatistics.read(dataVal.mv_data());
+		}
+		return new PredicateStatistics();
+	}
+
+	private static ByteBuffer toKey(MemoryStack stack, long id) {
+		ByteBuffer bb = stack.malloc(Varint.calcLengthUnsigned(id));
+		Varint.writeUnsigned(bb, id);
+		return bb.flip();
+	}
+
+	/**
+	 * Statistics about the statements with a specific predicate. The number of distinct subjects and objects is
+	 * estimated with HyperLogLog sketches, the most frequent objects are tracked with the Space-Saving algorithm.
+	 * Removing statements does not shrink the sketches, so the distinct counts are upper bounds until all statements
+	 * with the predicate have been removed.
+	 */
+	static final class PredicateStatistics {
+
+		private long count;
+
+		private final byte[] subjects;
+
+		private final byte[] objects;
+
+		private final long[] objectIds;
+
+		private final long[] objectCounts;
+
+		private int heavyHitters;
+
+		PredicateStatistics() {
+			this(0, new byte[REGISTERS], new byte[REGISTERS], new long[HEAVY_HITTERS], new long[HEAVY_HITTERS], 0);
+		}
+
+		private PredicateStatistics(long count, byte[] subjects, byte[] objects, long[] objectIds, long[] objectCounts,
+				int heavyHitters) {
+			this.count = count;
+			this.subjects = subjects;
+			this.objects = objects;
+			this.objectIds = objectIds;
+			this.objectCounts = objectCounts;
+			this.heavyHitters = heavyHitters;
+		}
+
+		PredicateStatistics copy() {
+			return new PredicateStatistics(count, subjects.clone(), objects.clone(), objectIds.clone(),
+					objectCounts.clone(), heavyHitters);
+		}
+
+		void add(long subj, long obj) {
+			count++;
+			addToSketch(subjects, subj);
+			addToSketch(objects, obj);
+
+			int i = indexOf(obj);
+			if (i >= 0) {
+				objectCounts[i]++;
+			} else if (heavyHitters < HEAVY_HITTERS) {
+				objectIds[heavyHitters] = obj;
+				objectCounts[heavyHitters++] = 1;
+			} else {
+				// replace the least frequent object, which inherits its count as error bound
+				int min = indexOfMin();
+				objectIds[min] = obj;
+				objectCounts[min]++;
+			}
+		}
+
+		void remove(long obj) {
+			if (--count <= 0) {
+				count = 0;
+				Arrays.fill(subjects, (byte) 0);
+				Arrays.fill(objects, (byte) 0);
+				heavyHitters = 0;
+				return;
+			}
+			int i = indexOf(obj);
+			if (i >= 0 && objectCounts[i] > 0) {
+				objectCounts[i]--;
+			}
+		}
+
+		/**
+		 * @return the number of statements with the predicate
+		 */
+		long getCount() {
+			return count;
+		}
+
+		double getDistinctSubjectCount() {
+			return Math.min(count, estimate(subjects));
+		}
+
+		double getDistinctObjectCount() {
+			return Math.min(count, estimate(objects));
+		}
+
+		/**
+		 * @return the estimated number of statements with the predicate and a specific subject
+		 */
+		double getSubjectCardinality() {
+			if (count == 0) {
+				return 0;
+			}
+			return count / Math.max(1, getDistinctSubjectCount());
+		}
+
+		/**
+		 * @return the estimated number of statements with the predicate and the given object
+		 */
+		double getObjectCardinality(long obj) {
+			if (count == 0) {
+				return 0;
+			}
+			int i = indexOf(obj);
+			if (i >= 0) {
+				return Math.min(count, objectCounts[i]);
+			}
+			if (heavyHitters < HEAVY_HITTERS) {
+				// no object was ever evicted, so every object of the predicate is tracked
+				return 0;
+			}
+			long tracked = 0;
+			for (int j = 0; j < heavyHitters; j++) {
+				tracked += objectCounts[j];
+			}
+			// the frequent objects are excluded from the average, an untracked object is not more frequent than any
+			// tracked object
+			double average = Math.max(0, count - tracked)
+					/ Math.max(1, getDistinctObjectCount() - heavyHitters);
+			return Math.max(1, Math.min(average, objectCounts[indexOfMin()]));
+		}
+
+		private int indexOf(long obj) {
+			for (int i = 0; i < heavyHitters; i++) {
+				if (objectIds[i] == obj) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private int indexOfMin() {
+			int min = 0;
+			for (int i = 1; i < heavyHitters; i++) {
+				if (objectCounts[i] < objectCounts[min]) {
+					min = i;
+				}
+			}
+			return min;
+		}
+
+		void write(ByteBuffer bb) {
+			Varint.writeUnsigned(bb, count);
+			bb.put(subjects);
+			bb.put(objects);
+			Varint.writeUnsigned(bb, heavyHitters);
+			for (int i = 0; i < heavyHitters; i++) {
+				Varint.writeUnsigned(bb, objectIds[i]);
+				Varint.writeUnsigned(bb, objectCounts[i]);
+			}
+		}
+
+		static PredicateStatistics read(ByteBuffer bb) {
+			PredicateStatistics stats = new PredicateStatistics();
+			stats.count = Varint.readUnsigned(bb);
+			bb.get(stats.subjects);
+			bb.get(stats.objects);
+			stats.heavyHitters = (int) Varint.readUnsigned(bb);
+			for (int i = 0; i < stats.heavyHitters; i++) {
+				stats.objectIds[i] = Varint.readUnsigned(bb);
+				stats.objectCounts[i] = Varint.readUnsigned(bb);
+			}
+			return stats;
+		}
+
+		private static void addToSketch(byte[] registers, long id) {
+			long hash = hash(id);
+			int register = (int) (hash >>> (Long.SIZE - PRECISION));
+			// the set bit limits the rank if all remaining bits are zero
+			long remaining = (hash << PRECISION) | (1L << (PRECISION - 1));
+			byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+			if (registers[register] < rank) {
+				registers[register] = rank;
+			}
+		}
+
+		private static double estimate(byte[] registers) {
+			double sum = 0;
+			int zeros = 0;
+			for (byte rank : registers) {
+				sum += Math.scalb(1.0, -rank);
+				if (rank == 0) {
+					zeros++;
+				}
+			}
+			double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+			double estimate = alpha * REGISTERS * REGISTERS / sum;
+			if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+				// linear counting is more precise for small cardinalities
+				estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+			}
+			return estimate;
+		}
+
+		private static long hash(long id) {
+			// finalization mix of MurmurHash3, consecutive IDs are spread over all registers
+			long h = id;
+			h ^= h >>> 33;
+			h *= 0xff51afd7ed558ccdL;
+			h ^= h >>> 33;
+			h *= 0xc4ceb9fe1a85ec53L;
+			h ^= h >>> 33;
+			return h;
+		}
+	}
+}
@@ -18,6 +18,7 @@ import static org.eclipse.rdf4j.sail.lmdb.Varint.readListUnsigned;
 import static org.eclipse.rdf4j.sail.lmdb.Varint.writeUnsigned;
 import static org.lwjgl.system.MemoryStack.stackPush;
 import static org.lwjgl.system.MemoryUtil.NULL;
+import static org.lwjgl.util.lmdb.LMDB.MDB_APPEND;
 import static org.lwjgl.util.lmdb.LMDB.MDB_CREATE;
 import static org.lwjgl.util.lmdb.LMDB.MDB_FIRST;
 import static org.lwjgl.util.lmdb.LMDB.MDB_KEYEXIST;
@@ -35,6 +36,7 @@ import static org.lwjgl.util.lmdb.LMDB.mdb_cmp;
 import static org.lwjgl.util.lmdb.LMDB.mdb_cursor_close;
 import static org.lwjgl.util.lmdb.LMDB.mdb_cursor_get;
 import static org.lwjgl.util.lmdb.LMDB.mdb_cursor_open;
+import static org.lwjgl.util.lmdb.LMDB.mdb_cursor_put;
 import static org.lwjgl.util.lmdb.LMDB.mdb_dbi_close;
 import static org.lwjgl.util.lmdb.LMDB.mdb_dbi_open;
 import static org.lwjgl.util.lmdb.LMDB.mdb_del;
@@ -46,6 +48,7 @@ import static org.lwjgl.util.lmdb.LMDB.mdb_env_open;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_mapsize;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_maxdbs;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_maxreaders;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_sync;
 import static org.lwjgl.util.lmdb.LMDB.mdb_get;
 import static org.lwjgl.util.lmdb.LMDB.mdb_put;
 import static org.lwjgl.util.lmdb.LMDB.mdb_stat;
@@ -60,6 +63,7 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
@@ -75,6 +79,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Consumer;
 
@@ -158,6 +163,11 @@ class TripleStore implements Closeable {
 	private int contextsDbi;
 	private int pageSize;
 	private final boolean forceSync;
+
+	/**
+	 * Whether commits are left unsynced and made durable by an explicit {@link #sync()} shared by several commits.
+	 */
+	private final boolean groupCommit;
 	private final boolean autoGrow;
 	private long mapSize;
 	private long writeTxn;
@@ -166,6 +176,29 @@ class TripleStore implements Closeable {
 
 	private TxnRecordCache recordCache = null;
 
+	/**
+	 * Per-predicate statistics that are used to estimate cardinalities.
+	 */
+	private final StatisticsStore statistics;
+
+	/**
+	 * Computes the statistics in the background if the store was created before statistics were maintained,
+	 * <tt>null</tt> otherwise.
+	 */
+	private final Thread statisticsBuilder;
+
+	/**
+	 * Held by the write transaction of the store, and by the {@link #statisticsBuilder} while it computes and writes
+	 * the statistics, so that no statements are changed meanwhile.
+	 */
+	private final Semaphore writePermit = new Semaphore(1);
+
+	/**
+	 * Buffers explicit statements in bulk load mode until they are written to the indexes in sorted order,
+	 * <tt>null</tt> if bulk load mode is disabled.
+	 */
+	private final BulkLoadBuffer bulkLoadBuffer;
+
 	static final Comparator<ByteBuffer> COMPARATOR = new Comparator<ByteBuffer>() {
 		@Override
 		public int compare(ByteBuffer b1, ByteBuffer b2) {
@@ -190,6 +223,7 @@ class TripleStore implements Closeable {
 	TripleStore(File dir, LmdbStoreConfig config) throws IOException, SailException {
 		this.dir = dir;
 		this.forceSync = config.getForceSync();
+		this.groupCommit = forceSync && config.getGroupCommit();
 		this.autoGrow = config.getAutoGrow();
 
 		// create directory if it not exists
@@ -201,12 +235,12 @@ class TripleStore implements Closeable {
 			env = pp.get(0);
 		}
 
-		E(mdb_env_set_maxdbs(env, 12));
+		E(mdb_env_set_maxdbs(env, 16));
 		E(mdb_env_set_maxreaders(env, 256));
 
 		// Open environment
 		int flags = MDB_NOTLS;
-		if (!forceSync) {
+		if (!forceSync || groupCommit) {
 			flags |= MDB_NOSYNC | MDB_NOMETASYNC;
 		}
 		E(mdb_env_open(env, this.dir.getAbsolutePath(), flags, 0664));
@@ -265,6 +299,107 @@ class TripleStore implements Closeable {
 			properties.setProperty(INDEXES_KEY, indexSpecStr);
 			storeProperties(propFile);
 		}
+
+		if (config.getBulkLoad()) {
+			int[][] indexMaps = new int[indexes.size()][];
+			for (int i = 0; i < indexMaps.length; i++) {
+				indexMaps[i] = indexes.get(i).indexMap;
+			}
+			bulkLoadBuffer = new BulkLoadBuffer(this.dir, indexMaps, BulkLoadBuffer.DEFAULT_CHUNK_SIZE);
+		} else {
+			bulkLoadBuffer = null;
+		}
+
+		statistics = new StatisticsStore(env, txnManager);
+		if (!statistics.isInitialized()) {
+			statisticsBuilder = new Thread(this::buildStatistics, "rdf4j-lmdb-statistics");
+			statisticsBuilder.setDaemon(true);
+			statisticsBuilder.start();
+		} else {
+			statisticsBuilder = null;
+		}
+	}
+
+	/**
+	 * Computes the statistics of a store that was created before statistics were maintained. This scans all statements,
+	 * so it runs in the background; writes wait until it has finished, reads estimate cardinalities by sampling the
+	 * indexes meanwhile. The store remains usable without statistics if they can not be computed, in which case they
+	 * are computed again when the store is opened the next time.
+	 */
+	private void buildStatistics() {
+		try {
+			writePermit.acquire();
+		} catch (InterruptedException e) {
+			// the store is closed
+			return;
+		}
+		try {
+			logger.debug("Computing statistics for triple store in {}", dir);
+			Map<Long, StatisticsStore.PredicateStatistics> rebuilt = readTransaction(env,
+					(stack, txn) -> statistics.rebuild(txn, indexes.get(0)));
+			long requiredSize = StatisticsStore.getWriteSize(rebuilt.size());
+
+			long txn = beginWriteTxn();
+			try {
+				if (autoGrow && LmdbUtil.requiresResize(mapSize, pageSize, txn, requiredSize)) {
+					// the map size can only be changed if no transaction is active
+					long newSize = LmdbUtil.getNewSize(pageSize, txn, requiredSize);
+					mdb_txn_abort(txn);
+					txn = 0;
+					StampedLock lock = txnManager.lock();
+					long stamp = lock.writeLock();
+					try {
+						txnManager.deactivate();
+						mapSize = LmdbUtil.autoGrowMapSize(mapSize, pageSize, newSize);
+						E(mdb_env_set_mapsize(env, mapSize));
+						logger.debug("resized map to {}", mapSize);
+					} finally {
+						try {
+							txnManager.activate();
+						} finally {
+							lock.unlockWrite(stamp);
+						}
+					}
+					txn = beginWriteTxn();
+				}
+				statistics.write(txn, rebuilt);
+				int rc = mdb_txn_commit(txn);
+				txn = 0;
+				E(rc);
+			} finally {
+				if (txn != 0) {
+					mdb_txn_abort(txn);
+				}
+			}
+			statistics.initialize(rebuilt);
+			logger.debug("Computed statistics for triple store in {}", dir);
+		} catch (IOException | RuntimeException e) {
+			if (Thread.currentThread().isInterrupted()) {
+				logger.debug("Computing statistics was interrupted by closing the store", e);
+			} else {
+				logger.warn("Failed to compute statistics, cardinalities are estimated by sampling the indexes", e);
+			}
+		} finally {
+			writePermit.release();
+		}
+	}
+
+	/**
+	 * Waits until the statistics of a store that was created before statistics were maintained have been computed,
+	 * or until computing them has failed.
+	 */
+	void awaitStatistics() throws InterruptedException {
+		if (statisticsBuilder != null) {
+			statisticsBuilder.join();
+		}
+	}
+
+	private long beginWriteTxn() throws IOException {
+		try (MemoryStack stack = stackPush()) {
+			PointerBuffer pp = stack.mallocPointer(1);
+			E(mdb_txn_begin(env, NULL, 0, pp));
+			return pp.get(0);
+		}
 	}
 
 	private void checkVersion() throws SailException {
@@ -451,7 +586,25 @@ class TripleStore implements Closeable {
 	@Override
 	public void close() throws IOException {
 		if (env != 0) {
+			if (statisticsBuilder != null) {
+				// the environment must not be closed while the statistics are computed
+				statisticsBuilder.interrupt();
+				boolean interrupted = false;
+				while (statisticsBuilder.isAlive()) {
+					try {
+						statisticsBuilder.join();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
 			endTransaction(false);
+			if (groupCommit) {
+				sync();
+			}
 
 			List<Throwable> caughtExceptions = new ArrayList<>();
 			for (TripleIndex index : indexes) {
@@ -507,6 +660,53 @@ class TripleStore implements Closeable {
 		return getTriplesUsingIndex(txn, subj, pred, obj, context, explicit, index, doRangeSearch);
 	}
 
+	/**
+	 * Returns the triples matching the pattern sorted by the IDs of the given component, or <tt>null</tt> if no index
+	 * lists them in that order. The returned iterator can be {@link LmdbRecordIterator#seek(long) repositioned} on a
+	 * given ID of that component.
+	 *
+	 * @param component The component to sort by, one of {@link #SUBJ_IDX}, {@link #PRED_IDX}, {@link #OBJ_IDX} and
+	 *                  {@link #CONTEXT_IDX}. It must not be bound in the pattern.
+	 */
+	public LmdbRecordIterator getTriplesSorted(Txn txn, long subj, long pred, long obj, long context, int component,
+			boolean explicit) throws IOException {
+		TripleIndex index = getSortedIndex(subj, pred, obj, context, component);
+		if (index == null) {
+			return null;
+		}
+		boolean doRangeSearch = index.getPatternScore(subj, pred, obj, context) > 0;
+		return new LmdbRecordIterator(pool, index, doRangeSearch, subj, pred, obj, context, explicit, txn, component);
+	}
+
+	/**
+	 * Returns an index that lists the triples matching the pattern sorted by the given component. This is the case for
+	 * an index that starts with the bound components of the pattern, in any order, followed by the sorted component.
+	 *
+	 * @return The index, or <tt>null</tt> if there is no such index.
+	 */
+	TripleIndex getSortedIndex(long subj, long pred, long obj, long context, int component) {
+		int bound = (subj >= 0 ? 1 : 0) + (pred >= 0 ? 1 : 0) + (obj >= 0 ? 1 : 0) + (context >= 0 ? 1 : 0);
+		for (TripleIndex index : indexes) {
+			int score = index.getPatternScore(subj, pred, obj, context);
+			if (score == bound && score < index.indexMap.length && index.indexMap[score] == component) {
+				return index;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the triples matching the pattern whose object ID lies between <var>minObj</var> and <var>maxObj</var>
+	 * (inclusive). As the IDs of inlined literals are ordered by value, this can be used to answer range restrictions
+	 * on such literals with a range scan over an index that has the object after the bound components.
+	 */
+	public RecordIterator getTriplesInRange(Txn txn, long subj, long pred, long minObj, long maxObj, long context,
+			boolean explicit) throws IOException {
+		// treat the object as bound, so that an index is chosen that is sorted by object after the bound components
+		TripleIndex index = getBestIndex(subj, pred, minObj, context);
+		return new LmdbRecordIterator(pool, index, true, subj, pred, minObj, maxObj, context, explicit, txn);
+	}
+
 	private RecordIterator getTriplesUsingIndex(Txn txn, long subj, long pred, long obj, long context,
 			boolean explicit, TripleIndex index, boolean rangeSearch) throws IOException {
 		return new LmdbRecordIterator(pool, index, rangeSearch, subj, pred, obj, context, explicit, txn);
@@ -655,7 +855,28 @@ class TripleStore implements Closeable {
 		});
 	}
 
+	/**
+	 * Returns the statistics for the statements with a predicate.
+	 *
+	 * @return the statistics, or <tt>null</tt> if no statistics are available
+	 */
+	StatisticsStore.PredicateStatistics getPredicateStatistics(long pred) throws IOException {
+		return statistics.get(pred);
+	}
+
 	protected double cardinality(long subj, long pred, long obj, long context) throws IOException {
+		if (pred >= 0 && context < 0 && (subj < 0 || obj < 0)) {
+			StatisticsStore.PredicateStatistics stats = statistics.get(pred);
+			if (stats != null) {
+				if (subj < 0 && obj < 0) {
+					return stats.getCount();
+				}
+				return subj < 0 ? stats.getObjectCardinality(obj) : stats.getSubjectCardinality();
+			}
+		} else if (subj < 0 && pred < 0 && obj < 0 && context >= 0) {
+			return getContextCount(context);
+		}
+
 		TripleIndex index = getBestIndex(subj, pred, obj, context);
 
 		int relevantParts = index.getPatternScore(subj, pred, obj, context);
@@ -836,14 +1057,31 @@ class TripleStore implements Closeable {
 	}
 
 	private boolean requiresResize() {
+		return requiresResize(0);
+	}
+
+	private boolean requiresResize(long requiredSize) {
 		if (autoGrow) {
-			return LmdbUtil.requiresResize(mapSize, pageSize, writeTxn, 0);
+			return LmdbUtil.requiresResize(mapSize, pageSize, writeTxn, requiredSize);
 		} else {
 			return false;
 		}
 	}
 
+	/**
+	 * Stores a triple. In bulk load mode, explicit triples are only buffered and this method always returns
+	 * <tt>true</tt>; they are written to the indexes when the transaction is committed or when a triple is removed.
+	 */
 	public boolean storeTriple(long subj, long pred, long obj, long context, boolean explicit) throws IOException {
+		if (bulkLoadBuffer != null) {
+			// once the record cache is in use, updates have to go through it to be applied in order
+			if (explicit && recordCache == null) {
+				bulkLoadBuffer.add(subj, pred, obj, context);
+				return true;
+			}
+			flushBulkLoadBuffer(false);
+		}
+
 		TripleIndex mainIndex = indexes.get(0);
 		boolean stAdded;
 		try (MemoryStack stack = MemoryStack.stackPush()) {
@@ -903,13 +1141,36 @@ class TripleStore implements Closeable {
 				if (stAdded) {
 					incrementContext(stack, context);
 				}
+				statistics.add(writeTxn, subj, pred, obj);
+				if (foundImplicit) {
+					statistics.remove(writeTxn, subj, pred, obj);
+				}
 			}
 		}
 
 		return stAdded;
 	}
 
+	private long getContextCount(long context) throws IOException {
+		return txnManager.doWith((stack, txn) -> {
+			MDBVal idVal = MDBVal.calloc(stack);
+			ByteBuffer bb = stack.malloc(1 + Long.BYTES);
+			Varint.writeUnsigned(bb, context);
+			bb.flip();
+			idVal.mv_data(bb);
+			MDBVal dataVal = MDBVal.calloc(stack);
+			if (mdb_get(txn, contextsDbi, idVal, dataVal) == MDB_SUCCESS) {
+				return Varint.readUnsigned(dataVal.mv_data());
+			}
+			return 0L;
+		});
+	}
+
 	private void incrementContext(MemoryStack stack, long context) throws IOException {
+		incrementContext(stack, context, 1);
+	}
+
+	private void incrementContext(MemoryStack stack, long context, long count) throws IOException {
 		try {
 			stack.push();
 
@@ -919,10 +1180,10 @@ class TripleStore implements Closeable {
 			bb.flip();
 			idVal.mv_data(bb);
 			MDBVal dataVal = MDBVal.calloc(stack);
-			long newCount = 1;
+			long newCount = count;
 			if (mdb_get(writeTxn, contextsDbi, idVal, dataVal) == MDB_SUCCESS) {
 				// update count
-				newCount = Varint.readUnsigned(dataVal.mv_data()) + 1;
+				newCount = Varint.readUnsigned(dataVal.mv_data()) + count;
 			}
 			// write count
 			ByteBuffer countBb = stack.malloc(Varint.calcLengthUnsigned(newCount));
@@ -977,6 +1238,9 @@ class TripleStore implements Closeable {
 	 */
 	public void removeTriplesByContext(long subj, long pred, long obj, long context,
 			boolean explicit, Consumer<long[]> handler) throws IOException {
+		if (bulkLoadBuffer != null) {
+			flushBulkLoadBuffer(false);
+		}
 		RecordIterator records = getTriples(txnManager.createTxn(writeTxn), subj, pred, obj, context, explicit);
 		removeTriples(records, explicit, handler);
 	}
@@ -1013,6 +1277,7 @@ class TripleStore implements Closeable {
 				}
 
 				decrementContext(stack, quad[CONTEXT_IDX]);
+				statistics.remove(writeTxn, quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX]);
 				handler.accept(quad);
 			}
 		}
@@ -1032,7 +1297,7 @@ class TripleStore implements Closeable {
 				Record r;
 				while ((r = it.next()) != null) {
 					if (requiresResize()) {
-						// resize map if required
+						// resize map if required, the statistics are written once all records are applied
 						E(mdb_txn_commit(writeTxn));
 						mapSize = LmdbUtil.autoGrowMapSize(mapSize, pageSize, 0);
 						E(mdb_env_set_mapsize(env, mapSize));
@@ -1049,10 +1314,18 @@ class TripleStore implements Closeable {
 						// update buffer positions in MDBVal
 						keyVal.mv_data(keyBuf);
 
+						// the main index tells whether the statement is actually added or removed
 						if (r.add) {
-							E(mdb_put(writeTxn, index.getDB(explicit), keyVal, dataVal, 0));
+							int rc = E(mdb_put(writeTxn, index.getDB(explicit), keyVal, dataVal,
+									i == 0 ? MDB_NOOVERWRITE : 0));
+							if (i == 0 && rc == MDB_SUCCESS) {
+								statistics.add(writeTxn, r.quad[SUBJ_IDX], r.quad[PRED_IDX], r.quad[OBJ_IDX]);
+							}
 						} else {
-							E(mdb_del(writeTxn, index.getDB(explicit), keyVal, null));
+							int rc = E(mdb_del(writeTxn, index.getDB(explicit), keyVal, null));
+							if (i == 0 && rc == MDB_SUCCESS) {
+								statistics.remove(writeTxn, r.quad[SUBJ_IDX], r.quad[PRED_IDX], r.quad[OBJ_IDX]);
+							}
 						}
 					}
 				}
@@ -1061,12 +1334,244 @@ class TripleStore implements Closeable {
 		recordCache.close();
 	}
 
-	public void startTransaction() throws IOException {
+	/**
+	 * Writes the statements in the bulk load buffer to the indexes. The keys of each index are written in ascending
+	 * order so that consecutive writes hit the same pages, and keys that are larger than any key in an index are
+	 * appended without searching the B-tree.
+	 * <p>
+	 * If the map has to grow to hold the buffered statements, it is only grown while committing. Before that, the
+	 * statements are moved to the record cache instead, so that the resize is deferred to the commit as for statements
+	 * that are added without bulk loading.
+	 *
+	 * @param commit whether the buffer is flushed as part of committing the transaction
+	 */
+	private void flushBulkLoadBuffer(boolean commit) throws IOException {
+		if (bulkLoadBuffer.isEmpty()) {
+			return;
+		}
+
 		try (MemoryStack stack = stackPush()) {
+			if (autoGrow) {
+				// every index stores every key, with node headers and pointers of about 16 bytes; leave room for pages
+				// that are only half full
+				long requiredSize = 2 * indexes.size()
+						* (bulkLoadBuffer.keyLength() + 16 * bulkLoadBuffer.size());
+				if (LmdbUtil.requiresResize(mapSize, pageSize, writeTxn, requiredSize)) {
+					if (!commit) {
+						moveBulkLoadBufferToRecordCache();
+						return;
+					}
+					growMap(requiredSize);
+				}
+			}
+
+			TripleIndex mainIndex = indexes.get(0);
+			boolean hasInferred = readTransaction(env, writeTxn, (stack2, txn) -> {
+				MDBStat stat = MDBStat.malloc(stack2);
+				mdb_stat(txn, mainIndex.getDB(false), stat);
+				return stat.ms_entries() > 0;
+			});
+
+			Map<Long, long[]> addedPerContext = new HashMap<>();
+			long added = writeBulkLoadIndex(stack, 0, addedPerContext, hasInferred);
+			logger.debug("bulk loaded {} new statements", added);
+
+			// statements that already existed are in every index, writing them again does not change anything
+			if (added > 0) {
+				for (int i = 1; i < indexes.size(); i++) {
+					writeBulkLoadIndex(stack, i, null, false);
+				}
+			}
+
+			for (Map.Entry<Long, long[]> entry : addedPerContext.entrySet()) {
+				incrementContext(stack, entry.getKey(), entry.getValue()[0]);
+			}
+		} finally {
+			bulkLoadBuffer.clear();
+		}
+	}
+
+	/**
+	 * Moves the statements of the bulk load buffer to the record cache, which is written to the indexes after the map
+	 * has been resized at commit.
+	 */
+	private void moveBulkLoadBufferToRecordCache() throws IOException {
+		if (recordCache == null) {
+			recordCache = new TxnRecordCache(dir);
+			logger.debug("resize of map size {} required while bulk loading - initialize record cache", mapSize);
+		}
+		TripleIndex mainIndex = indexes.get(0);
+		try (BulkLoadBuffer.KeyIterator keys = bulkLoadBuffer.sorted(0)) {
+			long[] quad = new long[4];
+			ByteBuffer key;
+			while ((key = keys.next()) != null) {
+				mainIndex.keyToQuad(key, quad);
+				// remove implicit statement
+				recordCache.removeRecord(quad, false);
+				recordCache.storeRecord(quad, true);
+			}
+		}
+	}
+
+	/**
+	 * Writes the keys of the bulk load buffer for an index to its explicit database.
+	 *
+	 * @param addedPerContext if not <tt>null</tt>, counts the statements that were not in the index before per context
+	 * @param removeInferred  whether to remove inferred statements that are now explicit
+	 * @return the number of keys that were not in the index before
+	 */
+	private long writeBulkLoadIndex(MemoryStack stack, int indexNr, Map<Long, long[]> addedPerContext,
+			boolean removeInferred) throws IOException {
+		TripleIndex index = indexes.get(indexNr);
+		try {
+			stack.push();
 			PointerBuffer pp = stack.mallocPointer(1);
+			E(mdb_cursor_open(writeTxn, index.getDB(true), pp));
+			long cursor = pp.get(0);
+			try (BulkLoadBuffer.KeyIterator keys = bulkLoadBuffer.sorted(indexNr)) {
+				MDBVal keyVal = MDBVal.calloc(stack);
+				MDBVal dataVal = MDBVal.calloc(stack);
+
+				// keys that are larger than the last key can be appended
+				byte[] lastKey = null;
+				if (mdb_cursor_get(cursor, keyVal, dataVal, MDB_LAST) == MDB_SUCCESS) {
+					ByteBuffer last = keyVal.mv_data();
+					lastKey = new byte[last.remaining()];
+					last.get(lastKey);
+				}
+				boolean append = lastKey == null;
 
-			E(mdb_txn_begin(env, NULL, 0, pp));
-			writeTxn = pp.get(0);
+				// use calloc to get an empty data value
+				MDBVal emptyVal = MDBVal.calloc(stack);
+				ByteBuffer keyBuf = stack.malloc(MAX_KEY_LENGTH);
+				long[] quad = new long[4];
+				long added = 0;
+				ByteBuffer key;
+				while ((key = keys.next()) != null) {
+					if (!append) {
+						append = Arrays.compareUnsigned(key.array(), 0, key.limit(), lastKey, 0, lastKey.length) > 0;
+					}
+					keyBuf.clear();
+					keyBuf.put(key);
+					keyBuf.flip();
+					keyVal.mv_data(keyBuf);
+
+					int rc = mdb_cursor_put(cursor, keyVal, emptyVal,
+							append ? MDB_APPEND : (addedPerContext != null ? MDB_NOOVERWRITE : 0));
+					if (rc == MDB_KEYEXIST) {
+						continue;
+					}
+					E(rc);
+					added++;
+					if (addedPerContext != null || removeInferred) {
+						index.keyToQuad(keyBuf, quad);
+						if (addedPerContext != null) {
+							addedPerContext.computeIfAbsent(quad[CONTEXT_IDX], c -> new long[1])[0]++;
+							statistics.add(writeTxn, quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX]);
+						}
+						if (removeInferred && removeInferred(stack, quad)) {
+							statistics.remove(writeTxn, quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX]);
+						}
+					}
+				}
+				return added;
+			} finally {
+				mdb_cursor_close(cursor);
+			}
+		} finally {
+			stack.pop();
+		}
+	}
+
+	/**
+	 * Removes an inferred statement from all indexes.
+	 *
+	 * @return <tt>true</tt> if the statement was removed, <tt>false</tt> if it was not inferred
+	 */
+	private boolean removeInferred(MemoryStack stack, long[] quad) throws IOException {
+		try {
+			stack.push();
+			MDBVal keyVal = MDBVal.calloc(stack);
+			ByteBuffer keyBuf = stack.malloc(MAX_KEY_LENGTH);
+			for (TripleIndex index : indexes) {
+				keyBuf.clear();
+				index.toKey(keyBuf, quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX], quad[CONTEXT_IDX]);
+				keyBuf.flip();
+				keyVal.mv_data(keyBuf);
+				if (mdb_del(writeTxn, index.getDB(false), keyVal, null) == MDB_NOTFOUND) {
+					// not in the main index, so not in any other index
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			stack.pop();
+		}
+	}
+
+	/**
+	 * Grows the map while committing the write transaction. The map size can only be changed if no transaction is
+	 * active, so the changes so far are committed and a new write transaction is started for the remaining writes of
+	 * the commit. This must not be used before the commit, as a rollback could not undo the committed changes.
+	 */
+	private void growMap(long requiredSize) throws IOException {
+		long newSize = LmdbUtil.getNewSize(pageSize, writeTxn, requiredSize);
+		StampedLock lock = txnManager.lock();
+		long stamp = lock.writeLock();
+		try {
+			int rc = mdb_txn_commit(writeTxn);
+			writeTxn = 0;
+			E(rc);
+			txnManager.deactivate();
+			mapSize = LmdbUtil.autoGrowMapSize(mapSize, pageSize, newSize);
+			E(mdb_env_set_mapsize(env, mapSize));
+			logger.debug("resized map to {}", mapSize);
+			try (MemoryStack stack = stackPush()) {
+				PointerBuffer pp = stack.mallocPointer(1);
+				E(mdb_txn_begin(env, NULL, 0, pp));
+				writeTxn = pp.get(0);
+			}
+		} finally {
+			try {
+				txnManager.activate();
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+	}
+
+	/**
+	 * Writes the statistics while committing after the map was resized. If they still do not fit, the records written
+	 * so far are committed and the map is resized again.
+	 */
+	private void writeStatistics() throws IOException {
+		long requiredSize = statistics.getWriteSize();
+		if (requiresResize(requiredSize)) {
+			E(mdb_txn_commit(writeTxn));
+			mapSize = LmdbUtil.autoGrowMapSize(mapSize, pageSize, requiredSize);
+			E(mdb_env_set_mapsize(env, mapSize));
+			logger.debug("resized map to {}", mapSize);
+			try (MemoryStack stack = stackPush()) {
+				PointerBuffer pp = stack.mallocPointer(1);
+				E(mdb_txn_begin(env, NULL, 0, pp));
+				writeTxn = pp.get(0);
+			}
+		}
+		statistics.write(writeTxn);
+	}
+
+	public void startTransaction() throws IOException {
+		try {
+			writePermit.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the statistics to be computed");
+		}
+		try {
+			writeTxn = beginWriteTxn();
+		} catch (IOException | RuntimeException e) {
+			writePermit.release();
+			throw e;
 		}
 	}
 
@@ -1078,13 +1583,21 @@ class TripleStore implements Closeable {
 			try {
 				if (commit) {
 					try {
+						if (bulkLoadBuffer != null) {
+							flushBulkLoadBuffer(true);
+						}
+						// if the map is full, the statistics are written after it was resized
+						boolean resize = recordCache != null || requiresResize(statistics.getWriteSize());
+						if (!resize) {
+							statistics.write(writeTxn);
+						}
 						E(mdb_txn_commit(writeTxn));
-						if (recordCache != null) {
+						if (resize) {
 							StampedLock lock = txnManager.lock();
 							long stamp = lock.writeLock();
 							try {
 								txnManager.deactivate();
-								mapSize = LmdbUtil.autoGrowMapSize(mapSize, pageSize, 0);
+								mapSize = LmdbUtil.autoGrowMapSize(mapSize, pageSize, statistics.getWriteSize());
 								E(mdb_env_set_mapsize(env, mapSize));
 								logger.debug("resized map to {}", mapSize);
 								// restart write transaction
@@ -1093,7 +1606,10 @@ class TripleStore implements Closeable {
 									mdb_txn_begin(env, NULL, 0, pp);
 									writeTxn = pp.get(0);
 								}
-								updateFromCache();
+								if (recordCache != null) {
+									updateFromCache();
+								}
+								writeStatistics();
 								// finally, commit write transaction
 								E(mdb_txn_commit(writeTxn));
 							} finally {
@@ -1109,23 +1625,35 @@ class TripleStore implements Closeable {
 							// otherwise iterators won't see the updated data
 							txnManager.reset();
 						}
+						statistics.commit();
 					} catch (IOException e) {
 						// abort transaction if exception occurred while committing
-						mdb_txn_abort(writeTxn);
+						if (writeTxn != 0) {
+							mdb_txn_abort(writeTxn);
+						}
 						throw e;
 					}
 				} else {
 					mdb_txn_abort(writeTxn);
 				}
 			} finally {
-				writeTxn = 0;
-				// ensure that record cache is always reset
-				if (recordCache != null) {
-					try {
-						recordCache.close();
-					} finally {
-						recordCache = null;
+				try {
+					writeTxn = 0;
+					// discards changes that were not committed
+					statistics.rollback();
+					if (bulkLoadBuffer != null) {
+						bulkLoadBuffer.clear();
+					}
+					// ensure that record cache is always reset
+					if (recordCache != null) {
+						try {
+							recordCache.close();
+						} finally {
+							recordCache = null;
+						}
 					}
+				} finally {
+					writePermit.release();
 				}
 			}
 		}
@@ -1139,6 +1667,16 @@ class TripleStore implements Closeable {
 		endTransaction(false);
 	}
 
+	/**
+	 * Flushes all committed transactions to disk. Used for group commits, where the environment is opened without
+	 * syncing on each commit.
+	 *
+	 * @throws IOException If an I/O error occurred.
+	 */
+	void sync() throws IOException {
+		E(mdb_env_sync(env, true));
+	}
+
 	private Properties loadProperties(File propFile) throws IOException {
 		try (InputStream in = new FileInputStream(propFile)) {
 			Properties properties = new Properties();
@@ -1265,6 +1803,33 @@ class TripleStore implements Closeable {
 			toKey(bb, subj, pred, obj, context);
 		}
 
+		/**
+		 * Computes the lowest (<var>max</var> is false) or highest key of the triples whose object is <var>obj</var>.
+		 * Components after the object are treated as wildcards, so that the keys can be used as bounds of an object
+		 * range.
+		 */
+		void getObjectRangeKey(ByteBuffer bb, long subj, long pred, long obj, long context, boolean max) {
+			long wildcard = max ? Long.MAX_VALUE : 0;
+			boolean afterObj = false;
+			for (char field : fieldSeq) {
+				switch (field) {
+				case 's':
+					writeUnsigned(bb, afterObj || subj <= 0 ? wildcard : subj);
+					break;
+				case 'p':
+					writeUnsigned(bb, afterObj || pred <= 0 ? wildcard : pred);
+					break;
+				case 'o':
+					writeUnsigned(bb, obj);
+					afterObj = true;
+					break;
+				case 'c':
+					writeUnsigned(bb, afterObj || context < 0 ? wildcard : context);
+					break;
+				}
+			}
+		}
+
 		GroupMatcher createMatcher(long subj, long pred, long obj, long context) {
 			ByteBuffer bb = ByteBuffer.allocate(TripleStore.MAX_KEY_LENGTH);
 			toKey(bb, subj == -1 ? 0 : subj, pred == -1 ? 0 : pred, obj == -1 ? 0 : obj, context == -1 ? 0 : context);
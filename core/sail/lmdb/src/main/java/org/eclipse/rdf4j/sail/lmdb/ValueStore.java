@@ -37,6 +37,7 @@ import static org.lwjgl.util.lmdb.LMDB.mdb_env_open;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_mapsize;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_maxdbs;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_maxreaders;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_sync;
 import static org.lwjgl.util.lmdb.LMDB.mdb_get;
 import static org.lwjgl.util.lmdb.LMDB.mdb_put;
 import static org.lwjgl.util.lmdb.LMDB.mdb_stat;
@@ -51,7 +52,6 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Optional;
@@ -61,7 +61,12 @@ import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.StampedLock;
 import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
+import org.eclipse.rdf4j.collection.factory.primitive.LongArrayList;
+import org.eclipse.rdf4j.collection.factory.primitive.LongHashSet;
 import org.eclipse.rdf4j.common.concurrent.locks.diagnostics.ConcurrentCleaner;
 import org.eclipse.rdf4j.common.io.ByteArrayUtil;
 import org.eclipse.rdf4j.model.BNode;
@@ -72,6 +77,7 @@ import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.base.AbstractValueFactory;
 import org.eclipse.rdf4j.model.base.CoreDatatype;
 import org.eclipse.rdf4j.model.util.Literals;
+import org.eclipse.rdf4j.sail.SailException;
 import org.eclipse.rdf4j.sail.lmdb.LmdbUtil.Transaction;
 import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
 import org.eclipse.rdf4j.sail.lmdb.model.LmdbBNode;
@@ -110,10 +116,53 @@ class ValueStore extends AbstractValueFactory {
 
 	private static final byte HASHID_KEY = 0x6;
 
+	/**
+	 * Marks a namespace that is stored as the ID of a shorter namespace it starts with, followed by the remaining
+	 * characters.
+	 */
+	private static final byte PREFIXED_NAMESPACE_VALUE = 0x7;
+
+	/**
+	 * Marks compressed data, followed by the length of the uncompressed data and the deflated data.
+	 */
+	private static final byte COMPRESSED_VALUE = 0x8;
+
+	/**
+	 * Minimum length of data that is compressed if value compression is enabled.
+	 */
+	private static final int MIN_COMPRESSED_LENGTH = 64;
+
+	/**
+	 * Key of the format features that were chosen when the store was created.
+	 */
+	private static final byte FEATURES_KEY = 0x9;
+
+	/**
+	 * Feature flag for literals that are encoded in their IDs, see {@link InlinedLiterals}.
+	 */
+	private static final long INLINED_LITERALS_FEATURE = 0x1;
+
+	/**
+	 * Minimum length of a namespace that is stored only once for all namespaces that start with it.
+	 */
+	private static final int MIN_PREFIX_LENGTH = 16;
+
 	/***
 	 * Maximum size of keys before hashing is used (size of two long values)
 	 */
 	private static final int MAX_KEY_SIZE = 16;
+
+	/**
+	 * The assumed average memory footprint of a cached value or namespace in bytes, from which the weight limits of the
+	 * ID-keyed caches are derived.
+	 */
+	private static final int AVERAGE_CACHE_ENTRY_SIZE = 256;
+
+	/**
+	 * The estimated memory footprint of a cached object in bytes, excluding its string content. This is also used as
+	 * the weight of lazily initialized values.
+	 */
+	private static final int CACHE_ENTRY_OVERHEAD = 64;
 	/**
 	 * Used to do the actual storage of values, once they're translated to byte arrays.
 	 */
@@ -123,17 +172,17 @@ class ValueStore extends AbstractValueFactory {
 	 */
 	private final StampedLock revisionLock = new StampedLock();
 	/**
-	 * A simple cache containing the [VALUE_CACHE_SIZE] most-recently used values stored by their ID.
+	 * A cache containing about [VALUE_CACHE_SIZE] frequently used values stored by their ID.
 	 */
-	private final LmdbValue[] valueCache;
+	private final ConcurrentIdCache<LmdbValue> valueCache;
 	/**
 	 * A simple cache containing the [ID_CACHE_SIZE] most-recently used value-IDs stored by their value.
 	 */
 	private final ConcurrentCache<LmdbValue, Long> valueIDCache;
 	/**
-	 * A simple cache containing the [NAMESPACE_CACHE_SIZE] most-recently used namespaces stored by their ID.
+	 * A cache containing about [NAMESPACE_CACHE_SIZE] frequently used namespaces stored by their ID.
 	 */
-	private final ConcurrentCache<Long, String> namespaceCache;
+	private final ConcurrentIdCache<String> namespaceCache;
 	/**
 	 * A simple cache containing the [NAMESPACE_ID_CACHE_SIZE] most-recently used namespace-IDs stored by their
 	 * namespace.
@@ -155,8 +204,28 @@ class ValueStore extends AbstractValueFactory {
 	private int refCountsDbi;
 	private long writeTxn;
 	private final boolean forceSync;
+
+	/**
+	 * Whether commits are left unsynced and made durable by an explicit {@link #sync()} shared by several commits.
+	 */
+	private final boolean groupCommit;
 	private final boolean autoGrow;
 	private boolean invalidateRevisionOnCommit = false;
+
+	/**
+	 * Compresses new values, <tt>null</tt> if value compression is disabled.
+	 */
+	private final Deflater deflater;
+
+	/**
+	 * Whether literals are inlined into IDs when new stores are created.
+	 */
+	private final boolean inlineLiteralsOnCreate;
+
+	/**
+	 * Whether this store inlines literals into IDs, as determined by the stored format features.
+	 */
+	private boolean inlineLiterals;
 	/**
 	 * This lock is required to block transactions while auto-growing the map size.
 	 */
@@ -189,13 +258,18 @@ class ValueStore extends AbstractValueFactory {
 	ValueStore(File dir, LmdbStoreConfig config) throws IOException {
 		this.dir = dir;
 		this.forceSync = config.getForceSync();
+		this.groupCommit = forceSync && config.getGroupCommit();
 		this.autoGrow = config.getAutoGrow();
 		this.mapSize = config.getValueDBSize();
+		this.deflater = config.getValueCompression() ? new Deflater() : null;
+		this.inlineLiteralsOnCreate = config.getInlineLiterals();
 		open();
 
-		valueCache = new LmdbValue[config.getValueCacheSize()];
+		valueCache = new ConcurrentIdCache<>(config.getValueCacheSize(),
+				(long) config.getValueCacheSize() * AVERAGE_CACHE_ENTRY_SIZE);
 		valueIDCache = new ConcurrentCache<>(config.getValueIDCacheSize());
-		namespaceCache = new ConcurrentCache<>(config.getNamespaceCacheSize());
+		namespaceCache = new ConcurrentIdCache<>(config.getNamespaceCacheSize(),
+				(long) config.getNamespaceCacheSize() * AVERAGE_CACHE_ENTRY_SIZE);
 		namespaceIDCache = new ConcurrentCache<>(config.getNamespaceIDCacheSize());
 
 		setNewRevision();
@@ -291,7 +365,7 @@ class ValueStore extends AbstractValueFactory {
 
 		// Open environment
 		int flags = MDB_NOTLS;
-		if (!forceSync) {
+		if (!forceSync || groupCommit) {
 			flags |= MDB_NOSYNC | MDB_NOMETASYNC;
 		}
 		E(mdb_env_open(env, dir.getAbsolutePath(), flags, 0664));
@@ -334,6 +408,47 @@ class ValueStore extends AbstractValueFactory {
 		// open ref_counts database
 		refCountsDbi = openDatabase(env, "ref_counts", MDB_CREATE, null);
 
+		// the encoding of literals is fixed when the store is created
+		long features = readTransaction(env, (stack, txn) -> {
+			MDBVal keyVal = MDBVal.calloc(stack);
+			keyVal.mv_data(stack.bytes(FEATURES_KEY));
+			MDBVal dataVal = MDBVal.calloc(stack);
+			if (mdb_get(txn, dbi, keyVal, dataVal) == MDB_SUCCESS) {
+				return Varint.readUnsigned(dataVal.mv_data());
+			}
+			// the main database also contains the names of the other databases, so look for a stored value
+			PointerBuffer pp = stack.mallocPointer(1);
+			E(mdb_cursor_open(txn, dbi, pp));
+			long cursor = pp.get(0);
+			try {
+				keyVal.mv_data(stack.bytes(ID_KEY));
+				int rc = mdb_cursor_get(cursor, keyVal, dataVal, MDB_SET_RANGE);
+				return rc == MDB_SUCCESS && keyVal.mv_data().get(0) == ID_KEY ? 0L : -1L;
+			} finally {
+				mdb_cursor_close(cursor);
+			}
+		});
+		if (features == -1L) {
+			inlineLiterals = inlineLiteralsOnCreate;
+			if (inlineLiterals) {
+				writeTransaction((stack, txn) -> {
+					MDBVal keyVal = MDBVal.calloc(stack);
+					keyVal.mv_data(stack.bytes(FEATURES_KEY));
+					ByteBuffer featuresBb = stack.malloc(Long.BYTES + 1);
+					Varint.writeUnsigned(featuresBb, INLINED_LITERALS_FEATURE);
+					MDBVal dataVal = MDBVal.calloc(stack);
+					dataVal.mv_data(featuresBb.flip());
+					E(mdb_put(txn, dbi, keyVal, dataVal, 0));
+					return null;
+				});
+			}
+		} else {
+			inlineLiterals = (features & INLINED_LITERALS_FEATURE) != 0;
+			if (inlineLiteralsOnCreate && !inlineLiterals) {
+				logger.warn("Literals are not inlined as the value store in {} was created without this option", dir);
+			}
+		}
+
 		// check if free IDs are available
 		readTransaction(env, (stack, txn) -> {
 			MDBStat stat = MDBStat.malloc(stack);
@@ -389,6 +504,9 @@ class ValueStore extends AbstractValueFactory {
 			}
 		}
 		long result = nextId;
+		if (inlineLiterals && result >= InlinedLiterals.INLINED_BIT >> 2) {
+			throw new IOException("No more value IDs available");
+		}
 		nextId++;
 		// encode type in lower 2 bits of id
 		result = (result << 2) | type;
@@ -430,41 +548,126 @@ class ValueStore extends AbstractValueFactory {
 			keyData.mv_data(id2data(idBuffer(stack), id).flip());
 			MDBVal valueData = MDBVal.calloc(stack);
 			if (mdb_get(txn, dbi, keyData, valueData) == MDB_SUCCESS) {
-				byte[] valueBytes = new byte[valueData.mv_data().remaining()];
-				valueData.mv_data().get(valueBytes);
-				return valueBytes;
+				return decompress(valueData.mv_data());
 			}
 			return null;
 		});
 	}
 
+	/**
+	 * Compresses the data of a value if value compression is enabled and the data is long enough to benefit from it.
+	 *
+	 * @return the compressed data, or the given data if it is not compressed
+	 */
+	private byte[] compress(byte[] data) {
+		if (deflater == null || data.length < MIN_COMPRESSED_LENGTH) {
+			return data;
+		}
+		synchronized (deflater) {
+			deflater.reset();
+			deflater.setInput(data);
+			deflater.finish();
+			int headerLength = 1 + Varint.calcLengthUnsigned(data.length);
+			// compressed data that is not shorter than the data itself is discarded
+			byte[] compressed = new byte[data.length];
+			int length = headerLength;
+			while (!deflater.finished() && length < compressed.length) {
+				length += deflater.deflate(compressed, length, compressed.length - length);
+			}
+			if (!deflater.finished()) {
+				return data;
+			}
+			compressed[0] = COMPRESSED_VALUE;
+			Varint.writeUnsigned(ByteBuffer.wrap(compressed, 1, headerLength - 1), data.length);
+			return Arrays.copyOf(compressed, length);
+		}
+	}
+
+	/**
+	 * Reads stored data, decompressing it if it is compressed. The position of the buffer is not changed.
+	 */
+	private static byte[] decompress(ByteBuffer stored) throws IOException {
+		ByteBuffer bb = stored.duplicate();
+		if (bb.get(bb.position()) != COMPRESSED_VALUE) {
+			byte[] data = new byte[bb.remaining()];
+			bb.get(data);
+			return data;
+		}
+		// skip compression marker
+		bb.get();
+		byte[] data = new byte[(int) Varint.readUnsigned(bb)];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(bb);
+			int length = 0;
+			while (length < data.length && !inflater.finished()) {
+				int inflated = inflater.inflate(data, length, data.length - length);
+				if (inflated == 0 && inflater.needsInput()) {
+					break;
+				}
+				length += inflated;
+			}
+			if (length != data.length) {
+				throw new IOException("Compressed value is truncated");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(e);
+		} finally {
+			inflater.end();
+		}
+		return data;
+	}
+
+	/**
+	 * Compares stored data, which may be compressed, with the uncompressed data of a value.
+	 */
+	private static boolean storedDataEquals(ByteBuffer stored, ByteBuffer data) throws IOException {
+		if (stored.get(stored.position()) == COMPRESSED_VALUE) {
+			// compare the length before decompressing
+			if (Varint.readUnsigned(stored, stored.position() + 1) != data.remaining()) {
+				return false;
+			}
+			return ByteBuffer.wrap(decompress(stored)).compareTo(data) == 0;
+		}
+		return stored.compareTo(data) == 0;
+	}
+
 	/**
 	 * Get value from cache by ID.
-	 * <p>
-	 * Thread-safety with synchronized is not required here.
 	 *
 	 * @param id ID of a value object
 	 * @return the value object or <code>null</code> if not found
 	 */
 	LmdbValue cachedValue(long id) {
-		LmdbValue value = valueCache[(int) (id % valueCache.length)];
-		if (value != null && value.getInternalID() == id) {
-			return value;
-		}
-		return null;
+		return valueCache.get(id);
 	}
 
 	/**
 	 * Cache value by ID.
-	 * <p>
-	 * Thread-safety with synchronized is not required here.
 	 *
-	 * @param id    ID of a value object
-	 * @param value ID of a value object
-	 * @return the value object or <code>null</code> if not found
+	 * @param id     ID of a value object
+	 * @param value  the value object
+	 * @param weight the estimated memory footprint of the value object in bytes
+	 */
+	void cacheValue(long id, LmdbValue value, int weight) {
+		valueCache.put(id, value, weight);
+	}
+
+	/**
+	 * Gets the cache of values by ID, which keeps statistics about its hits and misses.
+	 *
+	 * @return the value cache
 	 */
-	void cacheValue(long id, LmdbValue value) {
-		valueCache[(int) (id % valueCache.length)] = value;
+	ConcurrentIdCache<LmdbValue> getValueCache() {
+		return valueCache;
+	}
+
+	/**
+	 * Estimates the memory footprint of an object decoded from the specified data, assuming that strings take two bytes
+	 * per character.
+	 */
+	private static int cacheWeight(byte[] data) {
+		return CACHE_ENTRY_OVERHEAD + 2 * data.length;
 	}
 
 	/**
@@ -475,11 +678,14 @@ class ValueStore extends AbstractValueFactory {
 	 * @throws IOException If an I/O error occurred.
 	 */
 	public LmdbValue getLazyValue(long id) throws IOException {
+		if (InlinedLiterals.isInlined(id)) {
+			// decoding is cheaper than lazy initialization
+			return getInlinedLiteral(id);
+		}
 		long stamp = revisionLock.readLock();
 		try {
 			// Check value cache
-			Long cacheID = id;
-			LmdbValue resultValue = cachedValue(cacheID);
+			LmdbValue resultValue = cachedValue(id);
 
 			if (resultValue == null) {
 				switch ((byte) (id & 0x3)) {
@@ -496,7 +702,7 @@ class ValueStore extends AbstractValueFactory {
 					throw new IOException("Unsupported value with type id " + (id & 0x3));
 				}
 				// Store value in cache
-				cacheValue(cacheID, resultValue);
+				cacheValue(id, resultValue, CACHE_ENTRY_OVERHEAD);
 			}
 
 			return resultValue;
@@ -513,11 +719,13 @@ class ValueStore extends AbstractValueFactory {
 	 * @throws IOException If an I/O error occurred.
 	 */
 	public LmdbValue getValue(long id) throws IOException {
+		if (InlinedLiterals.isInlined(id)) {
+			return getInlinedLiteral(id);
+		}
 		long stamp = revisionLock.readLock();
 		try {
 			// Check value cache
-			Long cacheID = id;
-			LmdbValue resultValue = cachedValue(cacheID);
+			LmdbValue resultValue = cachedValue(id);
 
 			if (resultValue == null) {
 				// Value not in cache, fetch it from file
@@ -526,7 +734,7 @@ class ValueStore extends AbstractValueFactory {
 				if (data != null) {
 					resultValue = data2value(id, data, null);
 					// Store value in cache
-					cacheValue(cacheID, resultValue);
+					cacheValue(id, resultValue, cacheWeight(data));
 				}
 			}
 
@@ -544,6 +752,11 @@ class ValueStore extends AbstractValueFactory {
 	 * @return <code>true</code> if value could be successfully resolved, else <code>false</code>
 	 */
 	public boolean resolveValue(long id, LmdbValue value) {
+		if (InlinedLiterals.isInlined(id)) {
+			((LmdbLiteral) value).setLabel(InlinedLiterals.getLabel(id));
+			((LmdbLiteral) value).setDatatype(InlinedLiterals.getDatatype(id));
+			return true;
+		}
 		try {
 			byte[] data = getData(id);
 			if (data != null) {
@@ -556,6 +769,21 @@ class ValueStore extends AbstractValueFactory {
 		return false;
 	}
 
+	private LmdbLiteral getInlinedLiteral(long id) {
+		return new LmdbLiteral(revision, InlinedLiterals.getLabel(id), InlinedLiterals.getDatatype(id), id);
+	}
+
+	/**
+	 * Computes the range of IDs of inlined literals that may lie between the given bounds, see
+	 * {@link InlinedLiterals#getIdRange(Literal, Literal)}.
+	 *
+	 * @return the lowest and highest ID of the range, or <tt>null</tt> if this store does not inline literals or the
+	 *         bounds do not restrict the inlined IDs
+	 */
+	long[] getInlinedIdRange(Literal lowerBound, Literal upperBound) {
+		return inlineLiterals ? InlinedLiterals.getIdRange(lowerBound, upperBound) : null;
+	}
+
 	private void resizeMap(long txn, long requiredSize) throws IOException {
 		if (autoGrow) {
 			if (LmdbUtil.requiresResize(mapSize, pageSize, txn, requiredSize)) {
@@ -605,8 +833,8 @@ class ValueStore extends AbstractValueFactory {
 	}
 
 	private void incrementRefCount(MemoryStack stack, long writeTxn, byte[] data) throws IOException {
-		// literals have a datatype id and URIs have a namespace id
-		if (data[0] == LITERAL_VALUE || data[0] == URI_VALUE) {
+		// literals have a datatype id, URIs and prefixed namespaces have a namespace id
+		if (data[0] == LITERAL_VALUE || data[0] == URI_VALUE || data[0] == PREFIXED_NAMESPACE_VALUE) {
 			try {
 				stack.push();
 				ByteBuffer bb = ByteBuffer.wrap(data);
@@ -673,7 +901,7 @@ class ValueStore extends AbstractValueFactory {
 				// id was not found, create a new one
 				resizeMap(txn, 2L * data.length + 2L * (2L + Long.BYTES));
 
-				long newId = nextId(data[0]);
+				long newId = nextId(valueType(data));
 				writeTransaction((stack2, writeTxn) -> {
 					idVal.mv_data(id2data(idBuffer(stack), newId).flip());
 
@@ -704,7 +932,8 @@ class ValueStore extends AbstractValueFactory {
 				// ID of first value is directly stored with hash as key
 				if (mdb_get(txn, dbi, hashVal, dataVal) == MDB_SUCCESS) {
 					idVal.mv_data(dataVal.mv_data());
-					if (mdb_get(txn, dbi, idVal, dataVal) == MDB_SUCCESS && dataVal.mv_data().compareTo(dataBb) == 0) {
+					if (mdb_get(txn, dbi, idVal, dataVal) == MDB_SUCCESS
+							&& storedDataEquals(dataVal.mv_data(), dataBb)) {
 						return data2id(idVal.mv_data());
 					}
 				} else {
@@ -715,16 +944,17 @@ class ValueStore extends AbstractValueFactory {
 
 					resizeMap(txn, 2L * data.length + 2L * (2L + Long.BYTES));
 
-					long newId = nextId(data[0]);
+					long newId = nextId(valueType(data));
+					byte[] storedData = compress(data);
 					writeTransaction((stack2, writeTxn) -> {
-						dataVal.mv_size(data.length);
+						dataVal.mv_size(storedData.length);
 						idVal.mv_data(id2data(idBuffer(stack), newId).flip());
 
 						// store mapping of hash -> ID
 						E(mdb_put(txn, dbi, hashVal, idVal, 0));
 						// store mapping of ID -> data
 						E(mdb_put(writeTxn, dbi, idVal, dataVal, MDB_RESERVE));
-						dataVal.mv_data().put(data);
+						dataVal.mv_data().put(storedData);
 
 						// update ref count if necessary
 						incrementRefCount(stack2, writeTxn, data);
@@ -755,7 +985,7 @@ class ValueStore extends AbstractValueFactory {
 							hashIdBb.position(hashLength);
 							idVal.mv_data(hashIdBb);
 							if (mdb_get(txn, dbi, idVal, dataVal) == MDB_SUCCESS
-									&& dataVal.mv_data().compareTo(dataBb) == 0) {
+									&& storedDataEquals(dataVal.mv_data(), dataBb)) {
 								// id was found if stored value is equal to requested value
 								return data2id(hashIdBb);
 							}
@@ -774,7 +1004,8 @@ class ValueStore extends AbstractValueFactory {
 				// id was not found, create a new one
 				resizeMap(txn, 1 + Long.BYTES + maxHashKeyLength + 2L * data.length);
 
-				long newId = nextId(data[0]);
+				long newId = nextId(valueType(data));
+				byte[] storedData = compress(data);
 				writeTransaction((stack2, writeTxn) -> {
 					// encode ID
 					ByteBuffer idBb = id2data(idBuffer(stack), newId).flip();
@@ -792,10 +1023,10 @@ class ValueStore extends AbstractValueFactory {
 					dataVal.mv_data(stack.bytes());
 					E(mdb_put(txn, dbi, hashVal, dataVal, 0));
 
-					dataVal.mv_size(data.length);
+					dataVal.mv_size(storedData.length);
 					// store mapping of ID -> data
 					E(mdb_put(txn, dbi, idVal, dataVal, MDB_RESERVE));
-					dataVal.mv_data().put(data);
+					dataVal.mv_data().put(storedData);
 
 					// update ref count if necessary
 					incrementRefCount(stack2, writeTxn, data);
@@ -845,6 +1076,25 @@ class ValueStore extends AbstractValueFactory {
 		return getId(value, false);
 	}
 
+	/**
+	 * Compares two values by their IDs, which is the order in which the triple indexes list them. Values that are not
+	 * in the store are ordered before all others, and by their string representation among each other.
+	 *
+	 * @throws SailException If an I/O error occurred.
+	 */
+	public int compareIds(Value value1, Value value2) throws SailException {
+		try {
+			long id1 = getId(value1);
+			long id2 = getId(value2);
+			if (id1 == LmdbValue.UNKNOWN_ID && id2 == LmdbValue.UNKNOWN_ID) {
+				return value1.equals(value2) ? 0 : value1.toString().compareTo(value2.toString());
+			}
+			return Long.compare(id1, id2);
+		} catch (IOException e) {
+			throw new SailException(e);
+		}
+	}
+
 	private final ConcurrentHashMap<Value, Long> commonVocabulary = new ConcurrentHashMap<>();
 
 	/**
@@ -870,6 +1120,13 @@ class ValueStore extends AbstractValueFactory {
 			}
 		}
 
+		if (inlineLiterals && value.isLiteral()) {
+			long id = InlinedLiterals.getId((Literal) value);
+			if (id != LmdbValue.UNKNOWN_ID) {
+				return id;
+			}
+		}
+
 		long stamp = revisionLock.readLock();
 		try {
 			// Check cache
@@ -934,13 +1191,16 @@ class ValueStore extends AbstractValueFactory {
 				string.startsWith("http://xmlns.com/");
 	}
 
-	public void gcIds(Collection<Long> ids, Collection<Long> nextIds) throws IOException {
+	/**
+	 * Marks the given IDs as unused, unless they are still referenced by other values, and removes their values.
+	 *
+	 * @param ids     the IDs of values that may no longer be used by any statement, preferably sorted
+	 * @param nextIds receives the IDs of datatypes and namespaces that are no longer referenced by any value
+	 */
+	public void gcIds(LongArrayList ids, LongHashSet nextIds) throws IOException {
 		if (!ids.isEmpty()) {
 			// wrap into read txn as resizeMap expects an active surrounding read txn
 			readTransaction(env, (stack1, txn1) -> {
-
-				final Collection<Long> finalIds = ids;
-				final Collection<Long> finalNextIds = nextIds;
 				writeTransaction((stack, writeTxn) -> {
 					MDBVal revIdVal = MDBVal.calloc(stack);
 					MDBVal idVal = MDBVal.calloc(stack);
@@ -949,7 +1209,12 @@ class ValueStore extends AbstractValueFactory {
 					ByteBuffer revIdBb = stack.malloc(1 + Long.BYTES + 2 + Long.BYTES);
 					Varint.writeUnsigned(revIdBb, revision.getRevisionId());
 					int revLength = revIdBb.position();
-					for (Long id : finalIds) {
+					for (int i = 0; i < ids.size(); i++) {
+						long id = ids.get(i);
+						if (InlinedLiterals.isInlined(id)) {
+							// inlined literals are not stored
+							continue;
+						}
 						// contains IDs for data types and namespaces which are freed by garbage collecting literals and
 						// URIs
 						resizeMap(writeTxn, 10L * ids.size() * (1L + Long.BYTES + 2L + Long.BYTES));
@@ -965,7 +1230,7 @@ class ValueStore extends AbstractValueFactory {
 						E(mdb_put(writeTxn, unusedDbi, revIdVal, dataVal, 0));
 					}
 
-					deleteValueToIdMappings(stack, writeTxn, finalIds, finalNextIds);
+					deleteValueToIdMappings(stack, writeTxn, ids, nextIds);
 
 					invalidateRevisionOnCommit = true;
 					if (nextValueEvictionTime < 0) {
@@ -978,7 +1243,7 @@ class ValueStore extends AbstractValueFactory {
 		}
 	}
 
-	protected void deleteValueToIdMappings(MemoryStack stack, long txn, Collection<Long> ids, Collection<Long> newGcIds)
+	protected void deleteValueToIdMappings(MemoryStack stack, long txn, LongArrayList ids, LongHashSet newGcIds)
 			throws IOException {
 		int maxHashKeyLength = 2 + 2 * Long.BYTES + 2;
 		ByteBuffer hashBb = stack.malloc(maxHashKeyLength);
@@ -992,7 +1257,8 @@ class ValueStore extends AbstractValueFactory {
 
 		long valuesCursor = 0;
 		try {
-			for (Long id : ids) {
+			for (int i = 0; i < ids.size(); i++) {
+				long id = ids.get(i);
 				// resizeMap(writeTxn, 10L * ids.size() * (1L + Long.BYTES + 2L + Long.BYTES));
 
 				idVal.mv_data(id2data(idBb.clear(), id).flip());
@@ -1001,9 +1267,14 @@ class ValueStore extends AbstractValueFactory {
 				int b = mdb_get(txn, dbi, idVal, dataVal);
 				if (a != MDB_SUCCESS && b == MDB_SUCCESS) {
 					ByteBuffer dataBuffer = dataVal.mv_data();
+					if (dataBuffer.get(0) == COMPRESSED_VALUE) {
+						// hashes and references are based on the uncompressed data
+						dataBuffer = ByteBuffer.wrap(decompress(dataBuffer));
+					}
 
-					// update ref count if literal or URI namespace is removed
-					if (dataBuffer.get(0) == LITERAL_VALUE || dataBuffer.get(0) == URI_VALUE) {
+					// update ref count if literal, URI or namespace prefix is removed
+					if (dataBuffer.get(0) == LITERAL_VALUE || dataBuffer.get(0) == URI_VALUE
+							|| dataBuffer.get(0) == PREFIXED_NAMESPACE_VALUE) {
 						refIdBb.clear()
 								.put(ID_KEY)
 								.put(dataBuffer.slice()
@@ -1207,6 +1478,16 @@ class ValueStore extends AbstractValueFactory {
 		endTransaction(false);
 	}
 
+	/**
+	 * Flushes all committed transactions to disk. Used for group commits, where the environment is opened without
+	 * syncing on each commit.
+	 *
+	 * @throws IOException If an I/O error occurred.
+	 */
+	void sync() throws IOException {
+		E(mdb_env_sync(env, true));
+	}
+
 	/**
 	 * Stores the supplied value and returns the ID that has been assigned to it. In case the value was already present,
 	 * the value will not be stored again and the ID of the existing value is returned.
@@ -1237,7 +1518,7 @@ class ValueStore extends AbstractValueFactory {
 	 * @throws IOException If an I/O error occurred.
 	 */
 	public void clear() throws IOException {
-		close();
+		closeEnvironment();
 
 		new File(dir, "data.mdb").delete();
 		new File(dir, "lock.mdb").delete();
@@ -1248,7 +1529,7 @@ class ValueStore extends AbstractValueFactory {
 	}
 
 	protected void clearCaches() {
-		Arrays.fill(valueCache, null);
+		valueCache.clear();
 		valueIDCache.clear();
 		namespaceCache.clear();
 		namespaceIDCache.clear();
@@ -1260,8 +1541,24 @@ class ValueStore extends AbstractValueFactory {
 	 * @throws IOException If an I/O error occurred.
 	 */
 	public void close() throws IOException {
+		try {
+			closeEnvironment();
+		} finally {
+			if (deflater != null) {
+				synchronized (deflater) {
+					// releases the native memory of the compressor
+					deflater.end();
+				}
+			}
+		}
+	}
+
+	private void closeEnvironment() throws IOException {
 		if (env != 0) {
 			endTransaction(false);
+			if (groupCommit) {
+				sync();
+			}
 			mdb_env_close(env);
 			env = 0;
 		}
@@ -1378,7 +1675,14 @@ class ValueStore extends AbstractValueFactory {
 	}
 
 	private boolean isNamespaceData(byte[] data) {
-		return data[0] == NAMESPACE_VALUE;
+		return data[0] == NAMESPACE_VALUE || data[0] == PREFIXED_NAMESPACE_VALUE;
+	}
+
+	/**
+	 * Returns the type of a value, which is also encoded in the lower 2 bits of its ID.
+	 */
+	private static byte valueType(byte[] data) {
+		return data[0] == PREFIXED_NAMESPACE_VALUE ? NAMESPACE_VALUE : data[0];
 	}
 
 	private LmdbValue data2value(long id, byte[] data, LmdbValue value) throws IOException {
@@ -1464,22 +1768,79 @@ class ValueStore extends AbstractValueFactory {
 		}
 	}
 
-	private String data2namespace(byte[] data) {
+	private String data2namespace(byte[] data) throws IOException {
+		if (data[0] == PREFIXED_NAMESPACE_VALUE) {
+			ByteBuffer bb = ByteBuffer.wrap(data);
+			// skip type marker
+			bb.get();
+			String prefix = getNamespace(Varint.readUnsigned(bb));
+			return prefix + new String(data, bb.position(), bb.remaining(), StandardCharsets.UTF_8);
+		}
 		return new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
 	}
 
+	private byte[] namespace2data(String namespace) {
+		byte[] namespaceBytes = namespace.getBytes(StandardCharsets.UTF_8);
+		byte[] namespaceData = new byte[namespaceBytes.length + 1];
+		namespaceData[0] = NAMESPACE_VALUE;
+		System.arraycopy(namespaceBytes, 0, namespaceData, 1, namespaceBytes.length);
+		return namespaceData;
+	}
+
+	private byte[] prefixedNamespace2data(long prefixID, String suffix) {
+		byte[] suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+		int prefixIDLength = Varint.calcLengthUnsigned(prefixID);
+		byte[] namespaceData = new byte[1 + prefixIDLength + suffixBytes.length];
+		namespaceData[0] = PREFIXED_NAMESPACE_VALUE;
+		Varint.writeUnsigned(ByteBuffer.wrap(namespaceData, 1, prefixIDLength), prefixID);
+		ByteArrayUtil.put(suffixBytes, namespaceData, 1 + prefixIDLength);
+		return namespaceData;
+	}
+
+	/**
+	 * Returns the longest namespace that ends with a separator and that the given namespace starts with, or
+	 * <tt>null</tt> if there is none that is long enough to be worth sharing.
+	 */
+	private static String getPrefixNamespace(String namespace) {
+		for (int i = namespace.length() - 2; i >= MIN_PREFIX_LENGTH - 1; i--) {
+			char c = namespace.charAt(i);
+			if (c == '/' || c == '#' || c == ':') {
+				return namespace.substring(0, i + 1);
+			}
+		}
+		return null;
+	}
+
 	private long getNamespaceID(String namespace, boolean create) throws IOException {
 		Long cacheID = namespaceIDCache.get(namespace);
 		if (cacheID != null) {
 			return cacheID;
 		}
 
-		byte[] namespaceBytes = namespace.getBytes(StandardCharsets.UTF_8);
-		byte[] namespaceData = new byte[namespaceBytes.length + 1];
-		namespaceData[0] = NAMESPACE_VALUE;
-		System.arraycopy(namespaceBytes, 0, namespaceData, 1, namespaceBytes.length);
+		byte[] namespaceData = namespace2data(namespace);
+
+		long id;
+		String prefix = getPrefixNamespace(namespace);
+		if (prefix == null) {
+			id = findId(namespaceData, create);
+		} else {
+			// the namespace may have been stored in either form, depending on the configuration at that time
+			boolean compress = deflater != null;
+			long prefixID = getNamespaceID(prefix, create && compress);
+			byte[] prefixedData = prefixID == LmdbValue.UNKNOWN_ID ? null
+					: prefixedNamespace2data(prefixID, namespace.substring(prefix.length()));
+			byte[] preferredData = compress ? prefixedData : namespaceData;
+			byte[] otherData = compress ? namespaceData : prefixedData;
+
+			id = preferredData != null ? findId(preferredData, false) : LmdbValue.UNKNOWN_ID;
+			if (id == LmdbValue.UNKNOWN_ID && otherData != null) {
+				id = findId(otherData, false);
+			}
+			if (id == LmdbValue.UNKNOWN_ID && create) {
+				id = findId(preferredData, true);
+			}
+		}
 
-		long id = findId(namespaceData, create);
 		if (id != LmdbValue.UNKNOWN_ID) {
 			namespaceIDCache.put(namespace, id);
 		}
@@ -1492,14 +1853,13 @@ class ValueStore extends AbstractValueFactory {
 	 *-------------------------------------*/
 
 	private String getNamespace(long id) throws IOException {
-		Long cacheID = id;
-		String namespace = namespaceCache.get(cacheID);
+		String namespace = namespaceCache.get(id);
 
 		if (namespace == null) {
 			byte[] namespaceData = getData(id);
 			if (namespaceData != null) {
 				namespace = data2namespace(namespaceData);
-				namespaceCache.put(cacheID, namespace);
+				namespaceCache.put(id, namespace, cacheWeight(namespaceData));
 			}
 		}
 
@@ -71,6 +71,16 @@ public class LmdbStoreConfig extends BaseSailConfig {
 
 	private boolean autoGrow = true;
 
+	private boolean bulkLoad = false;
+
+	private boolean valueCompression = false;
+
+	private boolean inlineLiterals = false;
+
+	private boolean groupCommit = false;
+
+	private boolean orderedScans = false;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -178,6 +188,79 @@ public class LmdbStoreConfig extends BaseSailConfig {
 		return this;
 	}
 
+	public boolean getBulkLoad() {
+		return bulkLoad;
+	}
+
+	/**
+	 * Enables bulk load mode, which is intended for loading large amounts of data into a store. Explicit statements
+	 * that are added in a transaction are then buffered, spilling to temporary files in the data directory, and written
+	 * to each index in key order when the transaction is committed. If the map has to grow while the buffered
+	 * statements are written, the statements are committed in more than one LMDB transaction.
+	 */
+	public LmdbStoreConfig setBulkLoad(boolean bulkLoad) {
+		this.bulkLoad = bulkLoad;
+		return this;
+	}
+
+	public boolean getValueCompression() {
+		return valueCompression;
+	}
+
+	/**
+	 * Enables a more compact encoding of new values. Long namespaces are stored as a reference to a shorter namespace
+	 * they start with plus the remaining characters, so that IRIs with a common prefix share its storage, and long
+	 * values are compressed with deflate. Values that were stored with or without this option remain readable either
+	 * way.
+	 */
+	public LmdbStoreConfig setValueCompression(boolean valueCompression) {
+		this.valueCompression = valueCompression;
+		return this;
+	}
+
+	public boolean getInlineLiterals() {
+		return inlineLiterals;
+	}
+
+	/**
+	 * Encodes canonical xsd:integer, xsd:boolean and xsd:dateTime literals directly into their IDs, ordered by value,
+	 * so that range filters on such literals can be answered by index range scans. The encoding is fixed when the store
+	 * is created, so the option has no effect on existing stores.
+	 */
+	public LmdbStoreConfig setInlineLiterals(boolean inlineLiterals) {
+		this.inlineLiterals = inlineLiterals;
+		return this;
+	}
+
+	public boolean getGroupCommit() {
+		return groupCommit;
+	}
+
+	/**
+	 * Lets concurrent transactions share the disk sync that makes their commits durable. Commits are written to the
+	 * database without syncing and a single sync is then performed for all commits that arrived while the previous sync
+	 * was in progress. A commit still only returns once its changes are durable. If the shared sync fails, the commit
+	 * throws an exception but is not rolled back, as its changes are already visible to other transactions. Only has an
+	 * effect if {@link #setForceSync(boolean) forceSync} is enabled.
+	 */
+	public LmdbStoreConfig setGroupCommit(boolean groupCommit) {
+		this.groupCommit = groupCommit;
+		return this;
+	}
+
+	public boolean getOrderedScans() {
+		return orderedScans;
+	}
+
+	/**
+	 * Lets the query engine request statements sorted by value ID, so that it can plan merge joins and leapfrog
+	 * triejoins over the sorted index scans. Orders that no index can deliver for a pattern are sorted in memory.
+	 */
+	public LmdbStoreConfig setOrderedScans(boolean orderedScans) {
+		this.orderedScans = orderedScans;
+		return this;
+	}
+
 	@Override
 	public Resource export(Model m) {
 		Resource implNode = super.export(m);
@@ -211,6 +294,21 @@ public class LmdbStoreConfig extends BaseSailConfig {
 		if (!autoGrow) {
 			m.add(implNode, LmdbStoreSchema.AUTO_GROW, vf.createLiteral(false));
 		}
+		if (bulkLoad) {
+			m.add(implNode, LmdbStoreSchema.BULK_LOAD, vf.createLiteral(true));
+		}
+		if (valueCompression) {
+			m.add(implNode, LmdbStoreSchema.VALUE_COMPRESSION, vf.createLiteral(true));
+		}
+		if (inlineLiterals) {
+			m.add(implNode, LmdbStoreSchema.INLINE_LITERALS, vf.createLiteral(true));
+		}
+		if (groupCommit) {
+			m.add(implNode, LmdbStoreSchema.GROUP_COMMIT, vf.createLiteral(true));
+		}
+		if (orderedScans) {
+			m.add(implNode, LmdbStoreSchema.ORDERED_SCANS, vf.createLiteral(true));
+		}
 		return implNode;
 	}
 
@@ -304,6 +402,55 @@ public class LmdbStoreConfig extends BaseSailConfig {
 							"Boolean value required for " + LmdbStoreSchema.AUTO_GROW + " property, found " + lit);
 				}
 			});
+
+			Models.objectLiteral(m.getStatements(implNode, LmdbStoreSchema.BULK_LOAD, null)).ifPresent(lit -> {
+				try {
+					setBulkLoad(lit.booleanValue());
+				} catch (IllegalArgumentException e) {
+					throw new SailConfigException(
+							"Boolean value required for " + LmdbStoreSchema.BULK_LOAD + " property, found " + lit);
+				}
+			});
+
+			Models.objectLiteral(m.getStatements(implNode, LmdbStoreSchema.VALUE_COMPRESSION, null))
+					.ifPresent(lit -> {
+						try {
+							setValueCompression(lit.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException("Boolean value required for "
+									+ LmdbStoreSchema.VALUE_COMPRESSION + " property, found " + lit);
+						}
+					});
+
+			Models.objectLiteral(m.getStatements(implNode, LmdbStoreSchema.INLINE_LITERALS, null))
+					.ifPresent(lit -> {
+						try {
+							setInlineLiterals(lit.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException("Boolean value required for "
+									+ LmdbStoreSchema.INLINE_LITERALS + " property, found " + lit);
+						}
+					});
+
+			Models.objectLiteral(m.getStatements(implNode, LmdbStoreSchema.GROUP_COMMIT, null))
+					.ifPresent(lit -> {
+						try {
+							setGroupCommit(lit.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException("Boolean value required for "
+									+ LmdbStoreSchema.GROUP_COMMIT + " property, found " + lit);
+						}
+					});
+
+			Models.objectLiteral(m.getStatements(implNode, LmdbStoreSchema.ORDERED_SCANS, null))
+					.ifPresent(lit -> {
+						try {
+							setOrderedScans(lit.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException("Boolean value required for "
+									+ LmdbStoreSchema.ORDERED_SCANS + " property, found " + lit);
+						}
+					});
 		} catch (ModelException e) {
 			throw new SailConfigException(e.getMessage(), e);
 		}
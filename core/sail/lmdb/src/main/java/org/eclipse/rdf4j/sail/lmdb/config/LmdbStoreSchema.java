@@ -71,6 +71,31 @@ public class LmdbStoreSchema {
 	 */
 	public final static IRI AUTO_GROW;
 
+	/**
+	 * <tt>http://rdf4j.org/config/sail/lmdb#bulkLoad</tt>
+	 */
+	public final static IRI BULK_LOAD;
+
+	/**
+	 * <tt>http://rdf4j.org/config/sail/lmdb#valueCompression</tt>
+	 */
+	public final static IRI VALUE_COMPRESSION;
+
+	/**
+	 * <tt>http://rdf4j.org/config/sail/lmdb#inlineLiterals</tt>
+	 */
+	public final static IRI INLINE_LITERALS;
+
+	/**
+	 * <tt>http://rdf4j.org/config/sail/lmdb#groupCommit</tt>
+	 */
+	public final static IRI GROUP_COMMIT;
+
+	/**
+	 * <tt>http://rdf4j.org/config/sail/lmdb#orderedScans</tt>
+	 */
+	public final static IRI ORDERED_SCANS;
+
 	static {
 		ValueFactory factory = SimpleValueFactory.getInstance();
 		TRIPLE_INDEXES = factory.createIRI(NAMESPACE, "tripleIndexes");
@@ -82,5 +107,10 @@ public class LmdbStoreSchema {
 		NAMESPACE_CACHE_SIZE = factory.createIRI(NAMESPACE, "namespaceCacheSize");
 		NAMESPACE_ID_CACHE_SIZE = factory.createIRI(NAMESPACE, "namespaceIDCacheSize");
 		AUTO_GROW = factory.createIRI(NAMESPACE, "autoGrow");
+		BULK_LOAD = factory.createIRI(NAMESPACE, "bulkLoad");
+		VALUE_COMPRESSION = factory.createIRI(NAMESPACE, "valueCompression");
+		INLINE_LITERALS = factory.createIRI(NAMESPACE, "inlineLiterals");
+		GROUP_COMMIT = factory.createIRI(NAMESPACE, "groupCommit");
+		ORDERED_SCANS = factory.createIRI(NAMESPACE, "orderedScans");
 	}
 }
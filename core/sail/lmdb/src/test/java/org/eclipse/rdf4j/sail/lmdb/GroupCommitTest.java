@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Low-level tests for {@link GroupCommit}.
+ */
+public class GroupCommitTest {
+
+	@Test
+	public void testSyncOnlyOnce() throws Exception {
+		AtomicInteger syncs = new AtomicInteger();
+		GroupCommit groupCommit = new GroupCommit(syncs::incrementAndGet);
+
+		long first = groupCommit.committed();
+		long second = groupCommit.committed();
+		groupCommit.awaitDurable(second);
+		assertEquals(1, syncs.get());
+
+		// both commits are already covered by the previous sync
+		groupCommit.awaitDurable(first);
+		groupCommit.awaitDurable(second);
+		assertEquals(1, syncs.get());
+
+		groupCommit.awaitDurable(groupCommit.committed());
+		assertEquals(2, syncs.get());
+	}
+
+	@Test
+	public void testCommitsDuringSyncShareNextSync() throws Exception {
+		CountDownLatch syncStarted = new CountDownLatch(1);
+		CountDownLatch releaseSync = new CountDownLatch(1);
+		AtomicInteger syncs = new AtomicInteger();
+		GroupCommit groupCommit = new GroupCommit(() -> {
+			if (syncs.incrementAndGet() == 1) {
+				syncStarted.countDown();
+				try {
+					releaseSync.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+			}
+		});
+
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			long leader = groupCommit.committed();
+			Future<?> leaderResult = executor.submit(() -> {
+				groupCommit.awaitDurable(leader);
+				return null;
+			});
+			assertTrue(syncStarted.await(10, TimeUnit.SECONDS));
+
+			// commits arriving while the first sync is in progress
+			List<Future<?>> followers = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				long sequence = groupCommit.committed();
+				followers.add(executor.submit(() -> {
+					groupCommit.awaitDurable(sequence);
+					return null;
+				}));
+			}
+			releaseSync.countDown();
+
+			leaderResult.get(10, TimeUnit.SECONDS);
+			for (Future<?> follower : followers) {
+				follower.get(10, TimeUnit.SECONDS);
+			}
+			assertEquals(2, syncs.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFailedSyncIsReportedToAllCoveredCommits() throws Exception {
+		IOException error = new IOException("disk full");
+		AtomicInteger syncs = new AtomicInteger();
+		GroupCommit groupCommit = new GroupCommit(() -> {
+			if (syncs.incrementAndGet() == 1) {
+				throw error;
+			}
+		});
+
+		long first = groupCommit.committed();
+		long second = groupCommit.committed();
+		try {
+			groupCommit.awaitDurable(first);
+			fail("Expected sync to fail");
+		} catch (IOException e) {
+			assertSame(error, e);
+		}
+		try {
+			groupCommit.awaitDurable(second);
+			fail("Expected failed sync to be reported");
+		} catch (IOException e) {
+			assertSame(error, e.getCause());
+		}
+		assertEquals(1, syncs.get());
+
+		// a later commit triggers a new sync
+		groupCommit.awaitDurable(groupCommit.committed());
+		assertEquals(2, syncs.get());
+		groupCommit.awaitDurable(second);
+	}
+}
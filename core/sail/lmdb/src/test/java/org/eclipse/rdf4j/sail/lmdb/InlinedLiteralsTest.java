@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.sail.lmdb.model.LmdbValue;
+import org.junit.jupiter.api.Test;
+
+public class InlinedLiteralsTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	@Test
+	public void testIdsAreOrderedByValue() {
+		assertOrdered(XSD.INTEGER, "-281474976710656", "-5", "0", "17", "100", "281474976710655");
+		assertOrdered(XSD.DATETIME, "1900-01-01T00:00:00Z", "1970-01-01T00:00:00Z", "2024-01-31T12:00:00.001Z",
+				"2024-01-31T12:00:01Z");
+		assertOrdered(XSD.BOOLEAN, "false", "true");
+	}
+
+	@Test
+	public void testNonCanonicalLiteralsAreNotInlined() {
+		for (String label : new String[] { "+5", "05", "281474976710656", "1.0", "abc" }) {
+			assertEquals(label, LmdbValue.UNKNOWN_ID, InlinedLiterals.getId(vf.createLiteral(label, XSD.INTEGER)));
+		}
+		for (String label : new String[] { "2024-01-31T12:00:00.0001Z", "2024-01-31T12:00:00",
+				"2024-01-31T12:00:00+01:00" }) {
+			assertEquals(label, LmdbValue.UNKNOWN_ID, InlinedLiterals.getId(vf.createLiteral(label, XSD.DATETIME)));
+		}
+		assertEquals(LmdbValue.UNKNOWN_ID, InlinedLiterals.getId(vf.createLiteral("1", XSD.BOOLEAN)));
+		assertEquals(LmdbValue.UNKNOWN_ID, InlinedLiterals.getId(vf.createLiteral("42", XSD.DECIMAL)));
+	}
+
+	@Test
+	public void testIdRange() {
+		long[] range = InlinedLiterals.getIdRange(vf.createLiteral("100.5", XSD.DECIMAL), vf.createLiteral(200));
+		assertEquals(101, InlinedLiterals.getPayload(range[0]));
+		assertEquals(200, InlinedLiterals.getPayload(range[1]));
+
+		range = InlinedLiterals.getIdRange(vf.createLiteral(1e3), null);
+		assertEquals(1000, InlinedLiterals.getPayload(range[0]));
+		assertEquals(InlinedLiterals.MAX_PAYLOAD, InlinedLiterals.getPayload(range[1]));
+
+		// no integer lies within the bounds
+		range = InlinedLiterals.getIdRange(vf.createLiteral("5.5", XSD.DECIMAL), vf.createLiteral("5.7", XSD.DECIMAL));
+		assertTrue(range[0] > range[1]);
+
+		// a dateTime without timezone may be compared with any timezone
+		range = InlinedLiterals.getIdRange(vf.createLiteral("2024-01-31T00:00:00", XSD.DATETIME), null);
+		assertTrue(InlinedLiterals.getLabel(range[0]).compareTo("2024-01-30T10:00:00Z") < 0);
+
+		// bounds that do not restrict the inlined literals
+		assertNull(InlinedLiterals.getIdRange(vf.createLiteral("abc"), null));
+		assertNull(InlinedLiterals.getIdRange(vf.createLiteral(Double.NaN), null));
+		assertNull(InlinedLiterals.getIdRange(vf.createLiteral(1),
+				vf.createLiteral("2024-01-31T00:00:00Z", XSD.DATETIME)));
+	}
+
+	private void assertOrdered(IRI datatype, String... labels) {
+		long previous = 0;
+		for (String label : labels) {
+			Literal literal = vf.createLiteral(label, datatype);
+			long id = InlinedLiterals.getId(literal);
+			assertTrue(label, InlinedLiterals.isInlined(id));
+			assertTrue(label, id > previous);
+			assertEquals(label, InlinedLiterals.getLabel(id));
+			assertEquals(literal.getCoreDatatype(), InlinedLiterals.getDatatype(id));
+			previous = id;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.LeapfrogTriejoinIterator;
+import org.eclipse.rdf4j.query.algebra.evaluation.optimizer.QueryJoinOptimizer;
+import org.eclipse.rdf4j.query.explanation.Explanation;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Evaluates cyclic queries as leapfrog triejoins over the sorted, seekable index scans of the {@link LmdbStore}.
+ */
+public class LmdbLeapfrogTriejoinTest {
+
+	private static final String TRIANGLE_QUERY = "SELECT ?a ?b ?c WHERE { ?a <ex:knows> ?b . ?b <ex:knows> ?c . "
+			+ "?c <ex:knows> ?a }";
+
+	@TempDir
+	File dataDir;
+
+	private SailRepository repository;
+
+	private boolean useLeapfrog;
+
+	@BeforeEach
+	public void setUp() {
+		useLeapfrog = QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS;
+		QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS = true;
+
+		// the indexes that list the statements of a pattern with a bound predicate by subject and by object
+		repository = new SailRepository(
+				new LmdbStore(dataDir, new LmdbStoreConfig("spoc,posc,psoc").setOrderedScans(true)));
+
+		ValueFactory vf = repository.getValueFactory();
+		IRI knows = vf.createIRI("ex:knows");
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			connection.begin();
+			// a chain of people in which every third one closes a triangle, so that the scans must skip ahead
+			for (int i = 0; i < 300; i++) {
+				connection.add(vf.createIRI("ex:person" + i), knows, vf.createIRI("ex:person" + (i + 1)));
+				if (i % 3 == 2) {
+					connection.add(vf.createIRI("ex:person" + i), knows, vf.createIRI("ex:person" + (i - 2)));
+				}
+			}
+			connection.commit();
+		}
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.shutDown();
+		QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS = useLeapfrog;
+	}
+
+	@Test
+	public void testTriangleQuery() {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			TupleQuery query = connection.prepareTupleQuery(TRIANGLE_QUERY);
+			List<String> triangles = evaluate(query);
+
+			// each of the 100 triangles is found once per rotation
+			assertThat(triangles).hasSize(300)
+					.contains("person0 person1 person2", "person1 person2 person0", "person2 person0 person1")
+					.doesNotContain("person2 person3 person4");
+			assertThat(query.explain(Explanation.Level.Executed).toString())
+					.contains(LeapfrogTriejoinIterator.class.getSimpleName());
+		}
+	}
+
+	@Test
+	public void testTriangleQueryInTransaction() {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			connection.begin();
+			assertThat(evaluate(connection.prepareTupleQuery(TRIANGLE_QUERY))).hasSize(300);
+			connection.commit();
+		}
+	}
+
+	@Test
+	public void testSameResultsWithoutLeapfrogTriejoin() {
+		List<String> expected;
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS = false;
+			TupleQuery query = connection.prepareTupleQuery(TRIANGLE_QUERY);
+			expected = evaluate(query);
+			assertThat(query.explain(Explanation.Level.Executed).toString())
+					.doesNotContain(LeapfrogTriejoinIterator.class.getSimpleName());
+		} finally {
+			QueryJoinOptimizer.USE_LEAPFROG_TRIEJOIN_FOR_CYCLIC_JOINS = true;
+		}
+
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			assertThat(evaluate(connection.prepareTupleQuery(TRIANGLE_QUERY)))
+					.containsExactlyInAnyOrderElementsOf(expected);
+		}
+	}
+
+	private List<String> evaluate(TupleQuery query) {
+		try (TupleQueryResult result = query.evaluate()) {
+			return result.stream()
+					.map(bindings -> local(bindings.getValue("a").stringValue()) + " "
+							+ local(bindings.getValue("b").stringValue()) + " "
+							+ local(bindings.getValue("c").stringValue()))
+					.collect(Collectors.toList());
+		}
+	}
+
+	private static String local(String iri) {
+		return iri.substring(iri.indexOf(':') + 1);
+	}
+}
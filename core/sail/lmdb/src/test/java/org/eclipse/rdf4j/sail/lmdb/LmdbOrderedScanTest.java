@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Evaluates joins on a shared variable, which are planned as merge joins over ordered scans, against datasets whose
+ * contexts rule out the index orders that the planner asked for.
+ */
+public class LmdbOrderedScanTest {
+
+	private static final String QUERY = "SELECT ?a ?b ?o %s WHERE { ?a <ex:p> ?o . ?b <ex:q> ?o }";
+
+	@TempDir
+	File dataDir;
+
+	private SailRepository repository;
+
+	@AfterEach
+	public void tearDown() {
+		if (repository != null) {
+			repository.shutDown();
+		}
+	}
+
+	@Test
+	public void testSingleGraphDataset() {
+		List<String> expected = evaluate(false, "FROM <ex:graph1>");
+
+		assertThat(expected).hasSize(10);
+		assertThat(evaluate(true, "FROM <ex:graph1>")).containsExactlyInAnyOrderElementsOf(expected);
+	}
+
+	@Test
+	public void testMultipleGraphDataset() {
+		List<String> expected = evaluate(false, "FROM <ex:graph1> FROM <ex:graph2>");
+
+		assertThat(expected).hasSize(40);
+		assertThat(evaluate(true, "FROM <ex:graph1> FROM <ex:graph2>")).containsExactlyInAnyOrderElementsOf(expected);
+	}
+
+	@Test
+	public void testWithoutDataset() {
+		List<String> expected = evaluate(false, "");
+
+		assertThat(expected).hasSize(40);
+		assertThat(evaluate(true, "")).containsExactlyInAnyOrderElementsOf(expected);
+	}
+
+	private List<String> evaluate(boolean orderedScans, String dataset) {
+		if (repository != null) {
+			repository.shutDown();
+		}
+		File storeDir = new File(dataDir, orderedScans ? "ordered" : "unordered");
+		// the default indexes, none of which lists the statements of a context by object
+		repository = new SailRepository(
+				new LmdbStore(storeDir, new LmdbStoreConfig("spoc,posc").setOrderedScans(orderedScans)));
+
+		ValueFactory vf = repository.getValueFactory();
+		IRI p = vf.createIRI("ex:p");
+		IRI q = vf.createIRI("ex:q");
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			connection.begin();
+			for (int i = 0; i < 10; i++) {
+				IRI o = vf.createIRI("ex:o" + i);
+				connection.add(vf.createIRI("ex:a" + i), p, o, vf.createIRI("ex:graph1"));
+				connection.add(vf.createIRI("ex:b" + i), q, o, vf.createIRI("ex:graph1"));
+				connection.add(vf.createIRI("ex:c" + i), p, o, vf.createIRI("ex:graph2"));
+				connection.add(vf.createIRI("ex:d" + i), q, o, vf.createIRI("ex:graph2"));
+			}
+			connection.commit();
+		}
+
+		try (SailRepositoryConnection connection = repository.getConnection();
+				TupleQueryResult result = connection.prepareTupleQuery(String.format(QUERY, dataset)).evaluate()) {
+			return result.stream()
+					.map(bindings -> bindings.getValue("a") + " " + bindings.getValue("b") + " "
+							+ bindings.getValue("o"))
+					.collect(Collectors.toList());
+		}
+	}
+}
@@ -15,6 +15,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 
 import org.eclipse.rdf4j.common.transaction.IsolationLevels;
 import org.eclipse.rdf4j.model.IRI;
@@ -23,6 +25,7 @@ import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
 import org.eclipse.rdf4j.query.TupleQuery;
 import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.eclipse.rdf4j.repository.Repository;
@@ -193,6 +196,41 @@ public class LmdbSailStoreTest {
 		}
 	}
 
+	@Test
+	public void testRangeFilterOnInlinedLiterals(@TempDir File dataDir) {
+		Repository inlined = new SailRepository(
+				new LmdbStore(new File(dataDir, "inlined"), new LmdbStoreConfig("spoc,posc").setInlineLiterals(true)));
+		inlined.init();
+		try (RepositoryConnection conn = inlined.getConnection()) {
+			IRI price = F.createIRI("urn:price");
+			for (int i = 0; i < 100; i++) {
+				conn.add(F.createIRI("urn:item" + i), price, F.createLiteral(BigInteger.valueOf(i)));
+			}
+			conn.add(F.createIRI("urn:decimal"), price, F.createLiteral(new BigDecimal("95.5")));
+			conn.add(F.createIRI("urn:text"), price, F.createLiteral("expensive"));
+			conn.add(F.createIRI("urn:date"), price, F.createLiteral("2024-01-01T00:00:00Z", XSD.DATETIME));
+
+			String query = "select ?s { ?s <urn:price> ?o filter(?o > 90 && ?o <= 96) }";
+			// 91 to 96 and the decimal value
+			assertEquals(7, conn.prepareTupleQuery(query).evaluate().stream().count());
+
+			// uncommitted changes are included
+			conn.begin();
+			conn.add(F.createIRI("urn:new"), price, F.createLiteral(BigInteger.valueOf(93)));
+			conn.remove(F.createIRI("urn:item91"), price, null);
+			assertEquals(7, conn.prepareTupleQuery(query).evaluate().stream().count());
+			conn.rollback();
+
+			assertEquals(1, conn.prepareTupleQuery(
+					"select ?s { ?s <urn:price> ?o filter(?o >= '2023-12-31T00:00:00Z'^^xsd:dateTime) }")
+					.evaluate()
+					.stream()
+					.count());
+		} finally {
+			inlined.shutDown();
+		}
+	}
+
 	@AfterEach
 	public void after() {
 		repo.shutDown();
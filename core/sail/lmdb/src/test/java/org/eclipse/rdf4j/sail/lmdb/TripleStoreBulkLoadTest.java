@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.sail.lmdb.TxnManager.Txn;
+import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the bulk load mode of {@link TripleStore}.
+ */
+public class TripleStoreBulkLoadTest {
+	protected TripleStore tripleStore;
+
+	@BeforeEach
+	public void before(@TempDir File dataDir) throws Exception {
+		tripleStore = new TripleStore(dataDir, new LmdbStoreConfig("spoc,posc").setBulkLoad(true));
+	}
+
+	int count(RecordIterator it) {
+		int count = 0;
+		while (it.next() != null) {
+			count++;
+		}
+		it.close();
+		return count;
+	}
+
+	List<Long> contexts() throws Exception {
+		List<Long> contexts = new ArrayList<>();
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			LmdbContextIdIterator it = tripleStore.getContexts(txn);
+			long[] record;
+			while ((record = it.next()) != null) {
+				contexts.add(record[0]);
+			}
+			it.close();
+		}
+		return contexts;
+	}
+
+	@Test
+	public void testBulkLoad() throws Exception {
+		tripleStore.startTransaction();
+		for (int s = 1000; s > 0; s--) {
+			tripleStore.storeTriple(s, 2, 3, 0, true);
+			tripleStore.storeTriple(s, 4, s + 1, s % 2, true);
+			// duplicate
+			tripleStore.storeTriple(s, 2, 3, 0, true);
+		}
+		tripleStore.commit();
+
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			assertEquals(2000, count(tripleStore.getTriples(txn, -1, -1, -1, -1, true)));
+			assertEquals(1000, count(tripleStore.getTriples(txn, -1, 2, -1, -1, true)));
+			assertEquals(1, count(tripleStore.getTriples(txn, -1, 4, 11, -1, true)));
+			assertEquals(2, count(tripleStore.getTriples(txn, 10, -1, -1, -1, true)));
+		}
+		assertEquals(List.of(0L, 1L), contexts());
+	}
+
+	@Test
+	public void testBulkLoadIntoExistingData() throws Exception {
+		tripleStore.startTransaction();
+		for (int s = 1; s <= 100; s += 2) {
+			tripleStore.storeTriple(s, 2, 3, 0, true);
+		}
+		tripleStore.commit();
+
+		tripleStore.startTransaction();
+		// partly before, between and after the existing keys
+		for (int s = 1; s <= 200; s++) {
+			tripleStore.storeTriple(s, 2, 3, 0, true);
+		}
+		tripleStore.commit();
+
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			assertEquals(200, count(tripleStore.getTriples(txn, -1, -1, -1, -1, true)));
+			assertEquals(200, count(tripleStore.getTriples(txn, -1, 2, 3, -1, true)));
+		}
+
+		tripleStore.startTransaction();
+		tripleStore.removeTriplesByContext(-1, 2, -1, 0, true, quad -> {
+		});
+		tripleStore.commit();
+
+		// the statement count of the context was updated correctly
+		assertEquals(List.of(), contexts());
+	}
+
+	@Test
+	public void testBulkLoadReplacesInferred() throws Exception {
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(1, 2, 3, 1, false);
+		tripleStore.storeTriple(1, 2, 4, 1, false);
+		tripleStore.commit();
+
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(1, 2, 3, 1, true);
+		tripleStore.commit();
+
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			assertEquals(1, count(tripleStore.getTriples(txn, 1, 2, -1, 1, false)));
+			assertEquals(1, count(tripleStore.getTriples(txn, -1, 2, 4, -1, false)));
+			assertEquals(1, count(tripleStore.getTriples(txn, 1, 2, -1, 1, true)));
+		}
+	}
+
+	@Test
+	public void testRemoveInBulkLoadTransaction() throws Exception {
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(1, 2, 3, 0, true);
+		tripleStore.storeTriple(1, 2, 4, 0, true);
+		tripleStore.removeTriplesByContext(1, 2, 3, -1, true, quad -> {
+		});
+		tripleStore.storeTriple(1, 2, 5, 0, true);
+		tripleStore.commit();
+
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			assertEquals(2, count(tripleStore.getTriples(txn, 1, 2, -1, -1, true)));
+			assertEquals(0, count(tripleStore.getTriples(txn, -1, 2, 3, -1, true)));
+		}
+	}
+
+	@Test
+	public void testRollback() throws Exception {
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(1, 2, 3, 0, true);
+		tripleStore.rollback();
+
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			assertEquals(0, count(tripleStore.getTriples(txn, -1, -1, -1, -1, true)));
+		}
+		assertEquals(List.of(), contexts());
+	}
+
+	@Test
+	public void testRollbackAfterFlushThatRequiresResize(@TempDir File dataDir) throws Exception {
+		tripleStore.close();
+		LmdbStoreConfig config = new LmdbStoreConfig("spoc,posc").setBulkLoad(true);
+		config.setTripleDBSize(1024 * 1024);
+		tripleStore = new TripleStore(dataDir, config);
+
+		tripleStore.startTransaction();
+		// inferred statements are written right away
+		tripleStore.storeTriple(1, 5, 6, 0, false);
+		for (int s = 1; s <= 20000; s++) {
+			tripleStore.storeTriple(s, 2, 3, 0, true);
+		}
+		// flushes the buffer, which does not fit into the map
+		tripleStore.removeTriplesByContext(-1, 4, -1, -1, true, quad -> {
+		});
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			assertEquals(0, count(tripleStore.getTriples(txn, -1, -1, -1, -1, false)));
+		}
+		tripleStore.rollback();
+
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			assertEquals(0, count(tripleStore.getTriples(txn, -1, -1, -1, -1, false)));
+			assertEquals(0, count(tripleStore.getTriples(txn, -1, -1, -1, -1, true)));
+		}
+
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(1, 5, 6, 0, false);
+		for (int s = 1; s <= 20000; s++) {
+			tripleStore.storeTriple(s, 2, 3, 0, true);
+		}
+		tripleStore.removeTriplesByContext(-1, 4, -1, -1, true, quad -> {
+		});
+		tripleStore.storeTriple(1, 4, 5, 0, true);
+		tripleStore.commit();
+
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			assertEquals(20001, count(tripleStore.getTriples(txn, -1, -1, -1, -1, true)));
+			assertEquals(20000, count(tripleStore.getTriples(txn, -1, 2, 3, -1, true)));
+			assertEquals(1, count(tripleStore.getTriples(txn, -1, -1, -1, -1, false)));
+		}
+	}
+
+	@AfterEach
+	public void after() throws Exception {
+		tripleStore.close();
+	}
+}
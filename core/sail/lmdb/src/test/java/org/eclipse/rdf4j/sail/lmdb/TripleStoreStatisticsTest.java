@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.E;
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.openDatabase;
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.transaction;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.lwjgl.system.MemoryStack.stackPush;
+import static org.lwjgl.util.lmdb.LMDB.MDB_NOTLS;
+import static org.lwjgl.util.lmdb.LMDB.mdb_drop;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_close;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_create;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_open;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_maxdbs;
+
+import java.io.File;
+
+import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the persistent statistics of {@link TripleStore}.
+ */
+public class TripleStoreStatisticsTest {
+	private File dataDir;
+
+	protected TripleStore tripleStore;
+
+	@BeforeEach
+	public void before(@TempDir File dataDir) throws Exception {
+		this.dataDir = dataDir;
+		tripleStore = new TripleStore(dataDir, new LmdbStoreConfig("spoc,posc"));
+	}
+
+	@Test
+	public void testPredicateCardinality() throws Exception {
+		tripleStore.startTransaction();
+		for (int s = 1; s <= 100; s++) {
+			tripleStore.storeTriple(s, 2, 3, 0, true);
+			tripleStore.storeTriple(s, 4, 1000 + s, 0, false);
+		}
+		tripleStore.commit();
+
+		assertEquals(100, tripleStore.cardinality(-1, 2, -1, -1), 0);
+		assertEquals(100, tripleStore.cardinality(-1, 4, -1, -1), 0);
+		assertEquals(0, tripleStore.cardinality(-1, 5, -1, -1), 0);
+		// a frequent object is counted exactly
+		assertEquals(100, tripleStore.cardinality(-1, 2, 3, -1), 0);
+		assertEquals(1, tripleStore.cardinality(-1, 4, 1010, -1), 0.5);
+		assertEquals(1, tripleStore.cardinality(10, 4, -1, -1), 0.5);
+		assertEquals(200, tripleStore.cardinality(-1, -1, -1, 0), 0);
+
+		StatisticsStore.PredicateStatistics stats = tripleStore.getPredicateStatistics(4);
+		assertEquals(100, stats.getDistinctSubjectCount(), 10);
+		assertEquals(100, stats.getDistinctObjectCount(), 10);
+	}
+
+	@Test
+	public void testRemoveAndRollback() throws Exception {
+		tripleStore.startTransaction();
+		for (int s = 1; s <= 10; s++) {
+			tripleStore.storeTriple(s, 2, 3, 0, true);
+		}
+		tripleStore.commit();
+
+		tripleStore.startTransaction();
+		tripleStore.removeTriplesByContext(1, 2, -1, -1, true, quad -> {
+		});
+		tripleStore.storeTriple(11, 2, 3, 0, true);
+		tripleStore.rollback();
+		assertEquals(10, tripleStore.cardinality(-1, 2, -1, -1), 0);
+
+		tripleStore.startTransaction();
+		tripleStore.removeTriplesByContext(-1, 2, -1, -1, true, quad -> {
+		});
+		tripleStore.commit();
+		assertEquals(0, tripleStore.cardinality(-1, 2, -1, -1), 0);
+		assertEquals(0, tripleStore.cardinality(-1, 2, 3, -1), 0);
+	}
+
+	@Test
+	public void testExplicitReplacesInferred() throws Exception {
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(1, 2, 3, 0, false);
+		tripleStore.storeTriple(1, 2, 3, 0, true);
+		tripleStore.commit();
+
+		assertEquals(1, tripleStore.cardinality(-1, 2, -1, -1), 0);
+	}
+
+	@Test
+	public void testStatisticsArePersisted() throws Exception {
+		tripleStore.startTransaction();
+		for (int s = 1; s <= 50; s++) {
+			tripleStore.storeTriple(s, 2, s % 5, 0, true);
+		}
+		tripleStore.commit();
+
+		tripleStore.close();
+		tripleStore = new TripleStore(dataDir, new LmdbStoreConfig("spoc,posc"));
+
+		assertEquals(50, tripleStore.cardinality(-1, 2, -1, -1), 0);
+		assertEquals(10, tripleStore.cardinality(-1, 2, 1, -1), 0);
+		assertTrue(tripleStore.getPredicateStatistics(2).getDistinctObjectCount() <= 6);
+	}
+
+	@Test
+	public void testStatisticsOfManyPredicatesWithAutoGrow() throws Exception {
+		tripleStore.close();
+		LmdbStoreConfig config = new LmdbStoreConfig("spoc,posc");
+		config.setTripleDBSize(4096 * 10);
+		tripleStore = new TripleStore(dataDir, config);
+
+		// the statistics of 1000 predicates do not fit into the initial map
+		tripleStore.startTransaction();
+		for (int p = 1; p <= 1000; p++) {
+			tripleStore.storeTriple(1, p, 3, 0, true);
+			tripleStore.storeTriple(2, p, 3, 0, true);
+		}
+		tripleStore.commit();
+
+		assertEquals(2, tripleStore.cardinality(-1, 1, -1, -1), 0);
+		assertEquals(2, tripleStore.cardinality(-1, 1000, -1, -1), 0);
+
+		tripleStore.close();
+		tripleStore = new TripleStore(dataDir, config);
+		assertEquals(2, tripleStore.cardinality(-1, 500, -1, -1), 0);
+	}
+
+	@Test
+	public void testStatisticsAreComputedForExistingStores() throws Exception {
+		tripleStore.close();
+		LmdbStoreConfig config = new LmdbStoreConfig("spoc,posc");
+		config.setTripleDBSize(4096 * 10);
+		tripleStore = new TripleStore(dataDir, config);
+
+		tripleStore.startTransaction();
+		for (int p = 1; p <= 1000; p++) {
+			tripleStore.storeTriple(1, p, 3, 0, true);
+			tripleStore.storeTriple(2, p, 3, 0, false);
+		}
+		tripleStore.commit();
+		tripleStore.close();
+
+		// simulate a store that was created before statistics were maintained
+		dropStatistics();
+
+		tripleStore = new TripleStore(dataDir, config);
+		// the statistics are computed in the background, a write waits until they are complete
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(3, 500, 3, 0, true);
+		tripleStore.commit();
+		tripleStore.awaitStatistics();
+
+		assertEquals(2, tripleStore.getPredicateStatistics(1).getCount());
+		assertEquals(3, tripleStore.getPredicateStatistics(500).getCount());
+
+		tripleStore.close();
+		tripleStore = new TripleStore(dataDir, config);
+		assertEquals(2, tripleStore.getPredicateStatistics(1000).getCount());
+		assertEquals(3, tripleStore.getPredicateStatistics(500).getCount());
+	}
+
+	private void dropStatistics() throws Exception {
+		long env;
+		try (MemoryStack stack = stackPush()) {
+			PointerBuffer pp = stack.mallocPointer(1);
+			E(mdb_env_create(pp));
+			env = pp.get(0);
+		}
+		try {
+			E(mdb_env_set_maxdbs(env, 16));
+			E(mdb_env_open(env, dataDir.getAbsolutePath(), MDB_NOTLS, 0664));
+			int dbi = openDatabase(env, "statistics", 0, null);
+			transaction(env, (stack, txn) -> E(mdb_drop(txn, dbi, false)));
+		} finally {
+			mdb_env_close(env);
+		}
+	}
+
+	@AfterEach
+	public void after() throws Exception {
+		tripleStore.close();
+	}
+}
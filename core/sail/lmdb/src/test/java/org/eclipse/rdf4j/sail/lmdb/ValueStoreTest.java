@@ -11,6 +11,7 @@
 package org.eclipse.rdf4j.sail.lmdb;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -19,6 +20,7 @@ import static org.junit.Assert.assertTrue;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -26,6 +28,8 @@ import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
+import org.eclipse.rdf4j.collection.factory.primitive.LongArrayList;
+import org.eclipse.rdf4j.collection.factory.primitive.LongHashSet;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Value;
@@ -53,7 +57,11 @@ public class ValueStoreTest {
 	}
 
 	private ValueStore createValueStore() throws IOException {
-		return new ValueStore(new File(dataDir, "values"), new LmdbStoreConfig());
+		return createValueStore(new LmdbStoreConfig());
+	}
+
+	private ValueStore createValueStore(LmdbStoreConfig config) throws IOException {
+		return new ValueStore(new File(dataDir, "values"), config);
 	}
 
 	@Test
@@ -74,7 +82,7 @@ public class ValueStoreTest {
 		for (int i = 0; i < 30; i++) {
 			ids.add(values[i].getInternalID());
 		}
-		valueStore.gcIds(ids, new HashSet<>());
+		gcIds(ids, new HashSet<>());
 		valueStore.commit();
 
 		ValueStoreRevision revAfter = valueStore.getRevision();
@@ -119,7 +127,7 @@ public class ValueStoreTest {
 		for (int i = 0; i < 30; i++) {
 			ids.add(values[i].getInternalID());
 		}
-		valueStore.gcIds(ids, new HashSet<>());
+		gcIds(ids, new HashSet<>());
 		valueStore.commit();
 
 		// close and recreate store
@@ -158,8 +166,8 @@ public class ValueStoreTest {
 		valueStore.commit();
 
 		valueStore.startTransaction(true);
-		valueStore.gcIds(Collections.singleton(values[0].getInternalID()), new HashSet<>());
-		valueStore.gcIds(datatypeIds, new HashSet<>());
+		gcIds(Collections.singleton(values[0].getInternalID()), new HashSet<>());
+		gcIds(datatypeIds, new HashSet<>());
 		valueStore.commit();
 
 		// close and recreate store
@@ -198,12 +206,12 @@ public class ValueStoreTest {
 
 			Set<Long> nextGcIds = new HashSet<>();
 			valueStore.startTransaction(true);
-			valueStore.gcIds(Collections.singleton(literal.getInternalID()), nextGcIds);
+			gcIds(Collections.singleton(literal.getInternalID()), nextGcIds);
 			assertEquals(1, nextGcIds.size());
 			assertTrue(nextGcIds.contains(typeId));
 
 			if (storeAndGcUri) {
-				valueStore.gcIds(nextGcIds, new HashSet<>());
+				gcIds(nextGcIds, new HashSet<>());
 			}
 
 			valueStore.commit();
@@ -221,6 +229,135 @@ public class ValueStoreTest {
 		}
 	}
 
+	@Test
+	public void testValueCompression() throws Exception {
+		valueStore.close();
+		valueStore = createValueStore(new LmdbStoreConfig().setValueCompression(true));
+
+		String namespace = "urn:example:org:department:sales:employee:";
+		List<Value> values = new LinkedList<>();
+		for (int i = 0; i < 10; i++) {
+			values.add(valueStore.createIRI(namespace + "team" + i + ":", "member" + i));
+			values.add(valueStore.createLiteral("A long literal that is repeated. ".repeat(10) + i));
+		}
+		values.add(valueStore.createLiteral("short"));
+
+		valueStore.startTransaction(true);
+		List<Long> ids = new LinkedList<>();
+		for (Value value : values) {
+			ids.add(valueStore.storeValue(value));
+		}
+		valueStore.commit();
+
+		// values remain readable and are found again with or without compression
+		for (boolean valueCompression : List.of(true, false)) {
+			valueStore.close();
+			valueStore = createValueStore(new LmdbStoreConfig().setValueCompression(valueCompression));
+
+			for (int i = 0; i < values.size(); i++) {
+				assertEquals(values.get(i), valueStore.getValue(ids.get(i)));
+				assertEquals((long) ids.get(i), valueStore.getId(values.get(i)));
+			}
+		}
+	}
+
+	@Test
+	public void testValueCompressionAfterClear() throws Exception {
+		valueStore.close();
+		valueStore = createValueStore(new LmdbStoreConfig().setValueCompression(true));
+		valueStore.clear();
+
+		Literal literal = valueStore.createLiteral("A long literal that is repeated. ".repeat(10));
+		valueStore.startTransaction(true);
+		long id = valueStore.storeValue(literal);
+		valueStore.commit();
+		assertEquals(literal, valueStore.getValue(id));
+	}
+
+	@Test
+	public void testGcPrefixedNamespaces() throws Exception {
+		valueStore.close();
+		valueStore = createValueStore(new LmdbStoreConfig().setValueCompression(true));
+
+		valueStore.startTransaction(true);
+		IRI iri = valueStore.createIRI("http://example.org/data/person/1/", "name");
+		long iriId = valueStore.storeValue(iri);
+		valueStore.commit();
+
+		// the namespace references the namespace it starts with
+		Set<Long> nextGcIds = new HashSet<>();
+		valueStore.startTransaction(true);
+		gcIds(Collections.singleton(iriId), nextGcIds);
+		assertEquals(1, nextGcIds.size());
+		Set<Long> prefixGcIds = new HashSet<>();
+		gcIds(nextGcIds, prefixGcIds);
+		assertEquals(1, prefixGcIds.size());
+		valueStore.commit();
+
+		valueStore.close();
+		valueStore = createValueStore(new LmdbStoreConfig().setValueCompression(true));
+		assertNull(valueStore.getValue(iriId));
+		assertEquals(LmdbValue.UNKNOWN_ID, valueStore.getId(iri));
+	}
+
+	@Test
+	public void testInlinedLiterals() throws Exception {
+		// the store is still empty, so the encoding can be chosen
+		valueStore.close();
+		valueStore = createValueStore(new LmdbStoreConfig().setInlineLiterals(true));
+
+		Literal integer = valueStore.createLiteral("42", XSD.INTEGER);
+		Literal dateTime = valueStore.createLiteral("2024-01-31T12:00:00.500Z", XSD.DATETIME);
+		Literal nonCanonical = valueStore.createLiteral("+42", XSD.INTEGER);
+
+		valueStore.startTransaction(true);
+		long integerId = valueStore.storeValue(integer);
+		long dateTimeId = valueStore.storeValue(dateTime);
+		long nonCanonicalId = valueStore.storeValue(nonCanonical);
+		valueStore.commit();
+
+		assertTrue(InlinedLiterals.isInlined(integerId));
+		assertTrue(InlinedLiterals.isInlined(dateTimeId));
+		assertFalse(InlinedLiterals.isInlined(nonCanonicalId));
+		assertEquals(integer, valueStore.getValue(integerId));
+		assertEquals(dateTime, valueStore.getLazyValue(dateTimeId));
+		assertEquals(nonCanonical, valueStore.getValue(nonCanonicalId));
+
+		// inlined literals are never stored, so there is nothing to collect
+		valueStore.startTransaction(true);
+		gcIds(Collections.singleton(integerId), new HashSet<>());
+		valueStore.commit();
+
+		// the encoding is kept for the existing store even if the option is not set
+		valueStore.close();
+		valueStore = createValueStore();
+		assertEquals(integerId, valueStore.getId(integer));
+		assertEquals(integer, valueStore.getValue(integerId));
+		assertEquals(nonCanonicalId, valueStore.getId(nonCanonical));
+	}
+
+	@Test
+	public void testInlinedLiteralsNotEnabledForExistingStore() throws Exception {
+		Literal integer = valueStore.createLiteral("42", XSD.INTEGER);
+		valueStore.startTransaction(true);
+		long id = valueStore.storeValue(integer);
+		valueStore.commit();
+
+		valueStore.close();
+		valueStore = createValueStore(new LmdbStoreConfig().setInlineLiterals(true));
+		assertFalse(InlinedLiterals.isInlined(id));
+		assertEquals(id, valueStore.getId(integer));
+		assertNull(valueStore.getInlinedIdRange(integer, null));
+	}
+
+	private void gcIds(Collection<Long> ids, Collection<Long> nextIds) throws IOException {
+		LongArrayList idList = new LongArrayList(ids.size());
+		ids.forEach(idList::add);
+		LongHashSet nextIdSet = new LongHashSet();
+		valueStore.gcIds(idList, nextIdSet);
+		nextIdSet.forEach(nextIds::add);
+	}
+
 	@AfterEach
 	public void after() throws Exception {
 		valueStore.close();
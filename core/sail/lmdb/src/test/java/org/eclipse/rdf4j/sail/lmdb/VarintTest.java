@@ -36,6 +36,17 @@ public class VarintTest {
 		}
 	}
 
+	@Test
+	public void testVarintAtPosition() {
+		ByteBuffer bb = ByteBuffer.allocate(1 + 9);
+		for (int i = 0; i < values.length; i++) {
+			bb.clear();
+			bb.put((byte) 0);
+			Varint.writeUnsigned(bb, values[i]);
+			assertEquals("Encoded and decoded value should be equal", values[i], Varint.readUnsigned(bb, 1));
+		}
+	}
+
 	@Test
 	public void testVarintList() {
 		ByteBuffer bb = ByteBuffer.allocate(2 + 4 * Long.BYTES);
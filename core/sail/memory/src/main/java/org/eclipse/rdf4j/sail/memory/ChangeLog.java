@@ -0,0 +1,549 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.eclipse.rdf4j.common.transaction.IsolationLevel;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.base.BackingSailSource;
+import org.eclipse.rdf4j.sail.base.Changeset;
+import org.eclipse.rdf4j.sail.base.SailDataset;
+import org.eclipse.rdf4j.sail.base.SailSink;
+import org.eclipse.rdf4j.sail.base.SailSource;
+import org.eclipse.rdf4j.sail.base.SailStore;
+import org.eclipse.rdf4j.sail.memory.model.MemValueFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only log of the changes that have been committed to a persistent {@link MemoryStore} since its data file
+ * was last written. Every flushed {@link SailSink} is appended as a single record, so that a commit only costs I/O
+ * proportional to its own size. On startup the records are replayed on top of the data file.
+ * <p>
+ * The log is split into generations, each stored in a file named <var>memorystore.log.&lt;generation&gt;</var>. A
+ * checkpoint {@link #rotate() rotates} the log while no commit can be flushed, writes a snapshot of the store to the
+ * data file and then {@link #deleteBefore(long) deletes} the older generations. Replaying a generation that is already
+ * contained in the data file is harmless, as applying a record to a store that already reflects it does not change it.
+ * <p>
+ * Each record is stored as its length, its CRC-32 checksum and the payload, which consists of a flag indicating whether
+ * the changes are explicit followed by the changes as encoded by {@link FileIO}. A record that was only partially
+ * written, for example because the JVM was killed, is detected on replay and truncated.
+ */
+class ChangeLog implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(ChangeLog.class);
+
+	/*-----------*
+	 * Constants *
+	 *-----------*/
+
+	static final String FILE_PREFIX = "memorystore.log.";
+
+	/*-----------*
+	 * Variables *
+	 *-----------*/
+
+	private final File dataDir;
+
+	private final MemValueFactory vf;
+
+	/**
+	 * The generations that are currently on disk, mapped to their files.
+	 */
+	private final TreeMap<Long, File> generations = new TreeMap<>();
+
+	/**
+	 * The generation that records are appended to, -1 if the log has not been opened.
+	 */
+	private long generation = -1;
+
+	private OutputStream out;
+
+	/**
+	 * The total number of bytes in all generations that are still on disk.
+	 */
+	private long size;
+
+	/*--------------*
+	 * Constructors *
+	 *--------------*/
+
+	ChangeLog(File dataDir, MemValueFactory vf) {
+		this.dataDir = dataDir;
+		this.vf = vf;
+
+		File[] files = dataDir.listFiles((dir, name) -> name.startsWith(FILE_PREFIX));
+		if (files != null) {
+			for (File file : files) {
+				try {
+					generations.put(Long.parseLong(file.getName().substring(FILE_PREFIX.length())), file);
+					size += file.length();
+				} catch (NumberFormatException e) {
+					logger.warn("Ignoring unexpected file in data directory: {}", file);
+				}
+			}
+		}
+	}
+
+	/*---------*
+	 * Methods *
+	 *---------*/
+
+	/**
+	 * Applies all records in the log to the supplied store, oldest first. Each record is applied through its own sink.
+	 *
+	 * @return The number of records that were replayed.
+	 */
+	synchronized int replay(SailStore store) throws IOException, SailException {
+		int records = 0;
+		FileIO fileIO = new FileIO(vf);
+		for (File file : generations.values()) {
+			long validLength = 0;
+			try (DataInputStream in = new DataInputStream(
+					new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+				byte[] payload;
+				while ((payload = readRecord(in)) != null) {
+					try (DataInputStream dataIn = new DataInputStream(new ByteArrayInputStream(payload))) {
+						boolean explicit = dataIn.readBoolean();
+						SailSource source = explicit ? store.getExplicitSailSource()
+								: store.getInferredSailSource();
+						SailSink sink = source.sink(IsolationLevels.NONE);
+						try {
+							fileIO.readChanges(dataIn, sink);
+							sink.prepare();
+							sink.flush();
+						} finally {
+							sink.close();
+						}
+					}
+					validLength += 8 + payload.length;
+					records++;
+				}
+			}
+
+			if (validLength < file.length()) {
+				logger.warn("Truncating incomplete record at offset {} of {}", validLength, file);
+				size -= file.length() - validLength;
+				try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+					channel.truncate(validLength);
+				}
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * Reads the next record, returning <var>null</var> at the end of the file or if the record is incomplete or
+	 * corrupt.
+	 */
+	private static byte[] readRecord(DataInputStream in) throws IOException {
+		try {
+			int length = in.readInt();
+			int checksum = in.readInt();
+			if (length < 0) {
+				return null;
+			}
+			byte[] payload = in.readNBytes(length);
+			if (payload.length != length || checksum != checksum(payload, length)) {
+				return null;
+			}
+			return payload;
+		} catch (EOFException e) {
+			return null;
+		}
+	}
+
+	private static int checksum(byte[] data, int length) {
+		CRC32 crc32 = new CRC32();
+		crc32.update(data, 0, length);
+		return (int) crc32.getValue();
+	}
+
+	/**
+	 * Starts a new generation that records will be appended to.
+	 */
+	synchronized void open() throws IOException {
+		generation = generations.isEmpty() ? 1 : generations.lastKey() + 1;
+		File file = new File(dataDir, FILE_PREFIX + generation);
+		out = new FileOutputStream(file, true);
+		generations.put(generation, file);
+	}
+
+	/**
+	 * Closes the current generation and starts a new one. Records that are appended after this method returns are
+	 * stored in the new generation.
+	 *
+	 * @return The new generation.
+	 */
+	synchronized long rotate() throws IOException {
+		if (out == null) {
+			throw new IllegalStateException("Change log is not open");
+		}
+		out.close();
+		out = null;
+		open();
+		return generation;
+	}
+
+	/**
+	 * Deletes all generations that are older than the supplied one.
+	 */
+	synchronized void deleteBefore(long generation) {
+		while (!generations.isEmpty() && generations.firstKey() < generation) {
+			File file = generations.pollFirstEntry().getValue();
+			size -= file.length();
+			if (!file.delete() && file.exists()) {
+				logger.warn("Unable to delete {}", file);
+			}
+		}
+	}
+
+	/**
+	 * Appends a record to the current generation.
+	 *
+	 * @param payload A buffer holding the payload of the record.
+	 */
+	synchronized void append(ByteArrayOutputStream payload) throws IOException {
+		if (out == null) {
+			throw new IllegalStateException("Change log is not open");
+		}
+		byte[] data = payload.toByteArray();
+		byte[] record = new byte[8 + data.length];
+		writeInt(record, 0, data.length);
+		writeInt(record, 4, checksum(data, data.length));
+		System.arraycopy(data, 0, record, 8, data.length);
+		out.write(record);
+		size += record.length;
+	}
+
+	private static void writeInt(byte[] array, int offset, int value) {
+		array[offset] = (byte) (value >>> 24);
+		array[offset + 1] = (byte) (value >>> 16);
+		array[offset + 2] = (byte) (value >>> 8);
+		array[offset + 3] = (byte) value;
+	}
+
+	/**
+	 * @return The total number of bytes in the log.
+	 */
+	synchronized long size() {
+		return size;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (out != null) {
+			out.close();
+			out = null;
+		}
+	}
+
+	/**
+	 * Wraps the supplied store so that all changes that are flushed through its sinks are appended to this log before
+	 * they become visible.
+	 */
+	SailStore wrap(SailStore store) {
+		return new LoggingSailStore(store);
+	}
+
+	private final class LoggingSailStore implements SailStore {
+
+		private final SailStore delegate;
+
+		private final SailSource explicit;
+
+		private final SailSource inferred;
+
+		public LoggingSailStore(SailStore delegate) {
+			this.delegate = delegate;
+			this.explicit = new LoggingSailSource(delegate.getExplicitSailSource(), true);
+			this.inferred = new LoggingSailSource(delegate.getInferredSailSource(), false);
+		}
+
+		@Override
+		public ValueFactory getValueFactory() {
+			return delegate.getValueFactory();
+		}
+
+		@Override
+		public EvaluationStatistics getEvaluationStatistics() {
+			return delegate.getEvaluationStatistics();
+		}
+
+		@Override
+		public SailSource getExplicitSailSource() {
+			return explicit;
+		}
+
+		@Override
+		public SailSource getInferredSailSource() {
+			return inferred;
+		}
+
+		@Override
+		public void close() throws SailException {
+			delegate.close();
+		}
+	}
+
+	private final class LoggingSailSource extends BackingSailSource {
+
+		private final SailSource delegate;
+
+		private final boolean explicit;
+
+		public LoggingSailSource(SailSource delegate, boolean explicit) {
+			this.delegate = delegate;
+			this.explicit = explicit;
+		}
+
+		@Override
+		public String toString() {
+			return delegate.toString();
+		}
+
+		@Override
+		public SailSink sink(IsolationLevel level) throws SailException {
+			return new LoggingSailSink(delegate.sink(level), explicit);
+		}
+
+		@Override
+		public SailDataset dataset(IsolationLevel level) throws SailException {
+			return delegate.dataset(level);
+		}
+	}
+
+	/**
+	 * A sink that passes all changes on to its delegate while encoding them in a buffer, which is appended to the log
+	 * when the sink is flushed.
+	 */
+	private final class LoggingSailSink implements SailSink {
+
+		private final SailSink delegate;
+
+		private final boolean explicit;
+
+		private final FileIO fileIO = new FileIO(vf);
+
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		private final DataOutputStream dataOut = new DataOutputStream(buffer);
+
+		private boolean changed;
+
+		public LoggingSailSink(SailSink delegate, boolean explicit) {
+			this.delegate = delegate;
+			this.explicit = explicit;
+			reset();
+		}
+
+		@Override
+		public String toString() {
+			return delegate.toString();
+		}
+
+		@Override
+		public void prepare() throws SailException {
+			delegate.prepare();
+		}
+
+		@Override
+		public synchronized void flush() throws SailException {
+			if (!changed) {
+				delegate.flush();
+				return;
+			}
+			try {
+				dataOut.writeByte(FileIO.EOF_MARKER);
+				dataOut.flush();
+				// the record must be logged before the changes become visible, and no checkpoint may rotate the log
+				// in between, so that a checkpoint contains either all or none of the changes in older generations
+				synchronized (ChangeLog.this) {
+					append(buffer);
+					delegate.flush();
+				}
+			} catch (IOException e) {
+				throw new SailException("Unable to write to change log", e);
+			} finally {
+				reset();
+			}
+		}
+
+		@Override
+		public synchronized void close() throws SailException {
+			try {
+				delegate.close();
+			} finally {
+				buffer.reset();
+				changed = false;
+			}
+		}
+
+		private void reset() {
+			buffer.reset();
+			changed = false;
+			try {
+				dataOut.writeBoolean(explicit);
+			} catch (IOException e) {
+				// ByteArrayOutputStream does not throw IOExceptions
+				throw new AssertionError(e);
+			}
+		}
+
+		@Override
+		public synchronized void setNamespace(String prefix, String name) throws SailException {
+			delegate.setNamespace(prefix, name);
+			try {
+				fileIO.writeNamespace(prefix, name, dataOut);
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+			changed = true;
+		}
+
+		@Override
+		public synchronized void removeNamespace(String prefix) throws SailException {
+			delegate.removeNamespace(prefix);
+			try {
+				fileIO.writeNamespaceRemoved(prefix, dataOut);
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+			changed = true;
+		}
+
+		@Override
+		public synchronized void clearNamespaces() throws SailException {
+			delegate.clearNamespaces();
+			try {
+				fileIO.writeNamespacesCleared(dataOut);
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+			changed = true;
+		}
+
+		@Override
+		public synchronized void clear(Resource... contexts) throws SailException {
+			delegate.clear(contexts);
+			try {
+				fileIO.writeDeprecatedPattern(null, null, null, contexts, dataOut);
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+			changed = true;
+		}
+
+		@Override
+		public void observe(Resource subj, IRI pred, Value obj, Resource... contexts) throws SailException {
+			delegate.observe(subj, pred, obj, contexts);
+		}
+
+		@Override
+		public void observe(Resource subj, IRI pred, Value obj, Resource context) throws SailException {
+			delegate.observe(subj, pred, obj, context);
+		}
+
+		@Override
+		public void observeAll(Set<Changeset.SimpleStatementPattern> observed) {
+			delegate.observeAll(observed);
+		}
+
+		@Override
+		public synchronized void approve(Resource subj, IRI pred, Value obj, Resource ctx) throws SailException {
+			delegate.approve(subj, pred, obj, ctx);
+			try {
+				fileIO.writeApproved(subj, pred, obj, ctx, dataOut);
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+			changed = true;
+		}
+
+		@Override
+		public synchronized void approveAll(Set<Statement> approved, Set<Resource> approvedContexts) {
+			delegate.approveAll(approved, approvedContexts);
+			try {
+				for (Statement st : approved) {
+					fileIO.writeApproved(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext(), dataOut);
+				}
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+			changed = true;
+		}
+
+		@Override
+		public synchronized void deprecate(Statement statement) throws SailException {
+			delegate.deprecate(statement);
+			try {
+				fileIO.writeDeprecated(statement, dataOut);
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+			changed = true;
+		}
+
+		@Override
+		public synchronized void deprecateAll(Set<Statement> deprecated) {
+			delegate.deprecateAll(deprecated);
+			try {
+				for (Statement st : deprecated) {
+					fileIO.writeDeprecated(st, dataOut);
+				}
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+			changed = true;
+		}
+
+		@Override
+		public boolean supportsDeprecateByQuery() {
+			return delegate.supportsDeprecateByQuery();
+		}
+
+		@Override
+		public synchronized boolean deprecateByQuery(Resource subj, IRI pred, Value obj, Resource[] contexts) {
+			boolean deprecated = delegate.deprecateByQuery(subj, pred, obj, contexts);
+			try {
+				fileIO.writeDeprecatedPattern(subj, pred, obj, contexts, dataOut);
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+			changed = true;
+			return deprecated;
+		}
+	}
+}
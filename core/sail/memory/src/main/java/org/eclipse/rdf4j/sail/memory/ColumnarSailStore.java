@@ -0,0 +1,975 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.eclipse.rdf4j.sail.memory.StatementTable.CTX;
+import static org.eclipse.rdf4j.sail.memory.StatementTable.OBJ;
+import static org.eclipse.rdf4j.sail.memory.StatementTable.PRED;
+import static org.eclipse.rdf4j.sail.memory.StatementTable.SUBJ;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.rdf4j.common.concurrent.locks.ExclusiveReentrantLockManager;
+import org.eclipse.rdf4j.common.concurrent.locks.Lock;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.common.transaction.IsolationLevel;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.PredicateStatistics;
+import org.eclipse.rdf4j.sail.SailConflictException;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.base.BackingSailSource;
+import org.eclipse.rdf4j.sail.base.SailDataset;
+import org.eclipse.rdf4j.sail.base.SailSink;
+import org.eclipse.rdf4j.sail.base.SailSource;
+import org.eclipse.rdf4j.sail.base.SailStore;
+import org.eclipse.rdf4j.sail.memory.StatementTable.RowCursor;
+import org.eclipse.rdf4j.sail.memory.model.MemIRI;
+import org.eclipse.rdf4j.sail.memory.model.MemResource;
+import org.eclipse.rdf4j.sail.memory.model.MemStatement;
+import org.eclipse.rdf4j.sail.memory.model.MemTriple;
+import org.eclipse.rdf4j.sail.memory.model.MemValue;
+import org.eclipse.rdf4j.sail.memory.model.MemValueFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An implementation of {@link SailStore} that keeps committed statements in a {@link StatementTable}, as rows of value
+ * IDs instead of as {@link MemStatement} objects that are referenced from the statement lists of their values. A
+ * statement takes six ints and its posting list entries instead of an object and the entries of five statement lists,
+ * and the garbage collector only has to trace a few large arrays instead of several objects per statement. In return,
+ * every statement that is read is created anew.
+ * <p>
+ * Isolation works as in the {@link MemorySailStore}: every commit creates a new snapshot, and every row records the
+ * snapshots in which its statement was added and removed. Removed statements stay in the table until no snapshot that
+ * is in use can see them, after which a background compaction copies the remaining statements to a new table once
+ * enough of them have been removed.
+ *
+ * @see MemoryStore#setColumnarStorage(boolean)
+ */
+class ColumnarSailStore implements SailStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(ColumnarSailStore.class);
+
+	/**
+	 * The number of rows below which removed statements are not compacted.
+	 */
+	private static final int MIN_COMPACTION_ROWS = 1000;
+
+	/**
+	 * A compaction runs once at least one in this many rows can be dropped, so that the cost of copying the remaining
+	 * rows is spread over the removals that made it necessary.
+	 */
+	private static final int COMPACTION_RATIO = 4;
+
+	private final MemValueFactory valueFactory = new MemValueFactory();
+
+	private final MemNamespaceStore namespaceStore = new MemNamespaceStore();
+
+	/**
+	 * Distinct subject and object counts per predicate, maintained as statements are added.
+	 */
+	private final PredicateStatistics predicateStatistics = new PredicateStatistics();
+
+	/**
+	 * The statements. Replaced by a compaction, which readers that are already iterating over the table do not notice.
+	 */
+	private volatile StatementTable table = new StatementTable();
+
+	/**
+	 * Set to <var>true</var> when the first inferred statement is added, see {@link MemorySailStore}.
+	 */
+	private volatile boolean mayHaveInferred = false;
+
+	/**
+	 * Identifies the current snapshot.
+	 */
+	private volatile int currentSnapshot;
+
+	final MemorySailStore.SnapshotMonitor snapshotMonitor;
+
+	/**
+	 * Lock manager used to prevent concurrent writes, and to keep writers out while a compaction copies the table.
+	 */
+	private final ExclusiveReentrantLockManager txnLockManager = new ExclusiveReentrantLockManager();
+
+	/**
+	 * The number of removed statements per snapshot from which they are removed, for statements that have not been
+	 * compacted yet. Guarded by the transaction lock.
+	 */
+	private final TreeMap<Integer, Integer> pendingRemovals = new TreeMap<>();
+
+	private volatile Thread compactionThread;
+
+	private final Object compactionThreadLockObject = new Object();
+
+	private volatile boolean closed;
+
+	/**
+	 * The number of statements that have been removed, and the number of those that have since been dropped by a
+	 * compaction.
+	 */
+	private final LongAdder deprecatedStatements = new LongAdder();
+	private final LongAdder cleanedStatements = new LongAdder();
+
+	public ColumnarSailStore(boolean debug) {
+		snapshotMonitor = new MemorySailStore.SnapshotMonitor(debug);
+	}
+
+	@Override
+	public ValueFactory getValueFactory() {
+		return valueFactory;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		synchronized (compactionThreadLockObject) {
+			if (compactionThread != null) {
+				compactionThread.interrupt();
+				compactionThread = null;
+			}
+		}
+		table = new StatementTable();
+		valueFactory.clear();
+		predicateStatistics.clear();
+		namespaceStore.clear();
+	}
+
+	/**
+	 * @return The number of statements that have been removed but are still taking up space in the table.
+	 */
+	long getCleanupBacklog() {
+		return Math.max(0, deprecatedStatements.sum() - cleanedStatements.sum());
+	}
+
+	/**
+	 * @return The total number of removed statements that compactions have dropped.
+	 */
+	long getCleanedStatementCount() {
+		return cleanedStatements.sum();
+	}
+
+	StatementTable getTable() {
+		return table;
+	}
+
+	@Override
+	public EvaluationStatistics getEvaluationStatistics() {
+		return new ColumnarEvaluationStatistics();
+	}
+
+	@Override
+	public SailSource getExplicitSailSource() {
+		return new ColumnarSailSource(true);
+	}
+
+	@Override
+	public SailSource getInferredSailSource() {
+		return new ColumnarSailSource(false);
+	}
+
+	/**
+	 * Finds the rows of the supplied table that contain statements matching the specified pattern of subject,
+	 * predicate, object and contexts. Inferred statements are excluded when <var>explicit</var> is <var>true</var> and
+	 * explicit statements when it is <var>false</var>.
+	 *
+	 * @return The matching rows, or <var>null</var> if there are none.
+	 */
+	private RowMatcher matchRows(StatementTable table, Resource subj, IRI pred, Value obj, Boolean explicit,
+			int snapshot, Resource... contexts) {
+		if (explicit != null && !explicit && !mayHaveInferred && snapshot >= 0) {
+			return null;
+		}
+
+		int limit = table.size();
+		if (limit == 1) {
+			return null;
+		}
+
+		int subjId = table.getId(subj);
+		if (subj != null && subjId == 0) {
+			// non-existent subject
+			return null;
+		}
+
+		int predId = table.getId(pred);
+		if (pred != null && predId == 0) {
+			// non-existent predicate
+			return null;
+		}
+
+		int objId = table.getId(obj);
+		if (obj != null && objId == 0) {
+			// non-existent object
+			return null;
+		}
+
+		int[] contextIds = null;
+		if (contexts.length > 0) {
+			contextIds = new int[contexts.length];
+			int count = 0;
+			for (Resource context : contexts) {
+				int contextId = table.getId(context);
+				if (context == null || contextId != 0) {
+					contextIds[count++] = contextId;
+				}
+			}
+			if (count == 0) {
+				// no known contexts specified
+				return null;
+			}
+			contextIds = Arrays.copyOf(contextIds, count);
+		}
+
+		return new RowMatcher(table, limit, subjId, predId, objId, contextIds, explicit, snapshot);
+	}
+
+	private CloseableIteration<MemStatement> createStatementIterator(Resource subj, IRI pred, Value obj,
+			Boolean explicit, int snapshot, Resource... contexts) {
+		RowMatcher rows = matchRows(table, subj, pred, obj, explicit, snapshot, contexts);
+		if (rows == null) {
+			return MemorySailStore.EMPTY_ITERATION;
+		}
+		return new StatementIterator(rows);
+	}
+
+	/**
+	 * Creates a TripleIterator that contains the triples matching the specified pattern of subject, predicate, object
+	 * that occur as the subject or object of a statement.
+	 */
+	private CloseableIteration<MemTriple> createTripleIterator(Resource subj, IRI pred, Value obj, int snapshot) {
+		MemResource memSubj = valueFactory.getMemResource(subj);
+		if (subj != null && memSubj == null) {
+			// non-existent subject
+			return MemorySailStore.EMPTY_TRIPLE_ITERATION;
+		}
+
+		MemIRI memPred = valueFactory.getMemURI(pred);
+		if (pred != null && memPred == null) {
+			// non-existent predicate
+			return MemorySailStore.EMPTY_TRIPLE_ITERATION;
+		}
+
+		MemValue memObj = valueFactory.getMemValue(obj);
+		if (obj != null && memObj == null) {
+			// non-existent object
+			return MemorySailStore.EMPTY_TRIPLE_ITERATION;
+		}
+
+		RowMatcher rows = matchRows(table, null, null, null, null, snapshot);
+		if (rows == null) {
+			return MemorySailStore.EMPTY_TRIPLE_ITERATION;
+		}
+		return new TripleIterator(rows, memSubj, memPred, memObj);
+	}
+
+	/**
+	 * Compacts the table if enough removed statements can no longer be seen by any snapshot. Only called by a writer
+	 * that holds the transaction lock.
+	 */
+	private void scheduleCompaction() {
+		if (pendingRemovals.isEmpty()) {
+			return;
+		}
+
+		int rowCount = table.rowCount();
+		if (rowCount < MIN_COMPACTION_ROWS) {
+			return;
+		}
+
+		int highestUnusedRemovedSnapshot = snapshotMonitor.getFirstUnusedOrElse(currentSnapshot - 1);
+		long removable = 0;
+		for (int count : pendingRemovals.headMap(highestUnusedRemovedSnapshot, true).values()) {
+			removable += count;
+		}
+		if (removable * COMPACTION_RATIO < rowCount) {
+			return;
+		}
+
+		synchronized (compactionThreadLockObject) {
+			Thread compactionThread = this.compactionThread;
+			if (!closed && (compactionThread == null || !compactionThread.isAlive())) {
+				compactionThread = new Thread(() -> {
+					try {
+						compact();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						logger.info("compaction interrupted");
+					}
+				}, "MemoryStore columnar compaction");
+				compactionThread.setDaemon(true);
+				this.compactionThread = compactionThread;
+				compactionThread.start();
+			}
+		}
+	}
+
+	/**
+	 * Copies the statements that may still be seen by a snapshot that is in use, or by a future snapshot, to a new
+	 * table. Writers wait until the copy is complete, readers are not affected.
+	 */
+	void compact() throws InterruptedException {
+		Lock lock = txnLockManager.getExclusiveLock();
+		try {
+			int highestUnusedRemovedSnapshot = snapshotMonitor.getFirstUnusedOrElse(currentSnapshot - 1);
+			StatementTable table = this.table;
+
+			long start = System.currentTimeMillis();
+			StatementTable compacted = table.compact(highestUnusedRemovedSnapshot);
+			if (compacted == null) {
+				throw new InterruptedException();
+			}
+			if (closed) {
+				return;
+			}
+			this.table = compacted;
+
+			pendingRemovals.headMap(highestUnusedRemovedSnapshot, true).clear();
+			cleanedStatements.add(table.rowCount() - compacted.rowCount());
+			logger.debug("Compacted {} statements to {} in {} ms.", table.rowCount(), compacted.rowCount(),
+					System.currentTimeMillis() - start);
+		} finally {
+			lock.release();
+		}
+	}
+
+	private final class ColumnarSailSource extends BackingSailSource {
+
+		private final boolean explicit;
+
+		public ColumnarSailSource(boolean explicit) {
+			this.explicit = explicit;
+		}
+
+		@Override
+		public SailSink sink(IsolationLevel level) throws SailException {
+			return new ColumnarSailSink(explicit, level.isCompatibleWith(IsolationLevels.SERIALIZABLE));
+		}
+
+		@Override
+		public ColumnarSailDataset dataset(IsolationLevel level) throws SailException {
+			if (level.isCompatibleWith(IsolationLevels.SNAPSHOT_READ)) {
+				return new ColumnarSailDataset(explicit, currentSnapshot);
+			} else {
+				return new ColumnarSailDataset(explicit);
+			}
+		}
+	}
+
+	private final class ColumnarSailSink implements SailSink {
+
+		private volatile boolean closed = false;
+
+		private final boolean explicit;
+
+		private final int serializable;
+		private final MemorySailStore.SnapshotMonitor.ReservedSnapshot reservedSnapshot;
+
+		private int nextSnapshot;
+
+		private Set<StatementPattern> observations;
+		private volatile Lock txnLock;
+
+		/**
+		 * The number of statements that this sink has removed.
+		 */
+		private int removedCount;
+
+		public ColumnarSailSink(boolean explicit, boolean serializable) throws SailException {
+			this.explicit = explicit;
+			if (serializable) {
+				this.serializable = currentSnapshot;
+				this.reservedSnapshot = snapshotMonitor.reserve(this.serializable, this);
+			} else {
+				this.serializable = Integer.MAX_VALUE;
+				this.reservedSnapshot = null;
+			}
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			if (explicit) {
+				sb.append("explicit ");
+			} else {
+				sb.append("inferred ");
+			}
+			if (txnLock != null) {
+				sb.append("snapshot ").append(nextSnapshot);
+			} else {
+				sb.append(super.toString());
+			}
+			return sb.toString();
+		}
+
+		@Override
+		public synchronized void prepare() throws SailException {
+			acquireExclusiveTransactionLock();
+			if (observations != null) {
+				for (StatementPattern p : observations) {
+					Resource subj = (Resource) p.getSubjectVar().getValue();
+					IRI pred = (IRI) p.getPredicateVar().getValue();
+					Value obj = p.getObjectVar().getValue();
+					Var ctxVar = p.getContextVar();
+					Resource[] contexts;
+					if (ctxVar == null) {
+						contexts = new Resource[0];
+					} else {
+						contexts = new Resource[] { (Resource) ctxVar.getValue() };
+					}
+					RowMatcher rows = matchRows(table, subj, pred, obj, null, -1, contexts);
+					if (rows == null) {
+						continue;
+					}
+					for (int row = rows.next(); row != 0; row = rows.next()) {
+						int since = rows.table.getAddedSnapshot(row);
+						int till = rows.table.getRemovedSnapshot(row);
+						if (serializable < since && since < nextSnapshot
+								|| serializable < till && till < nextSnapshot) {
+							throw new SailConflictException("Observed State has Changed");
+						}
+					}
+				}
+			}
+		}
+
+		@Override
+		public synchronized void flush() throws SailException {
+			if (txnLock != null && txnLock.isActive()) {
+				if (removedCount > 0) {
+					pendingRemovals.merge(nextSnapshot, removedCount, Integer::sum);
+					deprecatedStatements.add(removedCount);
+					removedCount = 0;
+				}
+				currentSnapshot = Math.max(currentSnapshot, nextSnapshot);
+				scheduleCompaction();
+			}
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				try {
+					if (reservedSnapshot != null) {
+						reservedSnapshot.release();
+					}
+				} finally {
+					try {
+						releaseLock();
+					} finally {
+						observations = null;
+					}
+				}
+			}
+		}
+
+		synchronized private void releaseLock() {
+			if (txnLock != null) {
+				assert txnLock.isActive();
+				txnLock.release();
+				txnLock = null;
+			}
+		}
+
+		@Override
+		public synchronized void setNamespace(String prefix, String name) {
+			acquireExclusiveTransactionLock();
+			namespaceStore.setNamespace(prefix, name);
+		}
+
+		@Override
+		public synchronized void removeNamespace(String prefix) {
+			acquireExclusiveTransactionLock();
+			namespaceStore.removeNamespace(prefix);
+		}
+
+		@Override
+		public synchronized void clearNamespaces() {
+			acquireExclusiveTransactionLock();
+			namespaceStore.clear();
+		}
+
+		@Override
+		public synchronized void observe(Resource subj, IRI pred, Value obj, Resource... contexts)
+				throws SailException {
+			if (observations == null) {
+				observations = new HashSet<>();
+			}
+			if (contexts == null) {
+				observations.add(new StatementPattern(new Var("s", subj), new Var("p", pred), new Var("o", obj),
+						new Var("g", null)));
+			} else if (contexts.length == 0) {
+				observations.add(new StatementPattern(new Var("s", subj), new Var("p", pred), new Var("o", obj)));
+			} else {
+				for (Resource ctx : contexts) {
+					observations.add(new StatementPattern(new Var("s", subj), new Var("p", pred), new Var("o", obj),
+							new Var("g", ctx)));
+				}
+			}
+		}
+
+		@Override
+		public synchronized void clear(Resource... contexts) {
+			acquireExclusiveTransactionLock();
+			removeRows(matchRows(table, null, null, null, explicit, nextSnapshot, contexts));
+		}
+
+		@Override
+		public synchronized void approve(Resource subj, IRI pred, Value obj, Resource ctx) {
+			acquireExclusiveTransactionLock();
+			addStatement(subj, pred, obj, ctx, explicit);
+		}
+
+		@Override
+		public synchronized void approveAll(Set<Statement> approved, Set<Resource> approvedContexts) {
+			acquireExclusiveTransactionLock();
+			for (Statement statement : approved) {
+				addStatement(statement.getSubject(), statement.getPredicate(), statement.getObject(),
+						statement.getContext(), explicit);
+			}
+		}
+
+		@Override
+		public synchronized void deprecateAll(Set<Statement> deprecated) {
+			acquireExclusiveTransactionLock();
+			for (Statement statement : deprecated) {
+				innerDeprecate(statement);
+			}
+		}
+
+		@Override
+		public synchronized void deprecate(Statement statement) throws SailException {
+			acquireExclusiveTransactionLock();
+			innerDeprecate(statement);
+		}
+
+		private void innerDeprecate(Statement statement) {
+			// statements that were read from this store are created on demand, so they are looked up like any other
+			removeRows(matchRows(table, statement.getSubject(), statement.getPredicate(), statement.getObject(),
+					explicit, nextSnapshot, statement.getContext()));
+		}
+
+		@Override
+		public synchronized boolean deprecateByQuery(Resource subj, IRI pred, Value obj, Resource[] contexts) {
+			acquireExclusiveTransactionLock();
+			return removeRows(matchRows(table, subj, pred, obj, explicit, nextSnapshot, contexts));
+		}
+
+		/**
+		 * Marks the statements in the rows as removed from the next snapshot onwards.
+		 *
+		 * @return <var>true</var> if there was at least one row.
+		 */
+		private boolean removeRows(RowMatcher rows) {
+			if (rows == null) {
+				return false;
+			}
+			boolean removed = false;
+			for (int row = rows.next(); row != 0; row = rows.next()) {
+				rows.table.remove(row, nextSnapshot);
+				removedCount++;
+				removed = true;
+			}
+			return removed;
+		}
+
+		private void acquireExclusiveTransactionLock() throws SailException {
+			if (txnLock == null) {
+				synchronized (this) {
+					if (txnLock == null) {
+						try {
+							txnLock = txnLockManager.getExclusiveLock();
+							nextSnapshot = currentSnapshot + 1;
+						} catch (InterruptedException e) {
+							throw convertToSailException(e);
+						}
+					}
+				}
+			}
+		}
+
+		private void addStatement(Resource subj, IRI pred, Value obj, Resource context, boolean explicit)
+				throws SailException {
+			if (!explicit) {
+				mayHaveInferred = true;
+			}
+
+			// Get or create MemValues for the operands
+			MemResource memSubj = valueFactory.getOrCreateMemResource(subj);
+			MemIRI memPred = valueFactory.getOrCreateMemURI(pred);
+			MemValue memObj = valueFactory.getOrCreateMemValue(obj);
+			MemResource memContext = context == null ? null : valueFactory.getOrCreateMemResource(context);
+
+			StatementTable table = ColumnarSailStore.this.table;
+			int subjId = table.getOrCreateId(memSubj);
+			int predId = table.getOrCreateId(memPred);
+			int objId = table.getOrCreateId(memObj);
+			int contextId = memContext == null ? 0 : table.getOrCreateId(memContext);
+
+			RowMatcher existing = new RowMatcher(table, table.size(), subjId, predId, objId,
+					new int[] { contextId }, null, nextSnapshot);
+			int row = existing.next();
+			if (row != 0) {
+				if (!table.isExplicit(row) && explicit) {
+					// Implicit statement is now added explicitly
+					table.remove(row, nextSnapshot);
+					removedCount++;
+				} else {
+					// statement already exists
+					return;
+				}
+			}
+
+			table.add(subjId, predId, objId, contextId, explicit, nextSnapshot);
+			predicateStatistics.add(memSubj, memPred, memObj);
+		}
+	}
+
+	private final class ColumnarSailDataset implements SailDataset {
+
+		private final boolean explicit;
+
+		private final int snapshot;
+		private final MemorySailStore.SnapshotMonitor.ReservedSnapshot reservedSnapshot;
+		private volatile boolean closed;
+
+		public ColumnarSailDataset(boolean explicit) throws SailException {
+			this.explicit = explicit;
+			this.snapshot = -1;
+			this.reservedSnapshot = null;
+		}
+
+		public ColumnarSailDataset(boolean explicit, int snapshot) throws SailException {
+			this.explicit = explicit;
+			this.snapshot = snapshot;
+			this.reservedSnapshot = snapshotMonitor.reserve(snapshot, this);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			if (explicit) {
+				sb.append("explicit ");
+			} else {
+				sb.append("inferred ");
+			}
+			if (snapshot >= 0) {
+				sb.append("snapshot ").append(snapshot);
+			} else {
+				sb.append(super.toString());
+			}
+			return sb.toString();
+		}
+
+		@Override
+		public void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (reservedSnapshot != null) {
+				reservedSnapshot.release();
+			}
+		}
+
+		@Override
+		public String getNamespace(String prefix) throws SailException {
+			return namespaceStore.getNamespace(prefix);
+		}
+
+		@Override
+		public CloseableIteration<? extends Namespace> getNamespaces() {
+			return new CloseableIteratorIteration<>(namespaceStore.iterator());
+		}
+
+		@Override
+		public CloseableIteration<? extends Resource> getContextIDs() throws SailException {
+			ArrayList<MemResource> contextIDs = new ArrayList<>(32);
+
+			int snapshot = getCurrentSnapshot();
+			StatementTable table = ColumnarSailStore.this.table;
+			int limit = table.size();
+			int valueLimit = table.valueLimit();
+
+			for (int id = 1; id < valueLimit; id++) {
+				RowCursor rows = table.getRows(CTX, id, limit);
+				for (int row = rows.next(); row != 0; row = rows.next()) {
+					if (table.isInSnapshot(row, snapshot)) {
+						contextIDs.add((MemResource) table.getValue(id));
+						break;
+					}
+				}
+			}
+
+			return new CloseableIteratorIteration<>(contextIDs.iterator());
+		}
+
+		@Override
+		public CloseableIteration<MemStatement> getStatements(Resource subj, IRI pred, Value obj,
+				Resource... contexts) throws SailException {
+			return createStatementIterator(subj, pred, obj, explicit, getCurrentSnapshot(), contexts);
+		}
+
+		@Override
+		public CloseableIteration<MemTriple> getTriples(Resource subj, IRI pred, Value obj)
+				throws SailException {
+			return createTripleIterator(subj, pred, obj, getCurrentSnapshot());
+		}
+
+		private int getCurrentSnapshot() {
+			if (snapshot >= 0) {
+				return snapshot;
+			} else {
+				return currentSnapshot;
+			}
+		}
+	}
+
+	/**
+	 * Iterates over the rows of a table that match a statement pattern, starting with the value of the pattern that
+	 * occurs in the fewest rows.
+	 */
+	private static final class RowMatcher {
+
+		final StatementTable table;
+
+		private final RowCursor rows;
+
+		private final int subj;
+
+		private final int pred;
+
+		private final int obj;
+
+		/**
+		 * The IDs of the contexts to match, where 0 is the null context, or <var>null</var> to match any context.
+		 */
+		private final int[] contexts;
+
+		private final Boolean explicit;
+
+		private final int snapshot;
+
+		/**
+		 * @param subj The ID of the subject to match, or 0 to match any subject. Likewise for the predicate and object.
+		 */
+		RowMatcher(StatementTable table, int limit, int subj, int pred, int obj, int[] contexts, Boolean explicit,
+				int snapshot) {
+			this.table = table;
+			this.subj = subj;
+			this.pred = pred;
+			this.obj = obj;
+			this.contexts = contexts;
+			this.explicit = explicit;
+			this.snapshot = snapshot;
+
+			int position = -1;
+			int id = 0;
+			int smallest = Integer.MAX_VALUE;
+			int[] ids = { subj, pred, obj, contexts != null && contexts.length == 1 ? contexts[0] : 0 };
+			for (int i = SUBJ; i <= CTX; i++) {
+				if (ids[i] != 0) {
+					int count = table.getRowCount(i, ids[i]);
+					if (count < smallest) {
+						smallest = count;
+						position = i;
+						id = ids[i];
+					}
+				}
+			}
+			this.rows = position < 0 ? table.getRows(limit) : table.getRows(position, id, limit);
+		}
+
+		/**
+		 * @return The next matching row, or 0 if there are no more.
+		 */
+		int next() {
+			for (int row = rows.next(); row != 0; row = rows.next()) {
+				if (matches(row)) {
+					return row;
+				}
+			}
+			return 0;
+		}
+
+		private boolean matches(int row) {
+			if (subj != 0 && table.getComponent(row, SUBJ) != subj
+					|| pred != 0 && table.getComponent(row, PRED) != pred
+					|| obj != 0 && table.getComponent(row, OBJ) != obj) {
+				return false;
+			}
+
+			if (contexts != null) {
+				int context = table.getComponent(row, CTX);
+				boolean found = false;
+				for (int c : contexts) {
+					if (c == context) {
+						found = true;
+						break;
+					}
+				}
+				if (!found) {
+					return false;
+				}
+			}
+
+			return (explicit == null || table.isExplicit(row) == explicit) && table.isInSnapshot(row, snapshot);
+		}
+	}
+
+	private static final class StatementIterator extends LookAheadIteration<MemStatement> {
+
+		private final RowMatcher rows;
+
+		StatementIterator(RowMatcher rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		protected MemStatement getNextElement() {
+			int row = rows.next();
+			return row == 0 ? null : rows.table.getStatement(row);
+		}
+
+		@Override
+		protected void handleClose() {
+		}
+	}
+
+	private static final class TripleIterator extends LookAheadIteration<MemTriple> {
+
+		private final RowMatcher rows;
+
+		private final MemResource subject;
+
+		private final MemIRI predicate;
+
+		private final MemValue object;
+
+		TripleIterator(RowMatcher rows, MemResource subject, MemIRI predicate, MemValue object) {
+			this.rows = rows;
+			this.subject = subject;
+			this.predicate = predicate;
+			this.object = object;
+		}
+
+		@Override
+		protected MemTriple getNextElement() {
+			for (int row = rows.next(); row != 0; row = rows.next()) {
+				MemValue subj = rows.table.getValue(rows.table.getComponent(row, SUBJ));
+				if (subj instanceof MemTriple && ((MemTriple) subj).matchesSPO(subject, predicate, object)) {
+					return (MemTriple) subj;
+				}
+				MemValue obj = rows.table.getValue(rows.table.getComponent(row, OBJ));
+				if (obj instanceof MemTriple && ((MemTriple) obj).matchesSPO(subject, predicate, object)) {
+					return (MemTriple) obj;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		protected void handleClose() {
+		}
+	}
+
+	/**
+	 * Uses the number of rows of each value to give cost estimates, see {@link MemEvaluationStatistics}.
+	 */
+	private final class ColumnarEvaluationStatistics extends EvaluationStatistics {
+
+		@Override
+		public double getDistinctValueCount(StatementPattern sp, Var var) {
+			double cardinality = super.getDistinctValueCount(sp, var);
+			if (var.hasValue()) {
+				return cardinality;
+			}
+
+			// the per-predicate statistics only describe patterns with a constant predicate and nothing else bound
+			Value pred = sp.getPredicateVar().getValue();
+			if (!(pred instanceof IRI) || sp.getSubjectVar().hasValue() || sp.getObjectVar().hasValue()
+					|| sp.getContextVar() != null && sp.getContextVar().hasValue()) {
+				return cardinality;
+			}
+
+			if (var.equals(sp.getSubjectVar())) {
+				return Math.min(cardinality, predicateStatistics.getDistinctSubjectCount((IRI) pred));
+			} else if (var.equals(sp.getObjectVar())) {
+				return Math.min(cardinality, predicateStatistics.getDistinctObjectCount((IRI) pred));
+			}
+			return cardinality;
+		}
+
+		@Override
+		protected CardinalityCalculator createCardinalityCalculator() {
+			return new ColumnarCardinalityCalculator();
+		}
+
+		private class ColumnarCardinalityCalculator extends CardinalityCalculator {
+
+			@Override
+			public double getCardinality(StatementPattern sp) {
+				Value[] values = { getConstantValue(sp.getSubjectVar()), getConstantValue(sp.getPredicateVar()),
+						getConstantValue(sp.getObjectVar()), getConstantValue(sp.getContextVar()) };
+				// a previous optimizer may have inlined a value that cannot occur in the position, see SES-970
+				if (values[SUBJ] != null && !values[SUBJ].isResource()) {
+					values[SUBJ] = null;
+				}
+				if (values[PRED] != null && !values[PRED].isIRI()) {
+					values[PRED] = null;
+				}
+				if (values[CTX] != null && !values[CTX].isResource()) {
+					values[CTX] = null;
+				}
+
+				StatementTable table = ColumnarSailStore.this.table;
+				int minRowCount = table.rowCount();
+				for (int i = SUBJ; i <= CTX; i++) {
+					if (values[i] != null) {
+						int id = table.getId(values[i]);
+						if (id == 0) {
+							// there are no statements with that value
+							return 0;
+						}
+						minRowCount = Math.min(minRowCount, table.getRowCount(i, id));
+					}
+				}
+				return minRowCount;
+			}
+
+			private Value getConstantValue(Var var) {
+				return var != null ? var.getValue() : null;
+			}
+		}
+	}
+
+	private SailException convertToSailException(InterruptedException e) {
+		Thread.currentThread().interrupt();
+		return new SailException(e);
+	}
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.memory.model.MemIRI;
+import org.eclipse.rdf4j.sail.memory.model.MemResource;
+import org.eclipse.rdf4j.sail.memory.model.MemStatement;
+import org.eclipse.rdf4j.sail.memory.model.MemStatementList;
+import org.eclipse.rdf4j.sail.memory.model.MemValue;
+
+/**
+ * A hash index on a pair of statement components, for example predicate and object, that maps every combination of
+ * values to the list of statements that contain it. A statement pattern that binds both components can be evaluated
+ * over the list for that combination instead of over the shorter of the two per-value lists, which for a popular
+ * predicate and a popular object can be orders of magnitude shorter. Statements in the null context are not part of an
+ * index that includes the context.
+ *
+ * @see MemoryStore#setCompositeIndexes(String)
+ */
+final class CompositeIndex {
+
+	private static final String FIELDS = "spoc";
+
+	private final String fieldSeq;
+
+	private final int first;
+
+	private final int second;
+
+	private final ConcurrentHashMap<Key, MemStatementList> statementLists = new ConcurrentHashMap<>();
+
+	private CompositeIndex(String fieldSeq) {
+		this.fieldSeq = fieldSeq;
+		this.first = FIELDS.indexOf(fieldSeq.charAt(0));
+		this.second = FIELDS.indexOf(fieldSeq.charAt(1));
+	}
+
+	/**
+	 * Parses a comma and/or whitespace separated list of index specifications, such as <var>"po, sp"</var>. Each
+	 * specification names two distinct fields out of <var>s</var>, <var>p</var>, <var>o</var> and <var>c</var>; the
+	 * order of the two fields is irrelevant.
+	 *
+	 * @param indexSpecStr The index specifications, may be <var>null</var>.
+	 * @return The indexes, without duplicates.
+	 * @throws SailException If the specification contains an invalid entry.
+	 */
+	static CompositeIndex[] parse(String indexSpecStr) throws SailException {
+		Set<String> fieldSeqs = new LinkedHashSet<>();
+
+		if (indexSpecStr != null) {
+			StringTokenizer tok = new StringTokenizer(indexSpecStr, ", \t");
+			while (tok.hasMoreTokens()) {
+				String index = tok.nextToken().toLowerCase();
+
+				// sanity checks
+				if (index.length() != 2 || FIELDS.indexOf(index.charAt(0)) == -1
+						|| FIELDS.indexOf(index.charAt(1)) == -1 || index.charAt(0) == index.charAt(1)) {
+					throw new SailException(
+							"invalid value '" + index + "' in composite index specification: " + indexSpecStr);
+				}
+
+				if (FIELDS.indexOf(index.charAt(0)) > FIELDS.indexOf(index.charAt(1))) {
+					index = new StringBuilder(index).reverse().toString();
+				}
+				fieldSeqs.add(index);
+			}
+		}
+
+		List<CompositeIndex> indexes = new ArrayList<>(fieldSeqs.size());
+		for (String fieldSeq : fieldSeqs) {
+			indexes.add(new CompositeIndex(fieldSeq));
+		}
+		return indexes.toArray(new CompositeIndex[0]);
+	}
+
+	String getFieldSeq() {
+		return fieldSeq;
+	}
+
+	/**
+	 * Adds a statement to the list for its combination of values. The statement is appended while the mapping is
+	 * locked, so that the snapshot cleanup can not drop the list between looking it up and appending to it.
+	 */
+	void add(MemStatement st) throws InterruptedException {
+		Key key = key(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext());
+		if (key == null) {
+			return;
+		}
+
+		try {
+			statementLists.compute(key, (k, list) -> {
+				MemStatementList statementList = list != null ? list : new MemStatementList(1);
+				try {
+					statementList.add(st);
+				} catch (InterruptedException e) {
+					throw new AddInterruptedException(e);
+				}
+				return statementList;
+			});
+		} catch (AddInterruptedException e) {
+			throw (InterruptedException) e.getCause();
+		}
+	}
+
+	/**
+	 * Gets the list of statements for the values that are bound in a pattern.
+	 *
+	 * @return The statements that have the two indexed values, or <var>null</var> if this index does not apply to the
+	 *         pattern because one of them is unbound.
+	 */
+	MemStatementList getStatementList(MemResource subj, MemIRI pred, MemValue obj, MemResource context) {
+		Key key = key(subj, pred, obj, context);
+		if (key == null) {
+			return null;
+		}
+		MemStatementList list = statementLists.get(key);
+		return list != null ? list : MemValue.EMPTY_LIST;
+	}
+
+	/**
+	 * Gets the key of the list that holds the supplied statement.
+	 *
+	 * @return The key, or <var>null</var> if the statement is not part of this index.
+	 */
+	Object getKey(MemStatement st) {
+		return key(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext());
+	}
+
+	/**
+	 * Removes the statements that are no longer visible in any active snapshot from the list with the supplied key,
+	 * dropping the list once it is empty. The list is only dropped while the mapping is locked, which
+	 * {@link #add(MemStatement)} also holds while appending to it.
+	 *
+	 * @param key A key obtained from {@link #getKey(MemStatement)}.
+	 */
+	void cleanSnapshots(Object key, int currentSnapshot) throws InterruptedException {
+		MemStatementList list = statementLists.get(key);
+		if (list != null) {
+			list.cleanSnapshots(currentSnapshot);
+			statementLists.computeIfPresent((Key) key, (k, l) -> l == list && l.isEmpty() ? null : l);
+		}
+	}
+
+	int size() {
+		return statementLists.size();
+	}
+
+	void clear() {
+		statementLists.clear();
+	}
+
+	private Key key(MemResource subj, MemIRI pred, MemValue obj, MemResource context) {
+		MemValue firstValue = component(first, subj, pred, obj, context);
+		if (firstValue == null) {
+			return null;
+		}
+		MemValue secondValue = component(second, subj, pred, obj, context);
+		if (secondValue == null) {
+			return null;
+		}
+		return new Key(firstValue, secondValue, first * FIELDS.length() + second);
+	}
+
+	private static MemValue component(int field, MemResource subj, MemIRI pred, MemValue obj, MemResource context) {
+		switch (field) {
+		case 0:
+			return subj;
+		case 1:
+			return pred;
+		case 2:
+			return obj;
+		default:
+			return context;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return fieldSeq;
+	}
+
+	/**
+	 * Identifies a combination of values. Values are compared by identity, which is possible thanks to the sharing of
+	 * value objects in the MemoryStore. The index that the key belongs to is part of it so that the keys of all indexes
+	 * can be tracked in a single set.
+	 */
+	private static final class Key {
+
+		private final MemValue first;
+
+		private final MemValue second;
+
+		private final byte fields;
+
+		Key(MemValue first, MemValue second, int fields) {
+			this.first = first;
+			this.second = second;
+			this.fields = (byte) fields;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return first == other.first && second == other.second && fields == other.fields;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * System.identityHashCode(first) + System.identityHashCode(second)) + fields;
+		}
+	}
+
+	/**
+	 * Passes an {@link InterruptedException} out of the remapping function in {@link #add(MemStatement)}.
+	 */
+	private static final class AddInterruptedException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		AddInterruptedException(InterruptedException cause) {
+			super(cause);
+		}
+	}
+}
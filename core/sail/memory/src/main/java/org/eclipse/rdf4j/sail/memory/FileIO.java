@@ -96,6 +96,19 @@ class FileIO {
 
 	public static final int RDFSTAR_TRIPLE_MARKER = 11;
 
+	/* CHANGE LOG RECORD TYPES */
+	public static final int REMOVED_TRIPLE_MARKER = 12;
+
+	public static final int REMOVED_QUAD_MARKER = 13;
+
+	public static final int REMOVED_PATTERN_MARKER = 14;
+
+	public static final int NAMESPACE_REMOVED_MARKER = 15;
+
+	public static final int NAMESPACES_CLEARED_MARKER = 16;
+
+	public static final int NULL_MARKER = 17;
+
 	public static final int EOF_MARKER = 127;
 
 	/*-----------*
@@ -201,6 +214,120 @@ class FileIO {
 		}
 	}
 
+	/*-------------*
+	 * Change logs *
+	 *-------------*/
+
+	// The methods below encode the changes that a single sink applied as a sequence of records that is terminated by
+	// an EOF_MARKER. They are used by the ChangeLog and share the value encoding of the data file.
+
+	void writeApproved(Resource subj, IRI pred, Value obj, Resource context, DataOutputStream dataOut)
+			throws IOException {
+		dataOut.writeByte(context == null ? EXPL_TRIPLE_MARKER : EXPL_QUAD_MARKER);
+		writeValue(subj, dataOut);
+		writeValue(pred, dataOut);
+		writeValue(obj, dataOut);
+		if (context != null) {
+			writeValue(context, dataOut);
+		}
+	}
+
+	void writeDeprecated(Statement st, DataOutputStream dataOut) throws IOException {
+		Resource context = st.getContext();
+		dataOut.writeByte(context == null ? REMOVED_TRIPLE_MARKER : REMOVED_QUAD_MARKER);
+		writeValue(st.getSubject(), dataOut);
+		writeValue(st.getPredicate(), dataOut);
+		writeValue(st.getObject(), dataOut);
+		if (context != null) {
+			writeValue(context, dataOut);
+		}
+	}
+
+	void writeDeprecatedPattern(Resource subj, IRI pred, Value obj, Resource[] contexts, DataOutputStream dataOut)
+			throws IOException {
+		dataOut.writeByte(REMOVED_PATTERN_MARKER);
+		writeNullableValue(subj, dataOut);
+		writeNullableValue(pred, dataOut);
+		writeNullableValue(obj, dataOut);
+		if (contexts == null) {
+			dataOut.writeInt(0);
+		} else {
+			dataOut.writeInt(contexts.length);
+			for (Resource context : contexts) {
+				writeNullableValue(context, dataOut);
+			}
+		}
+	}
+
+	void writeNamespace(String prefix, String name, DataOutputStream dataOut) throws IOException {
+		dataOut.writeByte(NAMESPACE_MARKER);
+		writeString(prefix, dataOut);
+		writeString(name, dataOut);
+	}
+
+	void writeNamespaceRemoved(String prefix, DataOutputStream dataOut) throws IOException {
+		dataOut.writeByte(NAMESPACE_REMOVED_MARKER);
+		writeString(prefix, dataOut);
+	}
+
+	void writeNamespacesCleared(DataOutputStream dataOut) throws IOException {
+		dataOut.writeByte(NAMESPACES_CLEARED_MARKER);
+	}
+
+	/**
+	 * Reads changes that were written with the methods above, up to and including the EOF_MARKER, and applies them to
+	 * the supplied sink.
+	 */
+	synchronized void readChanges(DataInputStream dataIn, SailSink sink) throws IOException, SailException {
+		formatVersion = BMSF_VERSION;
+
+		int recordTypeMarker;
+		while ((recordTypeMarker = dataIn.readByte()) != EOF_MARKER) {
+			switch (recordTypeMarker) {
+			case NAMESPACE_MARKER:
+				readNamespace(dataIn, sink);
+				break;
+			case NAMESPACE_REMOVED_MARKER:
+				sink.removeNamespace(readString(dataIn));
+				break;
+			case NAMESPACES_CLEARED_MARKER:
+				sink.clearNamespaces();
+				break;
+			case EXPL_TRIPLE_MARKER:
+				readStatement(false, true, dataIn, sink, sink);
+				break;
+			case EXPL_QUAD_MARKER:
+				readStatement(true, true, dataIn, sink, sink);
+				break;
+			case REMOVED_TRIPLE_MARKER:
+			case REMOVED_QUAD_MARKER: {
+				Resource subj = (Resource) readValue(dataIn);
+				IRI pred = (IRI) readValue(dataIn);
+				Value obj = readValue(dataIn);
+				Resource context = null;
+				if (recordTypeMarker == REMOVED_QUAD_MARKER) {
+					context = (Resource) readValue(dataIn);
+				}
+				sink.deprecate(vf.createStatement(subj, pred, obj, context));
+				break;
+			}
+			case REMOVED_PATTERN_MARKER: {
+				Resource subj = (Resource) readNullableValue(dataIn);
+				IRI pred = (IRI) readNullableValue(dataIn);
+				Value obj = readNullableValue(dataIn);
+				Resource[] contexts = new Resource[dataIn.readInt()];
+				for (int i = 0; i < contexts.length; i++) {
+					contexts[i] = (Resource) readNullableValue(dataIn);
+				}
+				sink.deprecateByQuery(subj, pred, obj, contexts);
+				break;
+			}
+			default:
+				throw new IOException("Invalid record type marker: " + recordTypeMarker);
+			}
+		}
+	}
+
 	private void writeNamespaces(SailDataset store, DataOutputStream dataOut) throws IOException, SailException {
 		try (CloseableIteration<? extends Namespace> iter = store.getNamespaces()) {
 			while (iter.hasNext()) {
@@ -300,9 +427,27 @@ class FileIO {
 		}
 	}
 
-	private Value readValue(DataInputStream dataIn) throws IOException, ClassCastException {
+	private void writeNullableValue(Value value, DataOutputStream dataOut) throws IOException {
+		if (value == null) {
+			dataOut.writeByte(NULL_MARKER);
+		} else {
+			writeValue(value, dataOut);
+		}
+	}
+
+	private Value readNullableValue(DataInputStream dataIn) throws IOException, ClassCastException {
 		int valueTypeMarker = dataIn.readByte();
+		if (valueTypeMarker == NULL_MARKER) {
+			return null;
+		}
+		return readValue(valueTypeMarker, dataIn);
+	}
+
+	private Value readValue(DataInputStream dataIn) throws IOException, ClassCastException {
+		return readValue(dataIn.readByte(), dataIn);
+	}
 
+	private Value readValue(int valueTypeMarker, DataInputStream dataIn) throws IOException, ClassCastException {
 		if (valueTypeMarker == URI_MARKER) {
 			String uriString = readString(dataIn);
 			return vf.createIRI(uriString);
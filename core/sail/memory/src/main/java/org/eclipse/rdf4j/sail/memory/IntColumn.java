@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of ints that is stored in fixed-size blocks, so that growing it never copies or moves the values
+ * that are already in it. A column has a single writer. Readers may only read positions that the writer has published
+ * to them through a volatile write that follows the write of the position, see {@link StatementTable}. Positions that
+ * have not been written are 0.
+ */
+final class IntColumn {
+
+	private static final int BLOCK_SHIFT = 12;
+
+	private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+	private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+	/**
+	 * The blocks of the column. Blocks are allocated when the writer first writes to them, and the array is replaced
+	 * when it runs out of room for more blocks.
+	 */
+	private volatile int[][] blocks = new int[1][];
+
+	int get(int index) {
+		return blocks[index >>> BLOCK_SHIFT][index & BLOCK_MASK];
+	}
+
+	void set(int index, int value) {
+		getBlock(index)[index & BLOCK_MASK] = value;
+	}
+
+	/**
+	 * Allocates the block for the supplied index, so that readers can {@link #get(int) get} it once it is published.
+	 */
+	void ensureCapacity(int index) {
+		getBlock(index);
+	}
+
+	private int[] getBlock(int index) {
+		int blockIndex = index >>> BLOCK_SHIFT;
+		int[][] blocks = this.blocks;
+		if (blockIndex >= blocks.length) {
+			blocks = Arrays.copyOf(blocks, Math.max(blockIndex + 1, blocks.length * 2));
+			this.blocks = blocks;
+		}
+
+		int[] block = blocks[blockIndex];
+		if (block == null) {
+			block = new int[BLOCK_SIZE];
+			blocks[blockIndex] = block;
+		}
+		return block;
+	}
+}
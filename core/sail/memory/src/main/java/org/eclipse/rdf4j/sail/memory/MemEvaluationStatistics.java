@@ -16,6 +16,7 @@ import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.Var;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.PredicateStatistics;
 import org.eclipse.rdf4j.sail.memory.model.MemIRI;
 import org.eclipse.rdf4j.sail.memory.model.MemResource;
 import org.eclipse.rdf4j.sail.memory.model.MemStatementList;
@@ -23,8 +24,8 @@ import org.eclipse.rdf4j.sail.memory.model.MemValue;
 import org.eclipse.rdf4j.sail.memory.model.MemValueFactory;
 
 /**
- * Uses the MemoryStore's statement sizes to give cost estimates based on the size of the expected results. This process
- * could be improved with repository statistics about size and distribution of statements.
+ * Uses the MemoryStore's statement sizes to give cost estimates based on the size of the expected results, and the
+ * per-predicate statistics to estimate the number of distinct subjects and objects of a predicate.
  *
  * @author Arjohn Kampman
  * @author James Leigh
@@ -33,10 +34,37 @@ class MemEvaluationStatistics extends EvaluationStatistics {
 
 	private final MemValueFactory valueFactory;
 	private final MemStatementList memStatementList;
+	private final PredicateStatistics predicateStatistics;
+	private final CompositeIndex[] compositeIndexes;
 
-	MemEvaluationStatistics(MemValueFactory valueFactory, MemStatementList memStatementList) {
+	MemEvaluationStatistics(MemValueFactory valueFactory, MemStatementList memStatementList,
+			PredicateStatistics predicateStatistics, CompositeIndex[] compositeIndexes) {
 		this.valueFactory = valueFactory;
 		this.memStatementList = memStatementList;
+		this.predicateStatistics = predicateStatistics;
+		this.compositeIndexes = compositeIndexes;
+	}
+
+	@Override
+	public double getDistinctValueCount(StatementPattern sp, Var var) {
+		double cardinality = super.getDistinctValueCount(sp, var);
+		if (var.hasValue()) {
+			return cardinality;
+		}
+
+		// the per-predicate statistics only describe patterns with a constant predicate and nothing else bound
+		Value pred = sp.getPredicateVar().getValue();
+		if (!(pred instanceof IRI) || sp.getSubjectVar().hasValue() || sp.getObjectVar().hasValue()
+				|| sp.getContextVar() != null && sp.getContextVar().hasValue()) {
+			return cardinality;
+		}
+
+		if (var.equals(sp.getSubjectVar())) {
+			return Math.min(cardinality, predicateStatistics.getDistinctSubjectCount((IRI) pred));
+		} else if (var.equals(sp.getObjectVar())) {
+			return Math.min(cardinality, predicateStatistics.getDistinctObjectCount((IRI) pred));
+		}
+		return cardinality;
 	}
 
 	@Override
@@ -82,9 +110,13 @@ class MemEvaluationStatistics extends EvaluationStatistics {
 
 		private int minStatementCount(Value subj, Value pred, Value obj, Value context) {
 			int minListSizes = Integer.MAX_VALUE;
+			MemResource memSubj = null;
+			MemIRI memPred = null;
+			MemValue memObj = null;
+			MemResource memContext = null;
 
 			if (subj != null) {
-				MemResource memSubj = valueFactory.getMemResource((Resource) subj);
+				memSubj = valueFactory.getMemResource((Resource) subj);
 				if (memSubj != null) {
 					minListSizes = memSubj.getSubjectStatementCount();
 					if (minListSizes == 0) {
@@ -98,7 +130,7 @@ class MemEvaluationStatistics extends EvaluationStatistics {
 			}
 
 			if (pred != null) {
-				MemIRI memPred = valueFactory.getMemURI((IRI) pred);
+				memPred = valueFactory.getMemURI((IRI) pred);
 				if (memPred != null) {
 					minListSizes = Math.min(minListSizes, memPred.getPredicateStatementCount());
 					if (minListSizes == 0) {
@@ -112,7 +144,7 @@ class MemEvaluationStatistics extends EvaluationStatistics {
 			}
 
 			if (obj != null) {
-				MemValue memObj = valueFactory.getMemValue(obj);
+				memObj = valueFactory.getMemValue(obj);
 				if (memObj != null) {
 					minListSizes = Math.min(minListSizes, memObj.getObjectStatementCount());
 					if (minListSizes == 0) {
@@ -126,7 +158,7 @@ class MemEvaluationStatistics extends EvaluationStatistics {
 			}
 
 			if (context != null) {
-				MemResource memContext = valueFactory.getMemResource((Resource) context);
+				memContext = valueFactory.getMemResource((Resource) context);
 				if (memContext != null) {
 					minListSizes = Math.min(minListSizes, memContext.getContextStatementCount());
 				} else {
@@ -138,6 +170,13 @@ class MemEvaluationStatistics extends EvaluationStatistics {
 
 			assert minListSizes != Integer.MAX_VALUE : "minListSizes should have been updated before this point";
 
+			for (CompositeIndex index : compositeIndexes) {
+				MemStatementList list = index.getStatementList(memSubj, memPred, memObj, memContext);
+				if (list != null) {
+					minListSizes = Math.min(minListSizes, list.size());
+				}
+			}
+
 			return minListSizes;
 		}
 
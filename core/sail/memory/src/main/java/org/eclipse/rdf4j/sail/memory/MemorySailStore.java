@@ -13,12 +13,20 @@ package org.eclipse.rdf4j.sail.memory;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.lang.ref.Cleaner;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
@@ -42,6 +50,7 @@ import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.Var;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.PredicateStatistics;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.StatementPatternQueryEvaluationStep;
 import org.eclipse.rdf4j.sail.SailConflictException;
 import org.eclipse.rdf4j.sail.SailException;
@@ -89,6 +98,9 @@ class MemorySailStore implements SailStore {
 	// we prioritise cleanup if there is less than 128 MB of free memory.
 	private static final double CLEANUP_MINIMUM_FREE_MEMORY_RATIO = 1.0 / 8;
 
+	// The number of statement lists that are handed to a cleanup worker at a time.
+	private static final int CLEANUP_BATCH_SIZE = 128;
+
 	public static final EmptyIteration<MemStatement> EMPTY_ITERATION = (EmptyIteration<MemStatement>) StatementPatternQueryEvaluationStep.EMPTY_ITERATION;
 	public static final EmptyIteration<MemTriple> EMPTY_TRIPLE_ITERATION = new EmptyIteration<>();
 	public static final MemResource[] EMPTY_CONTEXT = {};
@@ -106,6 +118,16 @@ class MemorySailStore implements SailStore {
 	 */
 	private final MemStatementList statements = new MemStatementList(256);
 
+	/**
+	 * Distinct subject and object counts per predicate, maintained as statements are added.
+	 */
+	private final PredicateStatistics predicateStatistics = new PredicateStatistics();
+
+	/**
+	 * Optional indexes on pairs of statement components, maintained as statements are added and cleaned up.
+	 */
+	private final CompositeIndex[] compositeIndexes;
+
 	/**
 	 * This gets set to `true` when we add our first inferred statement. If the value is `false` we guarantee that there
 	 * are no inferred statements in the MemorySailStore. If it is `true` then an inferred statement was added at some
@@ -149,8 +171,36 @@ class MemorySailStore implements SailStore {
 	 */
 	private final Object snapshotCleanupThreadLockObject = new Object();
 
+	/**
+	 * The number of threads that clean the statement lists of individual values during a snapshot cleanup.
+	 */
+	private volatile int cleanupParallelism = 1;
+
+	/**
+	 * Pool on which the statement lists of individual values are cleaned, created on first use. Guarded by
+	 * {@link #snapshotCleanupThreadLockObject}.
+	 */
+	private ForkJoinPool cleanupPool;
+
+	/**
+	 * The number of statements that have been marked as removed, and the number of those that have since been removed
+	 * from the statement lists by the snapshot cleanup.
+	 */
+	private final LongAdder deprecatedStatements = new LongAdder();
+	private final LongAdder cleanedStatements = new LongAdder();
+
 	public MemorySailStore(boolean debug) {
+		this(debug, null);
+	}
+
+	/**
+	 * @param compositeIndexes A comma separated list of composite indexes to maintain, see
+	 *                         {@link MemoryStore#setCompositeIndexes(String)}. May be <var>null</var>.
+	 * @throws SailException If the index specification is invalid.
+	 */
+	public MemorySailStore(boolean debug, String compositeIndexes) throws SailException {
 		snapshotMonitor = new SnapshotMonitor(debug);
+		this.compositeIndexes = CompositeIndex.parse(compositeIndexes);
 	}
 
 	@Override
@@ -165,9 +215,17 @@ class MemorySailStore implements SailStore {
 				snapshotCleanupThread.interrupt();
 				snapshotCleanupThread = null;
 			}
+			if (cleanupPool != null) {
+				cleanupPool.shutdownNow();
+				cleanupPool = null;
+			}
 		}
 		valueFactory.clear();
 		statements.clear();
+		predicateStatistics.clear();
+		for (CompositeIndex index : compositeIndexes) {
+			index.clear();
+		}
 		namespaceStore.clear();
 		invalidateCache();
 	}
@@ -176,9 +234,45 @@ class MemorySailStore implements SailStore {
 		iteratorCache.invalidateCache();
 	}
 
+	/**
+	 * Sets the number of threads that clean the statement lists of individual values while the snapshot cleanup scans
+	 * the list of all statements. With a value of 1 the lists are cleaned by the snapshot cleanup thread itself.
+	 */
+	void setCleanupParallelism(int cleanupParallelism) {
+		if (cleanupParallelism < 1) {
+			throw new IllegalArgumentException("cleanup parallelism must be positive: " + cleanupParallelism);
+		}
+		this.cleanupParallelism = cleanupParallelism;
+	}
+
+	/**
+	 * @return The number of statements that have been removed but are still taking up space in the statement lists,
+	 *         because a snapshot that can see them is in use or because the snapshot cleanup has not processed them
+	 *         yet.
+	 */
+	long getCleanupBacklog() {
+		return Math.max(0, deprecatedStatements.sum() - cleanedStatements.sum());
+	}
+
+	/**
+	 * @return The total number of removed statements that the snapshot cleanup has released.
+	 */
+	long getCleanedStatementCount() {
+		return cleanedStatements.sum();
+	}
+
+	/**
+	 * Marks a statement as removed from the supplied snapshot onwards. The statement stays in the statement lists until
+	 * the snapshot cleanup finds that no snapshot that is in use can still see it.
+	 */
+	private void deprecateStatement(MemStatement st, int snapshot) {
+		st.setTillSnapshot(snapshot);
+		deprecatedStatements.increment();
+	}
+
 	@Override
 	public EvaluationStatistics getEvaluationStatistics() {
-		return new MemEvaluationStatistics(valueFactory, statements);
+		return new MemEvaluationStatistics(valueFactory, statements, predicateStatistics, compositeIndexes);
 	}
 
 	@Override
@@ -282,7 +376,8 @@ class MemorySailStore implements SailStore {
 			}
 		}
 
-		MemStatementList smallestList = getSmallestStatementList(subj, pred, obj);
+		MemResource context = memContexts.length == 1 ? memContexts[0] : null;
+		MemStatementList smallestList = getSmallestStatementList(subj, pred, obj, context);
 
 		if (smallestList == null) {
 			smallestList = statementList;
@@ -296,7 +391,8 @@ class MemorySailStore implements SailStore {
 				iteratorCache);
 	}
 
-	private MemStatementList getSmallestStatementList(MemResource subj, MemIRI pred, MemValue obj) {
+	private MemStatementList getSmallestStatementList(MemResource subj, MemIRI pred, MemValue obj,
+			MemResource context) {
 		MemStatementList smallestList = null;
 
 		if (subj != null) {
@@ -329,6 +425,24 @@ class MemorySailStore implements SailStore {
 				smallestList = l;
 			}
 		}
+
+		return getSmallestCompositeStatementList(smallestList, subj, pred, obj, context);
+	}
+
+	/**
+	 * Returns the list of a composite index that applies to the pattern if it is shorter than the supplied list.
+	 */
+	private MemStatementList getSmallestCompositeStatementList(MemStatementList smallestList, MemResource subj,
+			MemIRI pred, MemValue obj, MemResource context) {
+		for (CompositeIndex index : compositeIndexes) {
+			if (smallestList != null && smallestList.size() <= 1) {
+				break;
+			}
+			MemStatementList l = index.getStatementList(subj, pred, obj, context);
+			if (l != null && (smallestList == null || l.size() < smallestList.size())) {
+				smallestList = l;
+			}
+		}
 		return smallestList;
 	}
 
@@ -377,6 +491,7 @@ class MemorySailStore implements SailStore {
 					highestUnusedTillSnapshot, currentSnapshot);
 		}
 
+		StatementListCleaner cleaner = new StatementListCleaner(getCleanupPool());
 		try {
 
 			boolean prioritiseCleaning = false;
@@ -394,6 +509,7 @@ class MemorySailStore implements SailStore {
 			HashSet<MemValue> processedPredicates = new HashSet<>();
 			HashSet<MemValue> processedObjects = new HashSet<>();
 			HashSet<MemValue> processedContexts = new HashSet<>();
+			HashSet<Object> processedCompositeKeys = new HashSet<>();
 
 			MemStatement[] statements = this.statements.getStatements();
 
@@ -416,26 +532,35 @@ class MemorySailStore implements SailStore {
 				if (st.getTillSnapshot() <= highestUnusedTillSnapshot) {
 					MemResource subj = st.getSubject();
 					if (processedSubjects.add(subj)) {
-						subj.cleanSnapshotsFromSubjectStatements(highestUnusedTillSnapshot);
+						cleaner.add(() -> subj.cleanSnapshotsFromSubjectStatements(highestUnusedTillSnapshot));
 					}
 
 					MemIRI pred = st.getPredicate();
 					if (processedPredicates.add(pred)) {
-						pred.cleanSnapshotsFromPredicateStatements(highestUnusedTillSnapshot);
+						cleaner.add(() -> pred.cleanSnapshotsFromPredicateStatements(highestUnusedTillSnapshot));
 					}
 
 					MemValue obj = st.getObject();
 					if (processedObjects.add(obj)) {
-						obj.cleanSnapshotsFromObjectStatements(highestUnusedTillSnapshot);
+						cleaner.add(() -> obj.cleanSnapshotsFromObjectStatements(highestUnusedTillSnapshot));
 					}
 
 					MemResource context = st.getContext();
 					if (context != null && processedContexts.add(context)) {
-						context.cleanSnapshotsFromContextStatements(highestUnusedTillSnapshot);
+						cleaner.add(() -> context.cleanSnapshotsFromContextStatements(highestUnusedTillSnapshot));
+					}
+
+					for (CompositeIndex index : compositeIndexes) {
+						Object key = index.getKey(st);
+						if (key != null && processedCompositeKeys.add(key)) {
+							cleaner.add(() -> index.cleanSnapshots(key, highestUnusedTillSnapshot));
+						}
 					}
 
 					// stale statement
-					this.statements.optimisticRemove(st, i);
+					if (this.statements.optimisticRemove(st, i)) {
+						cleanedStatements.increment();
+					}
 					prioritiseCleaning = prioritiseSnapshotCleaningIfLowOnMemory(prioritiseCleaning);
 				}
 
@@ -446,26 +571,153 @@ class MemorySailStore implements SailStore {
 						processedPredicates = new HashSet<>();
 						processedObjects = new HashSet<>();
 						processedContexts = new HashSet<>();
+						processedCompositeKeys = new HashSet<>();
 						System.gc();
 					}
 				}
 			}
 
+			cleaner.awaitCompletion();
+
 			processedSubjects.clear();
 			processedPredicates.clear();
 			processedObjects.clear();
 			processedContexts.clear();
+			processedCompositeKeys.clear();
 
 			if (logger.isDebugEnabled() && stopWatch != null) {
 				stopWatch.stop();
-				logger.debug("Cleaning snapshots took {} seconds.", stopWatch.getTime(TimeUnit.SECONDS));
+				logger.debug("Cleaning snapshots took {} seconds, {} removed statements remain.",
+						stopWatch.getTime(TimeUnit.SECONDS), getCleanupBacklog());
 			}
 
 		} finally {
+			cleaner.cancel();
 			statements.setPrioritiseCleanup(false);
 		}
 	}
 
+	private ForkJoinPool getCleanupPool() {
+		int parallelism = cleanupParallelism;
+		if (parallelism <= 1) {
+			return null;
+		}
+		synchronized (snapshotCleanupThreadLockObject) {
+			if (cleanupPool == null || cleanupPool.getParallelism() != parallelism) {
+				if (cleanupPool != null) {
+					cleanupPool.shutdown();
+				}
+				cleanupPool = new ForkJoinPool(parallelism, pool -> {
+					ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+					thread.setName("MemoryStore snapshot cleanup worker " + thread.getPoolIndex());
+					return thread;
+				}, null, false);
+			}
+			return cleanupPool;
+		}
+	}
+
+	/**
+	 * Cleans a statement list, see {@link MemStatementList#cleanSnapshots(int)}.
+	 */
+	@FunctionalInterface
+	private interface CleanupTask {
+		void run() throws InterruptedException;
+	}
+
+	/**
+	 * Cleans the statement lists of individual values during a single run of {@link #cleanSnapshots()}. The lists are
+	 * handed to the cleanup pool in batches while the list of all statements is still being scanned, so that readers
+	 * see cleaned lists early and a long list does not hold up the scan. Statement lists support concurrent readers,
+	 * writers and removals, and each list is only cleaned by one task per run.
+	 */
+	private static final class StatementListCleaner {
+
+		private final ForkJoinPool pool;
+
+		private final ArrayDeque<Future<?>> pendingBatches = new ArrayDeque<>();
+
+		private List<CleanupTask> batch = new ArrayList<>(CLEANUP_BATCH_SIZE);
+
+		/**
+		 * @param pool The pool to clean the lists on, or <var>null</var> to clean them on the calling thread.
+		 */
+		StatementListCleaner(ForkJoinPool pool) {
+			this.pool = pool;
+		}
+
+		void add(CleanupTask task) throws InterruptedException {
+			if (pool == null) {
+				task.run();
+				return;
+			}
+
+			batch.add(task);
+			if (batch.size() >= CLEANUP_BATCH_SIZE) {
+				submitBatch();
+			}
+		}
+
+		void awaitCompletion() throws InterruptedException {
+			if (pool != null && !batch.isEmpty()) {
+				submitBatch();
+			}
+			while (!pendingBatches.isEmpty()) {
+				await(pendingBatches.removeFirst());
+			}
+		}
+
+		/**
+		 * Cancels the batches that have not been processed yet, for when the cleanup is interrupted or fails.
+		 */
+		void cancel() {
+			for (Future<?> pendingBatch : pendingBatches) {
+				pendingBatch.cancel(true);
+			}
+			pendingBatches.clear();
+			batch.clear();
+		}
+
+		private void submitBatch() throws InterruptedException {
+			// limit the amount of work that is queued up ahead of the workers
+			while (pendingBatches.size() >= 2 * pool.getParallelism()) {
+				await(pendingBatches.removeFirst());
+			}
+
+			List<CleanupTask> tasks = batch;
+			batch = new ArrayList<>(CLEANUP_BATCH_SIZE);
+			try {
+				pendingBatches.addLast(pool.submit(() -> {
+					for (CleanupTask task : tasks) {
+						task.run();
+					}
+					return null;
+				}));
+			} catch (RejectedExecutionException e) {
+				// the store is being closed
+				throw new InterruptedException("snapshot cleanup pool has been shut down");
+			}
+		}
+
+		private static void await(Future<?> future) throws InterruptedException {
+			try {
+				future.get();
+			} catch (CancellationException e) {
+				throw new InterruptedException("snapshot cleanup was cancelled");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof InterruptedException) {
+					throw (InterruptedException) cause;
+				} else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new SailException(cause);
+			}
+		}
+	}
+
 	private boolean prioritiseSnapshotCleaningIfLowOnMemory(boolean prioritiseCleaning) {
 		if (!prioritiseCleaning && MAX_MEMORY >= CLEANUP_MAX_MEMORY_THRESHOLD) {
 			long freeToAllocateMemory = getFreeToAllocateMemory();
@@ -724,7 +976,7 @@ class MemorySailStore implements SailStore {
 					explicit, nextSnapshot, contexts)) {
 				while (iter.hasNext()) {
 					MemStatement st = iter.next();
-					st.setTillSnapshot(nextSnapshot);
+					deprecateStatement(st, nextSnapshot);
 				}
 			} catch (InterruptedException e) {
 				throw convertToSailException(e);
@@ -785,7 +1037,7 @@ class MemorySailStore implements SailStore {
 				MemStatement toDeprecate = (MemStatement) statement;
 				if ((nextSnapshot < 0 || toDeprecate.isInSnapshot(nextSnapshot))
 						&& toDeprecate.isExplicit() == explicit) {
-					toDeprecate.setTillSnapshot(nextSnapshot);
+					deprecateStatement(toDeprecate, nextSnapshot);
 				}
 			} else if (statement instanceof LinkedHashModel.ModelStatement
 					&& ((LinkedHashModel.ModelStatement) statement).getStatement() instanceof MemStatement) {
@@ -794,7 +1046,7 @@ class MemorySailStore implements SailStore {
 				MemStatement toDeprecate = (MemStatement) ((LinkedHashModel.ModelStatement) statement).getStatement();
 				if ((nextSnapshot < 0 || toDeprecate.isInSnapshot(nextSnapshot))
 						&& toDeprecate.isExplicit() == explicit) {
-					toDeprecate.setTillSnapshot(nextSnapshot);
+					deprecateStatement(toDeprecate, nextSnapshot);
 				}
 			} else {
 				try (CloseableIteration<MemStatement> iter = createStatementIterator(
@@ -802,7 +1054,7 @@ class MemorySailStore implements SailStore {
 						statement.getContext())) {
 					while (iter.hasNext()) {
 						MemStatement st = iter.next();
-						st.setTillSnapshot(nextSnapshot);
+						deprecateStatement(st, nextSnapshot);
 					}
 				} catch (InterruptedException e) {
 					throw convertToSailException(e);
@@ -852,6 +1104,10 @@ class MemorySailStore implements SailStore {
 			MemStatement st = new MemStatement(memSubj, memPred, memObj, memContext, explicit, nextSnapshot);
 			statements.add(st);
 			st.addToComponentLists();
+			for (CompositeIndex index : compositeIndexes) {
+				index.add(st);
+			}
+			predicateStatistics.add(memSubj, memPred, memObj);
 			invalidateCache();
 			return st;
 		}
@@ -866,7 +1122,7 @@ class MemorySailStore implements SailStore {
 			if (memStatement != null) {
 				if (!memStatement.isExplicit() && explicit) {
 					// Implicit statement is now added explicitly
-					memStatement.setTillSnapshot(this.nextSnapshot);
+					deprecateStatement(memStatement, this.nextSnapshot);
 				} else {
 					// statement already exists
 					return true;
@@ -901,7 +1157,7 @@ class MemorySailStore implements SailStore {
 				statementList = memContext.getContextStatementList();
 			}
 
-			return statementList;
+			return getSmallestCompositeStatementList(statementList, memSubj, memPred, memObj, memContext);
 		}
 
 		@Override
@@ -916,7 +1172,7 @@ class MemorySailStore implements SailStore {
 				while (iter.hasNext()) {
 					deprecated = true;
 					MemStatement st = iter.next();
-					st.setTillSnapshot(nextSnapshot);
+					deprecateStatement(st, nextSnapshot);
 				}
 			} catch (InterruptedException e) {
 				throw convertToSailException(e);
@@ -62,6 +62,18 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 
 	protected static final String SYNC_FILE_NAME = "memorystore.sync";
 
+	/**
+	 * The default size (in bytes) that the change log can grow to before a checkpoint is written.
+	 */
+	public static final long DEFAULT_CHECKPOINT_THRESHOLD = 64L * 1024 * 1024;
+
+	/**
+	 * The default number of threads that clean up removed statements: half of the available processors, between 1 and
+	 * 4.
+	 */
+	public static final int DEFAULT_SNAPSHOT_CLEANUP_PARALLELISM = Math.max(1,
+			Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
 	/*-----------*
 	 * Variables *
 	 *-----------*/
@@ -71,6 +83,16 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 	 */
 	private SailStore store;
 
+	/**
+	 * The in-memory store that {@link #store} is, or wraps.
+	 */
+	private volatile MemorySailStore memorySailStore;
+
+	/**
+	 * The columnar store that {@link #store} is, or wraps, if columnar storage is enabled.
+	 */
+	private volatile ColumnarSailStore columnarSailStore;
+
 	private volatile boolean persist = false;
 
 	/**
@@ -100,6 +122,46 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 	 */
 	private volatile long syncDelay = 0L;
 
+	/**
+	 * Flag indicating whether committed changes are appended to a change log instead of rewriting the data file.
+	 *
+	 * @see #setWriteAheadLog
+	 */
+	private volatile boolean writeAheadLog = false;
+
+	/**
+	 * The size of the change log that triggers a checkpoint.
+	 *
+	 * @see #setCheckpointThreshold
+	 */
+	private volatile long checkpointThreshold = DEFAULT_CHECKPOINT_THRESHOLD;
+
+	/**
+	 * The composite indexes to maintain, null if none.
+	 *
+	 * @see #setCompositeIndexes
+	 */
+	private volatile String compositeIndexes;
+
+	/**
+	 * Flag indicating whether statements are stored in columns of value IDs.
+	 *
+	 * @see #setColumnarStorage
+	 */
+	private volatile boolean columnarStorage = false;
+
+	/**
+	 * The number of threads that clean up removed statements.
+	 *
+	 * @see #setSnapshotCleanupParallelism
+	 */
+	private volatile int snapshotCleanupParallelism = DEFAULT_SNAPSHOT_CLEANUP_PARALLELISM;
+
+	/**
+	 * The change log, null if this is a volatile RDF store or if the write-ahead log is disabled.
+	 */
+	private volatile ChangeLog changeLog;
+
 	/**
 	 * Semaphore used to synchronize concurrent access to {@link #syncWithLock()} .
 	 */
@@ -203,6 +265,155 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 		return syncDelay;
 	}
 
+	/**
+	 * Enables or disables the write-ahead log of a persistent store. When enabled, every commit appends its changes to
+	 * a change log in the data directory instead of rewriting the complete data file, and the sync delay is not used.
+	 * The data file is rewritten by a background checkpoint once the change log has grown beyond the
+	 * {@link #setCheckpointThreshold checkpoint threshold}, or when {@link #sync()} is called explicitly. On startup
+	 * the change log is replayed on top of the data file.
+	 * <p>
+	 * Existing change logs are always replayed, so the write-ahead log can be disabled for a data directory that was
+	 * previously used with it.
+	 * <p>
+	 * The default value for this parameter is <var>false</var>.
+	 *
+	 * @param writeAheadLog <var>true</var> to enable the write-ahead log.
+	 */
+	public void setWriteAheadLog(boolean writeAheadLog) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been initialized");
+		}
+
+		this.writeAheadLog = writeAheadLog;
+	}
+
+	public boolean getWriteAheadLog() {
+		return writeAheadLog;
+	}
+
+	/**
+	 * Sets the size (in bytes) that the change log can grow to before a checkpoint rewrites the data file. This
+	 * parameter only has an effect when the {@link #setWriteAheadLog write-ahead log} is enabled.
+	 * <p>
+	 * The default value for this parameter is <var>64 MB</var>.
+	 *
+	 * @param checkpointThreshold The checkpoint threshold in bytes.
+	 */
+	public void setCheckpointThreshold(long checkpointThreshold) {
+		this.checkpointThreshold = checkpointThreshold;
+	}
+
+	public long getCheckpointThreshold() {
+		return checkpointThreshold;
+	}
+
+	/**
+	 * Sets the composite indexes that the store should maintain in addition to its per-value statement lists. A
+	 * composite index maps every combination of two values to the statements that contain it, so that patterns binding
+	 * both positions, such as <var>?s :p :o</var>, only visit the statements that have that combination. The parameter
+	 * is a comma separated list of index specifications, each naming two of the fields <var>s</var>, <var>p</var>,
+	 * <var>o</var> and <var>c</var>, for example <var>"po,sp"</var>. Every index costs roughly one small list per
+	 * distinct combination of values, so only indexes that match the workload should be enabled.
+	 * <p>
+	 * By default no composite indexes are maintained.
+	 *
+	 * @param compositeIndexes The composite index specification, or <var>null</var> for none.
+	 */
+	public void setCompositeIndexes(String compositeIndexes) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been initialized");
+		}
+
+		this.compositeIndexes = compositeIndexes;
+	}
+
+	public String getCompositeIndexes() {
+		return compositeIndexes;
+	}
+
+	/**
+	 * Enables or disables columnar storage. With columnar storage, the store gives every value an int ID and keeps each
+	 * statement as a row of the IDs of its subject, predicate, object and context, instead of as an object that is
+	 * linked from a statement list of each of its values. This takes a fraction of the memory per statement and leaves
+	 * far fewer objects for the garbage collector to trace, which matters for stores that hold hundreds of millions of
+	 * statements. Statement objects are created when statements are read, which makes reads that return many
+	 * statements somewhat slower. Removed statements are dropped by a background compaction that copies the remaining
+	 * statements, and that blocks writers while it runs. Composite indexes are not supported with columnar storage.
+	 * <p>
+	 * By default columnar storage is disabled.
+	 *
+	 * @param columnarStorage <var>true</var> to store statements in columns.
+	 */
+	public void setColumnarStorage(boolean columnarStorage) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been initialized");
+		}
+
+		this.columnarStorage = columnarStorage;
+	}
+
+	public boolean getColumnarStorage() {
+		return columnarStorage;
+	}
+
+	/**
+	 * Sets the number of threads that clean up removed statements. Removed statements stay in the statement lists for
+	 * as long as a transaction or query that started before their removal may need them, after which a background
+	 * cleanup releases them. The cleanup scans the list of all statements on a single thread and hands the statement
+	 * lists of the affected values to a pool of this many threads, which clean them concurrently with readers and
+	 * writers. A value of 1 cleans all lists on the scanning thread.
+	 * <p>
+	 * The default value for this parameter is half of the available processors, between 1 and 4. The parameter has no
+	 * effect with {@link #setColumnarStorage columnar storage}.
+	 *
+	 * @param snapshotCleanupParallelism The number of cleanup threads, at least 1.
+	 */
+	public void setSnapshotCleanupParallelism(int snapshotCleanupParallelism) {
+		if (snapshotCleanupParallelism < 1) {
+			throw new IllegalArgumentException(
+					"snapshot cleanup parallelism must be positive: " + snapshotCleanupParallelism);
+		}
+		this.snapshotCleanupParallelism = snapshotCleanupParallelism;
+		MemorySailStore memorySailStore = this.memorySailStore;
+		if (memorySailStore != null) {
+			memorySailStore.setCleanupParallelism(snapshotCleanupParallelism);
+		}
+	}
+
+	public int getSnapshotCleanupParallelism() {
+		return snapshotCleanupParallelism;
+	}
+
+	/**
+	 * Gets the number of removed statements that still take up memory, either because a transaction or query that can
+	 * see them is still active or because the background cleanup has not processed them yet. A backlog that keeps
+	 * growing indicates long-running readers or a cleanup that cannot keep up with the rate of removals, and slows down
+	 * lookups that have to skip the removed statements.
+	 *
+	 * @return The number of removed statements that have not been released yet, or 0 if the store is not initialized.
+	 */
+	public long getSnapshotCleanupBacklog() {
+		MemorySailStore memorySailStore = this.memorySailStore;
+		if (memorySailStore != null) {
+			return memorySailStore.getCleanupBacklog();
+		}
+		ColumnarSailStore columnarSailStore = this.columnarSailStore;
+		return columnarSailStore != null ? columnarSailStore.getCleanupBacklog() : 0;
+	}
+
+	/**
+	 * @return The total number of removed statements that the background cleanup has released since the store was
+	 *         initialized.
+	 */
+	public long getCleanedStatementCount() {
+		MemorySailStore memorySailStore = this.memorySailStore;
+		if (memorySailStore != null) {
+			return memorySailStore.getCleanedStatementCount();
+		}
+		ColumnarSailStore columnarSailStore = this.columnarSailStore;
+		return columnarSailStore != null ? columnarSailStore.getCleanedStatementCount() : 0;
+	}
+
 	/**
 	 * @return Returns the {@link EvaluationStrategy}.
 	 */
@@ -258,7 +469,21 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 	protected void initializeInternal() throws SailException {
 		logger.debug("Initializing MemoryStore...");
 
-		this.store = new MemorySailStore(debugEnabled());
+		if (columnarStorage) {
+			if (compositeIndexes != null && !compositeIndexes.isBlank()) {
+				throw new SailException("composite indexes are not supported with columnar storage");
+			}
+			ColumnarSailStore columnarSailStore = new ColumnarSailStore(debugEnabled());
+			this.memorySailStore = null;
+			this.columnarSailStore = columnarSailStore;
+			this.store = columnarSailStore;
+		} else {
+			MemorySailStore memorySailStore = new MemorySailStore(debugEnabled(), compositeIndexes);
+			memorySailStore.setCleanupParallelism(snapshotCleanupParallelism);
+			this.memorySailStore = memorySailStore;
+			this.columnarSailStore = null;
+			this.store = memorySailStore;
+		}
 
 		if (persist) {
 			File dataDir = getDataDir();
@@ -327,6 +552,8 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 					throw new SailException("Failed to initialize data file " + dataFile, e);
 				}
 			}
+
+			initializeChangeLog(dataDir);
 		}
 
 		contentsChanged = false;
@@ -334,11 +561,55 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 		logger.debug("MemoryStore initialized");
 	}
 
+	/**
+	 * Replays any existing change log and, if the write-ahead log is enabled, opens it for the changes that will be
+	 * committed from now on.
+	 */
+	private void initializeChangeLog(File dataDir) throws SailException {
+		ChangeLog log = new ChangeLog(dataDir, (MemValueFactory) store.getValueFactory());
+		try {
+			int replayed = log.replay(store);
+			if (replayed > 0) {
+				logger.debug("Replayed {} change log records", replayed);
+			}
+
+			if (writeAheadLog) {
+				log.open();
+				changeLog = log;
+				store = log.wrap(store);
+			} else if (replayed > 0) {
+				// fold the changes into the data file, after which the log is no longer needed
+				contentsChanged = true;
+				sync();
+				log.deleteBefore(Long.MAX_VALUE);
+			} else {
+				log.deleteBefore(Long.MAX_VALUE);
+			}
+		} catch (IOException e) {
+			logger.error("Failed to read change log", e);
+			throw new SailException(e);
+		}
+	}
+
 	@Override
 	protected void shutDownInternal() throws SailException {
 		try {
 			cancelSyncTimer();
-			sync();
+			if (changeLog != null) {
+				// all changes are in the log already, leave the checkpoint to the next startup
+				synchronized (syncSemaphore) {
+					try {
+						changeLog.close();
+					} catch (IOException e) {
+						throw new SailException(e);
+					} finally {
+						changeLog = null;
+						contentsChanged = false;
+					}
+				}
+			} else {
+				sync();
+			}
 
 			store.close();
 			dataFile = null;
@@ -389,7 +660,12 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 			return;
 		}
 
-		if (syncDelay == 0L) {
+		ChangeLog changeLog = this.changeLog;
+		if (changeLog != null) {
+			if (changeLog.size() >= checkpointThreshold) {
+				scheduleCheckpoint();
+			}
+		} else if (syncDelay == 0L) {
 			// Sync immediately
 			sync();
 		} else if (syncDelay > 0L) {
@@ -423,7 +699,46 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 		}
 	}
 
+	/**
+	 * Schedules a checkpoint on the sync timer, unless one is pending already. Unlike a delayed sync, a pending
+	 * checkpoint is not postponed by new transactions.
+	 */
+	private void scheduleCheckpoint() {
+		synchronized (syncTimerSemaphore) {
+			if (syncTimerTask != null) {
+				return;
+			}
+			if (syncTimer == null) {
+				syncTimer = new Timer("MemoryStore synchronization", true);
+			}
+
+			syncTimerTask = new TimerTask() {
+
+				@Override
+				public void run() {
+					try {
+						sync();
+					} catch (SailException e) {
+						logger.warn("Unable to write checkpoint", e);
+					} finally {
+						synchronized (syncTimerSemaphore) {
+							if (syncTimerTask == this) {
+								syncTimerTask = null;
+							}
+						}
+					}
+				}
+			};
+
+			syncTimer.schedule(syncTimerTask, 0L);
+		}
+	}
+
 	protected void cancelSyncTask() {
+		if (changeLog != null) {
+			// checkpoints run concurrently with transactions
+			return;
+		}
 		synchronized (syncTimerSemaphore) {
 			if (syncTimerTask != null) {
 				syncTimerTask.cancel();
@@ -443,12 +758,18 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 
 	/**
 	 * Synchronizes the contents of this repository with the data that is stored on disk. Data will only be written when
-	 * the contents of the repository and data in the file are out of sync.
+	 * the contents of the repository and data in the file are out of sync. When the write-ahead log is enabled, this
+	 * writes a checkpoint after which the change log is truncated.
 	 */
 	public void sync() throws SailException {
 		// syncSemaphore prevents concurrent file synchronizations
 		synchronized (syncSemaphore) {
-			if (persist && contentsChanged) {
+			ChangeLog changeLog = this.changeLog;
+			if (changeLog != null) {
+				if (changeLog.size() > 0) {
+					checkpoint(changeLog);
+				}
+			} else if (persist && contentsChanged) {
 				logger.debug("syncing data to file...");
 				try {
 					IsolationLevels level = IsolationLevels.SNAPSHOT;
@@ -467,6 +788,32 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 		}
 	}
 
+	private void checkpoint(ChangeLog changeLog) throws SailException {
+		logger.debug("writing checkpoint...");
+		try {
+			IsolationLevels level = IsolationLevels.SNAPSHOT;
+			long generation;
+			SailDataset explicit;
+			SailDataset inferred;
+			// no commit can be logged while the log is rotated and the snapshot is taken, so the snapshot contains
+			// exactly the changes of the older generations
+			synchronized (changeLog) {
+				generation = changeLog.rotate();
+				explicit = store.getExplicitSailSource().dataset(level);
+				inferred = store.getInferredSailSource().dataset(level);
+			}
+			try (explicit; inferred) {
+				new FileIO((MemValueFactory) store.getValueFactory()).write(explicit, inferred, syncFile, dataFile);
+			}
+			changeLog.deleteBefore(generation);
+			contentsChanged = false;
+			logger.debug("Checkpoint written");
+		} catch (IOException e) {
+			logger.error("Failed to write checkpoint", e);
+			throw new SailException(e);
+		}
+	}
+
 	SailStore getSailStore() {
 		return store;
 	}
@@ -11,6 +11,7 @@
 
 package org.eclipse.rdf4j.sail.memory;
 
+import org.eclipse.rdf4j.common.transaction.IsolationLevel;
 import org.eclipse.rdf4j.common.transaction.IsolationLevels;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
@@ -124,6 +125,8 @@ public class MemoryStoreConnection extends SailSourceConnection implements Threa
 
 	@Override
 	public boolean supportsConcurrentReads() {
-		return getTransactionIsolation() != null && getTransactionIsolation() != IsolationLevels.SERIALIZABLE;
+		// reads outside of a transaction use the default isolation level
+		IsolationLevel isolationLevel = isActive() ? getTransactionIsolation() : sail.getDefaultIsolationLevel();
+		return isolationLevel != null && isolationLevel != IsolationLevels.SERIALIZABLE;
 	}
 }
@@ -0,0 +1,461 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.util.Arrays;
+
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.sail.memory.model.MemIRI;
+import org.eclipse.rdf4j.sail.memory.model.MemResource;
+import org.eclipse.rdf4j.sail.memory.model.MemStatement;
+import org.eclipse.rdf4j.sail.memory.model.MemValue;
+
+/**
+ * The statements of a {@link ColumnarSailStore}, stored as rows of int columns. Every value that is used in a
+ * statement gets an int ID, and a statement is a row that holds the IDs of its subject, predicate, object and context,
+ * together with the snapshots in which it was added and removed. For every position, the rows that contain a value are
+ * listed in ascending order in a posting list, so that a statement pattern only visits the rows of the value that
+ * occurs least often. Rows and value IDs start at 1, so that 0 can mean "none": a context ID of 0 is the null context
+ * and a removal snapshot of 0 means that the statement has not been removed.
+ * <p>
+ * A table has a single writer, which holds the transaction lock of the store. Readers do not lock. The writer writes a
+ * row, including its posting list entries, before it raises the volatile {@link #size} past it, and readers only visit
+ * rows below the size that they read. Values are published the same way through {@link #valueLimit}. Removing a
+ * statement writes its removal snapshot in place, which readers see once the store publishes the snapshot.
+ * <p>
+ * Rows are never removed from a table. Once enough statements have been removed, {@link #compact(int)} copies the rows
+ * that can still be seen to a new table, which replaces this one for new readers.
+ */
+final class StatementTable {
+
+	static final int SUBJ = 0;
+
+	static final int PRED = 1;
+
+	static final int OBJ = 2;
+
+	static final int CTX = 3;
+
+	private static final int POSITIONS = 4;
+
+	/**
+	 * The values by ID.
+	 */
+	private final RefColumn<MemValue> values = new RefColumn<>();
+
+	/**
+	 * An open addressing hash table from values to their IDs, at most half full.
+	 */
+	private volatile int[] slots = new int[16];
+
+	/**
+	 * The first unused value ID, only read by the writer.
+	 */
+	private int nextValueId = 1;
+
+	/**
+	 * The first value ID that readers may not use yet.
+	 */
+	private volatile int valueLimit = 1;
+
+	private final IntColumn[] components = new IntColumn[POSITIONS];
+
+	/**
+	 * The snapshot in which each statement was added, shifted left by one, with the lowest bit set for inferred
+	 * statements.
+	 */
+	private final IntColumn added = new IntColumn();
+
+	/**
+	 * The snapshot from which each statement is removed, or 0.
+	 */
+	private final IntColumn removed = new IntColumn();
+
+	/**
+	 * The first row of each value in each position. Most values only occur once in a position, so the further rows
+	 * are kept in {@link #moreRows}, which is only allocated for values that occur more than once.
+	 */
+	private final IntColumn[] firstRows = new IntColumn[POSITIONS];
+
+	private final RefColumn<RowList>[] moreRows;
+
+	/**
+	 * The first row that readers may not visit yet.
+	 */
+	private volatile int size = 1;
+
+	@SuppressWarnings("unchecked")
+	StatementTable() {
+		moreRows = new RefColumn[POSITIONS];
+		for (int i = 0; i < POSITIONS; i++) {
+			components[i] = new IntColumn();
+			firstRows[i] = new IntColumn();
+			moreRows[i] = new RefColumn<>();
+		}
+	}
+
+	/**
+	 * @return The first row that readers may not visit. Rows from 1 up to this row exist.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return The number of rows, including those of removed statements.
+	 */
+	int rowCount() {
+		return size - 1;
+	}
+
+	/**
+	 * @return The first value ID that readers may not use.
+	 */
+	int valueLimit() {
+		return valueLimit;
+	}
+
+	/**
+	 * @return The ID of the value, or 0 if the value does not occur in this table.
+	 */
+	int getId(Value value) {
+		if (value == null) {
+			return 0;
+		}
+		int valueLimit = this.valueLimit;
+		int[] slots = this.slots;
+		int mask = slots.length - 1;
+		for (int i = hash(value) & mask;; i = (i + 1) & mask) {
+			int id = slots[i];
+			if (id == 0) {
+				return 0;
+			}
+			if (id < valueLimit && value.equals(values.get(id))) {
+				return id;
+			}
+		}
+	}
+
+	/**
+	 * Returns the ID of the value, assigning a new one if it does not occur in this table yet. Only called by the
+	 * writer.
+	 */
+	int getOrCreateId(MemValue value) {
+		int id = getId(value);
+		if (id != 0) {
+			return id;
+		}
+
+		id = nextValueId++;
+		values.set(id, value);
+		for (int i = 0; i < POSITIONS; i++) {
+			firstRows[i].ensureCapacity(id);
+			moreRows[i].ensureCapacity(id);
+		}
+
+		int[] slots = this.slots;
+		if (2 * id > slots.length) {
+			slots = rehash(slots.length * 2);
+		}
+		int mask = slots.length - 1;
+		int i = hash(value) & mask;
+		while (slots[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		slots[i] = id;
+
+		valueLimit = id + 1;
+		return id;
+	}
+
+	private int[] rehash(int capacity) {
+		int[] rehashed = new int[capacity];
+		int mask = capacity - 1;
+		for (int id = 1; id < nextValueId - 1; id++) {
+			int i = hash(values.get(id)) & mask;
+			while (rehashed[i] != 0) {
+				i = (i + 1) & mask;
+			}
+			rehashed[i] = id;
+		}
+		this.slots = rehashed;
+		return rehashed;
+	}
+
+	private static int hash(Value value) {
+		int h = value.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	MemValue getValue(int id) {
+		return values.get(id);
+	}
+
+	/**
+	 * Appends a statement and publishes it to readers. Only called by the writer.
+	 *
+	 * @return The row of the statement.
+	 */
+	int add(int subj, int pred, int obj, int context, boolean explicit, int snapshot) {
+		int row = size;
+		components[SUBJ].set(row, subj);
+		components[PRED].set(row, pred);
+		components[OBJ].set(row, obj);
+		components[CTX].set(row, context);
+		added.set(row, snapshot << 1 | (explicit ? 0 : 1));
+		removed.ensureCapacity(row);
+
+		addToPostingList(SUBJ, subj, row);
+		addToPostingList(PRED, pred, row);
+		addToPostingList(OBJ, obj, row);
+		if (context != 0) {
+			addToPostingList(CTX, context, row);
+		}
+
+		size = row + 1;
+		return row;
+	}
+
+	private void addToPostingList(int position, int id, int row) {
+		if (firstRows[position].get(id) == 0) {
+			firstRows[position].set(id, row);
+			return;
+		}
+
+		RowList list = moreRows[position].get(id);
+		if (list != null && list.size < list.rows.length) {
+			list.rows[list.size++] = row;
+		} else {
+			int[] rows = list == null ? new int[2] : Arrays.copyOf(list.rows, list.size + (list.size >> 1) + 1);
+			int size = list == null ? 0 : list.size;
+			rows[size] = row;
+			moreRows[position].set(id, new RowList(rows, size + 1));
+		}
+	}
+
+	/**
+	 * Marks the statement in the row as removed from the supplied snapshot onwards. Only called by the writer.
+	 */
+	void remove(int row, int snapshot) {
+		removed.set(row, snapshot);
+	}
+
+	int getComponent(int row, int position) {
+		return components[position].get(row);
+	}
+
+	boolean isExplicit(int row) {
+		return (added.get(row) & 1) == 0;
+	}
+
+	/**
+	 * @param snapshot The snapshot to read, or a negative number to ignore snapshots.
+	 */
+	boolean isInSnapshot(int row, int snapshot) {
+		if (snapshot < 0) {
+			return true;
+		}
+		int removedSnapshot = removed.get(row);
+		return (added.get(row) >>> 1) <= snapshot && (removedSnapshot == 0 || snapshot < removedSnapshot);
+	}
+
+	int getAddedSnapshot(int row) {
+		return added.get(row) >>> 1;
+	}
+
+	/**
+	 * @return The snapshot from which the statement in the row is removed, or {@link Integer#MAX_VALUE} if it is not
+	 *         removed.
+	 */
+	int getRemovedSnapshot(int row) {
+		int removedSnapshot = removed.get(row);
+		return removedSnapshot == 0 ? Integer.MAX_VALUE : removedSnapshot;
+	}
+
+	/**
+	 * Creates a statement for the row.
+	 */
+	MemStatement getStatement(int row) {
+		int context = components[CTX].get(row);
+		MemStatement st = new MemStatement((MemResource) values.get(components[SUBJ].get(row)),
+				(MemIRI) values.get(components[PRED].get(row)), values.get(components[OBJ].get(row)),
+				context == 0 ? null : (MemResource) values.get(context), isExplicit(row), getAddedSnapshot(row));
+		int removedSnapshot = removed.get(row);
+		if (removedSnapshot != 0) {
+			st.setTillSnapshot(removedSnapshot);
+		}
+		return st;
+	}
+
+	/**
+	 * @return The number of rows that contain the value in the position, including those of removed statements.
+	 */
+	int getRowCount(int position, int id) {
+		if (firstRows[position].get(id) == 0) {
+			return 0;
+		}
+		RowList list = moreRows[position].get(id);
+		return list == null ? 1 : 1 + list.size;
+	}
+
+	/**
+	 * @return A cursor over all rows below the limit.
+	 */
+	RowCursor getRows(int limit) {
+		return new RowCursor(0, null, limit);
+	}
+
+	/**
+	 * @return A cursor over the rows below the limit that contain the value in the position.
+	 */
+	RowCursor getRows(int position, int id, int limit) {
+		int first = firstRows[position].get(id);
+		if (first == 0) {
+			return new RowCursor(limit, null, limit);
+		}
+		RowList list = moreRows[position].get(id);
+		return new RowCursor(first - 1, list == null ? RowList.EMPTY : list.rows, limit);
+	}
+
+	/**
+	 * Copies the statements that may still be seen by a snapshot after the supplied one to a new table, together with
+	 * the values that they use. Only called by the writer, which must not change this table while it is copied.
+	 *
+	 * @param highestUnusedRemovedSnapshot Statements that are removed from this snapshot or an earlier one are not
+	 *                                     copied.
+	 * @return The new table, or <var>null</var> if the thread was interrupted.
+	 */
+	StatementTable compact(int highestUnusedRemovedSnapshot) {
+		StatementTable compacted = new StatementTable();
+		int size = this.size;
+		for (int row = 1; row < size; row++) {
+			if (row % 4096 == 0 && Thread.currentThread().isInterrupted()) {
+				return null;
+			}
+
+			int removedSnapshot = removed.get(row);
+			if (removedSnapshot != 0 && removedSnapshot <= highestUnusedRemovedSnapshot) {
+				continue;
+			}
+
+			int context = components[CTX].get(row);
+			int newRow = compacted.add(compacted.getOrCreateId(values.get(components[SUBJ].get(row))),
+					compacted.getOrCreateId(values.get(components[PRED].get(row))),
+					compacted.getOrCreateId(values.get(components[OBJ].get(row))),
+					context == 0 ? 0 : compacted.getOrCreateId(values.get(context)), isExplicit(row),
+					getAddedSnapshot(row));
+			if (removedSnapshot != 0) {
+				compacted.remove(newRow, removedSnapshot);
+			}
+		}
+		return compacted;
+	}
+
+	/**
+	 * Iterates over the rows of a posting list, or over all rows, in ascending order.
+	 */
+	static final class RowCursor {
+
+		private final int[] rows;
+
+		private final int limit;
+
+		private int row;
+
+		private int index = -1;
+
+		private RowCursor(int row, int[] rows, int limit) {
+			this.row = row;
+			this.rows = rows;
+			this.limit = limit;
+		}
+
+		/**
+		 * @return The next row, or 0 if there are no more rows.
+		 */
+		int next() {
+			if (rows == null) {
+				// all rows
+				return ++row < limit ? row : 0;
+			}
+
+			if (index < 0) {
+				index = 0;
+				return row + 1 < limit ? row + 1 : 0;
+			}
+
+			// entries that are not published yet may be 0 or point beyond the limit
+			int next = index < rows.length ? rows[index++] : 0;
+			return next < limit ? next : 0;
+		}
+	}
+
+	/**
+	 * The rows of a value after the first one. The array is copied when it is full, and the copy is published through
+	 * the final field, so that readers see the copied rows even if they read the list without synchronisation.
+	 */
+	private static final class RowList {
+
+		static final int[] EMPTY = {};
+
+		final int[] rows;
+
+		int size;
+
+		RowList(int[] rows, int size) {
+			this.rows = rows;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * The object counterpart of {@link IntColumn}.
+	 */
+	private static final class RefColumn<T> {
+
+		private static final int BLOCK_SHIFT = 12;
+
+		private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+		private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+		private volatile Object[][] blocks = new Object[1][];
+
+		@SuppressWarnings("unchecked")
+		T get(int index) {
+			return (T) blocks[index >>> BLOCK_SHIFT][index & BLOCK_MASK];
+		}
+
+		void set(int index, T value) {
+			getBlock(index)[index & BLOCK_MASK] = value;
+		}
+
+		void ensureCapacity(int index) {
+			getBlock(index);
+		}
+
+		private Object[] getBlock(int index) {
+			int blockIndex = index >>> BLOCK_SHIFT;
+			Object[][] blocks = this.blocks;
+			if (blockIndex >= blocks.length) {
+				blocks = Arrays.copyOf(blocks, Math.max(blockIndex + 1, blocks.length * 2));
+				this.blocks = blocks;
+			}
+
+			Object[] block = blocks[blockIndex];
+			if (block == null) {
+				block = new Object[BLOCK_SIZE];
+				blocks[blockIndex] = block;
+			}
+			return block;
+		}
+	}
+}
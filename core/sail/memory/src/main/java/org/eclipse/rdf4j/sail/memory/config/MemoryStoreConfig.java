@@ -19,9 +19,11 @@ import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.impl.BooleanLiteral;
 import org.eclipse.rdf4j.model.util.Configurations;
 import org.eclipse.rdf4j.model.util.ModelException;
+import org.eclipse.rdf4j.model.util.Models;
 import org.eclipse.rdf4j.model.vocabulary.CONFIG;
 import org.eclipse.rdf4j.sail.base.config.BaseSailConfig;
 import org.eclipse.rdf4j.sail.config.SailConfigException;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
 
 /**
  * @author Arjohn Kampman
@@ -32,6 +34,14 @@ public class MemoryStoreConfig extends BaseSailConfig {
 
 	private long syncDelay = 0L;
 
+	private boolean writeAheadLog = false;
+
+	private long checkpointThreshold = MemoryStore.DEFAULT_CHECKPOINT_THRESHOLD;
+
+	private String compositeIndexes;
+
+	private boolean columnarStorage = false;
+
 	public MemoryStoreConfig() {
 		super(MemoryStoreFactory.SAIL_TYPE);
 	}
@@ -62,6 +72,51 @@ public class MemoryStoreConfig extends BaseSailConfig {
 		this.syncDelay = syncDelay;
 	}
 
+	public boolean getWriteAheadLog() {
+		return writeAheadLog;
+	}
+
+	/**
+	 * Specifies whether a persistent store should append committed changes to a change log instead of rewriting its
+	 * data file.
+	 */
+	public void setWriteAheadLog(boolean writeAheadLog) {
+		this.writeAheadLog = writeAheadLog;
+	}
+
+	public long getCheckpointThreshold() {
+		return checkpointThreshold;
+	}
+
+	/**
+	 * Sets the size (in bytes) that the change log can grow to before the data file is rewritten.
+	 */
+	public void setCheckpointThreshold(long checkpointThreshold) {
+		this.checkpointThreshold = checkpointThreshold;
+	}
+
+	public String getCompositeIndexes() {
+		return compositeIndexes;
+	}
+
+	/**
+	 * Sets the composite indexes to maintain, as a comma separated list such as <var>"po,sp"</var>.
+	 */
+	public void setCompositeIndexes(String compositeIndexes) {
+		this.compositeIndexes = compositeIndexes;
+	}
+
+	public boolean getColumnarStorage() {
+		return columnarStorage;
+	}
+
+	/**
+	 * Specifies whether statements should be stored as rows of value IDs instead of as objects.
+	 */
+	public void setColumnarStorage(boolean columnarStorage) {
+		this.columnarStorage = columnarStorage;
+	}
+
 	@Override
 	public Resource export(Model m) {
 		if (Configurations.useLegacyConfig()) {
@@ -79,6 +134,22 @@ public class MemoryStoreConfig extends BaseSailConfig {
 			m.add(implNode, CONFIG.Mem.syncDelay, literal(syncDelay));
 		}
 
+		if (writeAheadLog) {
+			m.add(implNode, CONFIG.Mem.writeAheadLog, BooleanLiteral.TRUE);
+		}
+
+		if (checkpointThreshold != MemoryStore.DEFAULT_CHECKPOINT_THRESHOLD) {
+			m.add(implNode, CONFIG.Mem.checkpointThreshold, literal(checkpointThreshold));
+		}
+
+		if (compositeIndexes != null) {
+			m.add(implNode, CONFIG.Mem.compositeIndexes, literal(compositeIndexes));
+		}
+
+		if (columnarStorage) {
+			m.add(implNode, CONFIG.Mem.columnarStorage, BooleanLiteral.TRUE);
+		}
+
 		return implNode;
 	}
 
@@ -122,6 +193,40 @@ public class MemoryStoreConfig extends BaseSailConfig {
 											+ syncDelayValue);
 						}
 					});
+
+			Models.objectLiteral(graph.getStatements(implNode, CONFIG.Mem.writeAheadLog, null))
+					.ifPresent(writeAheadLogValue -> {
+						try {
+							setWriteAheadLog(writeAheadLogValue.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException("Boolean value required for " + CONFIG.Mem.writeAheadLog
+									+ " property, found " + writeAheadLogValue);
+						}
+					});
+
+			Models.objectLiteral(graph.getStatements(implNode, CONFIG.Mem.checkpointThreshold, null))
+					.ifPresent(checkpointThresholdValue -> {
+						try {
+							setCheckpointThreshold(checkpointThresholdValue.longValue());
+						} catch (NumberFormatException e) {
+							throw new SailConfigException(
+									"Long integer value required for " + CONFIG.Mem.checkpointThreshold
+											+ " property, found " + checkpointThresholdValue);
+						}
+					});
+
+			Models.objectLiteral(graph.getStatements(implNode, CONFIG.Mem.compositeIndexes, null))
+					.ifPresent(compositeIndexesValue -> setCompositeIndexes(compositeIndexesValue.getLabel()));
+
+			Models.objectLiteral(graph.getStatements(implNode, CONFIG.Mem.columnarStorage, null))
+					.ifPresent(columnarStorageValue -> {
+						try {
+							setColumnarStorage(columnarStorageValue.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException("Boolean value required for " + CONFIG.Mem.columnarStorage
+									+ " property, found " + columnarStorageValue);
+						}
+					});
 		} catch (ModelException e) {
 			throw new SailConfigException(e.getMessage(), e);
 		}
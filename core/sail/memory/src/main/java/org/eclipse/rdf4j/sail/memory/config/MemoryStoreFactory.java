@@ -58,6 +58,10 @@ public class MemoryStoreFactory implements SailFactory {
 			memConfig.getDefaultQueryEvaluationMode().ifPresent(memoryStore::setDefaultQueryEvaluationMode);
 			memoryStore.setPersist(memConfig.getPersist());
 			memoryStore.setSyncDelay(memConfig.getSyncDelay());
+			memoryStore.setWriteAheadLog(memConfig.getWriteAheadLog());
+			memoryStore.setCheckpointThreshold(memConfig.getCheckpointThreshold());
+			memoryStore.setCompositeIndexes(memConfig.getCompositeIndexes());
+			memoryStore.setColumnarStorage(memConfig.getColumnarStorage());
 
 			if (memConfig.getIterationCacheSyncThreshold() > 0) {
 				memoryStore.setIterationCacheSyncThreshold(memConfig.getIterationCacheSyncThreshold());
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.inferencer.InferencerConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ColumnarSailStoreTest {
+
+	private static final String NS = "http://example.org/";
+
+	@TempDir
+	public File dataDir;
+
+	private MemoryStore store;
+
+	private ValueFactory vf;
+
+	@BeforeEach
+	public void setUp() {
+		store = new MemoryStore();
+		store.setColumnarStorage(true);
+		store.init();
+		vf = store.getValueFactory();
+
+		// stay below the size at which a background compaction is scheduled, so that only the test compacts
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			for (int i = 0; i < 300; i++) {
+				IRI subj = vf.createIRI(NS, "s" + i);
+				con.addStatement(subj, RDF.TYPE, RDFS.RESOURCE);
+				con.addStatement(subj, RDFS.LABEL, vf.createLiteral("label " + (i % 10)));
+				con.addStatement(subj, RDFS.COMMENT, vf.createLiteral(i), i % 2 == 0 ? null : RDFS.RESOURCE);
+			}
+			// duplicates must not be added twice
+			con.addStatement(vf.createIRI(NS, "s0"), RDF.TYPE, RDFS.RESOURCE);
+			con.commit();
+		}
+	}
+
+	@AfterEach
+	public void tearDown() {
+		store.shutDown();
+	}
+
+	@Test
+	public void testPatterns() {
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(900, count(con, null, null, null));
+			assertEquals(300, count(con, null, RDF.TYPE, RDFS.RESOURCE));
+			assertEquals(30, count(con, null, RDFS.LABEL, vf.createLiteral("label 3")));
+			assertEquals(3, count(con, vf.createIRI(NS, "s7"), null, null));
+			assertEquals(1, count(con, vf.createIRI(NS, "s7"), RDFS.COMMENT, vf.createLiteral(7)));
+			assertEquals(0, count(con, vf.createIRI(NS, "s7"), RDFS.LABEL, vf.createLiteral("label 3")));
+			assertEquals(0, count(con, vf.createIRI(NS, "unknown"), null, null));
+			assertEquals(150, count(con, null, RDFS.COMMENT, null, RDFS.RESOURCE));
+			assertEquals(750, count(con, null, null, null, (Resource) null));
+			assertEquals(900, count(con, null, null, null, null, RDFS.RESOURCE));
+
+			try (CloseableIteration<? extends Resource> contexts = con.getContextIDs()) {
+				assertEquals(RDFS.RESOURCE, contexts.next());
+				assertFalse(contexts.hasNext());
+			}
+
+			try (CloseableIteration<? extends Statement> statements = con.getStatements(vf.createIRI(NS, "s1"),
+					RDFS.COMMENT, null, false)) {
+				Statement st = statements.next();
+				assertEquals(vf.createLiteral(1), st.getObject());
+				assertEquals(RDFS.RESOURCE, st.getContext());
+			}
+		}
+	}
+
+	@Test
+	public void testRemovedStatementsAreCompacted() throws InterruptedException {
+		removeLabels();
+		assertEquals(300, store.getSnapshotCleanupBacklog());
+		assertEquals(0, store.getCleanedStatementCount());
+
+		compact();
+
+		assertEquals(0, store.getSnapshotCleanupBacklog());
+		assertEquals(300, store.getCleanedStatementCount());
+		assertEquals(601, getSailStore().getTable().rowCount());
+
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(0, count(con, null, RDFS.LABEL, null));
+			assertEquals(300, count(con, null, RDFS.COMMENT, null));
+			assertEquals(2, count(con, vf.createIRI(NS, "s0"), null, null));
+
+			con.begin();
+			con.addStatement(vf.createIRI(NS, "s0"), RDFS.LABEL, vf.createLiteral("label 0"));
+			con.removeStatements(vf.createIRI(NS, "s1"), null, null);
+			con.commit();
+
+			assertEquals(1, count(con, null, RDFS.LABEL, null));
+			assertEquals(0, count(con, vf.createIRI(NS, "s1"), null, null));
+			assertEquals(299, count(con, null, RDFS.COMMENT, null));
+		}
+	}
+
+	@Test
+	public void testStatementsVisibleToActiveSnapshotAreKept() throws InterruptedException {
+		try (SailConnection reader = store.getConnection()) {
+			reader.begin(IsolationLevels.SNAPSHOT);
+			assertEquals(300, count(reader, null, RDFS.LABEL, null));
+
+			removeLabels();
+			compact();
+
+			assertEquals(300, store.getSnapshotCleanupBacklog());
+			assertEquals(30, count(reader, null, RDFS.LABEL, vf.createLiteral("label 3")));
+			assertEquals(300, count(reader, null, RDFS.LABEL, null));
+			reader.commit();
+		}
+
+		compact();
+		assertEquals(0, store.getSnapshotCleanupBacklog());
+	}
+
+	@Test
+	public void testInferredStatementAddedExplicitly() {
+		IRI subj = vf.createIRI(NS, "inferred");
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			((InferencerConnection) con).addInferredStatement(subj, RDF.TYPE, RDFS.CLASS);
+			con.commit();
+
+			assertEquals(0, count(con, subj, null, null));
+			assertEquals(1, countIncludingInferred(con, subj));
+
+			con.begin();
+			con.addStatement(subj, RDF.TYPE, RDFS.CLASS);
+			con.commit();
+
+			assertEquals(1, count(con, subj, null, null));
+			assertEquals(1, countIncludingInferred(con, subj));
+		}
+	}
+
+	@Test
+	public void testCompositeIndexesAreRejected() {
+		MemoryStore other = new MemoryStore();
+		other.setColumnarStorage(true);
+		other.setCompositeIndexes("po");
+		assertThrows(SailException.class, other::init);
+	}
+
+	@Test
+	public void testPersistence() {
+		MemoryStore persistent = new MemoryStore(dataDir);
+		persistent.setColumnarStorage(true);
+		persistent.init();
+		try (SailConnection con = persistent.getConnection()) {
+			con.begin();
+			con.addStatement(vf.createIRI(NS, "s0"), RDFS.LABEL, vf.createLiteral("persisted"), RDFS.RESOURCE);
+			con.addStatement(vf.createIRI(NS, "s1"), RDFS.LABEL, vf.createLiteral("persisted"));
+			con.commit();
+		} finally {
+			persistent.shutDown();
+		}
+
+		persistent = new MemoryStore(dataDir);
+		persistent.setColumnarStorage(true);
+		persistent.init();
+		try (SailConnection con = persistent.getConnection()) {
+			assertEquals(2, count(con, null, RDFS.LABEL, vf.createLiteral("persisted")));
+			assertEquals(1, count(con, null, null, null, RDFS.RESOURCE));
+		} finally {
+			persistent.shutDown();
+		}
+	}
+
+	private void removeLabels() {
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.removeStatements(null, RDFS.LABEL, null);
+			con.commit();
+		}
+	}
+
+	private void compact() throws InterruptedException {
+		// the compaction only drops statements that were removed before a later snapshot has been read from
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.addStatement(vf.createBNode(), RDF.TYPE, RDFS.CLASS);
+			con.commit();
+			count(con, null, RDF.TYPE, RDFS.CLASS);
+		}
+
+		getSailStore().compact();
+	}
+
+	private ColumnarSailStore getSailStore() {
+		return (ColumnarSailStore) store.getSailStore();
+	}
+
+	private long count(SailConnection con, Resource subj, IRI pred, Value obj, Resource... contexts) {
+		long count = 0;
+		try (CloseableIteration<? extends Statement> statements = con.getStatements(subj, pred, obj, false,
+				contexts)) {
+			while (statements.hasNext()) {
+				statements.next();
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private long countIncludingInferred(SailConnection con, Resource subj) {
+		long count = 0;
+		try (CloseableIteration<? extends Statement> statements = con.getStatements(subj, null, null, true)) {
+			while (statements.hasNext()) {
+				statements.next();
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.FOAF;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.StrictEvaluationStrategyFactory;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.AdaptiveJoinIterator;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.BindJoinIterator;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.JoinIterator;
+import org.eclipse.rdf4j.query.explanation.Explanation;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Selects the join algorithms that are configured on the evaluation strategy factory of a store.
+ */
+public class MemoryJoinAlgorithmTest {
+
+	private static final String QUERY = "PREFIX foaf: <http://xmlns.com/foaf/0.1/> "
+			+ "SELECT ?name WHERE { ?person foaf:knows ?friend . ?friend foaf:name ?name } ORDER BY ?name";
+
+	private SailRepository repository;
+
+	@AfterEach
+	public void tearDown() {
+		if (repository != null) {
+			repository.shutDown();
+		}
+	}
+
+	@Test
+	public void testBindJoin() {
+		StrictEvaluationStrategyFactory evalStratFactory = new StrictEvaluationStrategyFactory();
+		evalStratFactory.setBindJoinBatchSize(16);
+
+		assertThat(evaluate(evalStratFactory)).contains(BindJoinIterator.class.getSimpleName());
+	}
+
+	@Test
+	public void testAdaptiveJoin() {
+		StrictEvaluationStrategyFactory evalStratFactory = new StrictEvaluationStrategyFactory();
+		evalStratFactory.setAdaptiveJoinThreshold(2);
+
+		assertThat(evaluate(evalStratFactory)).contains(AdaptiveJoinIterator.class.getSimpleName());
+	}
+
+	@Test
+	public void testNestedLoopJoinByDefault() {
+		assertThat(evaluate(new StrictEvaluationStrategyFactory())).contains(JoinIterator.class.getSimpleName())
+				.doesNotContain(BindJoinIterator.class.getSimpleName())
+				.doesNotContain(AdaptiveJoinIterator.class.getSimpleName());
+	}
+
+	/**
+	 * Evaluates the query on a store that uses the given factory and returns the plan that was executed.
+	 */
+	private String evaluate(StrictEvaluationStrategyFactory evalStratFactory) {
+		MemoryStore store = new MemoryStore();
+		store.setEvaluationStrategyFactory(evalStratFactory);
+		repository = new SailRepository(store);
+
+		ValueFactory vf = repository.getValueFactory();
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			connection.begin();
+			for (int i = 0; i < 100; i++) {
+				IRI person = vf.createIRI("ex:person" + i);
+				connection.add(person, FOAF.KNOWS, vf.createIRI("ex:person" + (i + 1) % 100));
+				connection.add(person, FOAF.NAME, vf.createLiteral(String.format("Person %03d", i)));
+			}
+			connection.commit();
+		}
+
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			TupleQuery query = connection.prepareTupleQuery(QUERY);
+			List<String> names;
+			try (TupleQueryResult result = query.evaluate()) {
+				names = result.stream()
+						.map(bindings -> bindings.getValue("name").stringValue())
+						.collect(Collectors.toList());
+			}
+			assertThat(names).hasSize(100).startsWith("Person 000", "Person 001").endsWith("Person 099");
+			return query.explain(Explanation.Level.Executed).toString();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.FOAF;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.DefaultEvaluationStrategyFactory;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MemoryParallelEvaluationTest {
+
+	private static final String QUERY = "PREFIX foaf: <http://xmlns.com/foaf/0.1/> "
+			+ "SELECT ?name WHERE { { ?person foaf:name ?name } UNION { ?person foaf:nick ?name } } ORDER BY ?name";
+
+	private CountingExecutor executor;
+
+	private SailRepository repository;
+
+	@BeforeEach
+	public void setUp() {
+		executor = new CountingExecutor();
+
+		DefaultEvaluationStrategyFactory evalStratFactory = new DefaultEvaluationStrategyFactory();
+		evalStratFactory.setParallelEvaluationExecutor(executor);
+		MemoryStore store = new MemoryStore();
+		store.setEvaluationStrategyFactory(evalStratFactory);
+		repository = new SailRepository(store);
+
+		ValueFactory vf = repository.getValueFactory();
+		IRI alice = vf.createIRI("ex:alice");
+		IRI bob = vf.createIRI("ex:bob");
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			connection.add(alice, FOAF.NAME, vf.createLiteral("Alice"));
+			connection.add(bob, FOAF.NAME, vf.createLiteral("Bob"));
+			connection.add(alice, FOAF.NICK, vf.createLiteral("Ali"));
+		}
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.shutDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testUnionIsEvaluatedInParallel() {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			assertThat(evaluate(connection)).containsExactly("Ali", "Alice", "Bob");
+		}
+
+		assertThat(executor.submitted.get()).isGreaterThan(0);
+	}
+
+	@Test
+	public void testUnionIsEvaluatedInParallelInTransaction() {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			connection.begin(IsolationLevels.SNAPSHOT_READ);
+			assertThat(evaluate(connection)).containsExactly("Ali", "Alice", "Bob");
+			connection.commit();
+		}
+
+		assertThat(executor.submitted.get()).isGreaterThan(0);
+	}
+
+	@Test
+	public void testSerializableTransactionIsEvaluatedOnCallingThread() {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			connection.begin(IsolationLevels.SERIALIZABLE);
+			assertThat(evaluate(connection)).containsExactly("Ali", "Alice", "Bob");
+			connection.commit();
+		}
+
+		assertThat(executor.submitted.get()).isEqualTo(0);
+	}
+
+	private List<String> evaluate(SailRepositoryConnection connection) {
+		try (TupleQueryResult result = connection.prepareTupleQuery(QUERY).evaluate()) {
+			return result.stream()
+					.map(bindings -> bindings.getValue("name").stringValue())
+					.collect(Collectors.toList());
+		}
+	}
+
+	private static class CountingExecutor extends ThreadPoolExecutor {
+
+		private final AtomicInteger submitted = new AtomicInteger();
+
+		CountingExecutor() {
+			super(4, 4, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			submitted.incrementAndGet();
+			super.execute(command);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.FOAF;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MemoryQueryPlanCacheTest {
+
+	private static final String QUERY = "PREFIX foaf: <http://xmlns.com/foaf/0.1/> "
+			+ "SELECT ?name WHERE { ?person foaf:knows ?friend . ?friend foaf:name ?name } ORDER BY ?name";
+
+	private MemoryStore store;
+
+	private SailRepository repository;
+
+	private IRI alice;
+
+	private IRI bob;
+
+	@BeforeEach
+	public void setUp() {
+		store = new MemoryStore();
+		store.setQueryPlanCacheSize(10);
+		repository = new SailRepository(store);
+
+		ValueFactory vf = repository.getValueFactory();
+		alice = vf.createIRI("ex:alice");
+		bob = vf.createIRI("ex:bob");
+		IRI carol = vf.createIRI("ex:carol");
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			connection.add(alice, FOAF.NAME, vf.createLiteral("Alice"));
+			connection.add(bob, FOAF.NAME, vf.createLiteral("Bob"));
+			connection.add(carol, FOAF.NAME, vf.createLiteral("Carol"));
+			connection.add(alice, FOAF.KNOWS, bob);
+			connection.add(alice, FOAF.KNOWS, carol);
+			connection.add(bob, FOAF.KNOWS, alice);
+		}
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.shutDown();
+	}
+
+	@Test
+	public void testPlanIsReusedWithDifferentBindings() {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			assertThat(evaluate(connection, alice)).containsExactly("Bob", "Carol");
+			assertThat(evaluate(connection, bob)).containsExactly("Alice");
+			assertThat(evaluate(connection, alice)).containsExactly("Bob", "Carol");
+		}
+
+		assertThat(store.getQueryPlanCache().size()).isEqualTo(1);
+	}
+
+	@Test
+	public void testPlansAreKeyedOnBindingNames() {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			assertThat(evaluate(connection, alice)).containsExactly("Bob", "Carol");
+			try (TupleQueryResult result = connection.prepareTupleQuery(QUERY).evaluate()) {
+				assertThat(result.stream().count()).isEqualTo(3);
+			}
+		}
+
+		assertThat(store.getQueryPlanCache().size()).isEqualTo(2);
+	}
+
+	@Test
+	public void testPlanIsReusedForQueriesWithAnonymousVariables() {
+		String blankNodeQuery = "PREFIX foaf: <http://xmlns.com/foaf/0.1/> "
+				+ "SELECT ?name WHERE { ?person foaf:knows [ foaf:name ?name ] } ORDER BY ?name";
+		String pathQuery = "PREFIX foaf: <http://xmlns.com/foaf/0.1/> "
+				+ "SELECT ?name WHERE { ?person foaf:knows/foaf:name ?name } ORDER BY ?name";
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			assertThat(evaluate(connection, blankNodeQuery, alice)).containsExactly("Bob", "Carol");
+			assertThat(evaluate(connection, blankNodeQuery, bob)).containsExactly("Alice");
+			assertThat(store.getQueryPlanCache().size()).isEqualTo(1);
+
+			assertThat(evaluate(connection, pathQuery, alice)).containsExactly("Bob", "Carol");
+			assertThat(evaluate(connection, pathQuery, bob)).containsExactly("Alice");
+			assertThat(store.getQueryPlanCache().size()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	public void testCacheIsClearedOnShutDown() {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			evaluate(connection, alice);
+		}
+		repository.shutDown();
+
+		assertThat(store.getQueryPlanCache().size()).isEqualTo(0);
+	}
+
+	private List<String> evaluate(SailRepositoryConnection connection, IRI person) {
+		return evaluate(connection, QUERY, person);
+	}
+
+	private List<String> evaluate(SailRepositoryConnection connection, String queryString, IRI person) {
+		TupleQuery query = connection.prepareTupleQuery(queryString);
+		query.setBinding("person", person);
+		try (TupleQueryResult result = query.evaluate()) {
+			return result.stream()
+					.map(bindings -> bindings.getValue("name").stringValue())
+					.collect(Collectors.toList());
+		}
+	}
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.eclipse.rdf4j.common.io.FileUtil;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.eclipse.rdf4j.sail.inferencer.InferencerConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MemoryStoreChangeLogTest {
+
+	private static final String NS = "http://example.org/";
+
+	private File dataDir;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		dataDir = Files.createTempDirectory("memorystore").toFile();
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		FileUtil.deleteDir(dataDir);
+	}
+
+	private MemoryStore createStore() {
+		MemoryStore store = new MemoryStore(dataDir);
+		store.setWriteAheadLog(true);
+		store.init();
+		return store;
+	}
+
+	@Test
+	public void testCommitsAreReplayed() {
+		MemoryStore store = createStore();
+		long dataFileLength = new File(dataDir, MemoryStore.DATA_FILE_NAME).length();
+		ValueFactory vf = store.getValueFactory();
+		IRI a = vf.createIRI(NS, "a");
+		IRI b = vf.createIRI(NS, "b");
+		IRI c = vf.createIRI(NS, "c");
+
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.setNamespace("ex", NS);
+			con.addStatement(a, RDF.TYPE, b);
+			con.addStatement(a, RDFS.LABEL, vf.createLiteral("a", "en"), c);
+			con.addStatement(b, RDFS.COMMENT, vf.createLiteral(42));
+			con.commit();
+
+			con.begin();
+			con.removeStatements(b, RDFS.COMMENT, null);
+			((InferencerConnection) con).addInferredStatement(a, RDF.TYPE, RDFS.RESOURCE);
+			con.commit();
+		}
+
+		// commits only append to the log
+		assertEquals(dataFileLength, new File(dataDir, MemoryStore.DATA_FILE_NAME).length());
+		store.shutDown();
+
+		store = createStore();
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(NS, con.getNamespace("ex"));
+			assertTrue(con.hasStatement(a, RDF.TYPE, b, false));
+			assertTrue(con.hasStatement(a, RDFS.LABEL, vf.createLiteral("a", "en"), false, c));
+			assertFalse(con.hasStatement(b, RDFS.COMMENT, null, true));
+			assertFalse(con.hasStatement(a, RDF.TYPE, RDFS.RESOURCE, false));
+			assertTrue(con.hasStatement(a, RDF.TYPE, RDFS.RESOURCE, true));
+			assertEquals(2, con.size());
+
+			con.begin();
+			con.clear(c);
+			con.removeNamespace("ex");
+			con.commit();
+		}
+		store.shutDown();
+
+		store = createStore();
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(null, con.getNamespace("ex"));
+			assertFalse(con.hasStatement(a, RDFS.LABEL, null, false));
+			assertEquals(1, con.size());
+		}
+		store.shutDown();
+	}
+
+	@Test
+	public void testCheckpoint() {
+		MemoryStore store = createStore();
+		ValueFactory vf = store.getValueFactory();
+		IRI a = vf.createIRI(NS, "a");
+
+		try (SailConnection con = store.getConnection()) {
+			for (int i = 0; i < 10; i++) {
+				con.begin();
+				con.addStatement(a, RDFS.LABEL, vf.createLiteral(i));
+				con.commit();
+			}
+		}
+
+		store.sync();
+		assertEquals(1, countLogFiles());
+		assertEquals(0, new File(dataDir, ChangeLog.FILE_PREFIX + 2).length());
+
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.removeStatements(a, RDFS.LABEL, vf.createLiteral(0));
+			con.commit();
+		}
+		store.shutDown();
+
+		store = createStore();
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(9, con.size());
+		}
+		store.shutDown();
+
+		// the log can be folded into the data file by disabling it
+		store = new MemoryStore(dataDir);
+		store.init();
+		assertEquals(0, countLogFiles());
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(9, con.size());
+		}
+		store.shutDown();
+	}
+
+	@Test
+	public void testCheckpointThreshold() throws Exception {
+		MemoryStore store = new MemoryStore(dataDir);
+		store.setWriteAheadLog(true);
+		store.setCheckpointThreshold(1);
+		store.init();
+		ValueFactory vf = store.getValueFactory();
+
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.addStatement(vf.createIRI(NS, "a"), RDF.TYPE, vf.createIRI(NS, "b"));
+			con.commit();
+		}
+
+		// the checkpoint is written in the background
+		File firstGeneration = new File(dataDir, ChangeLog.FILE_PREFIX + 1);
+		for (int i = 0; i < 100 && firstGeneration.exists(); i++) {
+			Thread.sleep(50);
+		}
+		assertFalse(firstGeneration.exists());
+		store.shutDown();
+
+		store = createStore();
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(1, con.size());
+		}
+		store.shutDown();
+	}
+
+	@Test
+	public void testIncompleteRecordIsTruncated() throws IOException {
+		MemoryStore store = createStore();
+		ValueFactory vf = store.getValueFactory();
+		IRI a = vf.createIRI(NS, "a");
+
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.addStatement(a, RDF.TYPE, RDFS.CLASS);
+			con.commit();
+		}
+		store.shutDown();
+
+		File log = new File(dataDir, ChangeLog.FILE_PREFIX + 1);
+		long length = log.length();
+		try (FileOutputStream out = new FileOutputStream(log, true)) {
+			out.write(new byte[] { 0, 0, 1, 0, 1, 2, 3 });
+		}
+
+		store = createStore();
+		assertEquals(length, log.length());
+		try (SailConnection con = store.getConnection()) {
+			try (CloseableIteration<? extends Statement> iter = con.getStatements(null, null, null, false)) {
+				assertTrue(iter.hasNext());
+				assertEquals(RDFS.CLASS, iter.next().getObject());
+				assertFalse(iter.hasNext());
+			}
+		}
+		store.shutDown();
+	}
+
+	private int countLogFiles() {
+		String[] names = dataDir.list((dir, name) -> name.startsWith(ChangeLog.FILE_PREFIX));
+		return names == null ? 0 : names.length;
+	}
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.memory.model.MemIRI;
+import org.eclipse.rdf4j.sail.memory.model.MemStatement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+public class MemoryStoreCompositeIndexTest {
+
+	private static final String NS = "http://example.org/";
+
+	private MemoryStore store;
+
+	private ValueFactory vf;
+
+	@BeforeEach
+	public void setUp() {
+		store = new MemoryStore();
+		store.setCompositeIndexes("po, ps, cp");
+		store.init();
+		vf = store.getValueFactory();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		store.shutDown();
+	}
+
+	@Test
+	public void testPatternsBoundOnTwoPositions() {
+		IRI classA = vf.createIRI(NS, "A");
+		IRI classB = vf.createIRI(NS, "B");
+		IRI graph = vf.createIRI(NS, "graph");
+
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			for (int i = 0; i < 100; i++) {
+				IRI subj = vf.createIRI(NS, "s" + i);
+				con.addStatement(subj, RDF.TYPE, i % 4 == 0 ? classA : classB);
+				con.addStatement(subj, RDF.VALUE, vf.createLiteral(i), i % 2 == 0 ? graph : null);
+			}
+			// duplicates must not be added twice
+			con.addStatement(vf.createIRI(NS, "s0"), RDF.TYPE, classA);
+			con.commit();
+
+			assertEquals(25, count(con, null, RDF.TYPE, classA));
+			assertEquals(75, count(con, null, RDF.TYPE, classB));
+			assertEquals(1, count(con, vf.createIRI(NS, "s1"), RDF.TYPE, null));
+			assertEquals(1, count(con, vf.createIRI(NS, "s1"), RDF.TYPE, classB));
+			assertEquals(0, count(con, vf.createIRI(NS, "s1"), RDF.TYPE, classA));
+			assertEquals(50, count(con, null, RDF.VALUE, null, graph));
+			assertEquals(50, count(con, null, RDF.VALUE, null, (Resource) null));
+			assertEquals(0, count(con, null, RDF.TYPE, null, graph));
+			assertEquals(1, count(con, vf.createIRI(NS, "s2"), null, vf.createLiteral(2)));
+		}
+	}
+
+	@Test
+	public void testRemovedStatementsAreCleanedUp() throws InterruptedException {
+		IRI classA = vf.createIRI(NS, "A");
+
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			for (int i = 0; i < 10; i++) {
+				con.addStatement(vf.createIRI(NS, "s" + i), RDF.TYPE, classA);
+			}
+			con.commit();
+
+			con.begin();
+			con.removeStatements(null, RDF.TYPE, classA);
+			con.commit();
+			assertEquals(0, count(con, null, RDF.TYPE, classA));
+
+			((MemorySailStore) store.getSailStore()).cleanSnapshots();
+			assertEquals(0, count(con, null, RDF.TYPE, classA));
+
+			con.begin();
+			con.addStatement(vf.createIRI(NS, "s0"), RDF.TYPE, classA);
+			con.commit();
+			assertEquals(1, count(con, null, RDF.TYPE, classA));
+			assertEquals(1, count(con, vf.createIRI(NS, "s0"), RDF.TYPE, null));
+		}
+	}
+
+	@Test
+	@Timeout(60)
+	public void testConcurrentAddAndCleanup() throws Exception {
+		CompositeIndex index = CompositeIndex.parse("po")[0];
+		MemIRI subj = new MemIRI(this, NS, "s");
+		MemIRI pred = new MemIRI(this, NS, "p");
+		MemIRI obj = new MemIRI(this, NS, "o");
+		Object key = index.getKey(new MemStatement(subj, pred, obj, null, 0));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			AtomicBoolean done = new AtomicBoolean();
+			Future<?> cleaner = executor.submit(() -> {
+				while (!done.get()) {
+					// keeps dropping the list whenever the statements that were added to it are deprecated
+					index.cleanSnapshots(key, 1);
+				}
+				return null;
+			});
+
+			try {
+				for (int i = 0; i < 100_000; i++) {
+					MemStatement st = new MemStatement(subj, pred, obj, null, 0);
+					index.add(st);
+					MemStatement[] statements = index.getStatementList(subj, pred, obj, null).getStatements();
+					assertTrue(Arrays.stream(statements).anyMatch(statement -> statement == st),
+							"statement was lost from the index");
+					st.setTillSnapshot(1);
+				}
+			} finally {
+				done.set(true);
+			}
+			cleaner.get();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testInvalidSpecification() {
+		MemoryStore invalid = new MemoryStore();
+		invalid.setCompositeIndexes("po,px");
+		assertThrows(SailException.class, invalid::init);
+	}
+
+	private long count(SailConnection con, Resource subj, IRI pred, Value obj, Resource... contexts) {
+		long count = 0;
+		try (CloseableIteration<? extends Statement> statements = con.getStatements(subj, pred, obj, false,
+				contexts)) {
+			while (statements.hasNext()) {
+				statements.next();
+				count++;
+			}
+		}
+		return count;
+	}
+}
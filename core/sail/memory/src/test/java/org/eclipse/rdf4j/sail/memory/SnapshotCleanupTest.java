@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.eclipse.rdf4j.sail.memory.model.MemValueFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SnapshotCleanupTest {
+
+	private static final String NS = "http://example.org/";
+
+	private MemoryStore store;
+
+	private MemValueFactory vf;
+
+	@BeforeEach
+	public void setUp() {
+		store = new MemoryStore();
+		store.setSnapshotCleanupParallelism(4);
+		store.setCompositeIndexes("po");
+		store.init();
+		vf = (MemValueFactory) store.getValueFactory();
+
+		// stay below the size at which a background cleanup is scheduled, so that only the test cleans up
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			for (int i = 0; i < 300; i++) {
+				IRI subj = vf.createIRI(NS, "s" + i);
+				con.addStatement(subj, RDF.TYPE, RDFS.RESOURCE);
+				con.addStatement(subj, RDFS.LABEL, vf.createLiteral("label " + (i % 10)));
+				con.addStatement(subj, RDFS.COMMENT, vf.createLiteral(i));
+			}
+			con.commit();
+		}
+	}
+
+	@AfterEach
+	public void tearDown() {
+		store.shutDown();
+	}
+
+	@Test
+	public void testRemovedStatementsAreReleased() throws InterruptedException {
+		removeLabels();
+		assertEquals(300, store.getSnapshotCleanupBacklog());
+		assertEquals(0, store.getCleanedStatementCount());
+
+		cleanSnapshots();
+
+		assertEquals(0, store.getSnapshotCleanupBacklog());
+		assertEquals(300, store.getCleanedStatementCount());
+		assertEquals(0, vf.getMemURI(RDFS.LABEL).getPredicateStatementCount());
+		assertEquals(0, vf.getMemValue(vf.createLiteral("label 0")).getObjectStatementCount());
+		assertEquals(2, vf.getMemURI(vf.createIRI(NS, "s0")).getSubjectStatementCount());
+		assertEquals(300, vf.getMemURI(RDFS.COMMENT).getPredicateStatementCount());
+
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(0, count(con, null, RDFS.LABEL, null));
+			assertEquals(300, count(con, null, RDFS.COMMENT, null));
+		}
+	}
+
+	@Test
+	public void testStatementsVisibleToActiveSnapshotAreKept() throws InterruptedException {
+		try (SailConnection reader = store.getConnection()) {
+			reader.begin(IsolationLevels.SNAPSHOT);
+			assertEquals(300, count(reader, null, RDFS.LABEL, null));
+
+			removeLabels();
+			cleanSnapshots();
+
+			assertEquals(300, store.getSnapshotCleanupBacklog());
+			assertEquals(30, count(reader, null, RDFS.LABEL, vf.createLiteral("label 3")));
+			assertEquals(300, count(reader, null, RDFS.LABEL, null));
+			reader.commit();
+		}
+
+		cleanSnapshots();
+		assertEquals(0, store.getSnapshotCleanupBacklog());
+		assertEquals(0, vf.getMemURI(RDFS.LABEL).getPredicateStatementCount());
+	}
+
+	@Test
+	public void testCleanupOnCallingThread() throws InterruptedException {
+		store.setSnapshotCleanupParallelism(1);
+		removeLabels();
+		cleanSnapshots();
+
+		assertEquals(0, store.getSnapshotCleanupBacklog());
+		assertEquals(0, vf.getMemURI(RDFS.LABEL).getPredicateStatementCount());
+	}
+
+	private void removeLabels() {
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.removeStatements(null, RDFS.LABEL, null);
+			con.commit();
+		}
+	}
+
+	private void cleanSnapshots() throws InterruptedException {
+		// the cleanup only releases statements that were removed before a later snapshot has been read from
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.addStatement(vf.createBNode(), RDF.TYPE, RDFS.CLASS);
+			con.commit();
+			count(con, null, RDF.TYPE, RDFS.CLASS);
+		}
+
+		((MemorySailStore) store.getSailStore()).cleanSnapshots();
+	}
+
+	private long count(SailConnection con, Resource subj, IRI pred, Value obj) {
+		long count = 0;
+		try (CloseableIteration<? extends Statement> statements = con.getStatements(subj, pred, obj, false)) {
+			while (statements.hasNext()) {
+				statements.next();
+				count++;
+			}
+		}
+		return count;
+	}
+}
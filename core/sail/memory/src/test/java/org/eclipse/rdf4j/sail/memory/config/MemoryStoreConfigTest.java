@@ -18,6 +18,7 @@ import org.eclipse.rdf4j.common.transaction.QueryEvaluationMode;
 import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.util.ModelBuilder;
+import org.eclipse.rdf4j.model.vocabulary.CONFIG;
 import org.eclipse.rdf4j.sail.base.config.BaseSailSchema;
 import org.junit.jupiter.api.Test;
 
@@ -45,4 +46,68 @@ public class MemoryStoreConfigTest {
 		assertThat(config.getPersist()).isTrue();
 		assertThat(config.getSyncDelay()).isEqualTo(1000);
 	}
+
+	@Test
+	void testParseWriteAheadLog() {
+		MemoryStoreConfig config = new MemoryStoreConfig();
+
+		BNode implNode = bnode();
+		Model serializedConfig = new ModelBuilder()
+				.subject(implNode)
+				.add(CONFIG.Mem.persist, true)
+				.add(CONFIG.Mem.writeAheadLog, true)
+				.add(CONFIG.Mem.checkpointThreshold, 1024l)
+				.build();
+
+		config.parse(serializedConfig, implNode);
+
+		assertThat(config.getWriteAheadLog()).isTrue();
+		assertThat(config.getCheckpointThreshold()).isEqualTo(1024);
+
+		MemoryStoreConfig exported = new MemoryStoreConfig();
+		Model model = new ModelBuilder().build();
+		exported.parse(model, config.export(model));
+		assertThat(exported.getWriteAheadLog()).isTrue();
+		assertThat(exported.getCheckpointThreshold()).isEqualTo(1024);
+	}
+
+	@Test
+	void testParseCompositeIndexes() {
+		MemoryStoreConfig config = new MemoryStoreConfig();
+
+		BNode implNode = bnode();
+		Model serializedConfig = new ModelBuilder()
+				.subject(implNode)
+				.add(CONFIG.Mem.compositeIndexes, "po,sp")
+				.build();
+
+		config.parse(serializedConfig, implNode);
+
+		assertThat(config.getCompositeIndexes()).isEqualTo("po,sp");
+
+		MemoryStoreConfig exported = new MemoryStoreConfig();
+		Model model = new ModelBuilder().build();
+		exported.parse(model, config.export(model));
+		assertThat(exported.getCompositeIndexes()).isEqualTo("po,sp");
+	}
+
+	@Test
+	void testParseColumnarStorage() {
+		MemoryStoreConfig config = new MemoryStoreConfig();
+
+		BNode implNode = bnode();
+		Model serializedConfig = new ModelBuilder()
+				.subject(implNode)
+				.add(CONFIG.Mem.columnarStorage, true)
+				.build();
+
+		config.parse(serializedConfig, implNode);
+
+		assertThat(config.getColumnarStorage()).isTrue();
+
+		MemoryStoreConfig exported = new MemoryStoreConfig();
+		Model model = new ModelBuilder().build();
+		exported.parse(model, config.export(model));
+		assertThat(exported.getColumnarStorage()).isTrue();
+	}
 }
@@ -11,7 +11,10 @@
 package org.eclipse.rdf4j.sail.nativerdf;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 
+import org.eclipse.rdf4j.common.concurrent.locks.Lock;
+import org.eclipse.rdf4j.common.concurrent.locks.ReadWriteLockManager;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
@@ -34,9 +37,19 @@ class NativeEvaluationStatistics extends EvaluationStatistics {
 
 	private final TripleStore tripleStore;
 
+	/**
+	 * Lock manager of which a read lock is held while the stores are read, or <var>null</var>.
+	 */
+	private final ReadWriteLockManager storeLockManager;
+
 	public NativeEvaluationStatistics(ValueStore valueStore, TripleStore tripleStore) {
+		this(valueStore, tripleStore, null);
+	}
+
+	NativeEvaluationStatistics(ValueStore valueStore, TripleStore tripleStore, ReadWriteLockManager storeLockManager) {
 		this.valueStore = valueStore;
 		this.tripleStore = tripleStore;
+		this.storeLockManager = storeLockManager;
 	}
 
 	@Override
@@ -81,6 +94,25 @@ class NativeEvaluationStatistics extends EvaluationStatistics {
 	}
 
 	private double cardinality(Resource subj, IRI pred, Value obj, Resource context) throws IOException {
+		if (storeLockManager == null) {
+			return storeCardinality(subj, pred, obj, context);
+		}
+
+		Lock readLock;
+		try {
+			readLock = storeLockManager.getReadLock();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for read lock");
+		}
+		try {
+			return storeCardinality(subj, pred, obj, context);
+		} finally {
+			readLock.release();
+		}
+	}
+
+	private double storeCardinality(Resource subj, IRI pred, Value obj, Resource context) throws IOException {
 		int subjID = NativeValue.UNKNOWN_ID;
 		if (subj != null) {
 			subjID = valueStore.getID(subj);
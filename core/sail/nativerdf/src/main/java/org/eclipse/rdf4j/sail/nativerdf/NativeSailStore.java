@@ -20,14 +20,21 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.eclipse.rdf4j.common.concurrent.locks.Lock;
+import org.eclipse.rdf4j.common.concurrent.locks.ReadWriteLockManager;
+import org.eclipse.rdf4j.common.concurrent.locks.WritePrefReadWriteLockManager;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
 import org.eclipse.rdf4j.common.iteration.ConvertingIteration;
 import org.eclipse.rdf4j.common.iteration.EmptyIteration;
 import org.eclipse.rdf4j.common.iteration.FilterIteration;
+import org.eclipse.rdf4j.common.iteration.IterationWrapper;
 import org.eclipse.rdf4j.common.iteration.UnionIteration;
 import org.eclipse.rdf4j.common.transaction.IsolationLevel;
 import org.eclipse.rdf4j.model.IRI;
@@ -78,6 +85,20 @@ class NativeSailStore implements SailStore {
 	 */
 	private final AtomicBoolean storeTxnStarted = new AtomicBoolean(false);
 
+	private final File dataDir;
+
+	/**
+	 * Read locks are held by readers of the TripleStore and ValueStore, so that a compaction can wait until the files
+	 * of these stores are no longer in use before it replaces them. Writers are preferred, so that a steady stream of
+	 * overlapping readers can not starve a waiting compaction.
+	 */
+	private final ReadWriteLockManager compactionLockManager = new WritePrefReadWriteLockManager();
+
+	/**
+	 * Boolean indicating whether a compaction is in progress.
+	 */
+	private final AtomicBoolean compacting = new AtomicBoolean(false);
+
 	/**
 	 * Creates a new {@link NativeSailStore} with the default cache sizes.
 	 */
@@ -91,12 +112,24 @@ class NativeSailStore implements SailStore {
 	 */
 	public NativeSailStore(File dataDir, String tripleIndexes, boolean forceSync, int valueCacheSize,
 			int valueIDCacheSize, int namespaceCacheSize, int namespaceIDCacheSize) throws IOException, SailException {
+		this(dataDir, tripleIndexes, forceSync, valueCacheSize, valueIDCacheSize, namespaceCacheSize,
+				namespaceIDCacheSize, false);
+	}
+
+	/**
+	 * Creates a new {@link NativeSailStore}, optionally reading its B-trees and value data through memory mappings.
+	 */
+	public NativeSailStore(File dataDir, String tripleIndexes, boolean forceSync, int valueCacheSize,
+			int valueIDCacheSize, int namespaceCacheSize, int namespaceIDCacheSize, boolean memoryMappedReads)
+			throws IOException, SailException {
+		this.dataDir = dataDir;
 		boolean initialized = false;
 		try {
+			NativeStoreCompactor.recover(dataDir);
 			namespaceStore = new NamespaceStore(dataDir);
 			valueStore = new ValueStore(dataDir, forceSync, valueCacheSize, valueIDCacheSize, namespaceCacheSize,
-					namespaceIDCacheSize);
-			tripleStore = new TripleStore(dataDir, tripleIndexes, forceSync);
+					namespaceIDCacheSize, memoryMappedReads);
+			tripleStore = new TripleStore(dataDir, tripleIndexes, forceSync, memoryMappedReads);
 			contextStore = new ContextStore(this, dataDir);
 			initialized = true;
 		} finally {
@@ -111,6 +144,10 @@ class NativeSailStore implements SailStore {
 		return valueStore;
 	}
 
+	ValueStore getValueStore() {
+		return valueStore;
+	}
+
 	@Override
 	public void close() throws SailException {
 		try {
@@ -144,7 +181,135 @@ class NativeSailStore implements SailStore {
 
 	@Override
 	public EvaluationStatistics getEvaluationStatistics() {
-		return new NativeEvaluationStatistics(valueStore, tripleStore);
+		return new NativeEvaluationStatistics(valueStore, tripleStore, compactionLockManager);
+	}
+
+	/**
+	 * Rewrites the values and triple indexes into new files that leave out removed values and unused B-tree nodes, and
+	 * replaces the current files with them. Values are copied while the store remains in use; the triple indexes are
+	 * copied and the files are replaced once all statement iterations have been closed, during which reads and writes
+	 * are blocked. New statement iterations are not opened while the compaction waits for the open ones to be closed.
+	 * If they are not closed within the timeout, the compaction is aborted and the store is left unchanged.
+	 *
+	 * @param maxBytesPerSecond The maximum rate at which values are copied while the store is in use, or 0 for no
+	 *                          limit.
+	 * @param lockTimeoutMillis The maximum time to wait for open statement iterations to be closed, or 0 to wait
+	 *                          indefinitely.
+	 * @throws SailException If the compaction failed or timed out, or another compaction is already in progress.
+	 */
+	void compact(long maxBytesPerSecond, long lockTimeoutMillis) throws SailException {
+		if (!compacting.compareAndSet(false, true)) {
+			throw new SailException("A compaction is already in progress");
+		}
+		NativeStoreCompactor compactor = new NativeStoreCompactor(dataDir, valueStore, tripleStore,
+				maxBytesPerSecond);
+		try {
+			compactor.copyLiveValues();
+
+			Lock writeLock = getCompactionWriteLock(lockTimeoutMillis);
+			if (writeLock == null) {
+				throw new SailException("Compaction timed out after " + lockTimeoutMillis
+						+ " ms waiting for open statement iterations to be closed");
+			}
+			try {
+				sinkStoreAccessLock.lock();
+				try {
+					compactor.complete();
+				} finally {
+					sinkStoreAccessLock.unlock();
+				}
+			} finally {
+				writeLock.release();
+			}
+		} catch (IOException e) {
+			compactor.abort();
+			throw new SailException("Compaction failed", e);
+		} catch (InterruptedException e) {
+			compactor.abort();
+			Thread.currentThread().interrupt();
+			throw new SailException("Compaction was interrupted", e);
+		} catch (RuntimeException | Error e) {
+			compactor.abort();
+			throw e;
+		} finally {
+			compacting.set(false);
+		}
+	}
+
+	/**
+	 * Waits for the write lock of the {@link #compactionLockManager} for at most the given time. The lock manager has
+	 * no timed wait, so the waiting thread is interrupted once the time has elapsed.
+	 *
+	 * @param timeoutMillis The maximum time to wait, or 0 to wait indefinitely.
+	 * @return The write lock, or <var>null</var> if it was not acquired in time.
+	 * @throws InterruptedException If the waiting thread was interrupted otherwise.
+	 */
+	private Lock getCompactionWriteLock(long timeoutMillis) throws InterruptedException {
+		if (timeoutMillis <= 0) {
+			return compactionLockManager.getWriteLock();
+		}
+		WaitTimeout timeout = new WaitTimeout(Thread.currentThread());
+		ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "rdf4j-native-compaction-timeout");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Lock writeLock;
+		try {
+			timer.schedule(timeout, timeoutMillis, TimeUnit.MILLISECONDS);
+			writeLock = compactionLockManager.getWriteLock();
+		} catch (InterruptedException e) {
+			if (timeout.finish()) {
+				return null;
+			}
+			throw e;
+		} finally {
+			timer.shutdownNow();
+		}
+		if (timeout.finish()) {
+			// the lock was acquired just as the wait timed out
+			writeLock.release();
+			return null;
+		}
+		return writeLock;
+	}
+
+	/**
+	 * Interrupts a thread that waits for a lock when the wait times out, unless the wait has finished before.
+	 */
+	private static final class WaitTimeout implements Runnable {
+
+		private final Thread waitingThread;
+
+		private boolean finished;
+
+		private boolean timedOut;
+
+		WaitTimeout(Thread waitingThread) {
+			this.waitingThread = waitingThread;
+		}
+
+		@Override
+		public synchronized void run() {
+			if (!finished) {
+				timedOut = true;
+				waitingThread.interrupt();
+			}
+		}
+
+		/**
+		 * Ends the wait and clears the interrupt of the waiting thread if the wait timed out. Must be called by the
+		 * waiting thread.
+		 *
+		 * @return true if the wait timed out
+		 */
+		synchronized boolean finish() {
+			finished = true;
+			if (timedOut) {
+				Thread.interrupted();
+			}
+			return timedOut;
+		}
 	}
 
 	@Override
@@ -665,10 +830,31 @@ class NativeSailStore implements SailStore {
 		@Override
 		public CloseableIteration<? extends Statement> getStatements(Resource subj, IRI pred, Value obj,
 				Resource... contexts) throws SailException {
+			Lock readLock;
 			try {
-				return createStatementIterator(subj, pred, obj, explicit, contexts);
+				readLock = compactionLockManager.getReadLock();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SailException(e);
+			}
+			try {
+				return new IterationWrapper<Statement>(
+						createStatementIterator(subj, pred, obj, explicit, contexts)) {
+					@Override
+					protected void handleClose() {
+						try {
+							super.handleClose();
+						} finally {
+							readLock.release();
+						}
+					}
+				};
 			} catch (IOException e) {
+				readLock.release();
 				throw new SailException("Unable to get statements", e);
+			} catch (RuntimeException | Error e) {
+				readLock.release();
+				throw e;
 			}
 		}
 	}
@@ -27,6 +27,7 @@ import org.eclipse.rdf4j.collection.factory.mapdb.MapDb3CollectionFactory;
 import org.eclipse.rdf4j.common.concurrent.locks.Lock;
 import org.eclipse.rdf4j.common.concurrent.locks.LockManager;
 import org.eclipse.rdf4j.common.io.MavenUtil;
+import org.eclipse.rdf4j.common.io.NioFile;
 import org.eclipse.rdf4j.common.transaction.IsolationLevel;
 import org.eclipse.rdf4j.common.transaction.IsolationLevels;
 import org.eclipse.rdf4j.model.ValueFactory;
@@ -121,6 +122,11 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 	 */
 	private volatile boolean forceSync = false;
 
+	/**
+	 * Flag indicating whether data files should be read through memory mappings. By default, this feature is disabled.
+	 */
+	private volatile boolean memoryMappedReads = false;
+
 	private volatile int valueCacheSize = ValueStore.VALUE_CACHE_SIZE;
 
 	private volatile int valueIDCacheSize = ValueStore.VALUE_ID_CACHE_SIZE;
@@ -131,6 +137,23 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 
 	private SailStore store;
 
+	/**
+	 * The NativeSailStore of the initialized store, used to report cache statistics and to compact the store.
+	 */
+	private volatile NativeSailStore nativeSailStore;
+
+	/**
+	 * The maximum rate, in bytes per second, at which a compaction copies values while the store is in use. By default
+	 * this rate is not limited.
+	 */
+	private volatile long compactionRateLimit = 0;
+
+	/**
+	 * The maximum time, in milliseconds, that a compaction waits for open statement iterations to be closed before it
+	 * is aborted.
+	 */
+	private volatile long compactionLockTimeout = 30_000;
+
 	// used to decide if store is writable, is true if the store was writable during initialization
 	private boolean isWritable;
 
@@ -233,6 +256,21 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 		return forceSync;
 	}
 
+	/**
+	 * Specifies whether B-tree nodes and value data should be read from memory mappings of the data files instead of
+	 * through file channel reads, must be called before initialization. This avoids a system call per read and lets
+	 * reads use the operating system's page cache directly, which benefits read-heavy workloads. Windows does not
+	 * allow truncating or deleting mapped files, so this setting is ignored there. By default, this feature is
+	 * disabled.
+	 */
+	public void setMemoryMappedReads(boolean memoryMappedReads) {
+		this.memoryMappedReads = memoryMappedReads;
+	}
+
+	public boolean getMemoryMappedReads() {
+		return memoryMappedReads;
+	}
+
 	public void setValueCacheSize(int valueCacheSize) {
 		this.valueCacheSize = valueCacheSize;
 	}
@@ -249,6 +287,79 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 		this.namespaceIDCacheSize = namespaceIDCacheSize;
 	}
 
+	/**
+	 * Returns the number of value lookups by ID that were answered by the value cache since the store was initialized.
+	 *
+	 * @return the number of value cache hits, or 0 if the store is not initialized.
+	 */
+	public long getValueCacheHitCount() {
+		NativeSailStore nativeSailStore = this.nativeSailStore;
+		return nativeSailStore == null ? 0 : nativeSailStore.getValueStore().getValueCache().getHitCount();
+	}
+
+	/**
+	 * Returns the number of value lookups by ID that had to read the value from disk since the store was initialized.
+	 *
+	 * @return the number of value cache misses, or 0 if the store is not initialized.
+	 */
+	public long getValueCacheMissCount() {
+		NativeSailStore nativeSailStore = this.nativeSailStore;
+		return nativeSailStore == null ? 0 : nativeSailStore.getValueStore().getValueCache().getMissCount();
+	}
+
+	/**
+	 * Limits the rate at which {@link #compact()} copies values while the store is in use, so that a compaction does
+	 * not starve other work of disk bandwidth.
+	 *
+	 * @param compactionRateLimit the maximum number of bytes per second, or 0 for no limit.
+	 */
+	public void setCompactionRateLimit(long compactionRateLimit) {
+		this.compactionRateLimit = compactionRateLimit;
+	}
+
+	public long getCompactionRateLimit() {
+		return compactionRateLimit;
+	}
+
+	/**
+	 * Limits the time that {@link #compact()} waits for open statement iterations to be closed. New statement
+	 * iterations are not opened while the compaction waits, so a single long-running iteration stalls all readers of
+	 * the store for at most this time, after which the compaction is aborted. Defaults to 30 seconds.
+	 *
+	 * @param compactionLockTimeout the maximum time in milliseconds, or 0 to wait indefinitely.
+	 */
+	public void setCompactionLockTimeout(long compactionLockTimeout) {
+		this.compactionLockTimeout = compactionLockTimeout;
+	}
+
+	public long getCompactionLockTimeout() {
+		return compactionLockTimeout;
+	}
+
+	/**
+	 * Reclaims the disk space that is taken by values that are no longer used by any statement and by the unused nodes
+	 * of the triple indexes. The values that are in use are copied to new files while the store remains available, at a
+	 * rate that can be limited with {@link #setCompactionRateLimit(long)}. Copying the triple indexes and replacing the
+	 * files of the store with the new files requires exclusive access: this waits until all open statement iterations
+	 * are closed and blocks reads and writes until it is done. While it waits, new statement iterations wait as well,
+	 * so a long-running iteration blocks all readers. The wait is limited by {@link #setCompactionLockTimeout(long)},
+	 * after which the compaction is aborted, its files are discarded and the store is left unchanged. A thread that has
+	 * an open iteration over the store should therefore not call this method. If the store is shut down or the process
+	 * is terminated while the files are replaced, the replacement is completed when the store is initialized again.
+	 * <p>
+	 * The compaction runs in the calling thread and can be called from a background thread.
+	 *
+	 * @throws SailException if the store is not initialized, a compaction is already in progress or the compaction
+	 *                       failed or timed out.
+	 */
+	public void compact() throws SailException {
+		NativeSailStore nativeSailStore = this.nativeSailStore;
+		if (nativeSailStore == null) {
+			throw new SailException("Store is not initialized");
+		}
+		nativeSailStore.compact(compactionRateLimit, compactionLockTimeout);
+	}
+
 	/**
 	 * @return Returns the {@link EvaluationStrategy}.
 	 */
@@ -331,7 +442,14 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 
 		logger.debug("Data dir is " + dataDir);
 
+		if (memoryMappedReads && !NioFile.isMemoryMappedReadsSupported()) {
+			logger.warn("Memory-mapped reads are not supported on this platform, reading through file channels");
+		}
+
 		try {
+			// an interrupted compaction must be completed before any of the data files is read
+			NativeStoreCompactor.recover(dataDir);
+
 			Path versionPath = new File(dataDir, "nativerdf.ver").toPath();
 			String version = versionPath.toFile().exists() ? Files.readString(versionPath, StandardCharsets.UTF_8)
 					: null;
@@ -341,7 +459,8 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 						StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
 			}
 			final NativeSailStore mainStore = new NativeSailStore(dataDir, tripleIndexes, forceSync, valueCacheSize,
-					valueIDCacheSize, namespaceCacheSize, namespaceIDCacheSize);
+					valueIDCacheSize, namespaceCacheSize, namespaceIDCacheSize, memoryMappedReads);
+			nativeSailStore = mainStore;
 			this.store = new SnapshotSailStore(mainStore, () -> new MemoryOverflowIntoNativeStore()) {
 
 				@Override
@@ -383,6 +502,7 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 		try {
 			store.close();
 		} finally {
+			nativeSailStore = null;
 			dirLock.release();
 			if (dependentServiceResolver != null) {
 				dependentServiceResolver.shutDown();
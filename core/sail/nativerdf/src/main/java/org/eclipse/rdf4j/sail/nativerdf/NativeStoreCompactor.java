@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.rdf4j.collection.factory.primitive.LongHashSet;
+import org.eclipse.rdf4j.common.io.ByteArrayUtil;
+import org.eclipse.rdf4j.sail.nativerdf.btree.RecordIterator;
+import org.eclipse.rdf4j.sail.nativerdf.datastore.DataStore;
+import org.eclipse.rdf4j.sail.nativerdf.model.NativeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rewrites the values and triple indexes of a native store into fresh files without the space that is taken by removed
+ * values and unused B-tree nodes. Values keep their IDs, so the triple indexes can be copied as they are.
+ * <p>
+ * A compaction runs in two phases. {@link #copyLiveValues()} determines which values are in use by scanning a triple
+ * index and copies these values to a new data store. This phase runs concurrently with reads and writes: the IDs of all
+ * values that are used by triples that are stored in the meantime are recorded by the {@link TripleStore}, and values
+ * that are added in the meantime get IDs above the high-water mark that was taken at the start. {@link #complete()}
+ * must be called while no other operation accesses the stores. It copies the values that were added or used again
+ * during the first phase, writes compacted copies of the triple indexes and then replaces the store's files with the
+ * new ones.
+ * <p>
+ * New files are written to a separate directory. A marker file is written to that directory once all files are
+ * complete, after which the files are moved over the original ones. If this is interrupted, {@link #recover(File)}
+ * finishes moving the files when the store is opened again; without the marker the incomplete files are discarded.
+ */
+class NativeStoreCompactor {
+
+	private static final Logger logger = LoggerFactory.getLogger(NativeStoreCompactor.class);
+
+	/**
+	 * The name of the directory, relative to the data directory, to which compacted files are written.
+	 */
+	static final String COMPACTION_DIR = "compaction";
+
+	/**
+	 * The name of the file that marks the compacted files as complete.
+	 */
+	private static final String READY_MARKER = "compaction.ready";
+
+	/**
+	 * The number of bytes to copy between two checks of the copy rate.
+	 */
+	private static final int THROTTLE_INTERVAL = 64 * 1024;
+
+	private final ValueStore valueStore;
+
+	private final TripleStore tripleStore;
+
+	private final File compactionDir;
+
+	private final long maxBytesPerSecond;
+
+	/**
+	 * The highest value ID at the start of the compaction. All values above it are kept.
+	 */
+	private int highWaterMark;
+
+	/**
+	 * The IDs of the values and namespaces, up to the high-water mark, that are kept.
+	 */
+	private BitSet liveIDs;
+
+	/**
+	 * The IDs of the namespaces in {@link #liveIDs}, which are not interpreted as values.
+	 */
+	private BitSet namespaceIDs;
+
+	private DataStore compactedValues;
+
+	private long copiedBytes;
+
+	private long nextThrottleCheck;
+
+	private long startTime;
+
+	/**
+	 * @param dataDir           The data directory of the store.
+	 * @param valueStore        The value store to compact.
+	 * @param tripleStore       The triple store whose values are kept.
+	 * @param maxBytesPerSecond The maximum rate at which values are copied during the concurrent phase, or 0 to copy
+	 *                          them as fast as possible.
+	 */
+	NativeStoreCompactor(File dataDir, ValueStore valueStore, TripleStore tripleStore, long maxBytesPerSecond) {
+		this.valueStore = valueStore;
+		this.tripleStore = tripleStore;
+		this.compactionDir = new File(dataDir, COMPACTION_DIR);
+		this.maxBytesPerSecond = maxBytesPerSecond;
+	}
+
+	/**
+	 * Copies all values that are in use to a new data store. This can run concurrently with other operations on the
+	 * store.
+	 *
+	 * @throws IOException If an I/O error occurred.
+	 */
+	void copyLiveValues() throws IOException {
+		if (compactionDir.exists()) {
+			FileUtils.deleteDirectory(compactionDir);
+		}
+		if (!compactionDir.mkdir()) {
+			throw new IOException("Unable to create directory " + compactionDir);
+		}
+
+		startTime = System.nanoTime();
+		tripleStore.startRecordingValueIDs();
+		highWaterMark = valueStore.getMaxID();
+		liveIDs = new BitSet(highWaterMark + 1);
+		namespaceIDs = new BitSet();
+
+		try (RecordIterator iter = tripleStore.getAllTriples()) {
+			byte[] record;
+			while ((record = iter.next()) != null) {
+				markLive(ByteArrayUtil.getInt(record, TripleStore.SUBJ_IDX));
+				markLive(ByteArrayUtil.getInt(record, TripleStore.PRED_IDX));
+				markLive(ByteArrayUtil.getInt(record, TripleStore.OBJ_IDX));
+				markLive(ByteArrayUtil.getInt(record, TripleStore.CONTEXT_IDX));
+			}
+		}
+		markReferencedIDs(liveIDs);
+
+		compactedValues = valueStore.createDataStore(compactionDir);
+		for (int id = liveIDs.nextSetBit(1); id >= 0; id = liveIDs.nextSetBit(id + 1)) {
+			copyValue(id);
+			throttle();
+		}
+
+		logger.debug("Copied {} of {} values and namespaces in use", liveIDs.cardinality(), highWaterMark);
+	}
+
+	/**
+	 * Copies the values that were added or used again since {@link #copyLiveValues()} started, writes compacted copies
+	 * of the triple indexes and replaces the files of the store. No other operation may access the stores while this
+	 * method runs.
+	 *
+	 * @throws IOException If an I/O error occurred.
+	 */
+	void complete() throws IOException {
+		int maxID = valueStore.getMaxID();
+
+		// values that are used by triples that were stored during the first phase
+		BitSet usedAgainIDs = new BitSet();
+		for (long id : tripleStore.stopRecordingValueIDs().toArray()) {
+			if (id > 0 && id <= highWaterMark && !liveIDs.get((int) id)) {
+				usedAgainIDs.set((int) id);
+			}
+		}
+		// values that were added during the first phase may refer to older values
+		for (int id = highWaterMark + 1; id <= maxID; id++) {
+			byte[] data = valueStore.getData(id);
+			if (data != null && !ValueStore.isNamespaceData(data)) {
+				markReferencedID(data, usedAgainIDs);
+			}
+		}
+		markReferencedIDs(usedAgainIDs);
+
+		for (int id = usedAgainIDs.nextSetBit(1); id >= 0; id = usedAgainIDs.nextSetBit(id + 1)) {
+			copyValue(id);
+		}
+		liveIDs.or(usedAgainIDs);
+
+		// values that were added during the first phase are all kept, under the same IDs
+		if (compactedValues.getMaxID() < highWaterMark) {
+			compactedValues.storeData(highWaterMark, null);
+		}
+		for (int id = highWaterMark + 1; id <= maxID; id++) {
+			compactedValues.storeData(id, valueStore.getData(id));
+		}
+		compactedValues.sync();
+		compactedValues.close();
+		compactedValues = null;
+
+		tripleStore.writeCompactedIndexes(compactionDir);
+
+		File marker = new File(compactionDir, READY_MARKER);
+		try (FileOutputStream out = new FileOutputStream(marker)) {
+			out.getFD().sync();
+		}
+
+		valueStore.replaceDataFiles(compactionDir);
+		tripleStore.replaceIndexFiles(compactionDir);
+
+		deleteCompactionDir(compactionDir);
+
+		logger.debug("Compaction kept {} of {} values and namespaces", liveIDs.cardinality() + maxID - highWaterMark,
+				maxID);
+	}
+
+	/**
+	 * Discards the results of a compaction that did not complete.
+	 */
+	void abort() {
+		tripleStore.stopRecordingValueIDs();
+		try {
+			try {
+				if (compactedValues != null) {
+					compactedValues.close();
+				}
+			} finally {
+				compactedValues = null;
+				if (!new File(compactionDir, READY_MARKER).exists()) {
+					FileUtils.deleteDirectory(compactionDir);
+				}
+			}
+		} catch (IOException e) {
+			logger.warn("Failed to delete files of aborted compaction", e);
+		}
+	}
+
+	private void markLive(int id) {
+		if (id > 0 && id <= highWaterMark) {
+			liveIDs.set(id);
+		}
+	}
+
+	/**
+	 * Adds the namespaces and datatypes that the values in the supplied set refer to, and the namespaces of these
+	 * datatypes, to the set. Values only refer to values with lower IDs, so visiting the values in descending order
+	 * visits every value that is added.
+	 */
+	private void markReferencedIDs(BitSet ids) throws IOException {
+		for (int id = ids.previousSetBit(highWaterMark); id > 0; id = ids.previousSetBit(id - 1)) {
+			if (!namespaceIDs.get(id)) {
+				byte[] data = valueStore.getData(id);
+				if (data != null) {
+					markReferencedID(data, ids);
+				}
+			}
+		}
+	}
+
+	private void markReferencedID(byte[] data, BitSet ids) {
+		int referencedID = ValueStore.getReferencedID(data);
+		if (referencedID != NativeValue.UNKNOWN_ID && referencedID <= highWaterMark
+				&& !liveIDs.get(referencedID)) {
+			ids.set(referencedID);
+			if (ValueStore.refersToNamespace(data)) {
+				namespaceIDs.set(referencedID);
+			}
+		}
+	}
+
+	private void copyValue(int id) throws IOException {
+		byte[] data = valueStore.getData(id);
+		if (data != null) {
+			compactedValues.storeData(id, data);
+			copiedBytes += data.length;
+		}
+	}
+
+	/**
+	 * Sleeps as long as values are copied faster than the maximum rate.
+	 */
+	private void throttle() throws IOException {
+		if (maxBytesPerSecond <= 0 || copiedBytes < nextThrottleCheck) {
+			return;
+		}
+		nextThrottleCheck = copiedBytes + THROTTLE_INTERVAL;
+
+		long expectedNanos = (long) (copiedBytes * (1_000_000_000.0 / maxBytesPerSecond));
+		long aheadNanos = expectedNanos - (System.nanoTime() - startTime);
+		if (aheadNanos > 0) {
+			try {
+				Thread.sleep(aheadNanos / 1_000_000L, (int) (aheadNanos % 1_000_000L));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Compaction was interrupted", e);
+			}
+		}
+	}
+
+	/**
+	 * Moves a compacted file over the file it replaces. Files that do not exist are assumed to have been moved by an
+	 * earlier, interrupted attempt.
+	 */
+	static void moveFile(File source, File target) throws IOException {
+		if (!source.exists()) {
+			return;
+		}
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Completes or discards a compaction that was interrupted, for example by a crash. Must be called before the stores
+	 * in the data directory are opened.
+	 *
+	 * @param dataDir The data directory of the store.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	static void recover(File dataDir) throws IOException {
+		File compactionDir = new File(dataDir, COMPACTION_DIR);
+		if (!compactionDir.isDirectory()) {
+			return;
+		}
+
+		if (new File(compactionDir, READY_MARKER).exists()) {
+			logger.info("Completing interrupted compaction of {}", dataDir);
+			File[] files = compactionDir.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					if (!file.getName().equals(READY_MARKER)) {
+						moveFile(file, new File(dataDir, file.getName()));
+					}
+				}
+			}
+		} else {
+			logger.info("Discarding incomplete compaction of {}", dataDir);
+		}
+		deleteCompactionDir(compactionDir);
+	}
+
+	private static void deleteCompactionDir(File compactionDir) throws IOException {
+		// the marker is deleted first, so that a partially deleted directory is never mistaken for a complete one
+		Files.deleteIfExists(new File(compactionDir, READY_MARKER).toPath());
+		FileUtils.deleteDirectory(compactionDir);
+	}
+}
@@ -11,6 +11,7 @@
 package org.eclipse.rdf4j.sail.nativerdf;
 
 import org.eclipse.rdf4j.common.concurrent.locks.Lock;
+import org.eclipse.rdf4j.common.transaction.IsolationLevel;
 import org.eclipse.rdf4j.common.transaction.IsolationLevels;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
@@ -156,7 +157,9 @@ public class NativeStoreConnection extends SailSourceConnection implements Threa
 
 	@Override
 	public boolean supportsConcurrentReads() {
-		return getTransactionIsolation() != null && getTransactionIsolation() != IsolationLevels.SERIALIZABLE;
+		// reads outside of a transaction use the default isolation level
+		IsolationLevel isolationLevel = isActive() ? getTransactionIsolation() : nativeStore.getDefaultIsolationLevel();
+		return isolationLevel != null && isolationLevel != IsolationLevels.SERIALIZABLE;
 	}
 
 }
@@ -28,12 +28,15 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
 
+import org.eclipse.rdf4j.collection.factory.primitive.LongHashSet;
+import org.eclipse.rdf4j.collection.factory.primitive.LongLongHashMap;
 import org.eclipse.rdf4j.common.io.ByteArrayUtil;
 import org.eclipse.rdf4j.sail.SailException;
 import org.eclipse.rdf4j.sail.nativerdf.TxnStatusFile.TxnStatus;
 import org.eclipse.rdf4j.sail.nativerdf.btree.BTree;
 import org.eclipse.rdf4j.sail.nativerdf.btree.RecordComparator;
 import org.eclipse.rdf4j.sail.nativerdf.btree.RecordIterator;
+import org.eclipse.rdf4j.sail.nativerdf.btree.RecordSorter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -95,6 +98,12 @@ class TripleStore implements Closeable {
 	// byte 16: additional flag(s)
 	static final int RECORD_LENGTH = 17;
 
+	/**
+	 * The maximum number of records that are sorted in memory when a new index is initialized; larger stores are sorted
+	 * in chunks of this size that are merged from temporary files.
+	 */
+	private static final int REINDEX_CHUNK_SIZE = 1_000_000;
+
 	static final int SUBJ_IDX = 0;
 
 	static final int PRED_IDX = 4;
@@ -149,10 +158,18 @@ class TripleStore implements Closeable {
 
 	private final boolean forceSync;
 
+	private final boolean memoryMappedReads;
+
 	private final TxnStatusFile txnStatusFile;
 
 	private volatile SortedRecordCache updatedTriplesCache;
 
+	/**
+	 * The IDs of the values used by triples that are stored while a compaction is in progress, or <var>null</var> if no
+	 * compaction is in progress.
+	 */
+	private volatile LongHashSet recordedValueIDs;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -162,8 +179,14 @@ class TripleStore implements Closeable {
 	}
 
 	public TripleStore(File dir, String indexSpecStr, boolean forceSync) throws IOException, SailException {
+		this(dir, indexSpecStr, forceSync, false);
+	}
+
+	public TripleStore(File dir, String indexSpecStr, boolean forceSync, boolean memoryMappedReads)
+			throws IOException, SailException {
 		this.dir = dir;
 		this.forceSync = forceSync;
+		this.memoryMappedReads = memoryMappedReads;
 		this.txnStatusFile = new TxnStatusFile(dir);
 
 		File propFile = new File(dir, PROPERTIES_FILE);
@@ -356,25 +379,24 @@ class TripleStore implements Closeable {
 				logger.debug("Initializing new index '{}'...", fieldSeq);
 
 				TripleIndex addedIndex = new TripleIndex(fieldSeq);
-				BTree addedBTree = null;
-				RecordIterator sourceIter = null;
-				try {
-					addedBTree = addedIndex.getBTree();
-					sourceIter = sourceIndex.getBTree().iterateAll();
-					byte[] value;
-					while ((value = sourceIter.next()) != null) {
-						addedBTree.insert(value);
-					}
-				} finally {
-					try {
-						if (sourceIter != null) {
-							sourceIter.close();
-						}
-					} finally {
-						if (addedBTree != null) {
-							addedBTree.sync();
+				BTree addedBTree = addedIndex.getBTree();
+				try (RecordSorter sorter = new RecordSorter(dir, RECORD_LENGTH, addedIndex.tripleComparator,
+						REINDEX_CHUNK_SIZE)) {
+					// sort the records in the order of the new index, so that its B-tree can be built bottom-up
+					try (RecordIterator sourceIter = sourceIndex.getBTree().iterateAll()) {
+						byte[] value;
+						while ((value = sourceIter.next()) != null) {
+							sorter.add(value);
 						}
 					}
+
+					// discard any remains of an interrupted earlier attempt to create this index
+					addedBTree.clear();
+					try (RecordIterator sortedIter = sorter.sorted()) {
+						addedBTree.bulkLoad(sortedIter);
+					}
+				} finally {
+					addedBTree.sync();
 				}
 
 				currentIndexes.put(fieldSeq, addedIndex);
@@ -660,6 +682,79 @@ class TripleStore implements Closeable {
 		}
 	}
 
+	/**
+	 * Starts recording the IDs of the values used by triples that are stored from now on, so that a compaction keeps
+	 * these values even if they were not in use when it scanned the indexes.
+	 */
+	void startRecordingValueIDs() {
+		recordedValueIDs = new LongHashSet();
+	}
+
+	/**
+	 * Stops recording value IDs.
+	 *
+	 * @return The IDs that were recorded since {@link #startRecordingValueIDs()} was called.
+	 */
+	LongHashSet stopRecordingValueIDs() {
+		LongHashSet recordedIDs = recordedValueIDs;
+		recordedValueIDs = null;
+		if (recordedIDs == null) {
+			return new LongHashSet();
+		}
+		synchronized (recordedIDs) {
+			return recordedIDs;
+		}
+	}
+
+	/**
+	 * Gets all triples in the store, regardless of their transaction flags.
+	 */
+	RecordIterator getAllTriples() {
+		return indexes.get(0).getBTree().iterateAll();
+	}
+
+	/**
+	 * Writes a compacted copy of every index to the specified directory, using the same file names. The copies are
+	 * built bottom-up, so they contain no unused nodes and their nodes are filled completely.
+	 *
+	 * @param targetDir The directory to write the copies to.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	void writeCompactedIndexes(File targetDir) throws IOException {
+		for (TripleIndex index : indexes) {
+			TripleIndex compactedIndex = new TripleIndex(targetDir, new String(index.getFieldSeq()));
+			BTree compactedBTree = compactedIndex.getBTree();
+			try {
+				compactedBTree.clear();
+				try (RecordIterator iter = index.getBTree().iterateAll()) {
+					compactedBTree.bulkLoad(iter);
+				}
+				compactedBTree.sync();
+			} finally {
+				compactedBTree.close();
+			}
+		}
+	}
+
+	/**
+	 * Replaces the files of every index with the files of the same name in the specified directory, which must contain
+	 * exactly the same triples.
+	 *
+	 * @param dir The directory containing the replacement files.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	void replaceIndexFiles(File dir) throws IOException {
+		for (int i = 0; i < indexes.size(); i++) {
+			TripleIndex index = indexes.get(i);
+			String fieldSeq = new String(index.getFieldSeq());
+			index.getBTree().close();
+			for (String fileName : index.getFileNames()) {
+				NativeStoreCompactor.moveFile(new File(dir, fileName), new File(this.dir, fileName));
+			}
+			indexes.set(i, new TripleIndex(fieldSeq));
+		}
+	}
+
 	public boolean storeTriple(int subj, int pred, int obj, int context) throws IOException {
 		return storeTriple(subj, pred, obj, context, true);
 	}
@@ -729,6 +824,17 @@ class TripleStore implements Closeable {
 			updatedTriplesCache.storeRecord(data);
 		}
 
+		// checked after the update of the indexes, so that a compaction either records the IDs or finds the triple
+		LongHashSet recordedIDs = recordedValueIDs;
+		if (recordedIDs != null) {
+			synchronized (recordedIDs) {
+				recordedIDs.add(subj);
+				recordedIDs.add(pred);
+				recordedIDs.add(obj);
+				recordedIDs.add(context);
+			}
+		}
+
 		return stAdded;
 	}
 
@@ -812,7 +918,8 @@ class TripleStore implements Closeable {
 			return Collections.emptyMap();
 		}
 
-		final HashMap<Integer, Long> perContextCounts = new HashMap<>();
+		// count per context without boxing, large removals can touch millions of statements
+		final LongLongHashMap perContextCounts = new LongLongHashMap();
 
 		// Store the values that need to be removed in a tmp file and then
 		// iterate over this file to set the REMOVED flag
@@ -823,8 +930,7 @@ class TripleStore implements Closeable {
 					if ((data[FLAG_IDX] & REMOVED_FLAG) == 0) {
 						data[FLAG_IDX] |= REMOVED_FLAG;
 						removedTriplesCache.storeRecord(data);
-						int context = ByteArrayUtil.getInt(data, CONTEXT_IDX);
-						perContextCounts.merge(context, 1L, Long::sum);
+						perContextCounts.addTo(ByteArrayUtil.getInt(data, CONTEXT_IDX), 1);
 					}
 					data = iter.next();
 
@@ -855,7 +961,9 @@ class TripleStore implements Closeable {
 			removedTriplesCache.discard();
 		}
 
-		return perContextCounts;
+		Map<Integer, Long> result = new HashMap<>();
+		perContextCounts.forEach((context, count) -> result.put((int) context, count));
+		return result;
 	}
 
 	private boolean shouldOverflowToDisk(RecordCache removedTriplesCache) {
@@ -1123,14 +1231,24 @@ class TripleStore implements Closeable {
 		private final BTree btree;
 
 		public TripleIndex(String fieldSeq) throws IOException {
+			this(dir, fieldSeq);
+		}
+
+		public TripleIndex(File indexDir, String fieldSeq) throws IOException {
 			tripleComparator = new TripleComparator(fieldSeq);
-			btree = new BTree(dir, getFilenamePrefix(fieldSeq), 2048, RECORD_LENGTH, tripleComparator, forceSync);
+			btree = new BTree(indexDir, getFilenamePrefix(fieldSeq), 2048, RECORD_LENGTH, tripleComparator,
+					forceSync, memoryMappedReads);
 		}
 
 		private String getFilenamePrefix(String fieldSeq) {
 			return "triples-" + fieldSeq;
 		}
 
+		public String[] getFileNames() {
+			String prefix = getFilenamePrefix(new String(getFieldSeq()));
+			return new String[] { prefix + ".dat", prefix + ".alloc" };
+		}
+
 		public char[] getFieldSeq() {
 			return tripleComparator.getFieldSeq();
 		}
@@ -81,14 +81,32 @@ public class ValueStore extends SimpleValueFactory {
 
 	private static final byte LITERAL_VALUE = 0x3; // 0000 0011
 
+	/**
+	 * The assumed average memory footprint of a cached value or namespace in bytes, from which the weight limits of the
+	 * ID-keyed caches are derived.
+	 */
+	private static final int AVERAGE_CACHE_ENTRY_SIZE = 256;
+
+	/**
+	 * The estimated memory footprint of a cached object in bytes, excluding its string content.
+	 */
+	private static final int CACHE_ENTRY_OVERHEAD = 64;
+
 	/*-----------*
 	 * Variables *
 	 *-----------*/
 
 	/**
-	 * Used to do the actual storage of values, once they're translated to byte arrays.
+	 * Used to do the actual storage of values, once they're translated to byte arrays. Replaced by a compacted copy
+	 * when the store is compacted.
 	 */
-	private final DataStore dataStore;
+	private volatile DataStore dataStore;
+
+	private final File dataDir;
+
+	private final boolean forceSync;
+
+	private final boolean memoryMappedReads;
 
 	/**
 	 * Lock manager used to prevent the removal of values over multiple method calls. Note that values can still be
@@ -103,9 +121,9 @@ public class ValueStore extends SimpleValueFactory {
 	private volatile ValueStoreRevision revision;
 
 	/**
-	 * A simple cache containing the [VALUE_CACHE_SIZE] most-recently used values stored by their ID.
+	 * A cache containing about [VALUE_CACHE_SIZE] frequently used values stored by their ID.
 	 */
-	private final ConcurrentCache<Integer, NativeValue> valueCache;
+	private final ConcurrentIdCache<NativeValue> valueCache;
 
 	/**
 	 * A simple cache containing the [ID_CACHE_SIZE] most-recently used value-IDs stored by their value.
@@ -113,9 +131,9 @@ public class ValueStore extends SimpleValueFactory {
 	private final ConcurrentCache<NativeValue, Integer> valueIDCache;
 
 	/**
-	 * A simple cache containing the [NAMESPACE_CACHE_SIZE] most-recently used namespaces stored by their ID.
+	 * A cache containing about [NAMESPACE_CACHE_SIZE] frequently used namespaces stored by their ID.
 	 */
-	private final ConcurrentCache<Integer, String> namespaceCache;
+	private final ConcurrentIdCache<String> namespaceCache;
 
 	/**
 	 * A simple cache containing the [NAMESPACE_ID_CACHE_SIZE] most-recently used namespace-IDs stored by their
@@ -137,12 +155,21 @@ public class ValueStore extends SimpleValueFactory {
 
 	public ValueStore(File dataDir, boolean forceSync, int valueCacheSize, int valueIDCacheSize, int namespaceCacheSize,
 			int namespaceIDCacheSize) throws IOException {
+		this(dataDir, forceSync, valueCacheSize, valueIDCacheSize, namespaceCacheSize, namespaceIDCacheSize, false);
+	}
+
+	public ValueStore(File dataDir, boolean forceSync, int valueCacheSize, int valueIDCacheSize, int namespaceCacheSize,
+			int namespaceIDCacheSize, boolean memoryMappedReads) throws IOException {
 		super();
-		dataStore = new DataStore(dataDir, FILENAME_PREFIX, forceSync);
+		this.dataDir = dataDir;
+		this.forceSync = forceSync;
+		this.memoryMappedReads = memoryMappedReads;
+		dataStore = new DataStore(dataDir, FILENAME_PREFIX, forceSync, memoryMappedReads);
 
-		valueCache = new ConcurrentCache<>(valueCacheSize);
+		valueCache = new ConcurrentIdCache<>(valueCacheSize, (long) valueCacheSize * AVERAGE_CACHE_ENTRY_SIZE);
 		valueIDCache = new ConcurrentCache<>(valueIDCacheSize);
-		namespaceCache = new ConcurrentCache<>(namespaceCacheSize);
+		namespaceCache = new ConcurrentIdCache<>(namespaceCacheSize,
+				(long) namespaceCacheSize * AVERAGE_CACHE_ENTRY_SIZE);
 		namespaceIDCache = new ConcurrentCache<>(namespaceIDCacheSize);
 
 		setNewRevision();
@@ -160,6 +187,15 @@ public class ValueStore extends SimpleValueFactory {
 		revision = new ValueStoreRevision(this);
 	}
 
+	/**
+	 * Gets the cache of values by ID, which keeps statistics about its hits and misses.
+	 *
+	 * @return the value cache
+	 */
+	public ConcurrentIdCache<NativeValue> getValueCache() {
+		return valueCache;
+	}
+
 	public ValueStoreRevision getRevision() {
 		return revision;
 	}
@@ -181,8 +217,7 @@ public class ValueStore extends SimpleValueFactory {
 	 */
 	public NativeValue getValue(int id) throws IOException {
 		// Check value cache
-		Integer cacheID = id;
-		NativeValue resultValue = valueCache.get(cacheID);
+		NativeValue resultValue = valueCache.get(id);
 
 		if (resultValue == null) {
 			// Value not in cache, fetch it from file
@@ -192,7 +227,7 @@ public class ValueStore extends SimpleValueFactory {
 				resultValue = data2value(id, data);
 
 				// Store value in cache
-				valueCache.put(cacheID, resultValue);
+				valueCache.put(id, resultValue, cacheWeight(data));
 			}
 		}
 
@@ -367,6 +402,89 @@ public class ValueStore extends SimpleValueFactory {
 		dataStore.close();
 	}
 
+	/*--------------------*
+	 * Compaction support *
+	 *--------------------*/
+
+	/**
+	 * Returns the maximum value-ID that is in use.
+	 */
+	int getMaxID() {
+		return dataStore.getMaxID();
+	}
+
+	/**
+	 * Gets the stored data of the value or namespace with the specified ID.
+	 *
+	 * @return The data, or <var>null</var> if there is no value with this ID.
+	 */
+	byte[] getData(int id) throws IOException {
+		return dataStore.getData(id);
+	}
+
+	/**
+	 * Gets the ID of the value or namespace that a value refers to: the namespace of an IRI or the datatype of a
+	 * literal. Such values are always stored before the value that refers to them and therefore have a lower ID.
+	 *
+	 * @param data The data of a value.
+	 * @return The ID of the referenced value or namespace, or {@link NativeValue#UNKNOWN_ID} if the value does not
+	 *         refer to any other value.
+	 */
+	static int getReferencedID(byte[] data) {
+		if (data[0] == URI_VALUE || data[0] == LITERAL_VALUE) {
+			return ByteArrayUtil.getInt(data, 1);
+		}
+		return NativeValue.UNKNOWN_ID;
+	}
+
+	/**
+	 * Checks whether the ID returned by {@link #getReferencedID(byte[])} for the supplied data is that of a namespace.
+	 */
+	static boolean refersToNamespace(byte[] data) {
+		return data[0] == URI_VALUE;
+	}
+
+	/**
+	 * Creates a new, empty data store in the specified directory that uses the same file names as this value store.
+	 */
+	DataStore createDataStore(File dir) throws IOException {
+		return new DataStore(dir, FILENAME_PREFIX, forceSync, false);
+	}
+
+	/**
+	 * Replaces the data files of this value store with the files of the same name in the specified directory, which
+	 * must contain the same values under the same IDs. All cached IDs are invalidated, as values that were removed from
+	 * the new files could otherwise be referred to again.
+	 *
+	 * @param dir The directory containing the replacement files.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	void replaceDataFiles(File dir) throws IOException {
+		try {
+			Lock writeLock = lockManager.getWriteLock();
+			try {
+				DataStore oldDataStore = dataStore;
+				File[] files = oldDataStore.getFiles();
+				oldDataStore.close();
+				for (File file : files) {
+					NativeStoreCompactor.moveFile(new File(dir, file.getName()), file);
+				}
+				dataStore = new DataStore(dataDir, FILENAME_PREFIX, forceSync, memoryMappedReads);
+
+				valueCache.clear();
+				valueIDCache.clear();
+				namespaceCache.clear();
+				namespaceIDCache.clear();
+
+				setNewRevision();
+			} finally {
+				writeLock.release();
+			}
+		} catch (InterruptedException e) {
+			throw new IOException("Failed to acquire write lock", e);
+		}
+	}
+
 	/**
 	 * Checks that every value has exactly one ID.
 	 *
@@ -376,6 +494,10 @@ public class ValueStore extends SimpleValueFactory {
 		int maxID = dataStore.getMaxID();
 		for (int id = 1; id <= maxID; id++) {
 			byte[] data = dataStore.getData(id);
+			if (data == null) {
+				// value was removed by a compaction
+				continue;
+			}
 			if (isNamespaceData(data)) {
 				String namespace = data2namespace(data);
 				try {
@@ -521,7 +643,7 @@ public class ValueStore extends SimpleValueFactory {
 		return literalData;
 	}
 
-	private boolean isNamespaceData(byte[] data) {
+	static boolean isNamespaceData(byte[] data) {
 		return data[0] != URI_VALUE && data[0] != BNODE_VALUE && data[0] != LITERAL_VALUE;
 	}
 
@@ -605,15 +727,22 @@ public class ValueStore extends SimpleValueFactory {
 		return id;
 	}
 
+	/**
+	 * Estimates the memory footprint of an object decoded from the specified data, assuming that strings take two bytes
+	 * per character.
+	 */
+	private static int cacheWeight(byte[] data) {
+		return CACHE_ENTRY_OVERHEAD + 2 * data.length;
+	}
+
 	private String getNamespace(int id) throws IOException {
-		Integer cacheID = id;
-		String namespace = namespaceCache.get(cacheID);
+		String namespace = namespaceCache.get(id);
 
 		if (namespace == null) {
 			byte[] namespaceData = dataStore.getData(id);
 			namespace = data2namespace(namespaceData);
 
-			namespaceCache.put(cacheID, namespace);
+			namespaceCache.put(id, namespace, cacheWeight(namespaceData));
 		}
 
 		return namespace;
@@ -736,7 +865,9 @@ public class ValueStore extends SimpleValueFactory {
 		int maxID = valueStore.dataStore.getMaxID();
 		for (int id = 1; id <= maxID; id++) {
 			byte[] data = valueStore.dataStore.getData(id);
-			if (valueStore.isNamespaceData(data)) {
+			if (data == null) {
+				System.out.println("[" + id + "] <removed>");
+			} else if (isNamespaceData(data)) {
 				String ns = valueStore.data2namespace(data);
 				System.out.println("[" + id + "] " + ns);
 			} else {
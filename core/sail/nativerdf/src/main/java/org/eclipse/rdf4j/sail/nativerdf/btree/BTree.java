@@ -241,6 +241,28 @@ public class BTree implements Closeable {
 	 */
 	public BTree(File dataDir, String filenamePrefix, int blockSize, int valueSize, RecordComparator comparator,
 			boolean forceSync) throws IOException {
+		this(dataDir, filenamePrefix, blockSize, valueSize, comparator, forceSync, false);
+	}
+
+	/**
+	 * Creates a new BTree that uses the supplied <var>RecordComparator</var> to compare the values that are or will be
+	 * stored in the B-Tree.
+	 *
+	 * @param dataDir           The directory for the BTree data.
+	 * @param filenamePrefix    The prefix for all files used by this BTree.
+	 * @param blockSize         The size (in bytes) of a file block for a single node. Ideally, the size specified is
+	 *                          the size of a block in the used file system.
+	 * @param valueSize         The size (in bytes) of the fixed-length values that are or will be stored in the B-Tree.
+	 * @param comparator        The <var>RecordComparator</var> to use for determining whether one value is smaller,
+	 *                          larger or equal to another.
+	 * @param forceSync         Flag indicating whether updates should be synced to disk forcefully by calling
+	 *                          {@link FileChannel#force(boolean)}. This may have a severe impact on write performance.
+	 * @param memoryMappedReads Flag indicating whether nodes should be read from a memory mapping of the B-Tree file
+	 *                          instead of through the file channel.
+	 * @throws IOException In case the initialization of the B-Tree file failed.
+	 */
+	public BTree(File dataDir, String filenamePrefix, int blockSize, int valueSize, RecordComparator comparator,
+			boolean forceSync, boolean memoryMappedReads) throws IOException {
 		if (dataDir == null) {
 			throw new IllegalArgumentException("dataDir must not be null");
 		}
@@ -261,7 +283,7 @@ public class BTree implements Closeable {
 		}
 
 		File file = new File(dataDir, filenamePrefix + ".dat");
-		this.nioFile = new NioFile(file);
+		this.nioFile = new NioFile(file, NioFile.RW, memoryMappedReads);
 		this.comparator = comparator;
 		this.forceSync = forceSync;
 
@@ -822,6 +844,126 @@ public class BTree implements Closeable {
 		int overflowNodeID = 0;
 	}
 
+	/**
+	 * Fills an empty B-Tree with the supplied values. Instead of inserting the values one by one, the B-Tree is built
+	 * bottom-up: leaf nodes are filled completely in value order and every value that does not fit in the current leaf
+	 * node is passed on to its parent node, which is filled in the same way. This is considerably faster than repeated
+	 * inserts, which split nodes in half, and produces a B-Tree that uses about half the number of nodes.
+	 *
+	 * @param values An iterator over the values to add, which must be sorted in ascending order according to the
+	 *               RecordComparator of this B-Tree and must not contain duplicates.
+	 * @throws IOException              If an I/O error occurred.
+	 * @throws IllegalStateException    If the B-Tree is not empty.
+	 * @throws IllegalArgumentException If the values are not in ascending order.
+	 */
+	public void bulkLoad(RecordIterator values) throws IOException {
+		btreeLock.writeLock().lock();
+		try {
+			if (rootNodeID != 0) {
+				throw new IllegalStateException("B-Tree must be empty for a bulk load: " + getFile());
+			}
+
+			// the right-most node of each level of the tree that is being built, starting with the leaf level
+			List<Node> levels = new ArrayList<>();
+			try {
+				byte[] previousValue = null;
+				byte[] value;
+				while ((value = values.next()) != null) {
+					if (previousValue != null
+							&& comparator.compareBTreeValues(previousValue, value, 0, valueSize) >= 0) {
+						throw new IllegalArgumentException("Values for bulk load are not in ascending order in "
+								+ getFile());
+					}
+					previousValue = value;
+
+					if (levels.isEmpty()) {
+						levels.add(createNewNode());
+					}
+
+					Node leafNode = levels.get(0);
+					if (leafNode.isFull()) {
+						// the value becomes the separator between the full leaf node and a new one
+						Node newLeafNode = createNewNode();
+						addBulkLoadSeparator(levels, 1, value, leafNode.getID(), newLeafNode.getID());
+						levels.set(0, newLeafNode);
+						leafNode.release();
+					} else {
+						leafNode.insertValueNodeIDPair(leafNode.getValueCount(), value, 0);
+					}
+				}
+
+				balanceBulkLoadedNodes(levels);
+
+				if (!levels.isEmpty()) {
+					rootNodeID = levels.get(levels.size() - 1).getID();
+					height = levels.size();
+					writeFileHeader();
+				}
+			} finally {
+				for (Node node : levels) {
+					node.release();
+				}
+			}
+		} finally {
+			btreeLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds a separator value to the right-most node at the specified level of a B-Tree that is being bulk loaded,
+	 * creating a new node on that level if the current one is full.
+	 *
+	 * @param levels      The right-most node of each level.
+	 * @param level       The level to add the value to.
+	 * @param value       The separator value.
+	 * @param leftNodeID  The ID of the node with values smaller than the separator.
+	 * @param rightNodeID The ID of the node with values larger than the separator.
+	 */
+	private void addBulkLoadSeparator(List<Node> levels, int level, byte[] value, int leftNodeID, int rightNodeID)
+			throws IOException {
+		if (level == levels.size()) {
+			// the tree grows by one level
+			Node newRootNode = createNewNode();
+			newRootNode.setChildNodeID(0, leftNodeID);
+			levels.add(newRootNode);
+		}
+
+		Node node = levels.get(level);
+		if (node.isFull()) {
+			Node newNode = createNewNode();
+			newNode.setChildNodeID(0, rightNodeID);
+			addBulkLoadSeparator(levels, level + 1, value, node.getID(), newNode.getID());
+			levels.set(level, newNode);
+			node.release();
+		} else {
+			node.insertValueNodeIDPair(node.getValueCount(), value, rightNodeID);
+		}
+	}
+
+	/**
+	 * Moves values from their left siblings into the right-most nodes of a bulk loaded B-Tree that contain less than
+	 * the minimum number of values. Levels are processed top-down so that the parent of each node has at least one
+	 * value, and hence a left sibling for the node, once the node is balanced. The left siblings are full and can
+	 * therefore always give up enough values.
+	 */
+	private void balanceBulkLoadedNodes(List<Node> levels) throws IOException {
+		for (int level = levels.size() - 2; level >= 0; level--) {
+			Node node = levels.get(level);
+			if (node.getValueCount() < minValueCount) {
+				Node parentNode = levels.get(level + 1);
+				int childIdx = parentNode.getValueCount();
+				Node leftSibling = parentNode.getChildNode(childIdx - 1);
+				try {
+					while (node.getValueCount() < minValueCount) {
+						parentNode.rotateRight(childIdx, leftSibling, node);
+					}
+				} finally {
+					leftSibling.release();
+				}
+			}
+		}
+	}
+
 	/**
 	 * Removes the value that matches the specified key from the B-Tree.
 	 *
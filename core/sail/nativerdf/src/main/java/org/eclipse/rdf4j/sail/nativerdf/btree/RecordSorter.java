@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf.btree;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts fixed-length records according to a {@link RecordComparator}, for example to {@link BTree#bulkLoad bulk load} a
+ * BTree. Records are collected in memory in chunks of a configurable size; full chunks are sorted and written to
+ * temporary files, which are merged when the sorted records are requested.
+ */
+public class RecordSorter implements Closeable {
+
+	private final File tmpDir;
+
+	private final int recordSize;
+
+	private final Comparator<byte[]> comparator;
+
+	private final int chunkSize;
+
+	private List<byte[]> chunk = new ArrayList<>();
+
+	private final List<File> runFiles = new ArrayList<>();
+
+	/**
+	 * @param tmpDir     The directory in which to create temporary files.
+	 * @param recordSize The length of the records.
+	 * @param comparator The comparator that determines the order of the records.
+	 * @param chunkSize  The maximum number of records to keep in memory.
+	 */
+	public RecordSorter(File tmpDir, int recordSize, RecordComparator comparator, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunk size must be larger than 0");
+		}
+		this.tmpDir = tmpDir;
+		this.recordSize = recordSize;
+		this.comparator = (a, b) -> comparator.compareBTreeValues(a, b, 0, recordSize);
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Adds a record to be sorted.
+	 */
+	public void add(byte[] record) throws IOException {
+		assert record.length == recordSize : "record has length " + record.length + ", expected " + recordSize;
+		chunk.add(record);
+		if (chunk.size() >= chunkSize) {
+			writeRun();
+		}
+	}
+
+	/**
+	 * Returns an iterator over all added records in ascending order. No more records can be added afterwards.
+	 */
+	public RecordIterator sorted() throws IOException {
+		if (runFiles.isEmpty()) {
+			chunk.sort(comparator);
+			List<byte[]> records = chunk;
+			chunk = null;
+			return new RecordIterator() {
+
+				private int index;
+
+				@Override
+				public byte[] next() {
+					return index < records.size() ? records.get(index++) : null;
+				}
+
+				@Override
+				public void set(byte[] record) {
+					throw new UnsupportedOperationException();
+				}
+
+				@Override
+				public void close() {
+					index = records.size();
+				}
+			};
+		}
+
+		if (!chunk.isEmpty()) {
+			writeRun();
+		}
+		chunk = null;
+		return new MergeIterator();
+	}
+
+	/**
+	 * Deletes any temporary files.
+	 */
+	@Override
+	public void close() throws IOException {
+		chunk = null;
+		for (File runFile : runFiles) {
+			runFile.delete();
+		}
+		runFiles.clear();
+	}
+
+	private void writeRun() throws IOException {
+		chunk.sort(comparator);
+		File runFile = File.createTempFile("sort", ".run", tmpDir);
+		runFiles.add(runFile);
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(runFile), 1 << 16))) {
+			for (byte[] record : chunk) {
+				out.write(record);
+			}
+		}
+		chunk.clear();
+	}
+
+	/**
+	 * Merges the sorted temporary files.
+	 */
+	private class MergeIterator implements RecordIterator {
+
+		private final PriorityQueue<Run> queue = new PriorityQueue<>(
+				(a, b) -> comparator.compare(a.current, b.current));
+
+		private final List<Run> runs = new ArrayList<>();
+
+		MergeIterator() throws IOException {
+			try {
+				for (File runFile : runFiles) {
+					Run run = new Run(runFile);
+					runs.add(run);
+					if (run.advance()) {
+						queue.add(run);
+					}
+				}
+			} catch (IOException e) {
+				close();
+				throw e;
+			}
+		}
+
+		@Override
+		public byte[] next() throws IOException {
+			Run run = queue.poll();
+			if (run == null) {
+				return null;
+			}
+			byte[] record = run.current;
+			if (run.advance()) {
+				queue.add(run);
+			}
+			return record;
+		}
+
+		@Override
+		public void set(byte[] record) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() throws IOException {
+			queue.clear();
+			IOException exception = null;
+			for (Run run : runs) {
+				try {
+					run.in.close();
+				} catch (IOException e) {
+					exception = e;
+				}
+			}
+			runs.clear();
+			if (exception != null) {
+				throw exception;
+			}
+		}
+	}
+
+	private class Run {
+
+		final DataInputStream in;
+
+		byte[] current;
+
+		Run(File runFile) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(runFile), 1 << 16));
+		}
+
+		boolean advance() throws IOException {
+			byte[] record = new byte[recordSize];
+			try {
+				in.readFully(record);
+			} catch (EOFException e) {
+				current = null;
+				return false;
+			}
+			current = record;
+			return true;
+		}
+	}
+}
@@ -22,6 +22,7 @@ import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.util.Configurations;
 import org.eclipse.rdf4j.model.util.ModelException;
+import org.eclipse.rdf4j.model.util.Models;
 import org.eclipse.rdf4j.model.vocabulary.CONFIG;
 import org.eclipse.rdf4j.sail.base.config.BaseSailConfig;
 import org.eclipse.rdf4j.sail.config.SailConfigException;
@@ -33,6 +34,8 @@ public class NativeStoreConfig extends BaseSailConfig {
 
 	private String tripleIndexes;
 	private boolean forceSync = false;
+
+	private boolean memoryMappedReads = false;
 	private int valueCacheSize = -1;
 	private int valueIDCacheSize = -1;
 	private int namespaceCacheSize = -1;
@@ -72,6 +75,17 @@ public class NativeStoreConfig extends BaseSailConfig {
 		this.forceSync = forceSync;
 	}
 
+	public boolean getMemoryMappedReads() {
+		return memoryMappedReads;
+	}
+
+	/**
+	 * Specifies whether the store should read its data files through memory mappings instead of file channel reads.
+	 */
+	public void setMemoryMappedReads(boolean memoryMappedReads) {
+		this.memoryMappedReads = memoryMappedReads;
+	}
+
 	public int getValueCacheSize() {
 		return valueCacheSize;
 	}
@@ -119,6 +133,9 @@ public class NativeStoreConfig extends BaseSailConfig {
 		if (forceSync) {
 			m.add(implNode, CONFIG.Native.forceSync, literal(forceSync));
 		}
+		if (memoryMappedReads) {
+			m.add(implNode, CONFIG.Native.memoryMappedReads, literal(memoryMappedReads));
+		}
 		if (valueCacheSize >= 0) {
 			m.add(implNode, CONFIG.Native.valueCacheSize, literal(valueCacheSize));
 		}
@@ -181,6 +198,17 @@ public class NativeStoreConfig extends BaseSailConfig {
 						}
 					});
 
+			Models.objectLiteral(m.getStatements(implNode, CONFIG.Native.memoryMappedReads, null))
+					.ifPresent(lit -> {
+						try {
+							setMemoryMappedReads(lit.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException(
+									"Boolean value required for " + CONFIG.Native.memoryMappedReads
+											+ " property, found " + lit);
+						}
+					});
+
 			Configurations.getLiteralValue(m, implNode, CONFIG.Native.valueCacheSize, VALUE_CACHE_SIZE)
 					.ifPresent(lit -> {
 						try {
@@ -67,7 +67,16 @@ public class DataFile implements Closeable {
 	}
 
 	public DataFile(File file, boolean forceSync) throws IOException {
-		this.nioFile = new NioFile(file);
+		this(file, forceSync, false);
+	}
+
+	/**
+	 * @param file              the data file
+	 * @param forceSync         whether updates should be synced to disk forcefully
+	 * @param memoryMappedReads whether data should be read from a memory mapping of the file
+	 */
+	public DataFile(File file, boolean forceSync, boolean memoryMappedReads) throws IOException {
+		this.nioFile = new NioFile(file, NioFile.RW, memoryMappedReads);
 		this.forceSync = forceSync;
 
 		try {
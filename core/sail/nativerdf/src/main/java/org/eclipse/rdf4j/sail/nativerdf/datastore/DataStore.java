@@ -44,9 +44,14 @@ public class DataStore implements Closeable {
 	}
 
 	public DataStore(File dataDir, String filePrefix, boolean forceSync) throws IOException {
-		dataFile = new DataFile(new File(dataDir, filePrefix + ".dat"), forceSync);
-		idFile = new IDFile(new File(dataDir, filePrefix + ".id"), forceSync);
-		hashFile = new HashFile(new File(dataDir, filePrefix + ".hash"), forceSync);
+		this(dataDir, filePrefix, forceSync, false);
+	}
+
+	public DataStore(File dataDir, String filePrefix, boolean forceSync, boolean memoryMappedReads)
+			throws IOException {
+		dataFile = new DataFile(new File(dataDir, filePrefix + ".dat"), forceSync, memoryMappedReads);
+		idFile = new IDFile(new File(dataDir, filePrefix + ".id"), forceSync, memoryMappedReads);
+		hashFile = new HashFile(new File(dataDir, filePrefix + ".hash"), forceSync, 512, memoryMappedReads);
 	}
 
 	/*---------*
@@ -137,6 +142,44 @@ public class DataStore implements Closeable {
 		return id;
 	}
 
+	/**
+	 * Stores the supplied value under a specific ID. This is used to rebuild a data store while preserving the IDs of
+	 * another one: IDs that are skipped over are reserved without any data, and <var>data</var> may be <var>null</var>
+	 * to only reserve an ID. Unlike {@link #storeData(byte[])}, this method does not check whether the data is already
+	 * present.
+	 *
+	 * @param id   The ID to store the data under, must be larger than 0.
+	 * @param data The data to store, or <var>null</var>.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	public void storeData(int id, byte[] data) throws IOException {
+		assert id > 0 : "id must be larger than 0, is: " + id;
+
+		while (idFile.getMaxID() < id - 1) {
+			idFile.storeOffset(0L);
+		}
+
+		long offset = data != null ? dataFile.storeData(data) : 0L;
+		if (id > idFile.getMaxID()) {
+			idFile.storeOffset(offset);
+		} else {
+			idFile.setOffset(id, offset);
+		}
+
+		if (data != null) {
+			hashFile.storeID(getDataHash(data), id);
+		}
+	}
+
+	/**
+	 * Gets the files in which this DataStore keeps its data.
+	 *
+	 * @return The data, ID and hash files.
+	 */
+	public File[] getFiles() {
+		return new File[] { dataFile.getFile(), idFile.getFile(), hashFile.getFile() };
+	}
+
 	/**
 	 * Synchronizes any recent changes to the data to disk.
 	 *
@@ -102,7 +102,17 @@ public class HashFile implements Closeable {
 	}
 
 	public HashFile(File file, boolean forceSync, int initialSize) throws IOException {
-		this.nioFile = new NioFile(file);
+		this(file, forceSync, initialSize, false);
+	}
+
+	/**
+	 * @param file              the hash file
+	 * @param forceSync         whether updates should be synced to disk forcefully
+	 * @param initialSize       the initial number of items the hash file should be able to hold
+	 * @param memoryMappedReads whether buckets should be read from a memory mapping of the file
+	 */
+	public HashFile(File file, boolean forceSync, int initialSize, boolean memoryMappedReads) throws IOException {
+		this.nioFile = new NioFile(file, NioFile.RW, memoryMappedReads);
 		this.forceSync = forceSync;
 		loadFactor = 0.75f;
 
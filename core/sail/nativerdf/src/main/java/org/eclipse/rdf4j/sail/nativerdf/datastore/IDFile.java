@@ -90,7 +90,16 @@ public class IDFile implements Closeable {
 	}
 
 	public IDFile(File file, boolean forceSync) throws IOException {
-		this.nioFile = new NioFile(file);
+		this(file, forceSync, false);
+	}
+
+	/**
+	 * @param file              the ID file
+	 * @param forceSync         whether updates should be synced to disk forcefully
+	 * @param memoryMappedReads whether offsets should be read from a memory mapping of the file
+	 */
+	public IDFile(File file, boolean forceSync, boolean memoryMappedReads) throws IOException {
+		this.nioFile = new NioFile(file, NioFile.RW, memoryMappedReads);
 		this.forceSync = forceSync;
 
 		try {
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentIdCacheTest {
+
+	@Test
+	public void testGetAndPut() {
+		ConcurrentIdCache<String> cache = new ConcurrentIdCache<>(64, 64 * 100);
+
+		assertNull(cache.get(1));
+		cache.put(1, "one", 10);
+		cache.put(2, "two", 10);
+		assertEquals("one", cache.get(1));
+		assertEquals("two", cache.get(2));
+
+		cache.put(1, "uno", 20);
+		assertEquals("uno", cache.get(1));
+
+		assertEquals(2, cache.size());
+		assertEquals(30, cache.getWeight());
+		assertEquals(3, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void testCapacity() {
+		ConcurrentIdCache<String> cache = new ConcurrentIdCache<>(512, Long.MAX_VALUE);
+
+		for (int i = 0; i < 10_000; i++) {
+			cache.get(i);
+			cache.put(i, "value" + i, 1);
+		}
+
+		assertTrue(cache.size() <= 512);
+		assertTrue(cache.getEvictionCount() > 0);
+		assertEquals(cache.size(), cache.getWeight());
+	}
+
+	@Test
+	public void testWeightLimit() {
+		ConcurrentIdCache<String> cache = new ConcurrentIdCache<>(1024, 10_000);
+
+		for (int i = 0; i < 10_000; i++) {
+			cache.get(i);
+			cache.put(i, "value" + i, 100);
+			assertTrue(cache.getWeight() <= 10_000);
+		}
+		assertTrue(cache.size() <= 100);
+
+		// entries that exceed the limit on their own are never cached
+		cache.put(-1, "large", Integer.MAX_VALUE);
+		assertNull(cache.get(-1));
+	}
+
+	@Test
+	public void testFrequentEntriesSurviveScan() {
+		ConcurrentIdCache<String> cache = new ConcurrentIdCache<>(1024, Long.MAX_VALUE);
+
+		for (int round = 0; round < 10; round++) {
+			for (int i = 0; i < 32; i++) {
+				getOrLoad(cache, i);
+			}
+		}
+		for (int i = 1000; i < 100_000; i++) {
+			getOrLoad(cache, i);
+			getOrLoad(cache, i % 32);
+		}
+
+		long missCount = cache.getMissCount();
+		for (int i = 0; i < 32; i++) {
+			assertEquals("value" + i, getOrLoad(cache, i));
+		}
+		assertEquals(missCount, cache.getMissCount());
+	}
+
+	@Test
+	public void testClear() {
+		ConcurrentIdCache<String> cache = new ConcurrentIdCache<>(64, 64 * 100);
+
+		for (int i = 0; i < 64; i++) {
+			cache.put(i, "value" + i, 10);
+		}
+		cache.clear();
+
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+		assertNull(cache.get(1));
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		ConcurrentIdCache<String> cache = new ConcurrentIdCache<>(256, 256 * 50);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				long seed = t;
+				futures.add(executor.submit(() -> {
+					Random random = new Random(seed);
+					for (int i = 0; i < 100_000; i++) {
+						int id = (int) Math.abs(random.nextGaussian() * 100);
+						assertEquals("value" + id, getOrLoad(cache, id));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+
+		assertEquals(800_000, cache.getHitCount() + cache.getMissCount());
+		assertTrue(cache.getHitCount() > cache.getMissCount());
+		assertTrue(cache.getWeight() <= 256 * 50);
+	}
+
+	@Test
+	public void testConcurrentAccessesSaturateCounters() throws Exception {
+		ConcurrentIdCache<String> cache = new ConcurrentIdCache<>(1 << 16, Long.MAX_VALUE);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 100_000; i++) {
+						cache.get(1);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+
+		assertEquals(15, cache.frequency(1));
+		assertEquals(0, cache.frequency(2));
+	}
+
+	@Test
+	public void testPutReplacesEntryBehindFreeSlot() {
+		// a single set of slots
+		ConcurrentIdCache<String> cache = new ConcurrentIdCache<>(ConcurrentIdCache.WAYS, 100);
+
+		cache.put(1, "one", 10);
+		cache.put(2, "two", 10);
+		// exceeds the weight limit, which evicts the entry in the first slot
+		cache.put(3, "three", 90);
+		assertNull(cache.get(1));
+
+		cache.put(2, "dos", 10);
+
+		assertEquals("dos", cache.get(2));
+		assertEquals(2, cache.size());
+		assertEquals(100, cache.getWeight());
+	}
+
+	private static String getOrLoad(ConcurrentIdCache<String> cache, int id) {
+		String value = cache.get(id);
+		if (value == null) {
+			value = "value" + id;
+			cache.put(id, value, 50);
+		}
+		return value;
+	}
+}
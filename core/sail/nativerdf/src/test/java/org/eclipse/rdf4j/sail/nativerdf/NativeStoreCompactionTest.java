@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.eclipse.rdf4j.sail.SailException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NativeStoreCompactionTest {
+
+	private static final String NS = "http://example.org/";
+
+	@TempDir
+	File dataDir;
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private NativeStore store;
+
+	@BeforeEach
+	public void setUp() {
+		store = new NativeStore(dataDir, "spoc,posc");
+		store.init();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		store.shutDown();
+	}
+
+	@Test
+	public void testCompactReclaimsSpaceOfRemovedValues() throws Exception {
+		Set<Statement> expected = new HashSet<>();
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			for (int i = 0; i < 2000; i++) {
+				Statement st = createStatement(i);
+				con.addStatement(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext());
+				if (i % 10 == 0) {
+					expected.add(st);
+				}
+			}
+			con.commit();
+
+			con.begin();
+			for (int i = 0; i < 2000; i++) {
+				Statement st = createStatement(i);
+				if (i % 10 != 0) {
+					con.removeStatements(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext());
+				}
+			}
+			con.commit();
+		}
+
+		long valuesSize = new File(dataDir, "values.dat").length();
+		long indexSize = new File(dataDir, "triples-posc.dat").length();
+
+		store.compact();
+
+		assertTrue(new File(dataDir, "values.dat").length() < valuesSize / 2);
+		assertTrue(new File(dataDir, "triples-posc.dat").length() < indexSize);
+		assertFalse(new File(dataDir, NativeStoreCompactor.COMPACTION_DIR).exists());
+		assertEquals(expected, getStatements());
+
+		// removed values can be added again
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			Statement st = createStatement(1);
+			con.addStatement(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext());
+			expected.add(st);
+			con.commit();
+		}
+		assertEquals(expected, getStatements());
+
+		store.shutDown();
+		store.init();
+		assertEquals(expected, getStatements());
+	}
+
+	@Test
+	public void testCompactKeepsValuesOfEmptyStore() throws Exception {
+		store.compact();
+
+		Statement st = createStatement(0);
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.addStatement(st.getSubject(), st.getPredicate(), st.getObject());
+			con.commit();
+		}
+		store.compact();
+
+		assertEquals(Set.of(st), getStatements());
+	}
+
+	@Test
+	public void testInitCompletesInterruptedCompaction() throws Exception {
+		Statement st = createStatement(0);
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.addStatement(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext());
+			con.commit();
+		}
+		store.shutDown();
+
+		// simulate a compaction that was interrupted after its files were complete
+		File compactionDir = new File(dataDir, NativeStoreCompactor.COMPACTION_DIR);
+		compactionDir.mkdir();
+		for (String fileName : new String[] { "values.dat", "values.id", "values.hash" }) {
+			Files.move(new File(dataDir, fileName).toPath(), new File(compactionDir, fileName).toPath());
+		}
+		new File(compactionDir, "compaction.ready").createNewFile();
+
+		store.init();
+
+		assertFalse(compactionDir.exists());
+		assertEquals(Set.of(st), getStatements());
+	}
+
+	@Test
+	public void testInitDiscardsIncompleteCompaction() throws Exception {
+		Statement st = createStatement(0);
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.addStatement(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext());
+			con.commit();
+		}
+		store.shutDown();
+
+		File compactionDir = new File(dataDir, NativeStoreCompactor.COMPACTION_DIR);
+		compactionDir.mkdir();
+		Files.write(new File(compactionDir, "values.dat").toPath(), new byte[] { 1, 2, 3 });
+
+		store.init();
+
+		assertFalse(compactionDir.exists());
+		assertEquals(Set.of(st), getStatements());
+	}
+
+	@Test
+	public void testCompactIsNotStarvedByOverlappingReaders() throws Exception {
+		Set<Statement> expected = new HashSet<>();
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			for (int i = 0; i < 100; i++) {
+				Statement st = createStatement(i);
+				con.addStatement(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext());
+				expected.add(st);
+			}
+			con.commit();
+		}
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		ExecutorService executor = Executors.newFixedThreadPool(5);
+		try {
+			List<Future<?>> readers = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				readers.add(executor.submit(() -> {
+					while (running.get()) {
+						try (SailConnection con = store.getConnection();
+								CloseableIteration<? extends Statement> iter = con.getStatements(null, null, null,
+										false)) {
+							iter.hasNext();
+							Thread.sleep(5);
+						}
+					}
+					return null;
+				}));
+			}
+			Thread.sleep(50);
+
+			Future<?> compaction = executor.submit(() -> {
+				store.compact();
+				return null;
+			});
+			try {
+				compaction.get(30, TimeUnit.SECONDS);
+			} finally {
+				running.set(false);
+			}
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+
+		assertEquals(expected, getStatements());
+	}
+
+	@Test
+	public void testCompactTimesOutWaitingForOpenIteration() throws Exception {
+		Statement st = createStatement(0);
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			con.addStatement(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext());
+			con.commit();
+		}
+		store.setCompactionLockTimeout(200);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try (SailConnection con = store.getConnection();
+				CloseableIteration<? extends Statement> iter = con.getStatements(null, null, null, false)) {
+			Future<?> compaction = executor.submit(() -> {
+				store.compact();
+				return null;
+			});
+			ExecutionException e = assertThrows(ExecutionException.class,
+					() -> compaction.get(30, TimeUnit.SECONDS));
+			assertTrue(e.getCause() instanceof SailException);
+
+			// the open iteration and new readers are not affected by the aborted compaction
+			assertTrue(iter.hasNext());
+			assertEquals(Set.of(st), getStatements());
+			assertFalse(new File(dataDir, NativeStoreCompactor.COMPACTION_DIR).exists());
+		} finally {
+			executor.shutdown();
+		}
+
+		store.compact();
+		assertEquals(Set.of(st), getStatements());
+	}
+
+	private Statement createStatement(int i) {
+		IRI subj = vf.createIRI(NS, "subject" + i);
+		IRI context = i % 3 == 0 ? null : vf.createIRI(NS, "graph" + i % 7);
+		if (i % 2 == 0) {
+			return vf.createStatement(subj, RDFS.LABEL, vf.createLiteral("label " + i, "en"), context);
+		}
+		return vf.createStatement(subj, RDFS.COMMENT, vf.createLiteral(String.valueOf(i), XSD.INTEGER), context);
+	}
+
+	private Set<Statement> getStatements() {
+		Set<Statement> statements = new HashSet<>();
+		try (SailConnection con = store.getConnection();
+				CloseableIteration<? extends Statement> iter = con.getStatements(null, null, null, false)) {
+			while (iter.hasNext()) {
+				Statement st = iter.next();
+				statements.add(vf.createStatement(st.getSubject(), st.getPredicate(), st.getObject(),
+						st.getContext()));
+			}
+		}
+		return statements;
+	}
+}
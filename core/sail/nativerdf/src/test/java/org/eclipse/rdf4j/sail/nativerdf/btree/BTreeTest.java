@@ -10,7 +10,13 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.sail.nativerdf.btree;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -138,6 +144,95 @@ public class BTreeTest {
 		}
 	}
 
+	@Test
+	public void testBulkLoad() throws Exception {
+		btree.bulkLoad(iterate(TEST_VALUES));
+
+		assertValues(TEST_VALUES);
+		for (byte[] value : TEST_VALUES) {
+			assertArrayEquals(value, btree.get(value));
+		}
+
+		// the bulk loaded tree must remain valid under updates
+		for (byte[] value : RANDOMIZED_TEST_VALUES) {
+			btree.remove(value);
+		}
+		assertNull(btree.iterateAll().next());
+		for (byte[] value : RANDOMIZED_TEST_VALUES) {
+			btree.insert(value);
+		}
+		assertValues(TEST_VALUES);
+	}
+
+	@Test
+	public void testBulkLoadAllSizes() throws Exception {
+		for (int size = 0; size <= TEST_VALUES.size(); size++) {
+			List<byte[]> values = TEST_VALUES.subList(0, size);
+			btree.clear();
+			btree.bulkLoad(iterate(values));
+			assertValues(values);
+
+			for (byte[] value : values) {
+				assertArrayEquals(value, btree.remove(value));
+			}
+			assertNull(btree.iterateAll().next());
+		}
+	}
+
+	@Test
+	public void testBulkLoadUsesLessSpace() throws Exception {
+		testAddAscending();
+		btree.sync();
+		long insertedSize = btree.getFile().length();
+
+		btree.clear();
+		btree.bulkLoad(iterate(TEST_VALUES));
+		btree.sync();
+
+		assertTrue(btree.getFile().length() < insertedSize);
+	}
+
+	@Test
+	public void testBulkLoadRequiresAscendingOrder() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> btree.bulkLoad(iterate(RANDOMIZED_TEST_VALUES)));
+	}
+
+	@Test
+	public void testBulkLoadRequiresEmptyTree() throws Exception {
+		btree.insert(TEST_VALUES.get(0));
+		assertThrows(IllegalStateException.class, () -> btree.bulkLoad(iterate(TEST_VALUES)));
+	}
+
+	private void assertValues(List<byte[]> expected) throws IOException {
+		try (RecordIterator iter = btree.iterateAll()) {
+			for (byte[] value : expected) {
+				assertArrayEquals(value, iter.next());
+			}
+			assertNull(iter.next());
+		}
+	}
+
+	private static RecordIterator iterate(List<byte[]> values) {
+		return new RecordIterator() {
+
+			private int index;
+
+			@Override
+			public byte[] next() {
+				return index < values.size() ? values.get(index++) : null;
+			}
+
+			@Override
+			public void set(byte[] record) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
 	@Test
 	public void testNewAndClear() throws Exception {
 		btree.clear();
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf.btree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RecordSorterTest {
+
+	@TempDir
+	File tmpDir;
+
+	@Test
+	public void testSortInMemory() throws Exception {
+		testSort(1000, 10_000);
+	}
+
+	@Test
+	public void testSortWithTemporaryFiles() throws Exception {
+		testSort(1000, 64);
+	}
+
+	@Test
+	public void testTemporaryFilesAreDeleted() throws Exception {
+		testSort(100, 10);
+		assertEquals(0, tmpDir.list().length);
+	}
+
+	private void testSort(int count, int chunkSize) throws Exception {
+		List<byte[]> records = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			records.add(new byte[] { (byte) (i >> 8), (byte) i });
+		}
+		List<byte[]> shuffled = new ArrayList<>(records);
+		Collections.shuffle(shuffled, new Random(42));
+
+		try (RecordSorter sorter = new RecordSorter(tmpDir, 2, new DefaultRecordComparator(), chunkSize)) {
+			for (byte[] record : shuffled) {
+				sorter.add(record);
+			}
+
+			try (RecordIterator iter = sorter.sorted()) {
+				for (byte[] record : records) {
+					assertArrayEquals(record, iter.next());
+				}
+				assertNull(iter.next());
+			}
+		}
+	}
+}